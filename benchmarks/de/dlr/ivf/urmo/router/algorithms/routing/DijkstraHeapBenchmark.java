@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.routing;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** @class DijkstraHeapBenchmark
+ * @brief Compares the DijkstraHeap against a java.util.PriorityQueue within a Dijkstra search
+ * 
+ * Both variants run a full one-to-all search on the same synthetic, randomly
+ * connected graph. The PriorityQueue variant updates an improved label by
+ * removing the prior entry and adding the new one, as BoundDijkstraBase did
+ * before; the DijkstraHeap variant uses decrease-key (@see DijkstraHeap#replace).
+ * 
+ * Run using "mvn -P benchmark package" and
+ * "java -cp target/UrMoAC-<version>-shaded.jar org.openjdk.jmh.Main DijkstraHeapBenchmark".
+ * @author Daniel Krajzewicz
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DijkstraHeapBenchmark {
+	/// @brief The number of nodes of the synthetic graph
+	@Param({"10000", "100000"})
+	public int nodeNumber;
+	/// @brief The number of outgoing edges per node
+	@Param({"4"})
+	public int degree;
+	/// @brief The targets of the edges, degree entries per node
+	private int[] targets;
+	/// @brief The travel times of the edges, degree entries per node
+	private double[] tts;
+	/// @brief The route weighting function used to order the entries
+	private AbstractRouteWeightFunction measure;
+	/// @brief The mode the entries are built for
+	private de.dlr.ivf.urmo.router.modes.Mode mode;
+	
+	
+	/** @brief Builds the synthetic graph
+	 * 
+	 * Nodes are connected to near successors in their numbering and, with a lower
+	 * probability, to arbitrary nodes, so that labels are improved repeatedly.
+	 */
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		targets = new int[nodeNumber*degree];
+		tts = new double[nodeNumber*degree];
+		for(int i=0; i<nodeNumber; ++i) {
+			for(int j=0; j<degree; ++j) {
+				int target = random.nextInt(10)<8 ? (i+1+random.nextInt(50)) % nodeNumber : random.nextInt(nodeNumber);
+				targets[i*degree+j] = target;
+				tts[i*degree+j] = 1. + random.nextDouble() * 100.;
+			}
+		}
+		measure = new RouteWeightFunction_TT_ModeSpeed();
+		mode = new de.dlr.ivf.urmo.router.modes.Mode(1, "foot", 3.6, 0, 0, 0, 0);
+	}
+	
+	
+	/** @brief Runs the search using a java.util.PriorityQueue
+	 * @return The sum of the travel times to all nodes
+	 */
+	@Benchmark
+	public double priorityQueue() {
+		PriorityQueue<DijkstraEntry> next = new PriorityQueue<>(measure);
+		DijkstraEntry[] labels = new DijkstraEntry[nodeNumber];
+		boolean[] settled = new boolean[nodeNumber];
+		labels[0] = buildEntry(0);
+		next.add(labels[0]);
+		double sum = 0;
+		while(!next.isEmpty()) {
+			DijkstraEntry current = next.poll();
+			int node = current.treeIndex;
+			settled[node] = true;
+			sum += current.tt;
+			for(int j=node*degree; j<(node+1)*degree; ++j) {
+				int target = targets[j];
+				if(settled[target]) {
+					continue;
+				}
+				double tt = current.tt + tts[j];
+				DijkstraEntry prior = labels[target];
+				if(prior!=null && prior.tt<=tt) {
+					continue;
+				}
+				DijkstraEntry entry = buildEntry(tt);
+				entry.treeIndex = target;
+				if(prior!=null) {
+					next.remove(prior);
+				}
+				next.add(entry);
+				labels[target] = entry;
+			}
+		}
+		return sum;
+	}
+	
+	
+	/** @brief Runs the search using the DijkstraHeap
+	 * @return The sum of the travel times to all nodes
+	 */
+	@Benchmark
+	public double dijkstraHeap() {
+		DijkstraHeap next = new DijkstraHeap(measure, 16);
+		DijkstraEntry[] labels = new DijkstraEntry[nodeNumber];
+		boolean[] settled = new boolean[nodeNumber];
+		labels[0] = buildEntry(0);
+		next.add(labels[0]);
+		double sum = 0;
+		while(!next.isEmpty()) {
+			DijkstraEntry current = next.poll();
+			int node = current.treeIndex;
+			settled[node] = true;
+			sum += current.tt;
+			for(int j=node*degree; j<(node+1)*degree; ++j) {
+				int target = targets[j];
+				if(settled[target]) {
+					continue;
+				}
+				double tt = current.tt + tts[j];
+				DijkstraEntry prior = labels[target];
+				if(prior!=null && prior.tt<=tt) {
+					continue;
+				}
+				DijkstraEntry entry = buildEntry(tt);
+				entry.treeIndex = target;
+				if(prior!=null) {
+					next.replace(prior, entry);
+				} else {
+					next.add(entry);
+				}
+				labels[target] = entry;
+			}
+		}
+		return sum;
+	}
+	
+	
+	/** @brief Builds an entry with the given travel time
+	 * 
+	 * The node the entry belongs to is stored in its tree index, the network
+	 * objects are not needed for ordering the entries.
+	 * @param tt The travel time to the node
+	 * @return The built entry
+	 */
+	private DijkstraEntry buildEntry(double tt) {
+		DijkstraEntry entry = new DijkstraEntry(measure, null, null, null, mode, 0, tt, null, tt, 0, false);
+		entry.treeIndex = 0;
+		return entry;
+	}
+	
+	
+}
@@ -23,10 +23,18 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.Vector;
 
+import de.dlr.ivf.urmo.router.algorithms.alt.ALTQuery;
+import de.dlr.ivf.urmo.router.algorithms.alt.BoundALT;
+import de.dlr.ivf.urmo.router.algorithms.edgemapper.MapResult;
+import de.dlr.ivf.urmo.router.algorithms.raptor.BoundRaptor;
+import de.dlr.ivf.urmo.router.algorithms.raptor.ProfileRaptor;
+import de.dlr.ivf.urmo.router.algorithms.raptor.RaptorWorkspace;
 import de.dlr.ivf.urmo.router.algorithms.routing.AbstractRouteWeightFunction;
 import de.dlr.ivf.urmo.router.algorithms.routing.BoundDijkstra_Full;
 import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraResultsStorage;
+import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraWorkspace;
 import de.dlr.ivf.urmo.router.algorithms.routing.IBoundDijkstra;
+import de.dlr.ivf.urmo.router.algorithms.routing.ProfileDijkstra;
 import de.dlr.ivf.urmo.router.modes.Mode;
 import de.dlr.ivf.urmo.router.output.ResultsProcessor;
 import de.dlr.ivf.urmo.router.shapes.DBEdge;
@@ -94,24 +102,72 @@ public class ComputingThread_OD implements Runnable {
 	/**
 	 * @brief Performs the computation
 	 * 
-	 * Iterates over edges or od-connections.
+	 * Iterates over the groups of consecutive od-connections that share their origin.
+	 * If the search is not bound by the number of destinations or their values, all
+	 * destinations of a group are found using a single search. Otherwise, a search is performed for each
+	 * connection. Single connections are computed using a bidirectional search
+	 * directed by landmarks if these were computed. If a public transport timetable
+	 * is given, the RAPTOR search is used, for all departures of the departure window
+	 * if one is given. Otherwise, a search is performed for each departure of the
+	 * departure window if one is given.
 	 * Builds the paths, first, then uses them to generate the results.
 	 */
 	public void run() {
 		try {
-			DBODRelationExt od = null;
+			DijkstraWorkspace workspace = new DijkstraWorkspace(parent.graph, measure);
+			ALTQuery altQuery = parent.landmarks!=null ? new ALTQuery(parent.landmarks) : null;
+			RaptorWorkspace raptorWorkspace = parent.raptor!=null ? new RaptorWorkspace(parent.raptor, modes.get(0)) : null;
+			boolean perConnection = boundNumber>0 || boundVar>0 || shortestOnly;
+			Vector<DBODRelationExt> ods = null;
 			do {
 				long beg = System.nanoTime();
-				od = parent.getNextOD();
-				if(od==null) {
+				ods = parent.getNextODs();
+				if(ods==null) {
 					continue;
 				}
+				if(perConnection || ods.size()==1) {
+					for(DBODRelationExt od : ods) {
+						Set<DBEdge> destinations = new HashSet<>();
+						destinations.add(od.toEdge);
+						IBoundDijkstra bd = null;
+						if(raptorWorkspace!=null && parent.departures!=null) {
+							bd = new ProfileRaptor(workspace, raptorWorkspace, measure, od.fromMR, boundNumber, boundTT, boundDist, boundVar, shortestOnly, parent.departures, null);
+						} else if(raptorWorkspace!=null) {
+							bd = new BoundRaptor(workspace, raptorWorkspace, measure, od.fromMR, boundNumber, boundTT, boundDist, boundVar, shortestOnly, time, null);
+						} else if(parent.departures!=null) {
+							bd = new ProfileDijkstra(workspace, modes, false, measure, od.fromMR, boundNumber, boundTT, boundDist, boundVar, shortestOnly, parent.departures, null);
+						} else if(altQuery!=null && !perConnection && BoundALT.canRoute(od.fromMR, od.toMR)) {
+							bd = new BoundALT(workspace, altQuery, measure, od.fromMR, boundNumber, boundTT, boundDist, boundVar, shortestOnly, time);
+						} else {
+							bd = new BoundDijkstra_Full(workspace, modes, measure, od.fromMR, boundNumber, boundTT, boundDist, boundVar, shortestOnly, time, null);
+						}
+						DijkstraResultsStorage drs = bd.run(destinations, parent.nearestToEdges);
+						resultsProcessor.process(beg, bd.getSeenEdgesNum(), bd.getSeenNodesNum(), od.fromMR, drs, od.destination);
+						beg = System.nanoTime();
+					}
+					continue;
+				}
+				// one search for all destinations of the origin
 				Set<DBEdge> destinations = new HashSet<>();
-				destinations.add(od.toEdge);
-				IBoundDijkstra bd = new BoundDijkstra_Full(modes, measure, od.fromMR, boundNumber, boundTT, boundDist, boundVar, shortestOnly, time, null);
-				DijkstraResultsStorage drs = bd.run(parent.nearestToEdges.keySet(), parent.nearestToEdges);
-				resultsProcessor.process(beg, bd.getSeenEdgesNum(), bd.getSeenNodesNum(), od.fromMR, drs, od.destination);
-			} while(od!=null&&!parent.hadError);
+				long[] destinationIDs = new long[ods.size()];
+				for(int i=0; i<ods.size(); ++i) {
+					destinations.add(ods.get(i).toEdge);
+					destinationIDs[i] = ods.get(i).destination;
+				}
+				MapResult origin = ods.get(0).fromMR;
+				IBoundDijkstra bd = null;
+				if(raptorWorkspace!=null && parent.departures!=null) {
+					bd = new ProfileRaptor(workspace, raptorWorkspace, measure, origin, boundNumber, boundTT, boundDist, boundVar, shortestOnly, parent.departures, null);
+				} else if(raptorWorkspace!=null) {
+					bd = new BoundRaptor(workspace, raptorWorkspace, measure, origin, boundNumber, boundTT, boundDist, boundVar, shortestOnly, time, null);
+				} else if(parent.departures!=null) {
+					bd = new ProfileDijkstra(workspace, modes, false, measure, origin, boundNumber, boundTT, boundDist, boundVar, shortestOnly, parent.departures, null);
+				} else {
+					bd = new BoundDijkstra_Full(workspace, modes, measure, origin, boundNumber, boundTT, boundDist, boundVar, shortestOnly, time, null);
+				}
+				DijkstraResultsStorage drs = bd.run(destinations, parent.nearestToEdges);
+				resultsProcessor.process(beg, bd.getSeenEdgesNum(), bd.getSeenNodesNum(), origin, drs, destinationIDs);
+			} while(ods!=null&&!parent.hadError);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -23,15 +23,25 @@ import java.util.HashMap;
 import java.util.Set;
 import java.util.Vector;
 
+import de.dlr.ivf.urmo.router.algorithms.ch.PHASTEdgeSearch;
+import de.dlr.ivf.urmo.router.algorithms.ch.PHASTQuery;
 import de.dlr.ivf.urmo.router.algorithms.edgemapper.MapResult;
+import de.dlr.ivf.urmo.router.algorithms.raptor.BoundRaptor;
+import de.dlr.ivf.urmo.router.algorithms.raptor.ProfileRaptor;
+import de.dlr.ivf.urmo.router.algorithms.raptor.RaptorWorkspace;
 import de.dlr.ivf.urmo.router.algorithms.routing.AbstractRouteWeightFunction;
 import de.dlr.ivf.urmo.router.algorithms.routing.BoundDijkstra_Full;
 import de.dlr.ivf.urmo.router.algorithms.routing.BoundDijkstra_UniModal;
+import de.dlr.ivf.urmo.router.algorithms.routing.DeltaSteppingEdgeSearch;
 import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraResultsStorage;
+import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraWorkspace;
 import de.dlr.ivf.urmo.router.algorithms.routing.IBoundDijkstra;
+import de.dlr.ivf.urmo.router.algorithms.routing.NearestEdgeSearch;
+import de.dlr.ivf.urmo.router.algorithms.routing.ProfileDijkstra;
+import de.dlr.ivf.urmo.router.algorithms.routing.ReverseEdgeSearch;
+import de.dlr.ivf.urmo.router.algorithms.routing.SharedEdgeSearch;
 import de.dlr.ivf.urmo.router.modes.Mode;
 import de.dlr.ivf.urmo.router.output.ResultsProcessor;
-import de.dlr.ivf.urmo.router.shapes.DBEdge;
 
 /** @class ComputingThread_Plain
  * @brief A thread which polls for new origins, computes the accessibility and
@@ -110,19 +120,22 @@ public class ComputingThread_Plain implements Runnable {
 	 */
 	public void run() {
 		try {
-			DBEdge e = null;
+			DijkstraWorkspace workspace = new DijkstraWorkspace(parent.graph, measure);
+			PHASTQuery query = parent.ch!=null ? new PHASTQuery(parent.ch, parent.chSweep) : null;
+			RaptorWorkspace raptorWorkspace = parent.raptor!=null ? new RaptorWorkspace(parent.raptor, modes.get(0)) : null;
+			OriginScheduler.Worker worker = parent.scheduler.getWorker();
+			OriginScheduler.Task task = null;
 			do {
-				e = parent.getNextStartingEdge();
-				if(e==null) {
+				task = worker.next();
+				if(task==null) {
 					continue;
 				}
-				Vector<MapResult> fromObjects = parent.nearestFromEdges.get(e);
 				if(modes.size()==1 && hasPT==false) {
-					runUniModal(fromObjects);
+					runUniModal(workspace, query, task.origins);
 				} else {
-					runFull(fromObjects);
+					runFull(workspace, raptorWorkspace, task.origins);
 				}
-			} while(e!=null&&!parent.hadError);
+			} while(task!=null&&!parent.hadError);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -130,13 +143,34 @@ public class ComputingThread_Plain implements Runnable {
 
 
 
-	private void runFull(Vector<MapResult> fromObjects) throws IOException {
-		for(MapResult mr : fromObjects) {
+	/**
+	 * @brief Computes the accessibilities of the given origins using the intermodal router
+	 * 
+	 * If a public transport timetable is given, the RAPTOR search is used instead (@see BoundRaptor),
+	 * being performed for all departures of the departure window if one is given (@see ProfileRaptor).
+	 * Otherwise, a search is performed for each departure of the departure window (@see ProfileDijkstra).
+	 * @param workspace The thread's search workspace
+	 * @param raptorWorkspace The thread's RAPTOR state (null if no timetable is used)
+	 * @param fromObjects The origins to compute the accessibilities of
+	 * @throws IOException When something fails
+	 */
+	private void runFull(DijkstraWorkspace workspace, RaptorWorkspace raptorWorkspace, Vector<MapResult> fromObjects) throws IOException {
+		for(Vector<MapResult> origins : OriginScheduler.groupIdentical(fromObjects)) {
+			MapResult mr = origins.get(0);
 			try {
 				long beg = System.nanoTime();
-				IBoundDijkstra bd = new BoundDijkstra_Full(modes, measure, mr, boundNumber, boundTT, boundDist, boundVar, shortestOnly, time, destTypes);
+				IBoundDijkstra bd = null;
+				if(raptorWorkspace!=null && parent.departures!=null) {
+					bd = new ProfileRaptor(workspace, raptorWorkspace, measure, mr, boundNumber, boundTT, boundDist, boundVar, shortestOnly, parent.departures, destTypes);
+				} else if(raptorWorkspace!=null) {
+					bd = new BoundRaptor(workspace, raptorWorkspace, measure, mr, boundNumber, boundTT, boundDist, boundVar, shortestOnly, time, destTypes);
+				} else if(parent.departures!=null) {
+					bd = new ProfileDijkstra(workspace, modes, false, measure, mr, boundNumber, boundTT, boundDist, boundVar, shortestOnly, parent.departures, destTypes);
+				} else {
+					bd = new BoundDijkstra_Full(workspace, modes, measure, mr, boundNumber, boundTT, boundDist, boundVar, shortestOnly, time, destTypes);
+				}
 				DijkstraResultsStorage drs = bd.run(parent.nearestToEdges.keySet(), parent.nearestToEdges);
-				resultsProcessor.process(beg, bd.getSeenEdgesNum(), bd.getSeenNodesNum(), mr, drs, -1);
+				resultsProcessor.process(beg, bd.getSeenEdgesNum(), bd.getSeenNodesNum(), origins, drs, -1);
 			} catch(java.lang.OutOfMemoryError e2) {
 				System.out.println("Out of memory while processing '" + mr.em.getOuterID() + "'.");
 			}
@@ -144,13 +178,66 @@ public class ComputingThread_Plain implements Runnable {
 	}
 
 
-	private void runUniModal(Vector<MapResult> fromObjects) throws IOException {
-		for(MapResult mr : fromObjects) {
+	/**
+	 * @brief Computes the accessibilities of the given origins using the unimodal router
+	 * 
+	 * If possible, one search is shared by all origins (@see SharedEdgeSearch).
+	 * If a contraction hierarchy is given, (R)PHAST queries are used instead (@see PHASTEdgeSearch).
+	 * If the parallel search shall be used and less origin edges are left than threads are used,
+	 * the search is shared with all threads (@see DeltaSteppingEdgeSearch).
+	 * If the trees towards the destination edges were computed, the paths are read from them (@see ReverseEdgeSearch).
+	 * If the nearest destinations of all nodes were computed, the paths to them are read from their labels (@see NearestEdgeSearch).
+	 * If a departure window is given, a search is performed for each of its departures (@see ProfileDijkstra).
+	 * @param workspace The thread's search workspace
+	 * @param query The thread's PHAST query (null if no contraction hierarchy is used)
+	 * @param fromObjects The origins to compute the accessibilities of
+	 * @throws IOException When something fails
+	 */
+	private void runUniModal(DijkstraWorkspace workspace, PHASTQuery query, Vector<MapResult> fromObjects) throws IOException {
+		Vector<Vector<MapResult>> groups = OriginScheduler.groupIdentical(fromObjects);
+		boolean parallel = parent.deltaStepping!=null && parent.fewEdgesLeft();
+		boolean reverse = parent.destinationTrees!=null;
+		boolean nearest = parent.nearestDestinations!=null;
+		if(parent.departures==null && (query!=null || parallel || reverse || nearest || (groups.size()>1 && SharedEdgeSearch.canShare(parent.graph, measure, boundNumber, boundVar, shortestOnly)))) {
+			try {
+				long beg = System.nanoTime();
+				SharedEdgeSearch ses = null;
+				if(query!=null) {
+					ses = new PHASTEdgeSearch(workspace, query, modes.get(0), measure, fromObjects.get(0).edge, boundTT, boundDist, time, destTypes);
+				} else if(parallel) {
+					ses = new DeltaSteppingEdgeSearch(workspace, parent.deltaStepping, modes.get(0), measure, fromObjects.get(0).edge, boundTT, boundDist, time, destTypes);
+				} else if(reverse) {
+					ses = new ReverseEdgeSearch(workspace, parent.destinationTrees, modes.get(0), measure, fromObjects.get(0).edge, boundTT, boundDist, time, destTypes);
+				} else if(nearest) {
+					ses = new NearestEdgeSearch(workspace, parent.nearestDestinations, modes.get(0), measure, fromObjects.get(0).edge, boundTT, boundDist, time, destTypes);
+				} else {
+					ses = new SharedEdgeSearch(workspace, modes.get(0), measure, fromObjects.get(0).edge, boundTT, boundDist, time, destTypes);
+				}
+				ses.run(parent.nearestToEdges.keySet(), parent.nearestToEdges);
+				// the time of the shared search is split evenly among the groups
+				long share = (System.nanoTime() - beg) / groups.size();
+				for(Vector<MapResult> origins : groups) {
+					long groupBeg = System.nanoTime() - share;
+					DijkstraResultsStorage drs = ses.getResults(origins.get(0), boundNumber, boundVar, shortestOnly);
+					resultsProcessor.process(groupBeg, ses.getSeenEdgesNum(), ses.getSeenNodesNum(), origins, drs, -1);
+				}
+			} catch(java.lang.OutOfMemoryError e2) {
+				System.out.println("Out of memory while processing the origins at edge '" + fromObjects.get(0).edge.getID() + "'.");
+			}
+			return;
+		}
+		for(Vector<MapResult> origins : groups) {
+			MapResult mr = origins.get(0);
 			try {
 				long beg = System.nanoTime();
-				IBoundDijkstra bd = new BoundDijkstra_UniModal(modes.get(0), measure, mr, boundNumber, boundTT, boundDist, boundVar, shortestOnly, time, destTypes);
+				IBoundDijkstra bd = null;
+				if(parent.departures!=null) {
+					bd = new ProfileDijkstra(workspace, modes, true, measure, mr, boundNumber, boundTT, boundDist, boundVar, shortestOnly, parent.departures, destTypes);
+				} else {
+					bd = new BoundDijkstra_UniModal(workspace, modes.get(0), measure, mr, boundNumber, boundTT, boundDist, boundVar, shortestOnly, time, destTypes);
+				}
 				DijkstraResultsStorage drs = bd.run(parent.nearestToEdges.keySet(), parent.nearestToEdges);
-				resultsProcessor.process(beg, bd.getSeenEdgesNum(), bd.getSeenNodesNum(), mr, drs, -1);
+				resultsProcessor.process(beg, bd.getSeenEdgesNum(), bd.getSeenNodesNum(), origins, drs, -1);
 			} catch(java.lang.OutOfMemoryError e2) {
 				System.out.println("Out of memory while processing '" + mr.em.getOuterID() + "'.");
 			}
@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ *
+ * All rights reserved.
+ *
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ *
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.locationtech.jts.geom.Coordinate;
+
+import de.dlr.ivf.urmo.router.algorithms.edgemapper.MapResult;
+import de.dlr.ivf.urmo.router.shapes.DBEdge;
+import de.dlr.ivf.urmo.router.shapes.GeomHelper;
+
+/** @class OriginScheduler
+ * @brief Distributes the origins to route from among the computing threads
+ *
+ * The origins are grouped into tasks, usually one per origin edge. The cost of
+ * a task is estimated by the number of searches it needs or, if given, by the
+ * computation times of its origins reported by a previous run (process output).
+ * If origins located at the same edge are routed one by one, edges that are
+ * more expensive than a part of the work a thread should get are split
+ * into several tasks.
+ *
+ * If several threads are used, the tasks are processed largest-first, so that
+ * no thread ends with a single expensive task while the others wait.
+ * With a single thread, the tasks are processed in the order of the edge ids.
+ * Optionally, the tasks are ordered along a Hilbert curve over the edges' midpoints
+ * instead, so that consecutive tasks, and thereby the tasks of a chunk, are located
+ * close to each other and their searches visit similar parts of the network.
+ *
+ * The threads claim chunks of consecutive tasks using an atomic cursor; the chunks
+ * get smaller the less work is left (guided self-scheduling), so that
+ * the threads rarely meet at the cursor and still finish at the same time.
+ * @author Daniel Krajzewicz
+ */
+public class OriginScheduler {
+	/** @class Task
+	 * @brief Origins located at the same edge that are routed together
+	 */
+	public static class Task {
+		/// @brief The edge the origins are located at
+		public final DBEdge edge;
+		/// @brief The origins to route from
+		public final Vector<MapResult> origins;
+		/// @brief The estimated cost of routing the origins
+		final double cost;
+		/// @brief Whether this is the first task of the edge
+		boolean firstOfEdge = true;
+
+
+		/** @brief Constructor
+		 * @param _edge The edge the origins are located at
+		 * @param _origins The origins to route from
+		 * @param _cost The estimated cost of routing the origins
+		 */
+		Task(DBEdge _edge, Vector<MapResult> _origins, double _cost) {
+			edge = _edge;
+			origins = _origins;
+			cost = _cost;
+		}
+
+	}
+
+
+	/** @class Worker
+	 * @brief The (thread-owned) view on the scheduler, holding the chunk of tasks currently claimed by a thread
+	 */
+	public class Worker {
+		/// @brief The next task of the claimed chunk
+		private int next = 0;
+		/// @brief The end (exclusive) of the claimed chunk
+		private int end = 0;
+
+
+		/** @brief Returns the next task to process
+		 * @return The next task, null if all tasks were processed
+		 */
+		public Task next() {
+			if(next>=end) {
+				next = claim();
+				if(next<0) {
+					return null;
+				}
+				end = chunkEnd(next);
+			}
+			Task task = tasks[next++];
+			if(task.firstOfEdge) {
+				report();
+			}
+			return task;
+		}
+
+	}
+
+
+	/// @brief The number of chunks each thread shall get out of the remaining work
+	private static final int CHUNKS_PER_THREAD = 4;
+	/// @brief The tasks in the order they are processed in
+	private Task[] tasks;
+	/// @brief The summed costs of the tasks before each position
+	private double[] prefixCosts;
+	/// @brief The first task not claimed so far
+	private AtomicInteger cursor = new AtomicInteger(0);
+	/// @brief The number of edges whose tasks were started
+	private AtomicLong started = new AtomicLong(0);
+	/// @brief The number of origin edges
+	private int numEdges;
+	/// @brief The number of threads
+	private int numThreads;
+	/// @brief Whether the progress shall be reported
+	private boolean verbose;
+
+
+	/** @brief Constructor
+	 * @param nearestFromEdges The origins, grouped by the edges they are located at
+	 * @param shared Whether all origins located at the same edge share a search
+	 * @param costs The computation times of the origins of a previous run (null if not known)
+	 * @param spatial Whether the tasks shall be ordered along a Hilbert curve
+	 * @param _numThreads The number of threads
+	 * @param _verbose Whether the progress shall be reported
+	 */
+	public OriginScheduler(HashMap<DBEdge, Vector<MapResult>> nearestFromEdges, boolean shared, HashMap<Long, Double> costs, boolean spatial, int _numThreads, boolean _verbose) {
+		numThreads = _numThreads;
+		verbose = _verbose;
+		Vector<DBEdge> fromEdges = new Vector<DBEdge>();
+		fromEdges.addAll(nearestFromEdges.keySet());
+		numEdges = fromEdges.size();
+		Collections.sort(fromEdges, (a, b) -> a.getID().compareTo(b.getID()));
+		// the cost of a search without known computation times
+		double searchCost = 1.;
+		if(costs!=null && costs.size()!=0) {
+			double sum = 0;
+			for(double cost : costs.values()) {
+				sum += cost;
+			}
+			searchCost = sum / (double) costs.size();
+		}
+		// estimate the costs of the edges
+		Vector<Task> edgeTasks = new Vector<>();
+		double total = 0;
+		for(DBEdge e : fromEdges) {
+			Vector<MapResult> origins = nearestFromEdges.get(e);
+			double cost = shared ? getSearchCost(origins, costs, searchCost) : 0;
+			if(!shared) {
+				for(Vector<MapResult> group : groupIdentical(origins)) {
+					cost += getSearchCost(group, costs, searchCost);
+				}
+			}
+			edgeTasks.add(new Task(e, origins, cost));
+			total += cost;
+		}
+		// split the expensive edges
+		Vector<Task> all = new Vector<>();
+		double maxCost = total / (double) (CHUNKS_PER_THREAD * numThreads);
+		for(Task t : edgeTasks) {
+			if(shared || numThreads==1 || t.cost<=maxCost) {
+				all.add(t);
+				continue;
+			}
+			Vector<MapResult> origins = new Vector<>();
+			double cost = 0;
+			boolean firstOfEdge = true;
+			for(Vector<MapResult> group : groupIdentical(t.origins)) {
+				double groupCost = getSearchCost(group, costs, searchCost);
+				if(origins.size()!=0 && cost+groupCost>maxCost) {
+					Task part = new Task(t.edge, origins, cost);
+					part.firstOfEdge = firstOfEdge;
+					all.add(part);
+					origins = new Vector<>();
+					cost = 0;
+					firstOfEdge = false;
+				}
+				origins.addAll(group);
+				cost += groupCost;
+			}
+			Task part = new Task(t.edge, origins, cost);
+			part.firstOfEdge = firstOfEdge;
+			all.add(part);
+		}
+		tasks = all.toArray(new Task[0]);
+		if(spatial) {
+			// stable, so that the parts of an edge stay together
+			HashMap<DBEdge, Long> positions = getCurvePositions(fromEdges);
+			Arrays.sort(tasks, (a, b) -> Long.compare(positions.get(a.edge), positions.get(b.edge)));
+		} else if(numThreads>1) {
+			// stable, so that tasks of the same cost keep the order of the edge ids
+			Arrays.sort(tasks, (a, b) -> Double.compare(b.cost, a.cost));
+		}
+		prefixCosts = new double[tasks.length+1];
+		for(int i=0; i<tasks.length; ++i) {
+			prefixCosts[i+1] = prefixCosts[i] + tasks[i].cost;
+		}
+	}
+
+
+	/** @brief Returns a new view on the scheduler for a computing thread
+	 * @return The worker to get the tasks from
+	 */
+	public Worker getWorker() {
+		return new Worker();
+	}
+
+
+	/** @brief Returns whether less tasks are left than threads are used
+	 * @return Whether the remaining tasks do not keep all threads busy
+	 */
+	public boolean fewTasksLeft() {
+		return tasks.length - cursor.get() < numThreads;
+	}
+
+
+	/** @brief Claims the next chunk of tasks
+	 * @return The first task of the claimed chunk, -1 if all tasks were claimed
+	 */
+	private int claim() {
+		while(true) {
+			int i = cursor.get();
+			if(i>=tasks.length) {
+				return -1;
+			}
+			if(cursor.compareAndSet(i, chunkEnd(i))) {
+				return i;
+			}
+		}
+	}
+
+
+	/** @brief Returns the end of the chunk starting at the given task
+	 *
+	 * The chunk holds at least one task and as many further ones as are
+	 * within the share of the remaining costs a thread shall get at once.
+	 * @param i The first task of the chunk
+	 * @return The end (exclusive) of the chunk
+	 */
+	private int chunkEnd(int i) {
+		double remaining = prefixCosts[tasks.length] - prefixCosts[i];
+		double limit = prefixCosts[i] + remaining / (double) (CHUNKS_PER_THREAD * numThreads);
+		int pos = Arrays.binarySearch(prefixCosts, i+1, tasks.length+1, limit);
+		if(pos<0) {
+			pos = -pos - 2;
+		}
+		return Math.max(i+1, Math.min(pos, tasks.length));
+	}
+
+
+	/** @brief Counts a started edge and reports the progress
+	 */
+	private void report() {
+		long num = started.incrementAndGet();
+		if(verbose) {
+			System.out.print("\r " + num + " of " + numEdges + " edges");
+		}
+	}
+
+
+	/** @brief Returns the estimated cost of a search shared by the given origins
+	 * 
+	 * The computation time of a shared search is split among the origins that
+	 * share it (@see ResultsProcessor#process), so the times of the origins are summed.
+	 * @param origins The origins that share the search
+	 * @param costs The computation times of the origins of a previous run (null if not known)
+	 * @param searchCost The cost of a search if no computation time is known
+	 * @return The estimated cost of the search
+	 */
+	private static double getSearchCost(Vector<MapResult> origins, HashMap<Long, Double> costs, double searchCost) {
+		if(costs==null) {
+			return searchCost;
+		}
+		double cost = -1;
+		for(MapResult mr : origins) {
+			Double c = costs.get(mr.em.getOuterID());
+			if(c!=null) {
+				cost = Math.max(cost, 0) + c;
+			}
+		}
+		return cost<0 ? searchCost : cost;
+	}
+
+
+	/** @brief Returns the positions of the edges' midpoints along a Hilbert curve that covers all edges
+	 * @param edges The edges to get the positions of
+	 * @return The positions of the edges along the curve
+	 */
+	private static HashMap<DBEdge, Long> getCurvePositions(Vector<DBEdge> edges) {
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for(DBEdge e : edges) {
+			for(Coordinate c : new Coordinate[]{e.getFromNode().getCoordinate(), e.getToNode().getCoordinate()}) {
+				minX = Math.min(minX, c.x);
+				minY = Math.min(minY, c.y);
+				maxX = Math.max(maxX, c.x);
+				maxY = Math.max(maxY, c.y);
+			}
+		}
+		double size = Math.max(maxX - minX, maxY - minY);
+		HashMap<DBEdge, Long> positions = new HashMap<>();
+		for(DBEdge e : edges) {
+			Coordinate from = e.getFromNode().getCoordinate();
+			Coordinate to = e.getToNode().getCoordinate();
+			positions.put(e, GeomHelper.getHilbertIndex((from.x + to.x) / 2., (from.y + to.y) / 2., minX, minY, size));
+		}
+		return positions;
+	}
+
+
+	/** @brief Groups consecutive origins located at the same position of the edge
+	 * 
+	 * The searches of such origins are identical and are performed only once.
+	 * The origins keep their order, so that the results are reported in the
+	 * order the origins were mapped in. Origins at the same position that are not
+	 * stored consecutively form separate groups.
+	 * @param origins The origins located at the same edge
+	 * @return The consecutive origins grouped by their position along the edge
+	 */
+	static Vector<Vector<MapResult>> groupIdentical(Vector<MapResult> origins) {
+		Vector<Vector<MapResult>> groups = new Vector<>();
+		Vector<MapResult> group = null;
+		for(MapResult mr : origins) {
+			if(group==null || group.get(0).pos!=mr.pos) {
+				group = new Vector<>();
+				groups.add(group);
+			}
+			group.add(mr);
+		}
+		return groups;
+	}
+
+
+}
@@ -20,9 +20,8 @@ package de.dlr.ivf.urmo;
 
 import java.io.IOException;
 import java.text.SimpleDateFormat;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Locale;
 import java.util.Set;
 import java.util.Vector;
 
@@ -39,14 +38,21 @@ import de.dks.utils.options.OptionsCont;
 import de.dks.utils.options.OptionsFileIO_XML;
 import de.dks.utils.options.OptionsIO;
 import de.dks.utils.options.OptionsTypedFileIO;
+import de.dlr.ivf.urmo.router.algorithms.alt.Landmarks;
+import de.dlr.ivf.urmo.router.algorithms.ch.ContractionHierarchy;
 import de.dlr.ivf.urmo.router.algorithms.edgemapper.MapResult;
 import de.dlr.ivf.urmo.router.algorithms.edgemapper.NearestEdgeFinder;
+import de.dlr.ivf.urmo.router.algorithms.raptor.RaptorTimetable;
 import de.dlr.ivf.urmo.router.algorithms.routing.AbstractRouteWeightFunction;
 import de.dlr.ivf.urmo.router.algorithms.routing.CrossingTimesModel_CTM1;
+import de.dlr.ivf.urmo.router.algorithms.routing.DeltaStepping;
+import de.dlr.ivf.urmo.router.algorithms.routing.DestinationTrees;
+import de.dlr.ivf.urmo.router.algorithms.routing.NearestDestinations;
 import de.dlr.ivf.urmo.router.algorithms.routing.RouteWeightFunction_ExpInterchange_TT;
 import de.dlr.ivf.urmo.router.algorithms.routing.RouteWeightFunction_MaxInterchange_TT;
 import de.dlr.ivf.urmo.router.algorithms.routing.RouteWeightFunction_Price_TT;
 import de.dlr.ivf.urmo.router.algorithms.routing.RouteWeightFunction_TT_ModeSpeed;
+import de.dlr.ivf.urmo.router.algorithms.routing.SharedEdgeSearch;
 import de.dlr.ivf.urmo.router.gtfs.GTFSData;
 import de.dlr.ivf.urmo.router.io.GTFSLoader;
 import de.dlr.ivf.urmo.router.io.InputReader;
@@ -66,8 +72,10 @@ import de.dlr.ivf.urmo.router.shapes.DBEdge;
 import de.dlr.ivf.urmo.router.shapes.DBNet;
 import de.dlr.ivf.urmo.router.shapes.DBODRelation;
 import de.dlr.ivf.urmo.router.shapes.DBODRelationExt;
+import de.dlr.ivf.urmo.router.shapes.DBODRelations;
 import de.dlr.ivf.urmo.router.shapes.IDGiver;
 import de.dlr.ivf.urmo.router.shapes.Layer;
+import de.dlr.ivf.urmo.router.shapes.RoutingGraph;
 
 /**
  * @class UrMoAccessibilityComputer
@@ -91,10 +99,28 @@ public class UrMoAccessibilityComputer implements IDGiver {
 	HashMap<DBEdge, Vector<MapResult>> nearestFromEdges;
 	/// @brief A mapping from an edge to allocated destinations
 	HashMap<DBEdge, Vector<MapResult>> nearestToEdges;
-	/// @brief A point to the currently processed origin edge
-	private Iterator<DBEdge> nextEdgePointer = null;
-	/// @brief A counter for seen edges for reporting purposes
-	private long seenEdges = 0;
+	/// @brief The array-based snapshot of the network used for routing
+	RoutingGraph graph = null;
+	/// @brief The contraction hierarchy used for routing (null if the plain searches are used)
+	ContractionHierarchy ch = null;
+	/// @brief The positions of the contraction hierarchy to sweep (null if all positions are swept)
+	int[] chSweep = null;
+	/// @brief The landmarks used for routing single od-connections (null if the plain searches are used)
+	Landmarks landmarks = null;
+	/// @brief The public transport timetable used by the RAPTOR engine (null if the plain searches are used)
+	RaptorTimetable raptor = null;
+	/// @brief The departures of the departure window, sorted ascending (null if only the given time is regarded)
+	int[] departures = null;
+	/// @brief The parallel search used for the last origins (null if not used)
+	DeltaStepping deltaStepping = null;
+	/// @brief The trees towards the destination edges used for searching backwards (null if the searches start at the origins)
+	DestinationTrees destinationTrees = null;
+	/// @brief The nearest destinations of all nodes used for searching backwards (null if not used)
+	NearestDestinations nearestDestinations = null;
+	/// @brief The scheduler the computing threads get the origins to process from
+	OriginScheduler scheduler = null;
+	/// @brief The computation times of the origins of a previous run (null if not known)
+	private HashMap<Long, Double> originCosts = null;
 	/// @brief Whether this runs in verbose mode
 	private boolean verbose = false;
 	/// @brief The route weight computation function
@@ -105,10 +131,14 @@ public class UrMoAccessibilityComputer implements IDGiver {
 	private int time = -1;
 	/// @brief Allowed modes
 	private Vector<Mode> modes = null;
-	/// @brief list of connections to process
-	Vector<DBODRelation> connections = null;
-	/// @brief A point to the currently processed connection
-	private Iterator<DBODRelation> nextConnectionPointer = null;
+	/// @brief The connections to process, grouped by their origin
+	DBODRelations connections = null;
+	/// @brief The index of the next origin (group of connections) to process
+	private int nextConnectionGroup = 0;
+	/// @brief A map from the IDs of the origins to their mapping onto the network
+	private HashMap<Long, MapResult> originIndex = null;
+	/// @brief A map from the IDs of the destinations to their mapping onto the network
+	private HashMap<Long, MapResult> destinationIndex = null;
 	/// @brief A counter for seen connections for reporting purposes
 	private long seenODs = 0;
 	/// @brief Whether an error occurred
@@ -164,6 +194,10 @@ public class UrMoAccessibilityComputer implements IDGiver {
 		options.setDescription("epsg", "The EPSG projection to use.");
 		options.add("time", new Option_Integer());
 		options.setDescription("time", "The time the trips start at in seconds.");
+		options.add("time-window", new Option_Integer());
+		options.setDescription("time-window", "The duration of the departure window starting at the given time in seconds (requires the 'dijkstra' or the 'raptor' routing engine).");
+		options.add("time-step", new Option_Integer(60));
+		options.setDescription("time-step", "The time between two departures within the departure window in seconds.");
 		options.add("od-connections", new Option_String());
 		options.setDescription("od-connections", "The OD connections to compute.");
 		options.add("mode-changes", new Option_String());
@@ -250,6 +284,18 @@ public class UrMoAccessibilityComputer implements IDGiver {
 		options.setDescription("crossing-model.param1", "First parameter of the chosen crossing model.");
 		options.add("crossing-model.param2", new Option_Double());
 		options.setDescription("crossing-model.param2", "Second parameter of the chosen crossing model.");
+		options.add("routing-engine", new Option_String("dijkstra"));
+		options.setDescription("routing-engine", "The routing engine to use ['dijkstra', 'ch', 'rphast', 'raptor'].");
+		options.add("landmarks", new Option_Integer(0));
+		options.setDescription("landmarks", "The number of landmarks used for routing single od-connections (default: 0, disabled).");
+		options.add("parallel-search", new Option_Bool());
+		options.setDescription("parallel-search", "Uses all threads for each search once less origin edges are left than threads are used.");
+		options.add("parallel-search.delta", new Option_Double(0.));
+		options.setDescription("parallel-search.delta", "The bucket width of the parallel search in seconds (0 uses twice the average travel time of the edges).");
+		options.add("graph-order", new Option_String("id"));
+		options.setDescription("graph-order", "The order the nodes of the routing graph are stored in ['id', 'hilbert'].");
+		options.add("search-direction", new Option_String("forward"));
+		options.setDescription("search-direction", "Whether the searches start at the origins or at the destinations ['forward', 'backward', 'nearest', 'auto'].");
 		
 		options.beginSection("Network Simplification Options");
 		options.add("prunning.remove-geometries", new Option_Bool());
@@ -299,6 +345,8 @@ public class UrMoAccessibilityComputer implements IDGiver {
 		options.setDescription("edges-output", "Defines the edges output to generate.");
 		options.add("pt-output", new Option_String());
 		options.setDescription("pt-output", "Defines the public transport output to generate.");
+		options.add("profile-output", new Option_String());
+		options.setDescription("profile-output", "Defines the travel time profile output (statistics over the departure window) to generate.");
 		options.add("direct-output", 'd', new Option_String());
 		options.setDescription("direct-output", "Defines the direct output to generate.");
 		options.add("process-output", new Option_String());
@@ -323,6 +371,10 @@ public class UrMoAccessibilityComputer implements IDGiver {
 		options.beginSection("Process Options");
 		options.add("threads", new Option_Integer(1));
 		options.setDescription("threads", "The number of threads to use.");
+		options.add("origin-costs", new Option_String());
+		options.setDescription("origin-costs", "Reads the computation times of the origins from the process output of a previous run for balancing the threads.");
+		options.add("origin-order", new Option_String("id"));
+		options.setDescription("origin-order", "The order the origin edges are processed in ['id', 'hilbert'].");
 		options.add("verbose", 'v', new Option_Bool());
 		options.setDescription("verbose", "Prints what is being done.");
 		options.add("net.report-all-errors", new Option_Bool());
@@ -443,6 +495,54 @@ public class UrMoAccessibilityComputer implements IDGiver {
 			}
 		}
 		//
+		if(options.isSet("routing-engine")) {
+			String t = options.getString("routing-engine");
+			if(!"dijkstra".equals(t)&&!"ch".equals(t)&&!"rphast".equals(t)&&!"raptor".equals(t)) {
+				System.err.println("Unknown routing engine '" + t + "'; allowed are: 'dijkstra', 'ch', 'rphast', 'raptor'.");
+				check = false;
+			}
+		}
+		//
+		if(options.isSet("search-direction")) {
+			String t = options.getString("search-direction");
+			if(!"forward".equals(t)&&!"backward".equals(t)&&!"nearest".equals(t)&&!"auto".equals(t)) {
+				System.err.println("Unknown search direction '" + t + "'; allowed are: 'forward', 'backward', 'nearest', 'auto'.");
+				check = false;
+			}
+		}
+		//
+		if(options.isSet("graph-order")) {
+			String t = options.getString("graph-order");
+			if(!"id".equals(t)&&!"hilbert".equals(t)) {
+				System.err.println("Unknown graph order '" + t + "'; allowed are: 'id', 'hilbert'.");
+				check = false;
+			}
+		}
+		//
+		if(options.isSet("origin-order")) {
+			String t = options.getString("origin-order");
+			if(!"id".equals(t)&&!"hilbert".equals(t)) {
+				System.err.println("Unknown origin order '" + t + "'; allowed are: 'id', 'hilbert'.");
+				check = false;
+			}
+		}
+		//
+		if(options.isSet("time-window")) {
+			if(options.getInteger("time-window")<=0) {
+				System.err.println("Error: The departure window must be positive.");
+				check = false;
+			}
+			if(options.getInteger("time-step")<=0) {
+				System.err.println("Error: The time between two departures must be positive.");
+				check = false;
+			}
+			String t = options.getString("routing-engine");
+			if(!"dijkstra".equals(t)&&!"raptor".equals(t)) {
+				System.err.println("Error: A departure window can only be used with the routing engines 'dijkstra' and 'raptor'.");
+				check = false;
+			}
+		}
+		//
 		if(options.isSet("net.vmax-model")) {
 			String t = options.getString("net.vmax-model");
 			if(!"none".equals(t)&&!"vmm1".equals(t)) {
@@ -600,7 +700,7 @@ public class UrMoAccessibilityComputer implements IDGiver {
 		CrossingTimesModel_CTM1 ctm = "ctm1".equals(options.getString("crossing-model")) ? new CrossingTimesModel_CTM1(ctmWriter) : null;
 		DBNet net = NetLoader.loadNet(this, options.getString("net"), netBoundary, options.getString("net.vmax"), options.getString("net.geom"), 
 				epsg, modes, netErrorsOutput, options.getBool("net.report-all-errors"), options.getBool("net.patch-errors"),
-				!options.getBool("net.incline"), ctm);
+				!options.getBool("net.incline"), ctm, options.getInteger("threads"));
 		if (net.getNumEdges()==0) {
 			throw new IOException("No network edges loaded.");
 		}
@@ -683,10 +783,11 @@ public class UrMoAccessibilityComputer implements IDGiver {
 		}
 		
 		// public transport network
+		GTFSData gtfs = null;
 		if (options.isSet("pt")) {
 			if (verbose) System.out.println("Reading the public transport network");
 			Geometry ptBoundary = InputReader.getGeometry(options.getString("pt.boundary"), "pt.boundary", epsg);
-			GTFSData gtfs = GTFSLoader.load(options, ptBoundary, net, entrainmentMap, epsg, options.getInteger("threads"), verbose);
+			gtfs = GTFSLoader.load(options, ptBoundary, net, entrainmentMap, epsg, options.getInteger("threads"), verbose);
 			if(gtfs==null) {
 				return false;
 			}
@@ -706,10 +807,18 @@ public class UrMoAccessibilityComputer implements IDGiver {
 		if (options.isSet("od-connections")) {
 			if (verbose) System.out.println("Reading the explicite O/D connections");
 			connections = InputReader.loadODConnections(options.getString("od-connections"));
-			nextConnectionPointer = connections.iterator();
+			connections.groupByOrigin();
+			nextConnectionGroup = 0;
 			if (verbose) System.out.println(" loaded");
 		}
 
+		// computation times of a previous run
+		if (options.isSet("origin-costs")) {
+			if (verbose) System.out.println("Reading the computation times of the origins");
+			originCosts = InputReader.loadOriginCosts(options.getString("origin-costs"));
+			if (verbose) System.out.println(" " + originCosts.size() + " computation times loaded");
+		}
+
 		// -------- simplify the network#1
 		if(!hadError&&options.getBool("prunning.join-similar")) {
 			//System.err.println("Error: Joining edges is currently not working. Come back :-)");
@@ -767,10 +876,19 @@ public class UrMoAccessibilityComputer implements IDGiver {
 				net.precomputeTTs(m.vmax);
 			}
 		}
+		
+		// -------- build the routing graph
+		boolean hilbertOrder = "hilbert".equals(options.getString("graph-order"));
+		if (verbose && hilbertOrder) System.out.println("Numbering the nodes along a Hilbert curve");
+		graph = new RoutingGraph(net, hilbertOrder);
+		if (verbose && hilbertOrder) {
+			System.out.println(" mean index distance of connected nodes: " + String.format(Locale.US, "%.1f", graph.getMeanIndexDistance())
+					+ ", edges within 16 nodes: " + String.format(Locale.US, "%.1f", graph.getShareOfCloseEdges(16) * 100.) + "%");
+		}
 
 		// -------- build outputs
 		@SuppressWarnings("rawtypes")
-		Vector<AggregatorBase> aggregators = OutputBuilder.buildOutputs(options, fromLayer, fromAggLayer, /*fromTypes,*/ toLayer, toAggLayer, toTypes, epsg);
+		Vector<AggregatorBase> aggregators = OutputBuilder.buildOutputs(options, fromLayer, fromAggLayer, /*fromTypes,*/ toLayer, toAggLayer, toTypes, epsg, graph);
 		DirectWriter dw = OutputBuilder.buildDirectOutput(options, epsg, nearestToEdges);
 		ProcessWriter tl = OutputBuilder.buildProcessWriter(options);
 		time = options.getInteger("time");
@@ -799,6 +917,122 @@ public class UrMoAccessibilityComputer implements IDGiver {
 				hadError = true;
 			}
 		}
+		// -------- contraction hierarchy
+		String engine = options.getString("routing-engine");
+		if("ch".equals(engine) || "rphast".equals(engine)) {
+			if(modes.size()>1 || options.isSet("pt")) {
+				System.err.println("Error: the routing engine '" + engine + "' can only be used for a single mode without public transport.");
+				hadError = true;
+			} else if(graph.hasSpeeds || !"none".equals(options.getString("crossing-model"))) {
+				System.err.println("Error: the routing engine '" + engine + "' can not be used with time-dependent travel times or a crossing model.");
+				hadError = true;
+			} else if(measure instanceof RouteWeightFunction_Price_TT) {
+				System.err.println("Error: the routing engine '" + engine + "' can not be used with the routing measure 'price_tt'.");
+				hadError = true;
+			} else {
+				if (verbose) System.out.println("Building the contraction hierarchy");
+				ch = new ContractionHierarchy(graph, modes.get(0), time);
+				if (verbose) System.out.println(" " + ch.getShortcutNumber() + " shortcuts added");
+			}
+		}
+		if(ch!=null && "rphast".equals(engine)) {
+			// the destinations are approached from the start of their edge or the start of the opposite edge
+			int[] targets = new int[nearestToEdges.size()*2];
+			int i = 0;
+			for(DBEdge e : nearestToEdges.keySet()) {
+				targets[i++] = e.getFromNode().getIndex();
+				targets[i++] = e.getOppositeEdge()!=null ? e.getOppositeEdge().getFromNode().getIndex() : e.getFromNode().getIndex();
+			}
+			chSweep = ch.selectSweep(targets);
+			if (verbose) System.out.println(" " + chSweep.length + " of " + ch.numNodes + " nodes are swept");
+		}
+		// -------- public transport timetable
+		if("raptor".equals(engine)) {
+			if(gtfs==null) {
+				System.err.println("Error: the routing engine 'raptor' can only be used with public transport (--pt).");
+				hadError = true;
+			} else if(modes.size()>1) {
+				System.err.println("Error: the routing engine 'raptor' can only be used for a single mode.");
+				hadError = true;
+			} else if(!(measure instanceof RouteWeightFunction_TT_ModeSpeed)) {
+				System.err.println("Error: the routing engine 'raptor' can only be used with the routing measure 'tt_mode'.");
+				hadError = true;
+			} else {
+				if (verbose) System.out.println("Building the public transport timetable");
+				raptor = new RaptorTimetable(graph, gtfs);
+				if (verbose) System.out.println(" " + raptor.getTripNumber() + " trips in " + raptor.getPatternNumber() + " patterns");
+			}
+		}
+		// -------- departure window
+		if(options.isSet("time-window")) {
+			int window = options.getInteger("time-window");
+			int step = options.getInteger("time-step");
+			departures = new int[(window+step-1)/step];
+			for(int i=0; i<departures.length; ++i) {
+				departures[i] = time + i * step;
+			}
+		}
+		// -------- landmarks for single od-connections
+		if(!hadError && connections!=null && departures==null && options.getInteger("landmarks")>0 && modes.size()==1 && !options.isSet("pt")
+				&& !graph.hasSpeeds && "none".equals(options.getString("crossing-model")) && !(measure instanceof RouteWeightFunction_Price_TT)) {
+			landmarks = new Landmarks(graph, modes.get(0), time, options.getInteger("landmarks"));
+		}
+		// -------- parallel search for the last origins
+		if(!hadError && options.getBool("parallel-search")) {
+			if(connections!=null || modes.size()>1 || options.isSet("pt") || !"dijkstra".equals(engine) || departures!=null) {
+				System.err.println("Error: the parallel search can only be used for a single mode without public transport, od-connections, or a departure window, using the routing engine 'dijkstra'.");
+				hadError = true;
+			} else if(graph.hasSpeeds || !"none".equals(options.getString("crossing-model"))) {
+				System.err.println("Error: the parallel search can not be used with time-dependent travel times or a crossing model.");
+				hadError = true;
+			} else if(measure instanceof RouteWeightFunction_Price_TT) {
+				System.err.println("Error: the parallel search can not be used with the routing measure 'price_tt'.");
+				hadError = true;
+			} else if(options.isSet("max-number") || options.isSet("max-distance") || options.isSet("max-variable-sum") || options.getBool("shortest")) {
+				System.err.println("Error: the parallel search can only be bound by the travel time.");
+				hadError = true;
+			} else {
+				deltaStepping = new DeltaStepping(graph, modes.get(0), time, options.getDouble("parallel-search.delta"), options.getInteger("threads"));
+				if (verbose) System.out.println("Using the parallel search with a bucket width of " + deltaStepping.getDelta() + " s for the last origins");
+			}
+		}
+		// -------- backward searches from the destinations
+		String direction = options.getString("search-direction");
+		if(!hadError && !"forward".equals(direction)) {
+			boolean possible = connections==null && modes.size()==1 && !options.isSet("pt") && "dijkstra".equals(engine) && departures==null
+					&& !graph.hasSpeeds && "none".equals(options.getString("crossing-model")) && !(measure instanceof RouteWeightFunction_Price_TT);
+			// the nearest destinations are found by a single search started at all destinations if requested explicitly
+			boolean nearestOnly = "nearest".equals(direction);
+			int numNearest = options.getBool("shortest") ? 1 : (options.isSet("max-number") ? options.getInteger("max-number") : 0);
+			long neededMemory = nearestOnly ? NearestDestinations.getNeededMemory(graph, numNearest, toTypes) : DestinationTrees.getNeededMemory(graph, nearestToEdges.size());
+			if(!"auto".equals(direction)) {
+				if(!possible) {
+					System.err.println("Error: searching backwards can only be used for a single mode without public transport, od-connections, a departure window, time-dependent travel times, a crossing model, or the 'price_tt' routing measure, using the routing engine 'dijkstra'.");
+					hadError = true;
+				} else if(nearestOnly && (numNearest<=0 || options.isSet("max-distance") || options.isSet("max-variable-sum"))) {
+					System.err.println("Error: searching the nearest destinations requires the options --shortest or --max-number and can not be combined with the options --max-distance or --max-variable-sum.");
+					hadError = true;
+				} else if(deltaStepping!=null) {
+					System.err.println("Error: searching backwards can not be combined with the parallel search.");
+					hadError = true;
+				} else if(neededMemory>Runtime.getRuntime().maxMemory()/2) {
+					System.err.println("Warning: the backward searches need " + (neededMemory/1024/1024) + " MB.");
+				}
+			} else {
+				// the trees are not used if the results are bound by their number or value (a forward search stops early then); the labels must fit into memory
+				possible &= deltaStepping==null && !options.isSet("max-number") && !options.isSet("max-variable-sum") && !options.getBool("shortest")
+						&& nearestToEdges.size()*10<=nearestFromEdges.size() && neededMemory<=Runtime.getRuntime().maxMemory()/4;
+			}
+			if(!hadError && possible && nearestOnly) {
+				if (verbose) System.out.println("Computing the " + numNearest + " nearest destination(s) of all nodes");
+				double maxTT = options.isSet("max-tt") ? options.getDouble("max-tt") : -1;
+				nearestDestinations = new NearestDestinations(graph, modes.get(0), time, nearestToEdges, toTypes, numNearest, maxTT);
+			} else if(!hadError && possible) {
+				if (verbose) System.out.println("Computing the trees towards " + nearestToEdges.size() + " destination edges");
+				double maxTT = options.isSet("max-tt") ? options.getDouble("max-tt") : -1;
+				destinationTrees = new DestinationTrees(graph, modes.get(0), time, maxTT, options.getInteger("threads"));
+			}
+		}
 		// done everything
 		return !hadError;
 	}
@@ -831,11 +1065,15 @@ public class UrMoAccessibilityComputer implements IDGiver {
 		
 		// initialise threads
 		int numThreads = options.getInteger("threads");
-		Vector<DBEdge> fromEdges = new Vector<DBEdge>();
-		fromEdges.addAll(nearestFromEdges.keySet());
-		Collections.sort(fromEdges, (a, b) -> a.getID().compareTo(b.getID()));  
-		nextEdgePointer = fromEdges.iterator();
-		seenEdges = 0;
+		if(connections==null) {
+			// the origins at an edge share a search if the computing threads use a shared search for them
+			boolean shared = modes.size()==1 && !options.isSet("pt") && departures==null
+					&& (ch!=null || destinationTrees!=null || nearestDestinations!=null || SharedEdgeSearch.canShare(graph, measure, maxNumber, maxVar, shortestOnly));
+			scheduler = new OriginScheduler(nearestFromEdges, shared, originCosts, "hilbert".equals(options.getString("origin-order")), numThreads, verbose);
+		} else {
+			originIndex = buildObjectIndex(nearestFromEdges);
+			destinationIndex = buildObjectIndex(nearestToEdges);
+		}
 		Vector<Thread> threads = new Vector<>();
 		for (int i=0; i<numThreads; ++i) {
 			if(connections==null) {
@@ -865,87 +1103,70 @@ public class UrMoAccessibilityComputer implements IDGiver {
 	
 	
 	/**
-	 * @brief Returns the next starting edge to process
-	 * @return The next edge to start routing from
+	 * @brief Returns whether less origin edges are left than threads are used
+	 * @return Whether the remaining origin edges do not keep all threads busy
 	 */
-	public synchronized DBEdge getNextStartingEdge() {
-		DBEdge nextEdge = null;
-		while(nextEdge==null) {
-			if(!nextEdgePointer.hasNext()) {
-				return null;
-			}
-			nextEdge = nextEdgePointer.next();
-		}
-		++seenEdges;
-		if (verbose) System.out.print("\r " + seenEdges + " of " + nearestFromEdges.size() + " edges");
-		return nextEdge;
+	public boolean fewEdgesLeft() {
+		return scheduler.fewTasksLeft();
 	}
 
 	
 	/**
-	 * @brief Returns the next connection to process
-	 * @return The next connection to process
+	 * @brief Returns the next connections to process
+	 * 
+	 * All returned connections start at the same origin.
+	 * @return The next connections to process, null if all were processed
 	 */
-	public synchronized DBODRelationExt getNextOD() {
-		if(hadError) {
+	public synchronized Vector<DBODRelationExt> getNextODs() {
+		if(hadError || nextConnectionGroup>=connections.getGroupNumber()) {
 			return null;
 		}
-		DBODRelation nextOD = null;
-		while(nextOD==null) {
-			if(!nextConnectionPointer.hasNext()) {
+		int group = nextConnectionGroup++;
+		Vector<DBODRelationExt> ret = new Vector<>();
+		for(int i=connections.getGroupBegin(group); i<connections.getGroupEnd(group); ++i) {
+			DBODRelation r = connections.get(i);
+			DBODRelationExt od = new DBODRelationExt(r.origin, r.destination, r.weight);
+			od.fromMR = originIndex.get(od.origin);
+			od.toMR = destinationIndex.get(od.destination);
+			if(od.fromMR==null||od.toMR==null) {
+				if(od.fromMR==null) {
+					System.err.println("\nCould not find the edge for origin " + od.origin);
+				}
+				if(od.toMR==null) {
+					System.err.println("\nCould not find the edge for destination " + od.destination);
+				}
+				hadError = true;
 				return null;
 			}
-			nextOD = nextConnectionPointer.next();
-		}
-		DBODRelationExt ret = new DBODRelationExt(nextOD.origin, nextOD.destination, nextOD.weight);
-		ret.fromEdge = getEdgeForObject(ret.origin, nearestFromEdges);
-		ret.toEdge = getEdgeForObject(ret.destination, nearestToEdges);
-		if(ret.fromEdge==null||ret.toEdge==null) {
-			if(ret.fromEdge==null) {
-				System.err.println("\nCould not find the edge for origin " + ret.origin);
-			}
-			if(ret.toEdge==null) {
-				System.err.println("\nCould not find the edge for destination " + ret.destination);
-			}
-			hadError = true;
-			return null;
-		}
-		for(MapResult m : nearestFromEdges.get(ret.fromEdge)) {
-			if(m.em.getOuterID()==ret.origin) {
-				ret.fromMR = m;
-			}
+			od.fromEdge = od.fromMR.edge;
+			od.toEdge = od.toMR.edge;
+			ret.add(od);
 		}
-		for(MapResult m : nearestToEdges.get(ret.toEdge)) {
-			if(m.em.getOuterID()==ret.destination) {
-				ret.toMR = m;
+		for(int i=0; i<ret.size(); ++i) {
+			++seenODs;
+			if (verbose) {
+				System.out.print("\r " + seenODs + " of " + connections.size() + " connections");
 			}
 		}
-		++seenODs;
-		if (verbose) {
-			System.out.print("\r " + seenODs + " of " + connections.size() + " connections");
-		}
 		return ret;
 	}
 	
 	
 	
-	/** @brief Returns the edge the named object is allocated at
+	/** @brief Builds a map from the IDs of the mapped objects to their mapping onto the network
 	 * 
-	 * @param objID The ID of the object to find the edge for
-	 * @param mapping The previously generated mapping between objects and edges
-	 * @return The edge the named object is allocated at
-	 * @todo Recheck - iterates over all objects currently...
+	 * If an ID is mapped more than once, the first found mapping is kept.
+	 * @param mapping The previously generated mapping between edges and objects
+	 * @return A map from object IDs to their mapping
 	 */
-	private DBEdge getEdgeForObject(long objID, HashMap<DBEdge, Vector<MapResult>> mapping) {
-		for(DBEdge e : mapping.keySet()) {
-			Vector<MapResult> t = mapping.get(e);
-			for(MapResult m : t) {
-				if(m.em.getOuterID()==objID) {
-					return e;
-				}
+	private HashMap<Long, MapResult> buildObjectIndex(HashMap<DBEdge, Vector<MapResult>> mapping) {
+		HashMap<Long, MapResult> ret = new HashMap<>();
+		for(Vector<MapResult> objects : mapping.values()) {
+			for(MapResult m : objects) {
+				ret.putIfAbsent(m.em.getOuterID(), m);
 			}
 		}
-		return null;
+		return ret;
 	}
 	
 
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.alt;
+
+import java.util.Arrays;
+
+import de.dlr.ivf.urmo.router.algorithms.ch.NodeHeap;
+import de.dlr.ivf.urmo.router.shapes.RoutingGraph;
+
+/** @class ALTQuery
+ * @brief A bidirectional point-to-point search that is directed towards the goal using landmarks (ALT)
+ *
+ * A forward search starts at the given sources and a backward search starts at
+ * the given targets; both may be initialised with an offset (e.g. the travel time
+ * along a partially passed edge). Both searches use the average of the landmark
+ * bounds to the targets and from the sources as potential, which keeps the reduced
+ * travel times of both searches consistent. The search stops as soon as the sum
+ * of both queues' smallest keys reaches the best connection found so far.
+ *
+ * A query object holds arrays sized to the graph and shall be owned by a single
+ * computing thread.
+ * @author Daniel Krajzewicz
+ */
+public class ALTQuery {
+	/// @brief The landmarks to use
+	private Landmarks landmarks;
+	/// @brief The routing graph to use
+	private RoutingGraph graph;
+	/// @brief The travel times from the sources (forward search)
+	private double[] ttForward;
+	/// @brief The travel times to the targets (backward search)
+	private double[] ttBackward;
+	/// @brief The edge each node was reached by within the forward search (-1 for the sources)
+	private int[] parentForward;
+	/// @brief The edge each node was left by within the backward search (-1 for the targets)
+	private int[] parentBackward;
+	/// @brief The potential of each node (valid if the node's potential stamp matches the query)
+	private double[] potential;
+	/// @brief The query each node's potential was computed for
+	private int[] potentialStamp;
+	/// @brief The nodes that obtained a travel time within the last query
+	private int[] touched;
+	/// @brief The number of nodes that obtained a travel time within the last query
+	private int touchedNum = 0;
+	/// @brief The priority queue of the forward search
+	private NodeHeap heapForward;
+	/// @brief The priority queue of the backward search
+	private NodeHeap heapBackward;
+	/// @brief The number of the current query
+	private int stamp = 0;
+	/// @brief The sources of the current query
+	private int[] sources;
+	/// @brief The travel times the sources of the current query start with
+	private double[] sourceOffsets;
+	/// @brief The targets of the current query
+	private int[] targets;
+	/// @brief The travel times the targets of the current query end with
+	private double[] targetOffsets;
+	/// @brief The node the best connection passes (-1 if no connection was found)
+	private int meeting = -1;
+	/// @brief The travel time of the best connection
+	private double best = Double.POSITIVE_INFINITY;
+	/// @brief The number of nodes settled by the last query
+	private long settled = 0;
+
+
+	/** @brief Constructor
+	 * @param _landmarks The landmarks to use
+	 */
+	public ALTQuery(Landmarks _landmarks) {
+		landmarks = _landmarks;
+		graph = landmarks.graph;
+		int numNodes = graph.getNodeNumber();
+		ttForward = new double[numNodes];
+		Arrays.fill(ttForward, Double.POSITIVE_INFINITY);
+		ttBackward = new double[numNodes];
+		Arrays.fill(ttBackward, Double.POSITIVE_INFINITY);
+		parentForward = new int[numNodes];
+		parentBackward = new int[numNodes];
+		potential = new double[numNodes];
+		potentialStamp = new int[numNodes];
+		touched = new int[numNodes];
+		heapForward = new NodeHeap(numNodes);
+		heapBackward = new NodeHeap(numNodes);
+	}
+
+
+	/** @brief Computes the fastest connection between the given sources and the given targets
+	 * @param _sources The nodes to start at
+	 * @param _sourceOffsets The travel times the sources start with
+	 * @param _targets The nodes to end at
+	 * @param _targetOffsets The travel times added when ending at the targets
+	 * @param maxTT The maximum travel time of the connection to search up to (-1 if not used)
+	 * @return Whether a connection was found
+	 */
+	public boolean run(int[] _sources, double[] _sourceOffsets, int[] _targets, double[] _targetOffsets, double maxTT) {
+		for(int i=0; i<touchedNum; ++i) {
+			ttForward[touched[i]] = Double.POSITIVE_INFINITY;
+			ttBackward[touched[i]] = Double.POSITIVE_INFINITY;
+		}
+		touchedNum = 0;
+		heapForward.clear();
+		heapBackward.clear();
+		++stamp;
+		sources = _sources;
+		sourceOffsets = _sourceOffsets;
+		targets = _targets;
+		targetOffsets = _targetOffsets;
+		meeting = -1;
+		best = Double.POSITIVE_INFINITY;
+		settled = 0;
+		for(int i=0; i<sources.length; ++i) {
+			reach(sources[i], sourceOffsets[i], -1, true);
+		}
+		for(int i=0; i<targets.length; ++i) {
+			reach(targets[i], targetOffsets[i], -1, false);
+		}
+		while(!heapForward.isEmpty() && !heapBackward.isEmpty()) {
+			double topForward = heapForward.peekKey();
+			double topBackward = heapBackward.peekKey();
+			// no connection passing unsettled nodes may be faster than the sum of both searches' keys
+			if(topForward+topBackward>=best) {
+				break;
+			}
+			if(maxTT>=0 && topForward+topBackward>maxTT) {
+				break;
+			}
+			++settled;
+			if(topForward<=topBackward) {
+				int n = heapForward.poll();
+				int end = graph.firstOutgoing[n+1];
+				for(int e=graph.firstOutgoing[n]; e<end; ++e) {
+					reach(graph.edgeTo[e], ttForward[n]+landmarks.edgeWeight[e], e, true);
+				}
+			} else {
+				int n = heapBackward.poll();
+				int end = landmarks.firstIncoming[n+1];
+				for(int i=landmarks.firstIncoming[n]; i<end; ++i) {
+					int e = landmarks.incoming[i];
+					reach(graph.edgeFrom[e], ttBackward[n]+landmarks.edgeWeight[e], e, false);
+				}
+			}
+		}
+		return meeting>=0 && (maxTT<0 || best<=maxTT);
+	}
+
+
+	/** @brief Updates the travel time of a node within one of the searches
+	 * @param n The node
+	 * @param tt The travel time from the sources (forward) or to the targets (backward)
+	 * @param edge The edge the node is reached by (forward) or left by (backward)
+	 * @param forward Whether the forward search reaches the node
+	 */
+	private void reach(int n, double tt, int edge, boolean forward) {
+		double[] own = forward ? ttForward : ttBackward;
+		if(!(tt<own[n])) {
+			return;
+		}
+		if(ttForward[n]==Double.POSITIVE_INFINITY && ttBackward[n]==Double.POSITIVE_INFINITY) {
+			touched[touchedNum++] = n;
+		}
+		own[n] = tt;
+		if(forward) {
+			parentForward[n] = edge;
+			heapForward.push(n, tt+getPotential(n));
+		} else {
+			parentBackward[n] = edge;
+			heapBackward.push(n, tt-getPotential(n));
+		}
+		double total = ttForward[n] + ttBackward[n];
+		if(total<best) {
+			best = total;
+			meeting = n;
+		}
+	}
+
+
+	/** @brief Returns the potential of the forward search at the given node
+	 *
+	 * The potential is the half difference between the lower bound of the travel time
+	 * to the targets and the lower bound of the travel time from the sources; the
+	 * backward search uses the negated value.
+	 * @param n The node
+	 * @return The node's potential
+	 */
+	private double getPotential(int n) {
+		if(potentialStamp[n]==stamp) {
+			return potential[n];
+		}
+		double toTargets = Double.POSITIVE_INFINITY;
+		for(int i=0; i<targets.length; ++i) {
+			toTargets = Math.min(toTargets, landmarks.lowerBound(n, targets[i]) + targetOffsets[i]);
+		}
+		double fromSources = Double.POSITIVE_INFINITY;
+		for(int i=0; i<sources.length; ++i) {
+			fromSources = Math.min(fromSources, sourceOffsets[i] + landmarks.lowerBound(sources[i], n));
+		}
+		potential[n] = (toTargets - fromSources) / 2.;
+		potentialStamp[n] = stamp;
+		return potential[n];
+	}
+
+
+	/** @brief Returns the edges of the fastest connection found by the last query
+	 * @return The edges from the source to the target, null if no connection was found
+	 */
+	public int[] getPath() {
+		if(meeting<0) {
+			return null;
+		}
+		int num = 0;
+		for(int n=meeting; parentForward[n]>=0; n=graph.edgeFrom[parentForward[n]]) {
+			++num;
+		}
+		int forwardNum = num;
+		for(int n=meeting; parentBackward[n]>=0; n=graph.edgeTo[parentBackward[n]]) {
+			++num;
+		}
+		int[] ret = new int[num];
+		int i = forwardNum;
+		for(int n=meeting; i>0; n=graph.edgeFrom[parentForward[n]]) {
+			ret[--i] = parentForward[n];
+		}
+		i = forwardNum;
+		for(int n=meeting; i<num; n=graph.edgeTo[parentBackward[n]]) {
+			ret[i++] = parentBackward[n];
+		}
+		return ret;
+	}
+
+
+	/** @brief Returns the source the fastest connection starts at
+	 * @return The index of the source within the ones given to the last query, -1 if no connection was found
+	 */
+	public int getSource() {
+		if(meeting<0) {
+			return -1;
+		}
+		int n = meeting;
+		while(parentForward[n]>=0) {
+			n = graph.edgeFrom[parentForward[n]];
+		}
+		return indexOf(sources, sourceOffsets, ttForward, n);
+	}
+
+
+	/** @brief Returns the target the fastest connection ends at
+	 * @return The index of the target within the ones given to the last query, -1 if no connection was found
+	 */
+	public int getTarget() {
+		if(meeting<0) {
+			return -1;
+		}
+		int n = meeting;
+		while(parentBackward[n]>=0) {
+			n = graph.edgeTo[parentBackward[n]];
+		}
+		return indexOf(targets, targetOffsets, ttBackward, n);
+	}
+
+
+	/** @brief Returns the index of the seed a search started with at the given node
+	 * @param seeds The seed nodes
+	 * @param offsets The travel times the seeds started with
+	 * @param tt The travel times of the search
+	 * @param n The node the path ends at
+	 * @return The index of the seed
+	 */
+	private static int indexOf(int[] seeds, double[] offsets, double[] tt, int n) {
+		for(int i=0; i<seeds.length; ++i) {
+			if(seeds[i]==n && offsets[i]==tt[n]) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+	/** @brief Returns the landmarks the query uses
+	 * @return The used landmarks
+	 */
+	public Landmarks getLandmarks() {
+		return landmarks;
+	}
+
+
+	/** @brief Returns the travel time of the fastest connection found by the last query
+	 * @return The travel time including the offsets of the source and the target
+	 */
+	public double getTravelTime() {
+		return best;
+	}
+
+
+	/** @brief Returns the number of nodes settled by the last query
+	 * @return The number of settled nodes
+	 */
+	public long getSettledNum() {
+		return settled;
+	}
+
+
+}
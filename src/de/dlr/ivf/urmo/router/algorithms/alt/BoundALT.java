@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.alt;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.Vector;
+
+import de.dlr.ivf.urmo.router.algorithms.edgemapper.MapResult;
+import de.dlr.ivf.urmo.router.algorithms.routing.AbstractRouteWeightFunction;
+import de.dlr.ivf.urmo.router.algorithms.routing.BoundDijkstraBase;
+import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraEntry;
+import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraResultsStorage;
+import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraWorkspace;
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.shapes.DBEdge;
+
+/** @class BoundALT
+ * @brief A bound point-to-point routing between an origin and a single destination edge using a bidirectional ALT search
+ *
+ * As within the plain search, the origin is left in both directions of its edge
+ * and the destination edge is approached either directly or using its opposite
+ * edge. The fastest of these connections is computed by a single bidirectional
+ * query (@see ALTQuery); the found path is then converted into routing entries,
+ * so that the results are the same as the ones of the plain search.
+ *
+ * Destinations located at the origin's edge or at its opposite are not supported
+ * and must be computed using the plain search.
+ * @author Daniel Krajzewicz
+ */
+public class BoundALT extends BoundDijkstraBase {
+	/// @brief The (thread-owned) query to use
+	private ALTQuery query;
+	/// @brief The mode to use
+	private Mode mode;
+	/// @brief The number of nodes settled by the queries
+	private long seenNodes = 0;
+
+
+	/** @brief Constructor
+	 * @param _workspace The workspace to use for the search
+	 * @param _query The ALT query to use
+	 * @param _measure The route weighting function to use
+	 * @param _origin The origin of routing
+	 * @param _boundNumber Number of destinations to find (-1 if not used)
+	 * @param _boundTT Maximum travel time (-1 if not used)
+	 * @param _boundDist Maximum distance (-1 if not used)
+	 * @param _boundVar Maximum weight sum to find (-1 if not used)
+	 * @param _shortestOnly Whether only the next item shall be found
+	 * @param _time Starting time
+	 */
+	public BoundALT(DijkstraWorkspace _workspace, ALTQuery _query, AbstractRouteWeightFunction _measure, MapResult _origin, int _boundNumber, double _boundTT, double _boundDist,
+			double _boundVar, boolean _shortestOnly, int _time) {
+		super(_workspace, _measure, _origin, _boundNumber, _boundTT, _boundDist, _boundVar, _shortestOnly, _time, null);
+		query = _query;
+		mode = query.getLandmarks().mode;
+	}
+
+
+	/** @brief Returns whether the given destination can be routed to using this search
+	 * @param origin The origin of routing
+	 * @param destination The destination of routing
+	 * @return Whether the destination is located neither at the origin's edge nor at its opposite
+	 */
+	public static boolean canRoute(MapResult origin, MapResult destination) {
+		return origin.edge!=destination.edge && origin.edge.getOppositeEdge()!=destination.edge;
+	}
+
+
+	/**
+	 * @brief Computes the path to the single given destination edge
+	 *
+	 * @param ends The destination candidates (a single edge)
+	 * @param edges2dests The map from edges to destinations
+	 * @return The results of the search
+	 */
+	@Override
+	public DijkstraResultsStorage run(Set<DBEdge> ends, HashMap<DBEdge, Vector<MapResult>> edges2dests) {
+		workspace.reset();
+		int dest = ends.iterator().next().getIndex();
+		// leave the origin in both directions
+		int startEdge = origin.edge.getIndex();
+		int opposite = graph.edgeOpposite[startEdge];
+		double length = graph.edgeLength[startEdge];
+		int num = 0;
+		int[] sources = new int[2];
+		double[] sourceOffsets = new double[2];
+		DijkstraEntry[] seeds = new DijkstraEntry[2];
+		if(graph.allows(startEdge, mode.id)) {
+			double tt = graph.getTravelTime(startEdge, mode.vmax, time) * (length-origin.pos) / length;
+			seeds[num] = new DijkstraEntry(measure, null, graph.nodes[graph.edgeTo[startEdge]], origin.edge, mode, (length-origin.pos), tt, null, tt, 0, false);
+			sources[num] = graph.edgeTo[startEdge];
+			sourceOffsets[num++] = tt;
+		}
+		if(opposite>=0 && graph.allows(opposite, mode.id)) {
+			double tt = graph.getTravelTime(opposite, mode.vmax, time) * (origin.pos) / graph.edgeLength[opposite];
+			seeds[num] = new DijkstraEntry(measure, null, graph.nodes[graph.edgeTo[opposite]], graph.edges[opposite], mode, (origin.pos), tt, null, tt, 0, true);
+			sources[num] = graph.edgeTo[opposite];
+			sourceOffsets[num++] = tt;
+		}
+		if(num<2) {
+			sources = Arrays.copyOf(sources, num);
+			sourceOffsets = Arrays.copyOf(sourceOffsets, num);
+		}
+		// approach the destination edge directly or using its opposite edge
+		int[] approaches = new int[2];
+		num = 0;
+		if(graph.allows(dest, mode.id)) {
+			approaches[num++] = dest;
+		}
+		int destOpposite = graph.edgeOpposite[dest];
+		if(destOpposite>=0 && graph.allows(destOpposite, mode.id)) {
+			approaches[num++] = destOpposite;
+		}
+		DijkstraEntry entry = approach(sources, sourceOffsets, seeds, Arrays.copyOf(approaches, num), dest);
+		if(entry!=null) {
+			visitEdge(measure, dest, entry, edges2dests);
+		}
+		return seen;
+	}
+
+
+	/** @brief Computes the fastest approach of the destination edge
+	 *
+	 * As within the plain search, an approach is only valid if the travel time
+	 * and the distance at the start of the last edge are within the bounds. If the
+	 * fastest approach is not valid, the remaining one is tried.
+	 * @param sources The nodes to start at
+	 * @param sourceOffsets The travel times the sources start with
+	 * @param seeds The entries the sources start with
+	 * @param approaches The edges to approach the destination edge by (the edge itself and/or its opposite)
+	 * @param dest The index of the destination edge
+	 * @return The entry for the destination edge, null if it can not be reached within the bounds
+	 */
+	private DijkstraEntry approach(int[] sources, double[] sourceOffsets, DijkstraEntry[] seeds, int[] approaches, int dest) {
+		if(sources.length==0 || approaches.length==0) {
+			return null;
+		}
+		int[] targets = new int[approaches.length];
+		double[] targetOffsets = new double[approaches.length];
+		double maxOffset = 0;
+		for(int i=0; i<approaches.length; ++i) {
+			targets[i] = graph.edgeFrom[approaches[i]];
+			targetOffsets[i] = graph.getTravelTime(approaches[i], mode.vmax, time);
+			maxOffset = Math.max(maxOffset, targetOffsets[i]);
+		}
+		boolean found = query.run(sources, sourceOffsets, targets, targetOffsets, boundTT<0 ? -1 : boundTT+maxOffset);
+		seenNodes += query.getSettledNum();
+		if(!found) {
+			return null;
+		}
+		int target = query.getTarget();
+		int last = approaches[target];
+		// rebuild the path
+		DijkstraEntry prev = seeds[query.getSource()];
+		for(int e : query.getPath()) {
+			double edgeTT = graph.getTravelTime(e, mode.vmax, time);
+			prev = new DijkstraEntry(measure, prev, graph.nodes[graph.edgeTo[e]], graph.edges[e], mode, prev.distance+graph.edgeLength[e], prev.tt+edgeTT, null, edgeTT, 0, false);
+		}
+		if((boundTT>=0 && prev.tt>boundTT) || (boundDist>=0 && prev.distance>boundDist)) {
+			// try the other approach, if given
+			return approaches.length==1 ? null : approach(sources, sourceOffsets, seeds, new int[] { approaches[1-target] }, dest);
+		}
+		double edgeTT = targetOffsets[target];
+		return new DijkstraEntry(measure, prev, graph.nodes[graph.edgeTo[last]], graph.edges[dest], mode, prev.distance+graph.edgeLength[last], prev.tt+edgeTT, null, edgeTT, 0, last!=dest);
+	}
+
+
+	/** @brief Returns the number of visited nodes
+	 * @return The number of nodes settled by the queries
+	 */
+	@Override
+	public long getSeenNodesNum() {
+		return seenNodes;
+	}
+
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.alt;
+
+import java.util.Arrays;
+
+import de.dlr.ivf.urmo.router.algorithms.ch.NodeHeap;
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.shapes.RoutingGraph;
+
+/** @class Landmarks
+ * @brief Travel times from and to a set of landmark nodes used to bound the remaining travel time of a search (ALT)
+ *
+ * The landmarks are chosen by the "farthest" heuristic: each further landmark is
+ * the node with the largest travel time from the already chosen ones. For each
+ * landmark, the travel times from the landmark to all nodes and from all nodes
+ * to the landmark are stored. Using the triangle inequality, they yield lower
+ * bounds of the travel time between any two nodes.
+ *
+ * The landmarks are computed for a single mode of transport and static travel
+ * times. Besides the landmarks, the travel times of the edges for this mode
+ * and the incoming edges of each node are stored, so that the graph can be
+ * searched backwards.
+ * @author Daniel Krajzewicz
+ */
+public class Landmarks {
+	/// @brief The routing graph the landmarks were computed for
+	public final RoutingGraph graph;
+	/// @brief The mode of transport the landmarks were computed for
+	public final Mode mode;
+	/// @brief The travel time of each edge (infinite if the mode is not allowed)
+	public final double[] edgeWeight;
+	/// @brief The index of the first incoming edge of each node (with an additional end marker)
+	public final int[] firstIncoming;
+	/// @brief The incoming edges, grouped by the node they end at
+	public final int[] incoming;
+	/// @brief The landmark nodes
+	public final int[] nodes;
+	/// @brief The number of chosen landmarks (may be lower than the wanted one if the graph is small)
+	private int numLandmarks = 0;
+	/// @brief The travel times from each landmark to each node
+	private double[][] fromLandmark;
+	/// @brief The travel times from each node to each landmark
+	private double[][] toLandmark;
+
+
+	/** @brief Constructor
+	 *
+	 * Chooses the landmarks and computes the travel times from and to them.
+	 * @param _graph The routing graph to compute the landmarks for
+	 * @param _mode The mode of transport to use
+	 * @param time The time the (static) travel times are computed for
+	 * @param number The number of landmarks to choose
+	 */
+	public Landmarks(RoutingGraph _graph, Mode _mode, int time, int number) {
+		graph = _graph;
+		mode = _mode;
+		int numNodes = graph.getNodeNumber();
+		int numEdges = graph.getEdgeNumber();
+		edgeWeight = new double[numEdges];
+		firstIncoming = new int[numNodes+1];
+		for(int e=0; e<numEdges; ++e) {
+			edgeWeight[e] = graph.allows(e, mode.id) ? graph.getTravelTime(e, mode.vmax, time) : Double.POSITIVE_INFINITY;
+			++firstIncoming[graph.edgeTo[e]+1];
+		}
+		for(int n=0; n<numNodes; ++n) {
+			firstIncoming[n+1] += firstIncoming[n];
+		}
+		incoming = new int[numEdges];
+		int[] next = Arrays.copyOf(firstIncoming, numNodes);
+		for(int e=0; e<numEdges; ++e) {
+			incoming[next[graph.edgeTo[e]]++] = e;
+		}
+		// choose the landmarks; the first one is the node farthest from the first node
+		number = Math.min(number, numNodes);
+		nodes = new int[number];
+		fromLandmark = new double[number][];
+		toLandmark = new double[number][];
+		NodeHeap heap = new NodeHeap(numNodes);
+		double[] minTT = null;
+		int landmark = numNodes>0 ? farthest(search(0, true, heap)) : -1;
+		while(numLandmarks<number && landmark>=0) {
+			int i = numLandmarks++;
+			nodes[i] = landmark;
+			fromLandmark[i] = search(landmark, true, heap);
+			toLandmark[i] = search(landmark, false, heap);
+			if(minTT==null) {
+				minTT = Arrays.copyOf(fromLandmark[i], numNodes);
+			} else {
+				for(int n=0; n<numNodes; ++n) {
+					minTT[n] = Math.min(minTT[n], fromLandmark[i][n]);
+				}
+			}
+			landmark = farthest(minTT);
+		}
+	}
+
+
+	/** @brief Computes the travel times from or to the given node to or from all nodes
+	 * @param source The node to start at
+	 * @param forward Whether the travel times from the node (true) or to the node (false) shall be computed
+	 * @param heap The priority queue to use
+	 * @return The travel times of all nodes (infinite for unreachable ones)
+	 */
+	private double[] search(int source, boolean forward, NodeHeap heap) {
+		double[] tt = new double[graph.getNodeNumber()];
+		Arrays.fill(tt, Double.POSITIVE_INFINITY);
+		tt[source] = 0;
+		heap.push(source, 0);
+		while(!heap.isEmpty()) {
+			int n = heap.poll();
+			int end = forward ? graph.firstOutgoing[n+1] : firstIncoming[n+1];
+			for(int i=forward ? graph.firstOutgoing[n] : firstIncoming[n]; i<end; ++i) {
+				int e = forward ? i : incoming[i];
+				int m = forward ? graph.edgeTo[e] : graph.edgeFrom[e];
+				double ntt = tt[n] + edgeWeight[e];
+				if(ntt<tt[m]) {
+					tt[m] = ntt;
+					heap.push(m, ntt);
+				}
+			}
+		}
+		return tt;
+	}
+
+
+	/** @brief Returns the reachable node with the largest travel time
+	 *
+	 * Nodes with a travel time of zero (including the landmarks themselves) are not regarded.
+	 * @param tt The travel times to the nodes
+	 * @return The farthest node, -1 if no further node is reachable
+	 */
+	private static int farthest(double[] tt) {
+		int ret = -1;
+		for(int n=0; n<tt.length; ++n) {
+			if(tt[n]<Double.POSITIVE_INFINITY && tt[n]>0 && (ret<0 || tt[n]>tt[ret])) {
+				ret = n;
+			}
+		}
+		return ret;
+	}
+
+
+	/** @brief Returns a lower bound of the travel time between two nodes
+	 * @param from The node to start at
+	 * @param to The node to end at
+	 * @return A lower bound of the travel time from the first to the second node
+	 */
+	public double lowerBound(int from, int to) {
+		double ret = 0;
+		for(int i=0; i<numLandmarks; ++i) {
+			// landmark -> from -> to; not usable if one of the nodes can not be reached from the landmark
+			double[] tt = fromLandmark[i];
+			if(tt[from]<Double.POSITIVE_INFINITY && tt[to]<Double.POSITIVE_INFINITY) {
+				ret = Math.max(ret, tt[to] - tt[from]);
+			}
+			// from -> to -> landmark; not usable if the landmark can not be reached from one of the nodes
+			tt = toLandmark[i];
+			if(tt[from]<Double.POSITIVE_INFINITY && tt[to]<Double.POSITIVE_INFINITY) {
+				ret = Math.max(ret, tt[from] - tt[to]);
+			}
+		}
+		return ret;
+	}
+
+
+	/** @brief Returns the number of chosen landmarks
+	 * @return The number of landmarks
+	 */
+	public int getLandmarkNumber() {
+		return numLandmarks;
+	}
+
+
+}
@@ -0,0 +1,504 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.ch;
+
+import java.util.Arrays;
+
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.shapes.RoutingGraph;
+
+/** @class ContractionHierarchy
+ * @brief A contraction hierarchy over the routing graph for a single mode of transport
+ *
+ * The nodes are contracted one after the other in the order of their importance
+ * (the edge difference plus the number of already contracted neighbours, updated
+ * lazily). When a node is contracted, shortcuts are inserted between its remaining
+ * neighbours unless a witness path that does not pass the node is found by a
+ * (settle-limited) local search.
+ *
+ * The result is stored as two arrays-based graphs with the nodes numbered by
+ * descending importance (their "position"): the upward graph (arcs to more
+ * important nodes, grouped by their start) and the downward graph (arcs to less
+ * important nodes, grouped by their end). The downward graph can thereby be swept
+ * linearly (@see PHASTQuery).
+ *
+ * Each arc is either an original edge or a shortcut that consists of two other
+ * arcs, which allows to unpack the paths found within the hierarchy into the
+ * edges of the original graph.
+ *
+ * The hierarchy is only valid for static travel times without crossing penalties.
+ * @author Daniel Krajzewicz
+ */
+public class ContractionHierarchy {
+	/// @brief The maximum number of nodes settled by a witness search when contracting a node
+	private static final int WITNESS_SETTLE_LIMIT = 500;
+	/// @brief The maximum number of nodes settled by a witness search when computing a node's priority
+	private static final int SIMULATION_SETTLE_LIMIT = 20;
+	/// @brief The routing graph the hierarchy was built for
+	public final RoutingGraph graph;
+	/// @brief The number of nodes
+	public final int numNodes;
+	/// @brief The nodes ordered by descending importance (position -> node index)
+	public final int[] order;
+	/// @brief The position of each node (node index -> position)
+	public final int[] positions;
+	/// @brief The index of the first upward arc of each position (with an additional end marker)
+	public final int[] upFirst;
+	/// @brief The positions the upward arcs end at
+	public final int[] upTo;
+	/// @brief The travel times of the upward arcs
+	public final double[] upWeight;
+	/// @brief The arcs (@see arcEdge) the upward arcs refer to
+	public final int[] upArc;
+	/// @brief The index of the first downward arc ending at each position (with an additional end marker)
+	public final int[] downFirst;
+	/// @brief The positions the downward arcs start at
+	public final int[] downFrom;
+	/// @brief The travel times of the downward arcs
+	public final double[] downWeight;
+	/// @brief The arcs (@see arcEdge) the downward arcs refer to
+	public final int[] downArc;
+	/// @brief The original edge of each arc (-1 for shortcuts)
+	public final int[] arcEdge;
+	/// @brief The first arc of each shortcut (-1 for original edges)
+	public final int[] arcFirst;
+	/// @brief The second arc of each shortcut (-1 for original edges)
+	public final int[] arcSecond;
+	/// @brief The number of inserted shortcuts
+	private int numShortcuts = 0;
+
+
+	/** @class Contractor
+	 * @brief The temporary data used while contracting the graph
+	 */
+	private class Contractor {
+		/// @brief The number of arcs (original edges and shortcuts)
+		int numArcs = 0;
+		/// @brief The start nodes of the arcs
+		int[] arcFrom = new int[16];
+		/// @brief The end nodes of the arcs
+		int[] arcTo = new int[16];
+		/// @brief The travel times of the arcs
+		double[] arcWeight = new double[16];
+		/// @brief The original edge of the arcs (-1 for shortcuts)
+		int[] arcEdge = new int[16];
+		/// @brief The first arc of the shortcuts (-1 for original edges)
+		int[] arcFirst = new int[16];
+		/// @brief The second arc of the shortcuts (-1 for original edges)
+		int[] arcSecond = new int[16];
+		/// @brief The outgoing arcs of each node
+		int[][] out;
+		/// @brief The number of outgoing arcs of each node
+		int[] outNum;
+		/// @brief The incoming arcs of each node
+		int[][] in;
+		/// @brief The number of incoming arcs of each node
+		int[] inNum;
+		/// @brief Whether each node has been contracted
+		boolean[] contracted;
+		/// @brief The number of contracted neighbours of each node
+		int[] deletedNeighbours;
+		/// @brief The rank (contraction order) of each node
+		int[] rank;
+		/// @brief The tentative travel times of the witness search
+		double[] witnessTT;
+		/// @brief The nodes touched by the witness search
+		int[] witnessTouched;
+		/// @brief The number of nodes touched by the witness search
+		int witnessTouchedNum = 0;
+		/// @brief The priority queue of the witness search
+		NodeHeap witnessHeap;
+		/// @brief Whether each node is a target of the current witness search
+		boolean[] witnessTarget;
+
+
+		/** @brief Constructor
+		 * @param n The number of nodes
+		 */
+		Contractor(int n) {
+			out = new int[n][];
+			outNum = new int[n];
+			in = new int[n][];
+			inNum = new int[n];
+			contracted = new boolean[n];
+			deletedNeighbours = new int[n];
+			rank = new int[n];
+			witnessTT = new double[n];
+			Arrays.fill(witnessTT, Double.POSITIVE_INFINITY);
+			witnessTouched = new int[n];
+			witnessHeap = new NodeHeap(n);
+			witnessTarget = new boolean[n];
+		}
+
+
+		/** @brief Adds an arc or lowers the travel time of an existing arc between the same nodes
+		 * @param from The start node
+		 * @param to The end node
+		 * @param weight The travel time
+		 * @param edge The original edge (-1 for a shortcut)
+		 * @param first The first arc of a shortcut (-1 for an original edge)
+		 * @param second The second arc of a shortcut (-1 for an original edge)
+		 * @return Whether an arc was added or changed
+		 */
+		boolean addArc(int from, int to, double weight, int edge, int first, int second) {
+			for(int i=0; i<outNum[from]; ++i) {
+				int a = out[from][i];
+				if(arcTo[a]==to) {
+					if(arcWeight[a]<=weight) {
+						return false;
+					}
+					arcWeight[a] = weight;
+					arcEdge[a] = edge;
+					arcFirst[a] = first;
+					arcSecond[a] = second;
+					return true;
+				}
+			}
+			if(numArcs==arcFrom.length) {
+				int size = numArcs * 2;
+				arcFrom = Arrays.copyOf(arcFrom, size);
+				arcTo = Arrays.copyOf(arcTo, size);
+				arcWeight = Arrays.copyOf(arcWeight, size);
+				arcEdge = Arrays.copyOf(arcEdge, size);
+				arcFirst = Arrays.copyOf(arcFirst, size);
+				arcSecond = Arrays.copyOf(arcSecond, size);
+			}
+			int a = numArcs++;
+			arcFrom[a] = from;
+			arcTo[a] = to;
+			arcWeight[a] = weight;
+			arcEdge[a] = edge;
+			arcFirst[a] = first;
+			arcSecond[a] = second;
+			out[from] = append(out[from], outNum[from]++, a);
+			in[to] = append(in[to], inNum[to]++, a);
+			return true;
+		}
+
+
+		/** @brief Appends a value to a growable array
+		 * @param values The array (may be null)
+		 * @param num The number of values stored in the array
+		 * @param value The value to append
+		 * @return The (possibly reallocated) array
+		 */
+		int[] append(int[] values, int num, int value) {
+			if(values==null) {
+				values = new int[4];
+			} else if(num==values.length) {
+				values = Arrays.copyOf(values, num*2);
+			}
+			values[num] = value;
+			return values;
+		}
+
+
+		/** @brief Removes an arc from a list of arcs
+		 * @param values The list of arcs
+		 * @param num The number of arcs within the list
+		 * @param arc The arc to remove
+		 * @return The number of remaining arcs
+		 */
+		int remove(int[] values, int num, int arc) {
+			for(int i=0; i<num; ++i) {
+				if(values[i]==arc) {
+					values[i] = values[num-1];
+					return num - 1;
+				}
+			}
+			return num;
+		}
+
+
+		/** @brief Removes the arcs of a contracted node from the lists of its neighbours
+		 * @param v The contracted node
+		 */
+		void disconnect(int v) {
+			for(int i=0; i<inNum[v]; ++i) {
+				int u = arcFrom[in[v][i]];
+				outNum[u] = remove(out[u], outNum[u], in[v][i]);
+			}
+			for(int i=0; i<outNum[v]; ++i) {
+				int x = arcTo[out[v][i]];
+				inNum[x] = remove(in[x], inNum[x], out[v][i]);
+			}
+		}
+
+
+		/** @brief Contracts a node or counts the shortcuts its contraction would need
+		 * @param v The node to contract
+		 * @param simulate Whether the shortcuts shall only be counted
+		 * @return The number of (needed) shortcuts
+		 */
+		int contract(int v, boolean simulate) {
+			int shortcuts = 0;
+			for(int i=0; i<inNum[v]; ++i) {
+				int a = in[v][i];
+				int u = arcFrom[a];
+				if(contracted[u] || u==v) {
+					continue;
+				}
+				double maxTT = -1;
+				int targets = 0;
+				for(int j=0; j<outNum[v]; ++j) {
+					int b = out[v][j];
+					int x = arcTo[b];
+					if(!contracted[x] && x!=u && x!=v && !witnessTarget[x]) {
+						maxTT = Math.max(maxTT, arcWeight[a] + arcWeight[b]);
+						witnessTarget[x] = true;
+						++targets;
+					}
+				}
+				if(maxTT<0) {
+					continue;
+				}
+				searchWitnesses(u, v, maxTT, targets, simulate ? SIMULATION_SETTLE_LIMIT : WITNESS_SETTLE_LIMIT);
+				for(int j=0; j<outNum[v]; ++j) {
+					int b = out[v][j];
+					int x = arcTo[b];
+					if(contracted[x] || x==u || x==v) {
+						continue;
+					}
+					witnessTarget[x] = false;
+					double via = arcWeight[a] + arcWeight[b];
+					if(witnessTT[x]<=via) {
+						continue;
+					}
+					if(simulate) {
+						++shortcuts;
+					} else if(addArc(u, x, via, -1, a, b)) {
+						++shortcuts;
+					}
+				}
+				resetWitnesses();
+			}
+			return shortcuts;
+		}
+
+
+		/** @brief Performs a local search from the given node that does not pass the node to contract
+		 * @param source The node to start at
+		 * @param avoid The node to contract
+		 * @param maxTT The maximum travel time to search up to
+		 * @param targets The number of marked target nodes
+		 * @param settleLimit The maximum number of nodes to settle
+		 */
+		void searchWitnesses(int source, int avoid, double maxTT, int targets, int settleLimit) {
+			witnessTT[source] = 0;
+			witnessTouched[witnessTouchedNum++] = source;
+			witnessHeap.push(source, 0);
+			int settled = 0;
+			while(!witnessHeap.isEmpty()) {
+				double tt = witnessHeap.peekKey();
+				int u = witnessHeap.poll();
+				if(tt>maxTT || ++settled>settleLimit) {
+					break;
+				}
+				if(witnessTarget[u] && --targets==0) {
+					break;
+				}
+				for(int i=0; i<outNum[u]; ++i) {
+					int a = out[u][i];
+					int x = arcTo[a];
+					if(contracted[x] || x==avoid) {
+						continue;
+					}
+					double ntt = tt + arcWeight[a];
+					if(ntt<=maxTT && ntt<witnessTT[x]) {
+						if(witnessTT[x]==Double.POSITIVE_INFINITY) {
+							witnessTouched[witnessTouchedNum++] = x;
+						}
+						witnessTT[x] = ntt;
+						witnessHeap.push(x, ntt);
+					}
+				}
+			}
+		}
+
+
+		/** @brief Resets the data of the last witness search
+		 */
+		void resetWitnesses() {
+			for(int i=0; i<witnessTouchedNum; ++i) {
+				witnessTT[witnessTouched[i]] = Double.POSITIVE_INFINITY;
+			}
+			witnessTouchedNum = 0;
+			witnessHeap.clear();
+		}
+
+
+		/** @brief Computes the contraction priority of a node (lower is contracted earlier)
+		 * @param v The node
+		 * @return The node's priority
+		 */
+		double priority(int v) {
+			return contract(v, true) - inNum[v] - outNum[v] + deletedNeighbours[v];
+		}
+	}
+
+
+	/** @brief Constructor
+	 *
+	 * Contracts the given graph using the travel times of the given mode.
+	 * @param _graph The routing graph to build the hierarchy for
+	 * @param mode The mode of transport to use
+	 * @param time The time the (static) travel times are computed for
+	 */
+	public ContractionHierarchy(RoutingGraph _graph, Mode mode, int time) {
+		graph = _graph;
+		numNodes = graph.getNodeNumber();
+		Contractor c = new Contractor(numNodes);
+		for(int e=0; e<graph.getEdgeNumber(); ++e) {
+			if(graph.edgeFrom[e]!=graph.edgeTo[e]) {
+				c.addArc(graph.edgeFrom[e], graph.edgeTo[e], graph.getTravelTime(e, mode.vmax, time), e, -1, -1);
+			}
+		}
+		// contract the nodes by their (lazily updated) priority
+		NodeHeap queue = new NodeHeap(numNodes);
+		for(int v=0; v<numNodes; ++v) {
+			queue.push(v, c.priority(v));
+		}
+		int nextRank = 0;
+		int[] lastUpdate = new int[numNodes];
+		Arrays.fill(lastUpdate, -1);
+		while(!queue.isEmpty()) {
+			int v = queue.poll();
+			double priority = c.priority(v);
+			if(!queue.isEmpty() && priority>queue.peekKey()) {
+				queue.push(v, priority);
+				continue;
+			}
+			numShortcuts += c.contract(v, false);
+			c.contracted[v] = true;
+			c.rank[v] = nextRank++;
+			c.disconnect(v);
+			// update the priorities of the (remaining) neighbours once
+			for(int i=0; i<c.inNum[v]+c.outNum[v]; ++i) {
+				int u = i<c.inNum[v] ? c.arcFrom[c.in[v][i]] : c.arcTo[c.out[v][i-c.inNum[v]]];
+				if(!c.contracted[u] && lastUpdate[u]!=v) {
+					lastUpdate[u] = v;
+					++c.deletedNeighbours[u];
+					queue.push(u, c.priority(u));
+				}
+			}
+		}
+		// number the nodes by descending rank
+		order = new int[numNodes];
+		positions = new int[numNodes];
+		for(int v=0; v<numNodes; ++v) {
+			positions[v] = numNodes - 1 - c.rank[v];
+			order[positions[v]] = v;
+		}
+		// build the upward (grouped by start) and the downward (grouped by end) graphs
+		upFirst = new int[numNodes+1];
+		downFirst = new int[numNodes+1];
+		for(int a=0; a<c.numArcs; ++a) {
+			int from = positions[c.arcFrom[a]];
+			int to = positions[c.arcTo[a]];
+			if(to<from) {
+				++upFirst[from+1];
+			} else {
+				++downFirst[to+1];
+			}
+		}
+		for(int p=0; p<numNodes; ++p) {
+			upFirst[p+1] += upFirst[p];
+			downFirst[p+1] += downFirst[p];
+		}
+		upTo = new int[upFirst[numNodes]];
+		upWeight = new double[upFirst[numNodes]];
+		upArc = new int[upFirst[numNodes]];
+		downFrom = new int[downFirst[numNodes]];
+		downWeight = new double[downFirst[numNodes]];
+		downArc = new int[downFirst[numNodes]];
+		arcEdge = Arrays.copyOf(c.arcEdge, c.numArcs);
+		arcFirst = Arrays.copyOf(c.arcFirst, c.numArcs);
+		arcSecond = Arrays.copyOf(c.arcSecond, c.numArcs);
+		int[] upNext = Arrays.copyOf(upFirst, numNodes);
+		int[] downNext = Arrays.copyOf(downFirst, numNodes);
+		for(int a=0; a<c.numArcs; ++a) {
+			int from = positions[c.arcFrom[a]];
+			int to = positions[c.arcTo[a]];
+			if(to<from) {
+				int i = upNext[from]++;
+				upTo[i] = to;
+				upWeight[i] = c.arcWeight[a];
+				upArc[i] = a;
+			} else {
+				int i = downNext[to]++;
+				downFrom[i] = from;
+				downWeight[i] = c.arcWeight[a];
+				downArc[i] = a;
+			}
+		}
+	}
+
+
+	/** @brief Selects the positions a restricted downward sweep must visit to compute the travel times to the given nodes (RPHAST)
+	 *
+	 * These are the positions of the given nodes and of all nodes they can be
+	 * reached from using downward arcs only.
+	 * @param targets The indices of the nodes to compute the travel times to
+	 * @return The positions to sweep in ascending order
+	 */
+	public int[] selectSweep(int[] targets) {
+		boolean[] selected = new boolean[numNodes];
+		int[] stack = new int[numNodes];
+		int stackNum = 0;
+		int num = 0;
+		for(int node : targets) {
+			int p = positions[node];
+			if(!selected[p]) {
+				selected[p] = true;
+				stack[stackNum++] = p;
+				++num;
+			}
+		}
+		while(stackNum>0) {
+			int p = stack[--stackNum];
+			int arcsEnd = downFirst[p+1];
+			for(int a=downFirst[p]; a<arcsEnd; ++a) {
+				int q = downFrom[a];
+				if(!selected[q]) {
+					selected[q] = true;
+					stack[stackNum++] = q;
+					++num;
+				}
+			}
+		}
+		int[] sweep = new int[num];
+		num = 0;
+		for(int p=0; p<numNodes; ++p) {
+			if(selected[p]) {
+				sweep[num++] = p;
+			}
+		}
+		return sweep;
+	}
+
+
+	/** @brief Returns the number of inserted shortcuts
+	 * @return The number of shortcuts
+	 */
+	public int getShortcutNumber() {
+		return numShortcuts;
+	}
+
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.ch;
+
+import java.util.Arrays;
+
+/** @class NodeHeap
+ * @brief An indexed binary min-heap of node indices ordered by a double key
+ *
+ * The heap is sized to a fixed number of nodes and supports updating the key of
+ * an already enqueued node. It is used during the contraction and the queries.
+ * @author Daniel Krajzewicz
+ */
+public class NodeHeap {
+	/// @brief The enqueued nodes
+	private int[] heap;
+	/// @brief The position of each node within the heap (-1 if it is not enqueued)
+	private int[] positions;
+	/// @brief The key of each node
+	private double[] keys;
+	/// @brief The number of enqueued nodes
+	private int size = 0;
+
+
+	/** @brief Constructor
+	 * @param numNodes The number of nodes that may be enqueued
+	 */
+	public NodeHeap(int numNodes) {
+		heap = new int[numNodes];
+		positions = new int[numNodes];
+		Arrays.fill(positions, -1);
+		keys = new double[numNodes];
+	}
+
+
+	/** @brief Returns whether the heap is empty
+	 * @return Whether no node is enqueued
+	 */
+	public boolean isEmpty() {
+		return size==0;
+	}
+
+
+	/** @brief Returns whether the given node is enqueued
+	 * @param node The node to check
+	 * @return Whether the node is enqueued
+	 */
+	public boolean contains(int node) {
+		return positions[node]>=0;
+	}
+
+
+	/** @brief Returns the node with the smallest key without removing it
+	 * @return The node with the smallest key
+	 */
+	public int peek() {
+		return heap[0];
+	}
+
+
+	/** @brief Returns the smallest key
+	 * @return The key of the first node
+	 */
+	public double peekKey() {
+		return keys[heap[0]];
+	}
+
+
+	/** @brief Adds a node or updates its key if it is already enqueued
+	 * @param node The node to add
+	 * @param key The node's key
+	 */
+	public void push(int node, double key) {
+		int i = positions[node];
+		if(i<0) {
+			i = size;
+			++size;
+			heap[i] = node;
+			positions[node] = i;
+			keys[node] = key;
+			siftUp(i);
+		} else if(key<keys[node]) {
+			keys[node] = key;
+			siftUp(i);
+		} else {
+			keys[node] = key;
+			siftDown(i);
+		}
+	}
+
+
+	/** @brief Removes and returns the node with the smallest key
+	 * @return The node with the smallest key
+	 */
+	public int poll() {
+		int ret = heap[0];
+		positions[ret] = -1;
+		--size;
+		if(size>0) {
+			heap[0] = heap[size];
+			positions[heap[0]] = 0;
+			siftDown(0);
+		}
+		return ret;
+	}
+
+
+	/** @brief Removes all nodes
+	 */
+	public void clear() {
+		for(int i=0; i<size; ++i) {
+			positions[heap[i]] = -1;
+		}
+		size = 0;
+	}
+
+
+	/** @brief Moves the node at the given position towards the root until the heap is ordered
+	 * @param i The position of the node to move
+	 */
+	private void siftUp(int i) {
+		int node = heap[i];
+		double key = keys[node];
+		while(i>0) {
+			int parent = (i-1) / 2;
+			if(keys[heap[parent]]<=key) {
+				break;
+			}
+			heap[i] = heap[parent];
+			positions[heap[i]] = i;
+			i = parent;
+		}
+		heap[i] = node;
+		positions[node] = i;
+	}
+
+
+	/** @brief Moves the node at the given position towards the leaves until the heap is ordered
+	 * @param i The position of the node to move
+	 */
+	private void siftDown(int i) {
+		int node = heap[i];
+		double key = keys[node];
+		while(true) {
+			int c = 2 * i + 1;
+			if(c>=size) {
+				break;
+			}
+			if(c+1<size && keys[heap[c+1]]<keys[heap[c]]) {
+				++c;
+			}
+			if(keys[heap[c]]>=key) {
+				break;
+			}
+			heap[i] = heap[c];
+			positions[heap[i]] = i;
+			i = c;
+		}
+		heap[i] = node;
+		positions[node] = i;
+	}
+
+
+}
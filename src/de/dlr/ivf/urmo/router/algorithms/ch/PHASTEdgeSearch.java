@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.ch;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Set;
+
+import de.dlr.ivf.urmo.router.algorithms.routing.AbstractRouteWeightFunction;
+import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraEntry;
+import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraWorkspace;
+import de.dlr.ivf.urmo.router.algorithms.routing.SharedEdgeSearch;
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.shapes.DBEdge;
+
+/** @class PHASTEdgeSearch
+ * @brief A search shared by all origins located at the same edge that uses PHAST queries instead of Dijkstra searches
+ *
+ * The travel times from both ends of the origin edge to all nodes are computed
+ * using a contraction hierarchy (@see PHASTQuery). Afterwards, the paths to the
+ * edges with destinations are unpacked into the original edges, so that the
+ * results are the same as the ones of the plain search.
+ *
+ * As all destinations are reached, the search is not stopped by the number of
+ * found destinations; such bounds are applied when the results are collected.
+ * @author Daniel Krajzewicz
+ */
+public class PHASTEdgeSearch extends SharedEdgeSearch {
+	/// @brief The (thread-owned) PHAST query to use
+	private PHASTQuery query;
+	/// @brief The arcs of the path that is currently rebuilt
+	private int[] pathArcs = new int[64];
+	/// @brief The stack used to unpack shortcuts
+	private int[] unpackStack = new int[64];
+
+
+	/** @brief Constructor
+	 * @param _workspace The workspace to use for the searches
+	 * @param _query The PHAST query to use for the searches
+	 * @param _mode The mode to use
+	 * @param _measure The route weighting function to use
+	 * @param _edge The edge the origins are located at
+	 * @param _boundTT Maximum travel time (-1 if not used)
+	 * @param _boundDist Maximum distance (-1 if not used)
+	 * @param _time Starting time
+	 * @param _destTypes Map of destination types
+	 */
+	public PHASTEdgeSearch(DijkstraWorkspace _workspace, PHASTQuery _query, Mode _mode, AbstractRouteWeightFunction _measure, DBEdge _edge,
+			double _boundTT, double _boundDist, int _time, HashMap<Long, Set<String>> _destTypes) {
+		super(_workspace, _mode, _measure, _edge, _boundTT, _boundDist, _time, _destTypes);
+		query = _query;
+	}
+
+
+	/** @brief Performs a PHAST query starting at the end of the given edge
+	 * @param startEdge The index of the edge to start at
+	 * @param isOpposite Whether the edge is the opposite of the origin edge
+	 * @param ends The destination candidates
+	 * @return The reached edges with destinations
+	 */
+	@Override
+	protected Direction search(int startEdge, boolean isOpposite, Set<DBEdge> ends) {
+		workspace.reset();
+		Direction d = initDirection(startEdge, isOpposite);
+		query.run(graph.edgeTo[startEdge], boundTT);
+		for(DBEdge end : ends) {
+			int x = end.getIndex();
+			if(!graph.edgeHasDestinations[x]) {
+				continue;
+			}
+			// approached directly
+			DijkstraEntry best = approach(x, x, false);
+			// approached using the opposite edge
+			int y = graph.edgeOpposite[x];
+			if(y>=0) {
+				DijkstraEntry opposite = approach(y, x, true);
+				if(opposite!=null && (best==null || measure.compare(best, opposite)>0)) {
+					best = opposite;
+				}
+			}
+			if(best!=null) {
+				workspace.setEdgeLabel(x, best);
+			}
+		}
+		collectEdges(d);
+		return d;
+	}
+
+
+	/** @brief Builds the entry for passing the given edge at the end of the shortest path to its start
+	 * @param e The index of the edge to pass
+	 * @param dest The index of the destination edge (e or its opposite)
+	 * @param wasOpposite Whether the destination edge is approached using its opposite
+	 * @return The entry for the destination edge, null if it is not reachable within the bounds
+	 */
+	private DijkstraEntry approach(int e, int dest, boolean wasOpposite) {
+		int from = graph.edgeFrom[e];
+		if(!query.isReached(from)) {
+			return null;
+		}
+		// as within the plain search, the bounds are checked at the start of the edge
+		if(boundTT>=0 && query.getTravelTime(from)>boundTT) {
+			return null;
+		}
+		DijkstraEntry prev = entryOf(from);
+		if(prev==null || (boundDist>=0 && prev.distance>boundDist)) {
+			return null;
+		}
+		double edgeTT = graph.getTravelTime(e, mode.vmax, time);
+		int to = graph.edgeTo[e];
+		return new DijkstraEntry(measure, prev, graph.nodes[to], graph.edges[dest], mode, prev.distance+graph.edgeLength[e], prev.tt+edgeTT, null, edgeTT, 0, wasOpposite);
+	}
+
+
+	/** @brief Returns the entry of the given (reached) node, rebuilding the path to it if needed
+	 *
+	 * The entries are stored as node labels within the workspace, so that each
+	 * part of the shortest path tree is built only once.
+	 * @param node The index of the node
+	 * @return The entry for the node, null if the shortest path tree is inconsistent
+	 */
+	private DijkstraEntry entryOf(int node) {
+		// walk back to the next node with a known entry
+		ContractionHierarchy ch = query.getHierarchy();
+		int num = 0;
+		int n = node;
+		DijkstraEntry prev = workspace.getNodeLabel(n, mode);
+		while(prev==null) {
+			int a = query.getParentArc(n);
+			if(a<0 || num>=graph.getNodeNumber()) {
+				return null;
+			}
+			if(num==pathArcs.length) {
+				pathArcs = Arrays.copyOf(pathArcs, num*2);
+			}
+			pathArcs[num++] = a;
+			n = graph.edgeFrom[firstEdge(ch, a)];
+			prev = workspace.getNodeLabel(n, mode);
+		}
+		// unpack the arcs and build the entries along the path
+		for(int i=num-1; i>=0; --i) {
+			int stackNum = 0;
+			unpackStack[stackNum++] = pathArcs[i];
+			while(stackNum>0) {
+				int a = unpackStack[--stackNum];
+				if(ch.arcEdge[a]<0) {
+					if(stackNum+2>unpackStack.length) {
+						unpackStack = Arrays.copyOf(unpackStack, unpackStack.length*2);
+					}
+					unpackStack[stackNum++] = ch.arcSecond[a];
+					unpackStack[stackNum++] = ch.arcFirst[a];
+					continue;
+				}
+				int e = ch.arcEdge[a];
+				int to = graph.edgeTo[e];
+				double edgeTT = graph.getTravelTime(e, mode.vmax, time);
+				DijkstraEntry entry = new DijkstraEntry(measure, prev, graph.nodes[to], graph.edges[e], mode, prev.distance+graph.edgeLength[e], prev.tt+edgeTT, null, edgeTT, 0, false);
+				if(workspace.getNodeLabel(to, mode)==null) {
+					workspace.setNodeLabel(to, mode, entry);
+				}
+				prev = entry;
+			}
+		}
+		return prev;
+	}
+
+
+	/** @brief Returns the first original edge of the path an arc represents
+	 * @param ch The contraction hierarchy the arc belongs to
+	 * @param a The index of the arc
+	 * @return The index of the first original edge
+	 */
+	private static int firstEdge(ContractionHierarchy ch, int a) {
+		while(ch.arcEdge[a]<0) {
+			a = ch.arcFirst[a];
+		}
+		return ch.arcEdge[a];
+	}
+
+
+}
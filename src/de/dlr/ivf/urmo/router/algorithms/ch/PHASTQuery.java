@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.ch;
+
+import java.util.Arrays;
+
+/** @class PHASTQuery
+ * @brief A one-to-all shortest path tree computation on a contraction hierarchy (PHAST)
+ *
+ * The query consists of an upward Dijkstra search from the root within the upward
+ * graph, followed by a linear sweep over the downward arcs in the order of the
+ * node positions. As each node's downward arcs start at more important nodes
+ * (that are processed before), the travel times of all nodes are final after the
+ * sweep.
+ *
+ * If a restricted set of positions is given (RPHAST, @see ContractionHierarchy#selectSweep),
+ * only these positions are swept and only the travel times of the nodes the
+ * selection was built for are valid.
+ *
+ * For each node, the last arc of its shortest path within the hierarchy is
+ * stored, so that the path can be unpacked into the edges of the original graph.
+ *
+ * A query object holds arrays sized to the graph and shall be owned by a single
+ * computing thread.
+ * @author Daniel Krajzewicz
+ */
+public class PHASTQuery {
+	/// @brief The contraction hierarchy to use
+	private ContractionHierarchy ch;
+	/// @brief The positions to sweep in ascending order (null if all positions are swept)
+	private int[] sweep;
+	/// @brief The travel time to each position
+	private double[] tt;
+	/// @brief The last arc of the shortest path to each position (-1 for the root or unreached positions)
+	private int[] parentArc;
+	/// @brief The positions that obtained a travel time within the last query
+	private int[] touched;
+	/// @brief The number of positions that obtained a travel time within the last query
+	private int touchedNum = 0;
+	/// @brief The priority queue of the upward search
+	private NodeHeap heap;
+
+
+	/** @brief Constructor
+	 * @param _ch The contraction hierarchy to use
+	 * @param _sweep The positions to sweep in ascending order (null if all positions shall be swept)
+	 */
+	public PHASTQuery(ContractionHierarchy _ch, int[] _sweep) {
+		ch = _ch;
+		sweep = _sweep;
+		tt = new double[ch.numNodes];
+		Arrays.fill(tt, Double.POSITIVE_INFINITY);
+		parentArc = new int[ch.numNodes];
+		Arrays.fill(parentArc, -1);
+		touched = new int[ch.numNodes];
+		heap = new NodeHeap(ch.numNodes);
+	}
+
+
+	/** @brief Computes the travel times from the given node
+	 * @param root The index of the node to start at
+	 * @param maxTT The maximum travel time to search up to (-1 if not used)
+	 */
+	public void run(int root, double maxTT) {
+		for(int i=0; i<touchedNum; ++i) {
+			tt[touched[i]] = Double.POSITIVE_INFINITY;
+			parentArc[touched[i]] = -1;
+		}
+		touchedNum = 0;
+		// upward search; as the upward travel times are not shorter than the final ones, it may be stopped at the bound
+		int rootPos = ch.positions[root];
+		tt[rootPos] = 0;
+		touched[touchedNum++] = rootPos;
+		heap.push(rootPos, 0);
+		while(!heap.isEmpty()) {
+			if(maxTT>=0 && heap.peekKey()>maxTT) {
+				heap.clear();
+				break;
+			}
+			int p = heap.poll();
+			double ptt = tt[p];
+			int arcsEnd = ch.upFirst[p+1];
+			for(int a=ch.upFirst[p]; a<arcsEnd; ++a) {
+				int q = ch.upTo[a];
+				double ntt = ptt + ch.upWeight[a];
+				if(ntt<tt[q]) {
+					if(tt[q]==Double.POSITIVE_INFINITY) {
+						touched[touchedNum++] = q;
+					}
+					tt[q] = ntt;
+					parentArc[q] = ch.upArc[a];
+					heap.push(q, ntt);
+				}
+			}
+		}
+		// downward sweep
+		if(sweep==null) {
+			for(int p=0; p<ch.numNodes; ++p) {
+				relaxDownward(p);
+			}
+		} else {
+			for(int p : sweep) {
+				relaxDownward(p);
+			}
+		}
+	}
+
+
+	/** @brief Updates the travel time of a position using its incoming downward arcs
+	 * @param p The position to update
+	 */
+	private void relaxDownward(int p) {
+		int arcsEnd = ch.downFirst[p+1];
+		for(int a=ch.downFirst[p]; a<arcsEnd; ++a) {
+			double ntt = tt[ch.downFrom[a]] + ch.downWeight[a];
+			if(ntt<tt[p]) {
+				if(tt[p]==Double.POSITIVE_INFINITY) {
+					touched[touchedNum++] = p;
+				}
+				tt[p] = ntt;
+				parentArc[p] = ch.downArc[a];
+			}
+		}
+	}
+
+
+	/** @brief Returns the contraction hierarchy the query runs on
+	 * @return The used contraction hierarchy
+	 */
+	public ContractionHierarchy getHierarchy() {
+		return ch;
+	}
+
+
+	/** @brief Returns whether the given node was reached by the last query
+	 * @param node The index of the node
+	 * @return Whether the node is reachable from the root
+	 */
+	public boolean isReached(int node) {
+		return tt[ch.positions[node]]<Double.POSITIVE_INFINITY;
+	}
+
+
+	/** @brief Returns the travel time to the given node
+	 * @param node The index of the node
+	 * @return The travel time from the root to the node
+	 */
+	public double getTravelTime(int node) {
+		return tt[ch.positions[node]];
+	}
+
+
+	/** @brief Returns the last arc of the shortest path to the given node
+	 * @param node The index of the node
+	 * @return The index of the last arc within the hierarchy, -1 for the root or unreached nodes
+	 */
+	public int getParentArc(int node) {
+		return parentArc[ch.positions[node]];
+	}
+
+
+}
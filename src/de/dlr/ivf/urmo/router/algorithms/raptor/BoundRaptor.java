@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.raptor;
+
+import java.util.HashMap;
+import java.util.Set;
+import java.util.Vector;
+
+import de.dlr.ivf.urmo.router.algorithms.edgemapper.MapResult;
+import de.dlr.ivf.urmo.router.algorithms.routing.AbstractRouteWeightFunction;
+import de.dlr.ivf.urmo.router.algorithms.routing.BoundDijkstraBase;
+import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraEntry;
+import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraResultsStorage;
+import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraWorkspace;
+import de.dlr.ivf.urmo.router.gtfs.GTFSConnection;
+import de.dlr.ivf.urmo.router.gtfs.GTFSStop;
+import de.dlr.ivf.urmo.router.gtfs.GTFSTrip;
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.shapes.DBEdge;
+import de.dlr.ivf.urmo.router.shapes.DBNode;
+
+/** @class BoundRaptor
+ * @brief A 1-to-many search using public transport that works in rounds (RAPTOR)
+ *
+ * The search starts with walking from the origin along the road network. Each
+ * following round scans the patterns (@see RaptorTimetable) that can be boarded
+ * at the stops improved within the prior round, boarding the earliest trip that
+ * can be reached (regarding the interchange times of the stops), and walks
+ * from the stops that were improved by the ridden trips. The search ends when
+ * no stop is improved anymore.
+ *
+ * The labels of the nodes and edges are stored in the workspace as within the
+ * plain search; the trips' hops are stored as routing entries that hold the used
+ * connection, so that the paths can be evaluated as the ones of the plain search.
+ *
+ * As destinations are not found ordered by their travel time, the search is not
+ * stopped by the number of found destinations; such bounds are applied when the
+ * results are collected.
+ * @author Daniel Krajzewicz
+ */
+public class BoundRaptor extends BoundDijkstraBase {
+	/// @brief The (thread-owned) state of the rounds
+	private RaptorWorkspace raptorWorkspace;
+	/// @brief The timetable to use
+	private RaptorTimetable timetable;
+	/// @brief The mode of transport to use
+	private Mode mode;
+	/// @brief The map from edges to destinations
+	private HashMap<DBEdge, Vector<MapResult>> edges2dests;
+	/// @brief The interchange time needed to board the trip found by the last call of earliestTrip
+	private double boardingInterchangeTT = 0;
+
+
+	/** @brief Constructor
+	 * @param _workspace The workspace to use for the search
+	 * @param _raptorWorkspace The state of the rounds to use
+	 * @param _measure The route weighting function to use
+	 * @param _origin The origin of routing
+	 * @param _boundNumber Number of destinations to find (-1 if not used)
+	 * @param _boundTT Maximum travel time (-1 if not used)
+	 * @param _boundDist Maximum distance (-1 if not used)
+	 * @param _boundVar Maximum weight sum to find (-1 if not used)
+	 * @param _shortestOnly Whether only the next item shall be found
+	 * @param _time Starting time
+	 * @param destTypes Map of destination types
+	 */
+	public BoundRaptor(DijkstraWorkspace _workspace, RaptorWorkspace _raptorWorkspace, AbstractRouteWeightFunction _measure, MapResult _origin, int _boundNumber, double _boundTT, double _boundDist,
+			double _boundVar, boolean _shortestOnly, int _time, HashMap<Long, Set<String>> destTypes) {
+		super(_workspace, _measure, _origin, _boundNumber, _boundTT, _boundDist, _boundVar, _shortestOnly, _time, destTypes);
+		raptorWorkspace = _raptorWorkspace;
+		timetable = raptorWorkspace.timetable;
+		mode = raptorWorkspace.mode;
+	}
+
+
+	/**
+	 * @brief Computes the paths to the destinations using public transport
+	 *
+	 * @param ends The destination candidates
+	 * @param _edges2dests The map from edges to destinations
+	 * @return The results of the search
+	 */
+	@Override
+	public DijkstraResultsStorage run(Set<DBEdge> ends, HashMap<DBEdge, Vector<MapResult>> _edges2dests) {
+		workspace.reset();
+		raptorWorkspace.reset();
+		edges2dests = _edges2dests;
+		// leave the origin in both directions
+		int startEdge = origin.edge.getIndex();
+		double length = graph.edgeLength[startEdge];
+		if(graph.allows(startEdge, mode.id)) {
+			int startNode = graph.edgeTo[startEdge];
+			double tt = graph.getTravelTime(startEdge, mode.vmax, time) * (length-origin.pos) / length;
+			DijkstraEntry nm = new DijkstraEntry(measure, null, graph.nodes[startNode], origin.edge, mode, (length-origin.pos), tt, null, tt, 0, false);
+			improve(startNode, nm, null);
+			visitFirstEdge(measure, startEdge, nm, edges2dests, false);
+		}
+		int e = graph.edgeOpposite[startEdge];
+		if(e>=0 && graph.allows(e, mode.id)) {
+			int startNode = graph.edgeTo[e];
+			double tt = graph.getTravelTime(e, mode.vmax, time) * (origin.pos) / graph.edgeLength[e];
+			DijkstraEntry nm = new DijkstraEntry(measure, null, graph.nodes[startNode], graph.edges[e], mode, (origin.pos), tt, null, tt, 0, true);
+			DijkstraEntry prior = workspace.getNodeLabel(startNode, mode);
+			if(prior==null || measure.compare(prior, nm)>0) {
+				improve(startNode, nm, prior);
+			}
+			visitFirstEdge(measure, e, nm, edges2dests, true);
+		}
+		walk();
+		// ride and walk until no stop is improved anymore
+		int numPatterns = raptorWorkspace.nextRound();
+		while(numPatterns!=0) {
+			for(int i=0; i<numPatterns; ++i) {
+				int p = raptorWorkspace.getPattern(i);
+				scanPattern(p, raptorWorkspace.getPatternBegin(p));
+			}
+			walk();
+			numPatterns = raptorWorkspace.nextRound();
+		}
+		return seen;
+	}
+
+
+	/** @brief Walks along the road network from the enqueued nodes
+	 */
+	private void walk() {
+		while (!next.isEmpty()) {
+			DijkstraEntry nns = next.poll();
+			// check bounds
+			if (boundTT >= 0 && nns.tt > boundTT) {
+				continue;
+			}
+			if (boundDist >= 0 && nns.distance > boundDist) {
+				continue;
+			}
+			// iterate over outgoing edges
+			int ni = nns.n.getIndex();
+			int oesEnd = graph.firstOutgoing[ni+1];
+			for (int oei=graph.firstOutgoing[ni]; oei<oesEnd; ++oei) {
+				if (timetable.transitEdges[oei] || !graph.allows(oei, mode.id)) {
+					continue;
+				}
+				DBEdge oe = graph.edges[oei];
+				double edge_tt = graph.getTravelTime(oei, mode.vmax, time + nns.tt) + graph.getCrossingTime(nns.e.getIndex(), oei);
+				int n = graph.edgeTo[oei];
+				double distance = nns.distance + graph.edgeLength[oei];
+				double ctt = nns.tt + edge_tt;
+				DijkstraEntry oldValue = workspace.getNodeLabel(n, mode);
+				DijkstraEntry newValue = new DijkstraEntry(measure, nns, graph.nodes[n], oe, mode, distance, ctt, null, edge_tt, 0, false);
+				if(oldValue==null || measure.compare(oldValue, newValue)>0) {
+					improve(n, newValue, oldValue);
+				}
+				visitEdge(measure, oei, newValue, edges2dests);
+				// check opposite direction
+				int opposite = graph.edgeOpposite[oei];
+				if(opposite>=0 && graph.edgeHasDestinations[opposite]) {
+					DijkstraEntry newOppositeValue = new DijkstraEntry(measure, nns, graph.nodes[n], graph.edges[opposite], mode, distance, ctt, null, edge_tt, 0, true);
+					visitEdge(measure, opposite, newOppositeValue, edges2dests);
+				}
+			}
+		}
+	}
+
+
+	/** @brief Rides along a pattern, starting at the given hop
+	 *
+	 * At each stop, the earliest trip that can be reached from the stop's label is
+	 * boarded if it is earlier than the currently ridden one. The routing entries
+	 * of the ridden hops are only built if they improve a stop.
+	 * @param p The pattern to ride along
+	 * @param begin The first hop to regard
+	 */
+	private void scanPattern(int p, int begin) {
+		int firstHop = timetable.patternFirstHop[p];
+		int hops = timetable.patternFirstHop[p+1] - firstHop;
+		int trip = -1;
+		int times = -1;
+		DijkstraEntry last = null;
+		int lastHop = -1;
+		int boardingHop = -1;
+		double interchangeTT = 0;
+		for(int h=begin; h<hops; ++h) {
+			int e = timetable.hopEdges[firstHop+h];
+			int stop = graph.edgeFrom[e];
+			// check whether an earlier trip can be boarded at this stop
+			DijkstraEntry label = workspace.getNodeLabel(stop, mode);
+			if(label!=null && label!=last && (boundTT<0 || label.tt<=boundTT) && (boundDist<0 || label.distance<=boundDist)
+					&& (trip<0 || time+label.tt<=timetable.departures[times+h])) {
+				int earlier = earliestTrip(p, h, stop, label, trip);
+				if(earlier>=0) {
+					trip = earlier;
+					times = timetable.patternTimes[p] + (trip - timetable.patternFirstTrip[p]) * hops;
+					last = label;
+					lastHop = h - 1;
+					boardingHop = h;
+					interchangeTT = boardingInterchangeTT;
+				}
+			}
+			if(trip<0) {
+				continue;
+			}
+			// check whether the ride improves the next stop
+			int to = graph.edgeTo[e];
+			double tt = timetable.arrivals[times+h] - time;
+			DijkstraEntry oldValue = workspace.getNodeLabel(to, mode);
+			if(oldValue!=null && oldValue.tt<=tt) {
+				continue;
+			}
+			// build the entries of the hops ridden since the last improvement
+			for(int i=lastHop+1; i<=h; ++i) {
+				int hop = timetable.hopEdges[firstHop+i];
+				GTFSConnection c = timetable.connections[times+i];
+				double ctt = timetable.arrivals[times+i] - time;
+				last = new DijkstraEntry(measure, last, graph.nodes[graph.edgeTo[hop]], graph.edges[hop], mode, last.distance+graph.edgeLength[hop], ctt, c, ctt-last.tt, i==boardingHop ? interchangeTT : 0, false);
+			}
+			lastHop = h;
+			if(oldValue==null || measure.compare(oldValue, last)>0) {
+				improve(to, last, oldValue);
+			}
+			visitEdge(measure, e, last, edges2dests);
+		}
+	}
+
+
+	/** @brief Returns the earliest trip of a pattern that can be boarded at the given stop
+	 *
+	 * The trip must depart after the label's arrival plus the interchange time
+	 * between the trip the stop was reached by and the boarded one. The interchange
+	 * time is stored in boardingInterchangeTT.
+	 * @param p The pattern
+	 * @param h The hop of the pattern that starts at the stop
+	 * @param stop The index of the stop node
+	 * @param label The label of the stop
+	 * @param before The currently ridden trip (only earlier trips are regarded, -1 if no trip is ridden)
+	 * @return The index of the earliest trip, -1 if no (earlier) trip can be boarded
+	 */
+	private int earliestTrip(int p, int h, int stop, DijkstraEntry label, int before) {
+		int firstTrip = timetable.patternFirstTrip[p];
+		int hops = timetable.patternFirstHop[p+1] - timetable.patternFirstHop[p];
+		int base = timetable.patternTimes[p] + h;
+		int end = before>=0 ? before : timetable.patternFirstTrip[p+1];
+		double arrival = time + label.tt;
+		// binary search for the first trip departing after the arrival
+		int lo = firstTrip;
+		int hi = end;
+		while(lo<hi) {
+			int mid = (lo + hi) >>> 1;
+			if(timetable.departures[base+(mid-firstTrip)*hops]<arrival) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		// skip trips that can not be reached due to the interchange time
+		GTFSTrip prevTrip = label.ptConnection!=null ? label.ptConnection.trip : null;
+		DBNode node = graph.nodes[stop];
+		for(int t=lo; t<end; ++t) {
+			int i = base + (t-firstTrip) * hops;
+			GTFSTrip trip = timetable.connections[i].trip;
+			double interchangeTT = 0;
+			if(!trip.equals(prevTrip) && node instanceof GTFSStop) {
+				interchangeTT = ((GTFSStop) node).getInterchangeTime(trip, prevTrip, 0);
+			}
+			if(timetable.departures[i]>=arrival+interchangeTT) {
+				boardingInterchangeTT = interchangeTT;
+				return t;
+			}
+		}
+		return -1;
+	}
+
+
+	/** @brief Stores an improved label of a node, enqueues it for walking and marks the node
+	 *
+	 * Within a profile search, nodes that were reached earlier when departing
+	 * later are not expanded.
+	 * @param node The index of the node
+	 * @param entry The new label
+	 * @param prior The prior label (null if there is none)
+	 */
+	private void improve(int node, DijkstraEntry entry, DijkstraEntry prior) {
+		if(!raptorWorkspace.improvesArrival(node, time+entry.tt)) {
+			// reached earlier when departing later
+			return;
+		}
+		if(prior==null) {
+			next.add(entry);
+		} else {
+			next.replace(prior, entry);
+		}
+		workspace.setNodeLabel(node, mode, entry);
+		raptorWorkspace.markStop(node);
+	}
+
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.raptor;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Vector;
+
+import de.dlr.ivf.urmo.router.gtfs.GTFSConnection;
+import de.dlr.ivf.urmo.router.gtfs.GTFSData;
+import de.dlr.ivf.urmo.router.shapes.RoutingGraph;
+
+/** @class RaptorTimetable
+ * @brief The public transport schedule stored as route patterns for round-based routing (RAPTOR)
+ *
+ * The trips are split into runs of consecutive connections and grouped into
+ * patterns of trips that pass the same sequence of public transport edges. The
+ * trips of a pattern are sorted by their departure; trips that overtake others are
+ * moved into further patterns, so that the trips of each pattern depart and
+ * arrive in the same order at all stops.
+ *
+ * The departure and arrival times are stored in flat arrays: the times of trip t
+ * of pattern p at its hop h are stored at the index
+ * patternTimes[p] + (t-patternFirstTrip[p]) * hops(p) + h, the number of hops being
+ * patternFirstHop[p+1]-patternFirstHop[p].
+ *
+ * For each node of the routing graph, the patterns that can be boarded at it are
+ * stored consecutively, starting at nodeFirstServing[n].
+ * @author Daniel Krajzewicz
+ */
+public class RaptorTimetable {
+	/// @brief The routing graph the timetable refers to
+	public final RoutingGraph graph;
+	/// @brief The index of the first hop of each pattern (with an additional end marker)
+	public final int[] patternFirstHop;
+	/// @brief The public transport edges passed by the patterns' hops
+	public final int[] hopEdges;
+	/// @brief The index of the first trip of each pattern (with an additional end marker)
+	public final int[] patternFirstTrip;
+	/// @brief The index of the first time of each pattern
+	public final int[] patternTimes;
+	/// @brief The departure times of the trips at the hops
+	public final int[] departures;
+	/// @brief The arrival times of the trips at the hops' ends
+	public final int[] arrivals;
+	/// @brief The connections of the trips at the hops
+	public final GTFSConnection[] connections;
+	/// @brief The index of the first pattern that can be boarded at each node (with an additional end marker)
+	public final int[] nodeFirstServing;
+	/// @brief The patterns that can be boarded, grouped by the node they are boarded at
+	public final int[] servingPatterns;
+	/// @brief The hop of the pattern that starts at the boarding node
+	public final int[] servingHops;
+	/// @brief Whether the edges are public transport edges
+	public final boolean[] transitEdges;
+
+
+	/** @brief Constructor
+	 *
+	 * Builds the patterns from the trips' connections.
+	 * @param _graph The routing graph to use
+	 * @param gtfs The loaded public transport schedule
+	 */
+	public RaptorTimetable(RoutingGraph _graph, GTFSData gtfs) {
+		graph = _graph;
+		int numEdges = graph.getEdgeNumber();
+		transitEdges = new boolean[numEdges];
+		for(int e=0; e<numEdges; ++e) {
+			transitEdges[e] = graph.edges[e].isGTFSEdge();
+		}
+		// split the trips into runs and group the runs by the passed edges
+		LinkedHashMap<String, Vector<GTFSConnection[]>> groups = new LinkedHashMap<>();
+		for(Vector<GTFSConnection> trip : gtfs.tripConnections) {
+			Vector<GTFSConnection> run = new Vector<>();
+			for(GTFSConnection c : trip) {
+				int e = c.edge.getIndex();
+				if(e<0 || e>=numEdges || graph.edges[e]!=c.edge || c.departureTime>c.arrivalTime) {
+					// the connection is not part of the network or is erroneous
+					addRun(groups, run);
+					continue;
+				}
+				if(run.size()!=0) {
+					GTFSConnection last = run.lastElement();
+					if(graph.edgeTo[last.edge.getIndex()]!=graph.edgeFrom[e] || last.arrivalTime>c.departureTime) {
+						// a stop is missing or the times are inconsistent
+						addRun(groups, run);
+					}
+				}
+				run.add(c);
+			}
+			addRun(groups, run);
+		}
+		// sort the runs and split them into patterns without overtaking
+		Vector<Vector<GTFSConnection[]>> patterns = new Vector<>();
+		for(Vector<GTFSConnection[]> runs : groups.values()) {
+			runs.sort((a, b) -> a[0].departureTime!=b[0].departureTime ? Integer.compare(a[0].departureTime, b[0].departureTime) : Integer.compare(a[a.length-1].arrivalTime, b[b.length-1].arrivalTime));
+			int first = patterns.size();
+			for(GTFSConnection[] run : runs) {
+				Vector<GTFSConnection[]> lane = null;
+				for(int i=first; i<patterns.size()&&lane==null; ++i) {
+					if(follows(patterns.get(i).lastElement(), run)) {
+						lane = patterns.get(i);
+					}
+				}
+				if(lane==null) {
+					lane = new Vector<>();
+					patterns.add(lane);
+				}
+				lane.add(run);
+			}
+		}
+		// build the arrays
+		int numPatterns = patterns.size();
+		patternFirstHop = new int[numPatterns+1];
+		patternFirstTrip = new int[numPatterns+1];
+		patternTimes = new int[numPatterns];
+		int numTimes = 0;
+		for(int p=0; p<numPatterns; ++p) {
+			Vector<GTFSConnection[]> trips = patterns.get(p);
+			int hops = trips.get(0).length;
+			patternFirstHop[p+1] = patternFirstHop[p] + hops;
+			patternFirstTrip[p+1] = patternFirstTrip[p] + trips.size();
+			patternTimes[p] = numTimes;
+			numTimes += hops * trips.size();
+		}
+		hopEdges = new int[patternFirstHop[numPatterns]];
+		departures = new int[numTimes];
+		arrivals = new int[numTimes];
+		connections = new GTFSConnection[numTimes];
+		int numNodes = graph.getNodeNumber();
+		nodeFirstServing = new int[numNodes+1];
+		for(int p=0; p<numPatterns; ++p) {
+			Vector<GTFSConnection[]> trips = patterns.get(p);
+			int hops = trips.get(0).length;
+			for(int h=0; h<hops; ++h) {
+				int e = trips.get(0)[h].edge.getIndex();
+				hopEdges[patternFirstHop[p]+h] = e;
+				++nodeFirstServing[graph.edgeFrom[e]+1];
+			}
+			int i = patternTimes[p];
+			for(GTFSConnection[] trip : trips) {
+				for(GTFSConnection c : trip) {
+					departures[i] = c.departureTime;
+					arrivals[i] = c.arrivalTime;
+					connections[i] = c;
+					++i;
+				}
+			}
+		}
+		for(int n=0; n<numNodes; ++n) {
+			nodeFirstServing[n+1] += nodeFirstServing[n];
+		}
+		servingPatterns = new int[nodeFirstServing[numNodes]];
+		servingHops = new int[nodeFirstServing[numNodes]];
+		int[] next = Arrays.copyOf(nodeFirstServing, numNodes);
+		for(int p=0; p<numPatterns; ++p) {
+			for(int h=patternFirstHop[p]; h<patternFirstHop[p+1]; ++h) {
+				int j = next[graph.edgeFrom[hopEdges[h]]]++;
+				servingPatterns[j] = p;
+				servingHops[j] = h - patternFirstHop[p];
+			}
+		}
+	}
+
+
+	/** @brief Adds a run of connections to the group of runs passing the same edges and clears it
+	 * @param groups The runs grouped by the passed edges
+	 * @param run The run to add
+	 */
+	private static void addRun(LinkedHashMap<String, Vector<GTFSConnection[]>> groups, Vector<GTFSConnection> run) {
+		if(run.size()==0) {
+			return;
+		}
+		StringBuilder key = new StringBuilder();
+		for(GTFSConnection c : run) {
+			key.append(c.edge.getIndex()).append(';');
+		}
+		Vector<GTFSConnection[]> runs = groups.get(key.toString());
+		if(runs==null) {
+			runs = new Vector<>();
+			groups.put(key.toString(), runs);
+		}
+		runs.add(run.toArray(new GTFSConnection[run.size()]));
+		run.clear();
+	}
+
+
+	/** @brief Returns whether a run departs and arrives not earlier than another one at all hops
+	 * @param prior The prior run
+	 * @param run The run to check
+	 * @return Whether the run does not overtake the prior one
+	 */
+	private static boolean follows(GTFSConnection[] prior, GTFSConnection[] run) {
+		for(int h=0; h<run.length; ++h) {
+			if(prior[h].departureTime>run[h].departureTime || prior[h].arrivalTime>run[h].arrivalTime) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/** @brief Returns the number of patterns
+	 * @return The number of patterns
+	 */
+	public int getPatternNumber() {
+		return patternTimes.length;
+	}
+
+
+	/** @brief Returns the number of trips
+	 * @return The number of trips (runs)
+	 */
+	public int getTripNumber() {
+		return patternFirstTrip[patternTimes.length];
+	}
+
+
+}
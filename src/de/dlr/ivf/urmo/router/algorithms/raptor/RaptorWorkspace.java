@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.raptor;
+
+import java.util.Arrays;
+
+import de.dlr.ivf.urmo.router.modes.Mode;
+
+/** @class RaptorWorkspace
+ * @brief The (thread-owned) state of the rounds of a RAPTOR search
+ *
+ * Keeps the stops improved within the current round and the patterns to scan
+ * within the next one. Stops and patterns are marked using epoch stamps, so that
+ * nothing has to be cleared between the rounds.
+ *
+ * During a profile search (@see ProfileRaptor), the earliest arrivals at the nodes
+ * are kept over the departures, so that a search for an earlier departure does not
+ * expand nodes that were reached earlier when departing later.
+ * @author Daniel Krajzewicz
+ */
+public class RaptorWorkspace {
+	/// @brief The timetable to use
+	public final RaptorTimetable timetable;
+	/// @brief The mode of transport used to walk and to ride
+	public final Mode mode;
+	/// @brief Whether the patterns may be used with the mode
+	private boolean[] usable;
+	/// @brief The epoch each node was marked at
+	private int[] stopStamps;
+	/// @brief The stops marked within the current round
+	private int[] marked;
+	/// @brief The number of stops marked within the current round
+	private int markedNum = 0;
+	/// @brief The epoch each pattern was marked at
+	private int[] patternStamps;
+	/// @brief The first hop to scan of each marked pattern
+	private int[] patternBegins;
+	/// @brief The marked patterns
+	private int[] patterns;
+	/// @brief The number of marked patterns
+	private int patternNum = 0;
+	/// @brief The current epoch
+	private int epoch = 0;
+	/// @brief The earliest arrivals at the nodes found during the current profile search
+	private double[] arrivals;
+	/// @brief The profile search each node's arrival was set within
+	private int[] arrivalStamps;
+	/// @brief The current profile search (0 if no profile search is running)
+	private int profile = 0;
+	/// @brief The number of profile searches performed so far
+	private int profileNum = 0;
+
+
+	/** @brief Constructor
+	 * @param _timetable The timetable to use
+	 * @param _mode The mode of transport to use
+	 */
+	public RaptorWorkspace(RaptorTimetable _timetable, Mode _mode) {
+		timetable = _timetable;
+		mode = _mode;
+		int numPatterns = timetable.getPatternNumber();
+		usable = new boolean[numPatterns];
+		for(int p=0; p<numPatterns; ++p) {
+			usable[p] = timetable.graph.allows(timetable.hopEdges[timetable.patternFirstHop[p]], mode.id);
+		}
+		int numNodes = timetable.graph.getNodeNumber();
+		stopStamps = new int[numNodes];
+		marked = new int[64];
+		patternStamps = new int[numPatterns];
+		patternBegins = new int[numPatterns];
+		patterns = new int[numPatterns];
+		arrivals = new double[numNodes];
+		arrivalStamps = new int[numNodes];
+	}
+
+
+	/** @brief Prepares the workspace for a new search
+	 */
+	public void reset() {
+		markedNum = 0;
+		patternNum = 0;
+		nextEpoch();
+	}
+
+
+	/** @brief Starts a profile search, forgetting the arrivals of the prior one
+	 */
+	public void beginProfile() {
+		++profileNum;
+		if(profileNum==Integer.MAX_VALUE) {
+			Arrays.fill(arrivalStamps, 0);
+			profileNum = 1;
+		}
+		profile = profileNum;
+	}
+
+
+	/** @brief Ends a profile search
+	 */
+	public void endProfile() {
+		profile = 0;
+	}
+
+
+	/** @brief Returns whether the given arrival at a node is earlier than the ones found for later departures
+	 *
+	 * Stores the arrival if so. Always returns true if no profile search is running.
+	 * @param node The index of the node
+	 * @param arrival The (absolute) arrival time at the node
+	 * @return Whether the node shall be expanded
+	 */
+	public boolean improvesArrival(int node, double arrival) {
+		if(profile==0) {
+			return true;
+		}
+		if(arrivalStamps[node]==profile && arrivals[node]<=arrival) {
+			return false;
+		}
+		arrivalStamps[node] = profile;
+		arrivals[node] = arrival;
+		return true;
+	}
+
+
+	/** @brief Marks a node whose label was improved if patterns can be boarded at it
+	 * @param node The index of the improved node
+	 */
+	public void markStop(int node) {
+		if(stopStamps[node]==epoch || timetable.nodeFirstServing[node]==timetable.nodeFirstServing[node+1]) {
+			return;
+		}
+		stopStamps[node] = epoch;
+		if(markedNum==marked.length) {
+			marked = Arrays.copyOf(marked, markedNum*2);
+		}
+		marked[markedNum++] = node;
+	}
+
+
+	/** @brief Collects the patterns to scan at the marked stops and starts a new round
+	 * @return The number of patterns to scan
+	 */
+	public int nextRound() {
+		nextEpoch();
+		patternNum = 0;
+		for(int i=0; i<markedNum; ++i) {
+			int stop = marked[i];
+			int end = timetable.nodeFirstServing[stop+1];
+			for(int j=timetable.nodeFirstServing[stop]; j<end; ++j) {
+				int p = timetable.servingPatterns[j];
+				if(!usable[p]) {
+					continue;
+				}
+				int h = timetable.servingHops[j];
+				if(patternStamps[p]!=epoch) {
+					patternStamps[p] = epoch;
+					patternBegins[p] = h;
+					patterns[patternNum++] = p;
+				} else if(h<patternBegins[p]) {
+					patternBegins[p] = h;
+				}
+			}
+		}
+		markedNum = 0;
+		return patternNum;
+	}
+
+
+	/** @brief Returns a pattern to scan within the current round
+	 * @param i The index of the marked pattern
+	 * @return The pattern
+	 */
+	public int getPattern(int i) {
+		return patterns[i];
+	}
+
+
+	/** @brief Returns the first hop of a pattern to scan within the current round
+	 * @param pattern The pattern
+	 * @return The first hop to scan
+	 */
+	public int getPatternBegin(int pattern) {
+		return patternBegins[pattern];
+	}
+
+
+	/** @brief Starts a new epoch, rewinding the stamps if needed
+	 */
+	private void nextEpoch() {
+		++epoch;
+		if(epoch==Integer.MAX_VALUE) {
+			Arrays.fill(stopStamps, 0);
+			Arrays.fill(patternStamps, 0);
+			epoch = 1;
+		}
+	}
+
+
+}
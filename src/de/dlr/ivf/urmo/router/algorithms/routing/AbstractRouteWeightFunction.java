@@ -19,9 +19,6 @@
 package de.dlr.ivf.urmo.router.algorithms.routing;
 
 import java.util.Comparator;
-import java.util.HashMap;
-
-import de.dlr.ivf.urmo.router.gtfs.GTFSTrip;
 
 /**
  * @class AbstractRouteWeightFunction
@@ -36,38 +33,58 @@ public abstract class AbstractRouteWeightFunction implements Comparator<Dijkstra
 
 	
 	/**
-	 * @brief Builds the measures used for weighting the path given a new path element
+	 * @brief Fills the label fields used for weighting the path given a new path element
+	 *
+	 * Called once when the path element is built; the fields computed here are
+	 * the ones the comparison is performed on, so that comparing two entries
+	 * does not need to recompute them.
 	 * @param prev The prior path element
 	 * @param current The current path element
-	 * @return A map with build measures
 	 */
-	public abstract HashMap<String, Object> buildMeasures(DijkstraEntry prev, DijkstraEntry current);
+	public abstract void buildLabel(DijkstraEntry prev, DijkstraEntry current);
+
+
+	/**
+	 * @brief Updates the label fields after the mode of transport was changed
+	 *
+	 * The path element after the change is a copy of the one before the change,
+	 * its travel time already includes the time needed for the change.
+	 * @param prev The path element before the change
+	 * @param current The path element after the change
+	 * @param price The price of the change
+	 */
+	public void buildModeChangeLabel(DijkstraEntry prev, DijkstraEntry current, double price) {
+	}
+
+
+	/**
+	 * @brief Returns whether the weight of a path never decreases when the path is extended
+	 *
+	 * Only then, the path to a destination edge that is not worse than the best
+	 * queued entry is final, so that the search may stop once the paths to all
+	 * destination edges are known (@see DijkstraWorkspace#endsSettled).
+	 * @return Whether the weight is monotone along a path
+	 */
+	public boolean isMonotone() {
+		return false;
+	}
 
 
 	/**
 	 * @brief Computes the information about interchanges performed at the trip
-	 * @param ret The map to insert the measure into
 	 * @param prev The prior path element
 	 * @param current The current path element
 	 */
-	protected void addInterchangeCount2Measures(HashMap<String, Object> ret, DijkstraEntry prev, DijkstraEntry current) {
-		int numInterchanges = 0;
+	protected void addInterchangeCount(DijkstraEntry prev, DijkstraEntry current) {
 		if(prev!=null) {
-			numInterchanges = (Integer) prev.measures.get("interchanges");
-			if(current.ptConnection!=null) {
-				GTFSTrip prevLastPT = (GTFSTrip) prev.measures.get("lastPT");
-				if(!current.ptConnection.trip.equals(prevLastPT)) {
-					numInterchanges = numInterchanges + 1;
-				}
-			}
+			current.interchanges = prev.interchanges;
+			current.lastPT = prev.lastPT;
 		}
-		ret.put("interchanges", numInterchanges);
 		if(current.ptConnection!=null) {
-			ret.put("lastPT", current.ptConnection.trip);
-		} else if(prev!=null) {
-			ret.put("lastPT", (GTFSTrip) prev.measures.get("lastPT"));
-		} else {
-			ret.put("lastPT", null);
+			if(prev!=null && !current.ptConnection.trip.equals(prev.lastPT)) {
+				current.interchanges = current.interchanges + 1;
+			}
+			current.lastPT = current.ptConnection.trip;
 		}
 	}
 
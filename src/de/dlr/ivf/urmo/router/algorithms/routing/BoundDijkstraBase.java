@@ -19,14 +19,13 @@
 package de.dlr.ivf.urmo.router.algorithms.routing;
 
 import java.util.HashMap;
-import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.Vector;
 
 import de.dlr.ivf.urmo.router.algorithms.edgemapper.MapResult;
 import de.dlr.ivf.urmo.router.shapes.DBEdge;
 import de.dlr.ivf.urmo.router.shapes.LayerObject;
+import de.dlr.ivf.urmo.router.shapes.RoutingGraph;
 
 /** @class BoundDijkstraBase
  * @brief A 1-to-many Dijkstra that may be bound by some values
@@ -34,6 +33,10 @@ import de.dlr.ivf.urmo.router.shapes.LayerObject;
  * @todo Check which parameter should be included in the constructor and which in the run method
  */
 public abstract class BoundDijkstraBase implements IBoundDijkstra {
+	/// @brief The routing graph to use
+	protected RoutingGraph graph;
+	/// @brief The (thread-owned) workspace holding the labels of the search
+	protected DijkstraWorkspace workspace;
 	/// @brief The origin of routing
 	protected MapResult origin;
 	/// @brief Starting time
@@ -41,9 +44,7 @@ public abstract class BoundDijkstraBase implements IBoundDijkstra {
 	/// @brief The route weighting function to use
 	protected AbstractRouteWeightFunction measure = null;
 	/// @brief The priority queue holding the next elements to process
-	protected PriorityQueue<DijkstraEntry> next = null;
-	/// @brief Information about visited edges
-	protected Map<DBEdge, DijkstraEntry> edgeMap = new HashMap<>();
+	protected DijkstraHeap next = null;
 	/// @brief The seen destinations with paths to them
 	protected DijkstraResultsStorage seen;
 	/// @brief The maximum travel time to bound the search by
@@ -53,6 +54,7 @@ public abstract class BoundDijkstraBase implements IBoundDijkstra {
 
 	
 	/** @brief Constructor
+	 * @param _workspace The workspace to use for the search
 	 * @param _measure The route weighting function to use
 	 * @param _origin The origin of routing
 	 * @param _boundNumber Number of destinations to find (-1 if not used)
@@ -63,12 +65,14 @@ public abstract class BoundDijkstraBase implements IBoundDijkstra {
 	 * @param _time Starting time
 	 * @param destTypes Map of destination types
 	 */
-	public BoundDijkstraBase(AbstractRouteWeightFunction _measure, MapResult _origin, int _boundNumber, double _boundTT, double _boundDist, 
+	public BoundDijkstraBase(DijkstraWorkspace _workspace, AbstractRouteWeightFunction _measure, MapResult _origin, int _boundNumber, double _boundTT, double _boundDist, 
 			double _boundVar, boolean _shortestOnly, int _time, HashMap<Long, Set<String>> destTypes) {
+		workspace = _workspace;
+		graph = _workspace.graph;
 		origin = _origin;
 		time = _time;
 		measure = _measure;
-		next = new PriorityQueue<DijkstraEntry>(1000, _measure);
+		next = _workspace.next;
 		if(destTypes==null) {
 			seen = new DijkstraResultsStorage_SingleType(_boundNumber, _boundTT, _boundDist, _boundVar, _shortestOnly);
 		} else {
@@ -90,18 +94,20 @@ public abstract class BoundDijkstraBase implements IBoundDijkstra {
 	/** @brief Adds the information about the first edge
 	 * 
 	 * @param measure The routing weight function to use
-	 * @param oe The accessed edge
+	 * @param oe The index of the accessed edge
 	 * @param newValue The routing element used to approach the edge
 	 * @param edges2dests The map from edges to destinations
 	 * @param isOpposite Whether the edge is at the opposite side of the accessed edge
 	 * @return Whether all needed destinations were found
 	 */
-	public boolean visitFirstEdge(AbstractRouteWeightFunction measure, DBEdge oe, DijkstraEntry newValue, HashMap<DBEdge, Vector<MapResult>> edges2dests, boolean isOpposite) {
+	public boolean visitFirstEdge(AbstractRouteWeightFunction measure, int oe, DijkstraEntry newValue, HashMap<DBEdge, Vector<MapResult>> edges2dests, boolean isOpposite) {
+		// no later path to the origin's edge is better
+		workspace.settleEdge(oe);
 		// check only edges that have attached destinations
-		if(oe.getAttachedObjectsNumber()==0) {
+		if(!graph.edgeHasDestinations[oe]) {
 			return false;
 		}
-		Vector<MapResult> toObjects = edges2dests.get(oe);
+		Vector<MapResult> toObjects = edges2dests.get(graph.edges[oe]);
 		for(MapResult mr : toObjects) {
 			LayerObject lo = (LayerObject) mr.em;
 			SingleODResult path = new SingleODResult(origin, mr, newValue, time);
@@ -116,21 +122,21 @@ public abstract class BoundDijkstraBase implements IBoundDijkstra {
 	 * For the first edge and its opposite edge, it performs a comparison for the positions --> visitFirstEdge
 	 * 
 	 * @param measure The routing weight function to use
-	 * @param oe The accessed edge
+	 * @param oei The index of the accessed edge
 	 * @param newValue The routing element used to approach the edge
 	 * @param edges2dests The map from edges to destinations
 	 * @return Whether all needed destinations were found
 	 */
-	public boolean visitEdge(AbstractRouteWeightFunction measure, DBEdge oe, DijkstraEntry newValue, HashMap<DBEdge, Vector<MapResult>> edges2dests) {
+	public boolean visitEdge(AbstractRouteWeightFunction measure, int oei, DijkstraEntry newValue, HashMap<DBEdge, Vector<MapResult>> edges2dests) {
 		// check only edges that have attached destinations
-		if(oe.getAttachedObjectsNumber()==0) {
+		if(!graph.edgeHasDestinations[oei]) {
 			return false;
 		}
 		// add the way to this edge if it's the first or the best one
-		boolean isUpdate = edgeMap.containsKey(oe);
-		if(!isUpdate || measure.compare(edgeMap.get(oe), newValue)>=0) { // !!! on an edge base? 
-			edgeMap.put(oe, newValue);
-			Vector<MapResult> toObjects = edges2dests.get(oe);
+		DijkstraEntry prior = workspace.getEdgeLabel(oei);
+		if(prior==null || measure.compare(prior, newValue)>=0) { // !!! on an edge base? 
+			workspace.setEdgeLabel(oei, newValue);
+			Vector<MapResult> toObjects = edges2dests.get(graph.edges[oei]);
 			for(MapResult mr : toObjects) {
 				LayerObject lo = (LayerObject) mr.em;
 				SingleODResult path = new SingleODResult(origin, mr, newValue, time);
@@ -145,7 +151,15 @@ public abstract class BoundDijkstraBase implements IBoundDijkstra {
 	 * @return The number of seen edges with destinations
 	 */
 	public long getSeenEdgesNum() {
-		return edgeMap.size();
+		return workspace.getSeenEdgesNum();
+	}
+
+
+	/** @brief Returns the number of visited nodes
+	 * @return The number of visited nodes
+	 */
+	public long getSeenNodesNum() {
+		return workspace.getSeenNodesNum();
 	}
 
 }
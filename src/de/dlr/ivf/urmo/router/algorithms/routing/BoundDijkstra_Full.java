@@ -28,22 +28,25 @@ import de.dlr.ivf.urmo.router.gtfs.GTFSEdge;
 import de.dlr.ivf.urmo.router.gtfs.GTFSStop;
 import de.dlr.ivf.urmo.router.gtfs.GTFSTrip;
 import de.dlr.ivf.urmo.router.modes.Mode;
-import de.dlr.ivf.urmo.router.modes.Modes;
 import de.dlr.ivf.urmo.router.shapes.DBEdge;
 import de.dlr.ivf.urmo.router.shapes.DBNode;
 
 /** @class BoundDijkstra_Full
  * @brief A 1-to-many Dijkstra that may be bound by some values (intermodal variant)
+ *
+ * The search runs on the states of the routing graph (a node reached using a
+ * mode of transport, @see RoutingGraph#getState). When a state is reached, the
+ * states of the modes that can be changed to at the node are reached as well,
+ * delayed by the time needed for the change.
  * @author Daniel Krajzewicz
  * @todo Check which parameter should be included in the constructor and which in the run method
  */
 public class BoundDijkstra_Full extends BoundDijkstraBase {
 	private Vector<Mode> modes;
-	/// @brief The information about node access
-	private HashMap<DBNode, HashMap<Mode, DijkstraEntry> > nodeMap = new HashMap<DBNode, HashMap<Mode, DijkstraEntry>>();
 	
 	
 	/** @brief Constructor
+	 * @param _workspace The workspace to use for the search
 	 * @param _modes The list of sable modes
 	 * @param _measure The route weighting function to use
 	 * @param _origin The origin of routing
@@ -55,9 +58,9 @@ public class BoundDijkstra_Full extends BoundDijkstraBase {
 	 * @param _time Starting time
 	 * @param destTypes Map of destination types
 	 */
-	public BoundDijkstra_Full(Vector<Mode> _modes, AbstractRouteWeightFunction _measure, MapResult _origin, int _boundNumber, double _boundTT, double _boundDist, 
+	public BoundDijkstra_Full(DijkstraWorkspace _workspace, Vector<Mode> _modes, AbstractRouteWeightFunction _measure, MapResult _origin, int _boundNumber, double _boundTT, double _boundDist, 
 			double _boundVar, boolean _shortestOnly, int _time, HashMap<Long, Set<String>> destTypes) {
-		super(_measure, _origin, _boundNumber, _boundTT, _boundDist, _boundVar, _shortestOnly, _time, destTypes);
+		super(_workspace, _measure, _origin, _boundNumber, _boundTT, _boundDist, _boundVar, _shortestOnly, _time, destTypes);
 		modes = _modes;
 	}
 
@@ -72,43 +75,50 @@ public class BoundDijkstra_Full extends BoundDijkstraBase {
 	 */
 	@Override
 	public DijkstraResultsStorage run(Set<DBEdge> ends, HashMap<DBEdge, Vector<MapResult>> edges2dests) {
+		workspace.reset();
+		if(measure.isMonotone()) {
+			workspace.setEnds(ends);
+		}
 		boolean hadExtension = false;
-		DBEdge startEdge = origin.edge;
+		int startEdge = origin.edge.getIndex();
+		double length = graph.edgeLength[startEdge];
+		DBNode startNode = graph.nodes[graph.edgeTo[startEdge]];
 		for(Mode usedMode : modes) {
-			if(!startEdge.allows(usedMode)) {
+			if(!graph.allows(startEdge, usedMode.id)) {
 				continue;
 			}
-			double tt = startEdge.getTravelTime(usedMode.vmax, time) * (startEdge.getLength()-origin.pos) / startEdge.getLength();
-			DijkstraEntry nm = new DijkstraEntry(measure, null, startEdge.getToNode(), startEdge, usedMode,
-					(startEdge.getLength()-origin.pos), tt, null, tt, 0, false);
-			addNodeInfo(startEdge.getToNode(), usedMode, nm);
-			addModalVariants(nm);
+			double tt = graph.getTravelTime(startEdge, usedMode.vmax, time) * (length-origin.pos) / length;
+			DijkstraEntry nm = new DijkstraEntry(measure, null, startNode, origin.edge, usedMode,
+					(length-origin.pos), tt, null, tt, 0, false);
+			addNodeInfo(startNode, usedMode, nm);
+			addModalVariants(nm, null);
 			if(visitFirstEdge(measure, startEdge, nm, edges2dests, false)) {
-				boundTT = Math.max(boundTT, startEdge.getTravelTime(usedMode.vmax, time));
+				boundTT = Math.max(boundTT, graph.getTravelTime(startEdge, usedMode.vmax, time));
 				hadExtension = true; // there won't be a better way
 			} 
 		}
 		// consider starting in the opposite direction
-		if(startEdge.getOppositeEdge()!=null) {
-			DBEdge e = startEdge.getOppositeEdge();
+		int e = graph.edgeOpposite[startEdge];
+		if(e>=0) {
+			DBNode oppositeStartNode = graph.nodes[graph.edgeTo[e]];
 			for(Mode usedMode : modes) {
-				if(!e.allows(usedMode)) {
+				if(!graph.allows(e, usedMode.id)) {
 					continue;
 				}
-				double tt = e.getTravelTime(usedMode.vmax, time) * (origin.pos) / e.getLength();
-				DijkstraEntry nm = new DijkstraEntry(measure, null, e.getToNode(), e, usedMode, (origin.pos), tt, null, tt, 0, true);
+				double tt = graph.getTravelTime(e, usedMode.vmax, time) * (origin.pos) / graph.edgeLength[e];
+				DijkstraEntry nm = new DijkstraEntry(measure, null, oppositeStartNode, graph.edges[e], usedMode, (origin.pos), tt, null, tt, 0, true);
 				next.add(nm);
-				addNodeInfo(e.getToNode(), usedMode, nm);
+				addNodeInfo(oppositeStartNode, usedMode, nm);
 				if(visitFirstEdge(measure, e, nm, edges2dests, true)) {
 					if(!hadExtension) {
-						boundTT = Math.max(boundTT, e.getTravelTime(usedMode.vmax, time));
+						boundTT = Math.max(boundTT, graph.getTravelTime(e, usedMode.vmax, time));
 						hadExtension = true; // there won't be a better way
 					}
 				}
 			}
 		}
 		
-		while (!next.isEmpty()) {
+		while (!next.isEmpty() && !workspace.endsSettled()) {
 			DijkstraEntry nns = next.poll();
 			// check bounds
 			if (boundTT >= 0 && nns.tt > boundTT) {
@@ -118,12 +128,14 @@ public class BoundDijkstra_Full extends BoundDijkstraBase {
 				continue;
 			}
 			// iterate over outgoing edges
-			Vector<DBEdge> oes = nns.n.getOutgoing();
-			for (DBEdge oe : oes) {
-				Mode usedMode = nns.usedMode;
-				if (!oe.allows(usedMode)) {
+			int ni = nns.n.getIndex();
+			int oesEnd = graph.firstOutgoing[ni+1];
+			Mode usedMode = nns.usedMode;
+			for (int oei=graph.firstOutgoing[ni]; oei<oesEnd; ++oei) {
+				if (!graph.allows(oei, usedMode.id)) {
 					continue;
 				}
+				DBEdge oe = graph.edges[oei];
 				GTFSConnection ptConnection = null;
 				double edge_tt = 0;
 				double interchangeTT = 0;
@@ -142,32 +154,32 @@ public class BoundDijkstra_Full extends BoundDijkstraBase {
 					}
 					edge_tt = ptConnection.arrivalTime - time - nns.tt + interchangeTT;
 				} else {
-					edge_tt = oe.getTravelTime(usedMode.vmax, time + nns.tt) + nns.e.getCrossingTimeTo(oe);
+					edge_tt = graph.getTravelTime(oei, usedMode.vmax, time + nns.tt) + graph.getCrossingTime(nns.e.getIndex(), oei);
 					// @todo: interchange times at nodes
 				}
-				DBNode n = oe.getToNode();
-				double distance = nns.distance + oe.getLength();
+				DBNode n = graph.nodes[graph.edgeTo[oei]];
+				double distance = nns.distance + graph.edgeLength[oei];
 				double ctt = nns.tt + edge_tt;
 				DijkstraEntry oldValue = getPriorNodeInfo(n, usedMode);
 				DijkstraEntry newValue = new DijkstraEntry(measure, nns, n, oe, usedMode, distance, ctt, ptConnection, edge_tt, interchangeTT, false);
 				if(oldValue==null) {
-					addModalVariants(newValue);
+					addModalVariants(newValue, null);
 					addNodeInfo(n, usedMode, newValue);
 				} else if(measure.compare(oldValue, newValue)>0) {
-					next.remove(oldValue);
-					addModalVariants(newValue);
+					addModalVariants(newValue, oldValue);
 					addNodeInfo(n, usedMode, newValue);
 				}
-				if(visitEdge(measure, oe, newValue, edges2dests)) {
+				if(visitEdge(measure, oei, newValue, edges2dests)) {
 					if(!hadExtension) {
 						boundTT = Math.max(boundTT, ctt+newValue.first.e.getTravelTime(newValue.first.usedMode.vmax, time));
 						hadExtension = true;
 					}
 				}
 				// check opposite direction
-				if(oe.getOppositeEdge()!=null && oe.getOppositeEdge().getAttachedObjectsNumber()!=0) {
-					DijkstraEntry newOppositeValue = new DijkstraEntry(measure, nns, n, oe.getOppositeEdge(), usedMode, distance, ctt, ptConnection, edge_tt, interchangeTT, true);
-					if(visitEdge(measure, oe.getOppositeEdge(), newOppositeValue, edges2dests)) {
+				int opposite = graph.edgeOpposite[oei];
+				if(opposite>=0 && graph.edgeHasDestinations[opposite]) {
+					DijkstraEntry newOppositeValue = new DijkstraEntry(measure, nns, n, graph.edges[opposite], usedMode, distance, ctt, ptConnection, edge_tt, interchangeTT, true);
+					if(visitEdge(measure, opposite, newOppositeValue, edges2dests)) {
 						if(!hadExtension) {
 							boundTT = Math.max(boundTT, ctt+newOppositeValue.first.e.getTravelTime(newOppositeValue.first.usedMode.vmax, time));
 							hadExtension = true;
@@ -181,23 +193,33 @@ public class BoundDijkstra_Full extends BoundDijkstraBase {
 	}
 	
 
-	private void addModalVariants(DijkstraEntry entry) {
-		next.add(entry);
-		// no mode change possible at the current node
-		if(!entry.n.allowsModeChange()) {
-			return;
+	/** @brief Enqueues the given entry and the entries for the modes of transport that can be used after it
+	 * 
+	 * The entries after a mode change are only enqueued if they improve the
+	 * state they reach.
+	 * @param entry The entry to enqueue
+	 * @param prior The entry the given one replaces (null if there is none)
+	 */
+	private void addModalVariants(DijkstraEntry entry, DijkstraEntry prior) {
+		if(prior==null) {
+			next.add(entry);
+		} else {
+			next.replace(prior, entry);
 		}
-		// check which changes are possible
-		Vector<DBNode.AllowedModeChange> allowedChanges = entry.n.getAllowedModeChanges();
-		for (DBNode.AllowedModeChange mc : allowedChanges) {
-			if(mc.getFromMode()!=entry.usedMode.id) { // !!! make a hashmap of from modes!?
-				// not the starting one
-				continue;
+		int ni = entry.n.getIndex();
+		int end = graph.getModeChangesEnd(ni, entry.usedMode);
+		for(int c=graph.getFirstModeChange(ni, entry.usedMode); c<end; ++c) {
+			Mode toMode = graph.modeChangeTo[c];
+			DijkstraEntry newEntry = new DijkstraEntry(entry, toMode, graph.modeChangeTime[c]);
+			measure.buildModeChangeLabel(entry, newEntry, graph.modeChangePrice[c]);
+			DijkstraEntry oldValue = getPriorNodeInfo(entry.n, toMode);
+			if(oldValue==null) {
+				next.add(newEntry);
+				addNodeInfo(entry.n, toMode, newEntry);
+			} else if(measure.compare(oldValue, newEntry)>0) {
+				next.replace(oldValue, newEntry);
+				addNodeInfo(entry.n, toMode, newEntry);
 			}
-			long toModeID = mc.getToMode();
-			Mode toMode = Modes.getMode(toModeID);
-			DijkstraEntry newEntry = new DijkstraEntry(entry, toMode);
-			next.add(newEntry);
 		}
 	}
 
@@ -210,11 +232,7 @@ public class BoundDijkstra_Full extends BoundDijkstraBase {
 	 * @param m The path to the node
 	 */
 	public void addNodeInfo(DBNode node, Mode mode, DijkstraEntry m) {
-		if(!nodeMap.containsKey(node)) {
-			nodeMap.put(node, new HashMap<Mode, DijkstraEntry>());
-		}
-		HashMap<Mode, DijkstraEntry> nodeVals = nodeMap.get(node);
-		nodeVals.put(mode, m);
+		workspace.setNodeLabel(node.getIndex(), mode, m);
 	}
 	
 	
@@ -224,22 +242,7 @@ public class BoundDijkstra_Full extends BoundDijkstraBase {
 	 * @return The prior node used to access the given one using the given modes
 	 */
 	public DijkstraEntry getPriorNodeInfo(DBNode node, Mode mode) {
-		if(!nodeMap.containsKey(node)) {
-			return null;
-		}
-		HashMap<Mode, DijkstraEntry> nodeVals = nodeMap.get(node);
-		if(!nodeVals.containsKey(mode)) {
-			return null;
-		}
-		return nodeVals.get(mode); 
-	}
-
-
-	/** @brief Returns the number of visited nodes
-	 * @return The number of visited nodes
-	 */
-	public long getSeenNodesNum() {
-		return nodeMap.size();
+		return workspace.getNodeLabel(node.getIndex(), mode);
 	}
 
 }
@@ -34,11 +34,10 @@ import de.dlr.ivf.urmo.router.shapes.DBNode;
  */
 public class BoundDijkstra_UniModal extends BoundDijkstraBase {
 	private Mode mode;
-	/// @brief The information about node access
-	private HashMap<DBNode, DijkstraEntry> nodeMap = new HashMap<DBNode, DijkstraEntry>();
 	
 	
 	/** @brief Constructor
+	 * @param _workspace The workspace to use for the search
 	 * @param _mode The mode to use
 	 * @param _measure The route weighting function to use
 	 * @param _origin The origin of routing
@@ -50,9 +49,9 @@ public class BoundDijkstra_UniModal extends BoundDijkstraBase {
 	 * @param _time Starting time
 	 * @param destTypes Map of destination types
 	 */
-	public BoundDijkstra_UniModal(Mode _mode, AbstractRouteWeightFunction _measure, MapResult _origin, int _boundNumber, double _boundTT, double _boundDist, 
+	public BoundDijkstra_UniModal(DijkstraWorkspace _workspace, Mode _mode, AbstractRouteWeightFunction _measure, MapResult _origin, int _boundNumber, double _boundTT, double _boundDist, 
 			double _boundVar, boolean _shortestOnly, int _time, HashMap<Long, Set<String>> destTypes) {
-		super(_measure, _origin, _boundNumber, _boundTT, _boundDist, _boundVar, _shortestOnly, _time, destTypes);
+		super(_workspace, _measure, _origin, _boundNumber, _boundTT, _boundDist, _boundVar, _shortestOnly, _time, destTypes);
 		mode = _mode;
 	}
 
@@ -67,33 +66,38 @@ public class BoundDijkstra_UniModal extends BoundDijkstraBase {
 	 */
 	@Override
 	public DijkstraResultsStorage run(Set<DBEdge> ends, HashMap<DBEdge, Vector<MapResult>> edges2dests) {
+		workspace.reset();
+		if(measure.isMonotone()) {
+			workspace.setEnds(ends);
+		}
 		boolean hadExtension = false;
-		DBEdge startEdge = origin.edge;
-		double tt = startEdge.getTravelTime(mode.vmax, time) * (startEdge.getLength()-origin.pos) / startEdge.getLength();
-		DijkstraEntry nm = new DijkstraEntry(measure, null, startEdge.getToNode(), startEdge, mode,
-				(startEdge.getLength()-origin.pos), tt, null, tt, 0, false);
-		addNodeInfo(startEdge.getToNode(), nm);
+		int startEdge = origin.edge.getIndex();
+		double length = graph.edgeLength[startEdge];
+		double tt = graph.getTravelTime(startEdge, mode.vmax, time) * (length-origin.pos) / length;
+		DijkstraEntry nm = new DijkstraEntry(measure, null, graph.nodes[graph.edgeTo[startEdge]], origin.edge, mode,
+				(length-origin.pos), tt, null, tt, 0, false);
+		addNodeInfo(nm.n, nm);
 		next.add(nm);
 		if(visitFirstEdge(measure, startEdge, nm, edges2dests, false)) {
-			boundTT = Math.max(boundTT, startEdge.getTravelTime(mode.vmax, time));
+			boundTT = Math.max(boundTT, graph.getTravelTime(startEdge, mode.vmax, time));
 			hadExtension = true; // there won't be a better way
 		} 
 		// consider starting in the opposite direction
-		if(startEdge.getOppositeEdge()!=null) {
-			DBEdge e = startEdge.getOppositeEdge();
-			tt = e.getTravelTime(mode.vmax, time) * origin.pos / e.getLength();
-			nm = new DijkstraEntry(measure, null, e.getToNode(), e, mode, (origin.pos), tt, null, tt, 0, true);
+		int e = graph.edgeOpposite[startEdge];
+		if(e>=0) {
+			tt = graph.getTravelTime(e, mode.vmax, time) * origin.pos / graph.edgeLength[e];
+			nm = new DijkstraEntry(measure, null, graph.nodes[graph.edgeTo[e]], graph.edges[e], mode, (origin.pos), tt, null, tt, 0, true);
 			next.add(nm);
-			addNodeInfo(e.getToNode(), nm);
+			addNodeInfo(nm.n, nm);
 			if(visitFirstEdge(measure, e, nm, edges2dests, true)) {
 				if(!hadExtension) {
-					boundTT = Math.max(boundTT, e.getTravelTime(mode.vmax, time));
+					boundTT = Math.max(boundTT, graph.getTravelTime(e, mode.vmax, time));
 					hadExtension = true; // there won't be a better way
 				}
 			}
 		}
 		
-		while (!next.isEmpty()) {
+		while (!next.isEmpty() && !workspace.endsSettled()) {
 			DijkstraEntry nns = next.poll();
 			// check bounds
 			if (boundTT >= 0 && nns.tt > boundTT) {
@@ -103,20 +107,21 @@ public class BoundDijkstra_UniModal extends BoundDijkstraBase {
 				continue;
 			}
 			// iterate over outgoing edges
-			Vector<DBEdge> oes = nns.n.getOutgoing();
-			for (DBEdge oe : oes) {
-				double edge_tt = oe.getTravelTime(mode.vmax, time + nns.tt) + nns.e.getCrossingTimeTo(oe);
-				DBNode n = oe.getToNode();
-				double distance = nns.distance + oe.getLength();
+			int ni = nns.n.getIndex();
+			int oesEnd = graph.firstOutgoing[ni+1];
+			for (int oe=graph.firstOutgoing[ni]; oe<oesEnd; ++oe) {
+				DBEdge oeEdge = graph.edges[oe];
+				double edge_tt = graph.getTravelTime(oe, mode.vmax, time + nns.tt) + graph.getCrossingTime(nns.e.getIndex(), oe);
+				DBNode n = graph.nodes[graph.edgeTo[oe]];
+				double distance = nns.distance + graph.edgeLength[oe];
 				double ctt = nns.tt + edge_tt;
 				DijkstraEntry oldValue = getPriorNodeInfo(n);
-				DijkstraEntry newValue = new DijkstraEntry(measure, nns, n, oe, mode, distance, ctt, null, edge_tt, 0, false);
+				DijkstraEntry newValue = new DijkstraEntry(measure, nns, n, oeEdge, mode, distance, ctt, null, edge_tt, 0, false);
 				if(oldValue==null) {
 					next.add(newValue);
 					addNodeInfo(n, newValue);
 				} else if(measure.compare(oldValue, newValue)>0) {
-					next.remove(oldValue);
-					next.add(newValue);
+					next.replace(oldValue, newValue);
 					addNodeInfo(n, newValue);
 				}
 				if(visitEdge(measure, oe, newValue, edges2dests)) {
@@ -126,10 +131,11 @@ public class BoundDijkstra_UniModal extends BoundDijkstraBase {
 					}
 				}
 				// check opposite direction
-				if(oe.getOppositeEdge()!=null && oe.getOppositeEdge().getAttachedObjectsNumber()!=0) {
+				int opposite = graph.edgeOpposite[oe];
+				if(opposite>=0 && graph.edgeHasDestinations[opposite]) {
 					// !!! add edge crossing time
-					DijkstraEntry newOppositeValue = new DijkstraEntry(measure, nns, n, oe.getOppositeEdge(), mode, distance, ctt, null, edge_tt, 0, true);
-					if(visitEdge(measure, oe.getOppositeEdge(), newOppositeValue, edges2dests)) {
+					DijkstraEntry newOppositeValue = new DijkstraEntry(measure, nns, n, graph.edges[opposite], mode, distance, ctt, null, edge_tt, 0, true);
+					if(visitEdge(measure, opposite, newOppositeValue, edges2dests)) {
 						if(!hadExtension) {
 							boundTT = Math.max(boundTT, ctt+newOppositeValue.first.e.getTravelTime(mode.vmax, time));
 							hadExtension = true;
@@ -150,7 +156,7 @@ public class BoundDijkstra_UniModal extends BoundDijkstraBase {
 	 * @param m The path to the node
 	 */
 	public void addNodeInfo(DBNode node, DijkstraEntry m) {
-		nodeMap.put(node, m);
+		workspace.setNodeLabel(node.getIndex(), mode, m);
 	}
 	
 	
@@ -159,18 +165,7 @@ public class BoundDijkstra_UniModal extends BoundDijkstraBase {
 	 * @return The prior node used to access the given one using the given modes
 	 */
 	public DijkstraEntry getPriorNodeInfo(DBNode node) {
-		if(!nodeMap.containsKey(node)) {
-			return null;
-		}
-		return nodeMap.get(node); 
-	}
-
-
-	/** @brief Returns the number of visited nodes
-	 * @return The number of visited nodes
-	 */
-	public long getSeenNodesNum() {
-		return nodeMap.size();
+		return workspace.getNodeLabel(node.getIndex(), mode);
 	}
 
 
@@ -81,6 +81,31 @@ public class CrossingTimesModel_CTM1 implements ICrossingTimesModel {
 	}
 	
 		
+	/** @brief Computes the crossing times at the given node
+	 * 
+	 * The computed crossing times are stored in the node's table. The node's
+	 * edges are only read, so that different nodes can be processed in parallel
+	 * as long as no writer is given.
+	 * 
+	 * @param n The regarded node
+	 * @throws IOException When the crossing times writer fails
+	 */
+	public void computeCrossingTimes(DBNode n) throws IOException {
+		n.initCrossingTimes();
+		for(DBEdge incomingEdge : n.getIncoming()) {
+			computeCrossingTimes(incomingEdge);
+		}
+	}
+	
+	
+	/** @brief Returns whether the computed crossing times are written
+	 * @return Whether a crossing times writer is given
+	 */
+	public boolean hasWriter() {
+		return writer!=null;
+	}
+	
+		
 	/** @brief Computes crossing times for a given starting edge
 	 * 
 	 * The computed crossing times are stored in the node the edge yields in
@@ -88,7 +113,7 @@ public class CrossingTimesModel_CTM1 implements ICrossingTimesModel {
 	 * @param subjectEdge The regarded edge
 	 * @throws IOException 
 	 */
-	public void computeCrossingTimes(DBEdge subjectEdge) throws IOException {
+	private void computeCrossingTimes(DBEdge subjectEdge) throws IOException {
 		DBNode n = subjectEdge.getToNode();
 		double CROSSING_TIME = 10;
 		// join incoming / outgoing
@@ -0,0 +1,465 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ *
+ * All rights reserved.
+ *
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ *
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.routing;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.shapes.DBEdge;
+import de.dlr.ivf.urmo.router.shapes.RoutingGraph;
+
+/** @class DeltaStepping
+ * @brief A parallel one-to-all search (delta-stepping) on the routing graph
+ *
+ * The nodes are kept in buckets of the width delta by their travel time. The
+ * buckets are processed in ascending order; the edges of the nodes of the
+ * current bucket are relaxed in parallel, the edges shorter than delta
+ * repeatedly until the bucket does not change anymore, the longer ones once
+ * the bucket is settled.
+ *
+ * The travel time and the edge a node was reached by are updated together
+ * under a lock, so that the parent edges form the tree of the shortest paths.
+ * The search stops once all given target nodes are settled.
+ *
+ * Only static travel times can be used. The instance is shared by all threads;
+ * a search and the evaluation of its results must be performed while holding
+ * the instance's lock.
+ * @author Daniel Krajzewicz
+ */
+public class DeltaStepping {
+	/** @class IntList
+	 * @brief A growable list of node indices
+	 */
+	private static class IntList {
+		/// @brief The stored indices
+		int[] items = new int[16];
+		/// @brief The number of stored indices
+		int size = 0;
+
+		/** @brief Adds an index
+		 * @param v The index to add
+		 */
+		void add(int v) {
+			if(size==items.length) {
+				items = Arrays.copyOf(items, size*2);
+			}
+			items[size++] = v;
+		}
+	}
+
+
+	/** @class Chunk
+	 * @brief Relaxes the edges of a part of the nodes of the current bucket
+	 */
+	private class Chunk implements Callable<Chunk> {
+		/// @brief The nodes to process
+		private final IntList nodes;
+		/// @brief The position of the first node to process
+		private final int from;
+		/// @brief The position after the last node to process
+		private final int to;
+		/// @brief Whether the short (light) or the long (heavy) edges shall be relaxed
+		private final boolean light;
+		/// @brief The nodes whose travel time was lowered
+		IntList improved = new IntList();
+		/// @brief The nodes that were processed in the current bucket for the first time
+		IntList settled = new IntList();
+		/// @brief The number of settled target nodes
+		int settledTargets = 0;
+
+
+		/** @brief Constructor
+		 * @param _nodes The nodes to process
+		 * @param _from The position of the first node to process
+		 * @param _to The position after the last node to process
+		 * @param _light Whether the short (light) or the long (heavy) edges shall be relaxed
+		 */
+		Chunk(IntList _nodes, int _from, int _to, boolean _light) {
+			nodes = _nodes;
+			from = _from;
+			to = _to;
+			light = _light;
+		}
+
+
+		/** @brief Relaxes the edges of the nodes
+		 * @return This chunk, holding the results
+		 */
+		@Override
+		public Chunk call() {
+			for(int i=from; i<to; ++i) {
+				if(light) {
+					relaxLight(nodes.items[i], this);
+				} else {
+					relaxHeavy(nodes.items[i], this);
+				}
+			}
+			return this;
+		}
+	}
+
+
+	/// @brief The number of nodes processed by a single task
+	private static final int CHUNK_SIZE = 512;
+	/// @brief The number of locks guarding the travel times of the nodes
+	private static final int LOCK_NUMBER = 4096;
+	/// @brief The routing graph to search in
+	private final RoutingGraph graph;
+	/// @brief The pool the relaxations are performed in
+	private final ForkJoinPool pool;
+	/// @brief The width of the buckets
+	private final double delta;
+	/// @brief The travel times of the edges
+	private final double[] weights;
+	/// @brief The travel times to the nodes
+	private final double[] dist;
+	/// @brief The edges the nodes were reached by (-1 for the start node)
+	private final int[] parent;
+	/// @brief The locks guarding the travel times and parents of the nodes
+	private final Object[] locks;
+	/// @brief The step each node was last processed at (to skip duplicates within a round)
+	private final AtomicIntegerArray processed;
+	/// @brief The step each node was last marked as improved at (to skip duplicates within a round)
+	private final AtomicIntegerArray queued;
+	/// @brief The step of the bucket each node was settled in
+	private final AtomicIntegerArray settled;
+	/// @brief The step of the search each node's edges were completely relaxed in
+	private final int[] done;
+	/// @brief The step of the search each node is a target of
+	private final int[] targets;
+	/// @brief A running counter of the searches, buckets, and rounds
+	private int step = 0;
+	/// @brief The step the current search started at
+	private int searchStep = 0;
+	/// @brief The step the current bucket started at
+	private int bucketStep = 0;
+	/// @brief The step of the current round
+	private int roundStep = 0;
+	/// @brief The index of the current bucket
+	private int currentBucket = 0;
+	/// @brief The maximum travel time to expand nodes up to (-1 if not used)
+	private double boundTT = -1;
+
+
+	/** @brief Constructor
+	 * @param _graph The routing graph to search in
+	 * @param mode The mode of transport to use
+	 * @param time The time the searches start at
+	 * @param _delta The width of the buckets, 0 for using twice the average travel time of the edges
+	 * @param numThreads The number of threads to use
+	 */
+	public DeltaStepping(RoutingGraph _graph, Mode mode, int time, double _delta, int numThreads) {
+		graph = _graph;
+		pool = new ForkJoinPool(numThreads);
+		int numNodes = graph.getNodeNumber();
+		int numEdges = graph.getEdgeNumber();
+		weights = new double[numEdges];
+		double sum = 0;
+		for(int e=0; e<numEdges; ++e) {
+			weights[e] = graph.getTravelTime(e, mode.vmax, time);
+			sum += weights[e];
+		}
+		if(_delta<=0) {
+			_delta = numEdges!=0 ? 2. * sum / (double) numEdges : 1;
+		}
+		delta = _delta>0 ? _delta : 1;
+		dist = new double[numNodes];
+		parent = new int[numNodes];
+		locks = new Object[LOCK_NUMBER];
+		for(int i=0; i<LOCK_NUMBER; ++i) {
+			locks[i] = new Object();
+		}
+		processed = new AtomicIntegerArray(numNodes);
+		queued = new AtomicIntegerArray(numNodes);
+		settled = new AtomicIntegerArray(numNodes);
+		done = new int[numNodes];
+		targets = new int[numNodes];
+	}
+
+
+	/** @brief Returns the width of the buckets
+	 * @return The width of the buckets
+	 */
+	public double getDelta() {
+		return delta;
+	}
+
+
+	/** @brief Computes the travel times from the given node
+	 *
+	 * The search stops once the nodes the given edges or their opposite edges
+	 * start at are settled.
+	 * @param source The index of the node to start at
+	 * @param _boundTT The maximum travel time to expand nodes up to (-1 if not used)
+	 * @param ends The edges the destinations are located at
+	 */
+	public void run(int source, double _boundTT, Set<DBEdge> ends) {
+		boundTT = _boundTT;
+		if(step>Integer.MAX_VALUE-10000000) {
+			// rewind the steps once they are exhausted
+			for(int i=0; i<done.length; ++i) {
+				processed.set(i, 0);
+				queued.set(i, 0);
+				settled.set(i, 0);
+			}
+			Arrays.fill(done, 0);
+			Arrays.fill(targets, 0);
+			step = 0;
+		}
+		searchStep = ++step;
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		Arrays.fill(parent, -1);
+		int remaining = 0;
+		for(DBEdge e : ends) {
+			remaining += markTarget(graph.edgeFrom[e.getIndex()]);
+			int opposite = graph.edgeOpposite[e.getIndex()];
+			if(opposite>=0) {
+				remaining += markTarget(graph.edgeFrom[opposite]);
+			}
+		}
+		dist[source] = 0;
+		Vector<IntList> buckets = new Vector<>();
+		addToBucket(buckets, 0, source);
+		for(int b=0; b<buckets.size() && remaining>0; ++b) {
+			if(boundTT>=0 && (double) b * delta>boundTT) {
+				break;
+			}
+			IntList frontier = buckets.get(b);
+			if(frontier==null) {
+				continue;
+			}
+			buckets.set(b, null);
+			currentBucket = b;
+			bucketStep = ++step;
+			// relax the short edges until the bucket does not change anymore
+			IntList bucketNodes = new IntList();
+			while(frontier.size>0) {
+				roundStep = ++step;
+				IntList nextFrontier = new IntList();
+				for(Chunk c : process(frontier, true)) {
+					for(int i=0; i<c.settled.size; ++i) {
+						bucketNodes.add(c.settled.items[i]);
+					}
+					for(int i=0; i<c.improved.size; ++i) {
+						int v = c.improved.items[i];
+						int vb = bucketOf(dist[v]);
+						if(vb<=b) {
+							nextFrontier.add(v);
+						} else {
+							addToBucket(buckets, vb, v);
+						}
+					}
+				}
+				frontier = nextFrontier;
+			}
+			// relax the long edges of the settled nodes
+			roundStep = ++step;
+			for(Chunk c : process(bucketNodes, false)) {
+				remaining -= c.settledTargets;
+				for(int i=0; i<c.improved.size; ++i) {
+					int v = c.improved.items[i];
+					addToBucket(buckets, Math.max(bucketOf(dist[v]), b+1), v);
+				}
+			}
+		}
+	}
+
+
+	/** @brief Returns whether the given node was reached and settled by the last search
+	 * @param n The index of the node
+	 * @return Whether the node was settled
+	 */
+	public boolean isReached(int n) {
+		return done[n]==searchStep;
+	}
+
+
+	/** @brief Returns the travel time to the given node
+	 * @param n The index of the node
+	 * @return The travel time to the node
+	 */
+	public double getTravelTime(int n) {
+		return dist[n];
+	}
+
+
+	/** @brief Returns the edge the given node was reached by
+	 * @param n The index of the node
+	 * @return The index of the edge, -1 for the start node
+	 */
+	public int getParentEdge(int n) {
+		return parent[n];
+	}
+
+
+	/** @brief Marks the given node as a target of the current search
+	 * @param n The index of the node
+	 * @return 1 if the node was not yet marked, 0 otherwise
+	 */
+	private int markTarget(int n) {
+		if(targets[n]==searchStep) {
+			return 0;
+		}
+		targets[n] = searchStep;
+		return 1;
+	}
+
+
+	/** @brief Returns the bucket the given travel time belongs to
+	 * @param tt The travel time
+	 * @return The index of the bucket
+	 */
+	private int bucketOf(double tt) {
+		return (int) (tt / delta);
+	}
+
+
+	/** @brief Adds a node to a bucket
+	 * @param buckets The buckets
+	 * @param b The index of the bucket to add the node to
+	 * @param v The index of the node
+	 */
+	private void addToBucket(Vector<IntList> buckets, int b, int v) {
+		if(buckets.size()<=b) {
+			buckets.setSize(b+1);
+		}
+		IntList bucket = buckets.get(b);
+		if(bucket==null) {
+			bucket = new IntList();
+			buckets.set(b, bucket);
+		}
+		bucket.add(v);
+	}
+
+
+	/** @brief Relaxes the edges of the given nodes, using the pool if there are many of them
+	 * @param nodes The nodes to process
+	 * @param light Whether the short (light) or the long (heavy) edges shall be relaxed
+	 * @return The processed chunks, holding the results
+	 */
+	private Vector<Chunk> process(IntList nodes, boolean light) {
+		Vector<Chunk> chunks = new Vector<>();
+		for(int i=0; i<nodes.size; i+=CHUNK_SIZE) {
+			chunks.add(new Chunk(nodes, i, Math.min(i+CHUNK_SIZE, nodes.size), light));
+		}
+		if(chunks.size()<2) {
+			for(Chunk c : chunks) {
+				c.call();
+			}
+			return chunks;
+		}
+		try {
+			for(Future<Chunk> f : pool.invokeAll(chunks)) {
+				f.get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		}
+		return chunks;
+	}
+
+
+	/** @brief Relaxes the short edges of a node of the current bucket
+	 * @param u The index of the node
+	 * @param chunk The chunk to store the results in
+	 */
+	private void relaxLight(int u, Chunk chunk) {
+		if(done[u]==searchStep || processed.getAndSet(u, roundStep)==roundStep) {
+			return;
+		}
+		double du = getLocked(u);
+		if(bucketOf(du)>currentBucket) {
+			return; // belongs to a later bucket
+		}
+		if(settled.getAndSet(u, bucketStep)!=bucketStep) {
+			chunk.settled.add(u);
+		}
+		if(boundTT>=0 && du>boundTT) {
+			return;
+		}
+		int end = graph.firstOutgoing[u+1];
+		for(int e=graph.firstOutgoing[u]; e<end; ++e) {
+			if(weights[e]<delta) {
+				relax(graph.edgeTo[e], du+weights[e], e, chunk);
+			}
+		}
+	}
+
+
+	/** @brief Relaxes the long edges of a settled node of the current bucket
+	 * @param u The index of the node
+	 * @param chunk The chunk to store the results in
+	 */
+	private void relaxHeavy(int u, Chunk chunk) {
+		done[u] = searchStep;
+		if(targets[u]==searchStep) {
+			++chunk.settledTargets;
+		}
+		double du = dist[u];
+		if(boundTT>=0 && du>boundTT) {
+			return;
+		}
+		int end = graph.firstOutgoing[u+1];
+		for(int e=graph.firstOutgoing[u]; e<end; ++e) {
+			if(weights[e]>=delta) {
+				relax(graph.edgeTo[e], du+weights[e], e, chunk);
+			}
+		}
+	}
+
+
+	/** @brief Lowers the travel time of a node if the given one is smaller
+	 * @param v The index of the node
+	 * @param tt The travel time to the node using the given edge
+	 * @param e The index of the edge the node is reached by
+	 * @param chunk The chunk to store the improved node in
+	 */
+	private void relax(int v, double tt, int e, Chunk chunk) {
+		synchronized(locks[v%LOCK_NUMBER]) {
+			if(tt>=dist[v]) {
+				return;
+			}
+			dist[v] = tt;
+			parent[v] = e;
+		}
+		if(queued.getAndSet(v, roundStep)!=roundStep) {
+			chunk.improved.add(v);
+		}
+	}
+
+
+	/** @brief Returns the travel time to a node that may be changed concurrently
+	 * @param u The index of the node
+	 * @return The travel time to the node
+	 */
+	private double getLocked(int u) {
+		synchronized(locks[u%LOCK_NUMBER]) {
+			return dist[u];
+		}
+	}
+
+
+}
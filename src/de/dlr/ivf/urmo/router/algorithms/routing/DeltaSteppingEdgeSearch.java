@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ *
+ * All rights reserved.
+ *
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ *
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.routing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Set;
+
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.shapes.DBEdge;
+
+/** @class DeltaSteppingEdgeSearch
+ * @brief A search shared by all origins located at the same edge that uses the parallel delta-stepping search
+ *
+ * The travel times from both ends of the origin edge are computed using all
+ * threads (@see DeltaStepping). Afterwards, the paths to the edges with
+ * destinations are rebuilt from the edges the nodes were reached by, so that
+ * the results are the same as the ones of the plain search.
+ *
+ * The delta-stepping search is shared by all computing threads; it is used
+ * for the last origins, when the remaining ones do not keep all threads busy.
+ * @author Daniel Krajzewicz
+ */
+public class DeltaSteppingEdgeSearch extends SharedEdgeSearch {
+	/// @brief The (shared) delta-stepping search to use
+	private DeltaStepping deltaStepping;
+	/// @brief The edges of the path that is currently rebuilt
+	private int[] pathEdges = new int[64];
+
+
+	/** @brief Constructor
+	 * @param _workspace The workspace to use for the searches
+	 * @param _deltaStepping The delta-stepping search to use
+	 * @param _mode The mode to use
+	 * @param _measure The route weighting function to use
+	 * @param _edge The edge the origins are located at
+	 * @param _boundTT Maximum travel time (-1 if not used)
+	 * @param _boundDist Maximum distance (-1 if not used)
+	 * @param _time Starting time
+	 * @param _destTypes Map of destination types
+	 */
+	public DeltaSteppingEdgeSearch(DijkstraWorkspace _workspace, DeltaStepping _deltaStepping, Mode _mode, AbstractRouteWeightFunction _measure, DBEdge _edge,
+			double _boundTT, double _boundDist, int _time, HashMap<Long, Set<String>> _destTypes) {
+		super(_workspace, _mode, _measure, _edge, _boundTT, _boundDist, _time, _destTypes);
+		deltaStepping = _deltaStepping;
+	}
+
+
+	/** @brief Performs a delta-stepping search starting at the end of the given edge
+	 * @param startEdge The index of the edge to start at
+	 * @param isOpposite Whether the edge is the opposite of the origin edge
+	 * @param ends The destination candidates
+	 * @return The reached edges with destinations
+	 */
+	@Override
+	protected Direction search(int startEdge, boolean isOpposite, Set<DBEdge> ends) {
+		workspace.reset();
+		Direction d = initDirection(startEdge, isOpposite);
+		synchronized(deltaStepping) {
+			deltaStepping.run(graph.edgeTo[startEdge], boundTT, ends);
+			for(DBEdge end : ends) {
+				int x = end.getIndex();
+				if(!graph.edgeHasDestinations[x]) {
+					continue;
+				}
+				// approached directly
+				DijkstraEntry best = approach(x, x, false);
+				// approached using the opposite edge
+				int y = graph.edgeOpposite[x];
+				if(y>=0) {
+					DijkstraEntry opposite = approach(y, x, true);
+					if(opposite!=null && (best==null || measure.compare(best, opposite)>0)) {
+						best = opposite;
+					}
+				}
+				if(best!=null) {
+					workspace.setEdgeLabel(x, best);
+				}
+			}
+		}
+		collectEdges(d);
+		return d;
+	}
+
+
+	/** @brief Builds the entry for passing the given edge at the end of the shortest path to its start
+	 * @param e The index of the edge to pass
+	 * @param dest The index of the destination edge (e or its opposite)
+	 * @param wasOpposite Whether the destination edge is approached using its opposite
+	 * @return The entry for the destination edge, null if it is not reachable within the bounds
+	 */
+	private DijkstraEntry approach(int e, int dest, boolean wasOpposite) {
+		int from = graph.edgeFrom[e];
+		if(!deltaStepping.isReached(from)) {
+			return null;
+		}
+		// as within the plain search, the bounds are checked at the start of the edge
+		if(boundTT>=0 && deltaStepping.getTravelTime(from)>boundTT) {
+			return null;
+		}
+		DijkstraEntry prev = entryOf(from);
+		if(prev==null || (boundDist>=0 && prev.distance>boundDist)) {
+			return null;
+		}
+		double edgeTT = graph.getTravelTime(e, mode.vmax, time);
+		int to = graph.edgeTo[e];
+		return new DijkstraEntry(measure, prev, graph.nodes[to], graph.edges[dest], mode, prev.distance+graph.edgeLength[e], prev.tt+edgeTT, null, edgeTT, 0, wasOpposite);
+	}
+
+
+	/** @brief Returns the entry of the given (reached) node, rebuilding the path to it if needed
+	 *
+	 * The entries are stored as node labels within the workspace, so that each
+	 * part of the shortest path tree is built only once.
+	 * @param node The index of the node
+	 * @return The entry for the node, null if the shortest path tree is inconsistent
+	 */
+	private DijkstraEntry entryOf(int node) {
+		// walk back to the next node with a known entry
+		int num = 0;
+		int n = node;
+		DijkstraEntry prev = workspace.getNodeLabel(n, mode);
+		while(prev==null) {
+			int e = deltaStepping.getParentEdge(n);
+			if(e<0 || num>=graph.getNodeNumber()) {
+				return null;
+			}
+			if(num==pathEdges.length) {
+				pathEdges = Arrays.copyOf(pathEdges, num*2);
+			}
+			pathEdges[num++] = e;
+			n = graph.edgeFrom[e];
+			prev = workspace.getNodeLabel(n, mode);
+		}
+		// build the entries along the path
+		for(int i=num-1; i>=0; --i) {
+			int e = pathEdges[i];
+			int to = graph.edgeTo[e];
+			double edgeTT = graph.getTravelTime(e, mode.vmax, time);
+			DijkstraEntry entry = new DijkstraEntry(measure, prev, graph.nodes[to], graph.edges[e], mode, prev.distance+graph.edgeLength[e], prev.tt+edgeTT, null, edgeTT, 0, false);
+			workspace.setNodeLabel(to, mode, entry);
+			prev = entry;
+		}
+		return prev;
+	}
+
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ *
+ * All rights reserved.
+ *
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ *
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.routing;
+
+import java.util.Arrays;
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.dlr.ivf.urmo.router.algorithms.ch.NodeHeap;
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.shapes.RoutingGraph;
+
+/** @class DestinationTrees
+ * @brief The shortest path trees towards all edges with destinations, computed by searching the graph backwards
+ *
+ * For each edge with destinations, a search over the incoming edges is started
+ * at the nodes the edge and its opposite edge start at. For each node, the
+ * next edge on the fastest path towards the destination edge is stored; the
+ * path ends when the destination edge or its opposite edge is the next one.
+ *
+ * The paths from an origin to all destination edges are then obtained by
+ * following the trees instead of searching forward from each origin, which
+ * pays off if there are far less edges with destinations than edges with
+ * origins (@see ReverseEdgeSearch).
+ *
+ * The trees are computed for a single mode of transport and static travel
+ * times. A tree needs one integer per node of the graph.
+ * @author Daniel Krajzewicz
+ */
+public class DestinationTrees {
+	/// @brief The routing graph the trees were computed for
+	public final RoutingGraph graph;
+	/// @brief The mode of transport the trees were computed for
+	public final Mode mode;
+	/// @brief The travel time of each edge (infinite if the mode is not allowed)
+	private double[] edgeWeight;
+	/// @brief The index of the first incoming edge of each node (with an additional end marker)
+	private int[] firstIncoming;
+	/// @brief The incoming edges, grouped by the node they end at
+	private int[] incoming;
+	/// @brief The indices of the edges with destinations
+	private int[] destinations;
+	/// @brief The next edge towards the respective destination edge of each node (-1 if the destination edge is not reached)
+	private int[][] next;
+	/// @brief The maximum travel time to the destination edges (-1 if not used)
+	private double boundTT;
+
+
+	/** @brief Constructor
+	 *
+	 * Computes the trees towards all edges with destinations using the given number of threads.
+	 * @param _graph The routing graph to compute the trees for
+	 * @param _mode The mode of transport to use
+	 * @param time The time the (static) travel times are computed for
+	 * @param _boundTT The maximum travel time to the destination edges (-1 if not used)
+	 * @param numThreads The number of threads to use
+	 */
+	public DestinationTrees(RoutingGraph _graph, Mode _mode, int time, double _boundTT, int numThreads) {
+		graph = _graph;
+		mode = _mode;
+		boundTT = _boundTT;
+		int numNodes = graph.getNodeNumber();
+		int numEdges = graph.getEdgeNumber();
+		edgeWeight = new double[numEdges];
+		firstIncoming = new int[numNodes+1];
+		int numDestinations = 0;
+		for(int e=0; e<numEdges; ++e) {
+			edgeWeight[e] = graph.allows(e, mode.id) ? graph.getTravelTime(e, mode.vmax, time) : Double.POSITIVE_INFINITY;
+			++firstIncoming[graph.edgeTo[e]+1];
+			if(graph.edgeHasDestinations[e]) {
+				++numDestinations;
+			}
+		}
+		for(int n=0; n<numNodes; ++n) {
+			firstIncoming[n+1] += firstIncoming[n];
+		}
+		incoming = new int[numEdges];
+		int[] pos = Arrays.copyOf(firstIncoming, numNodes);
+		destinations = new int[numDestinations];
+		numDestinations = 0;
+		for(int e=0; e<numEdges; ++e) {
+			incoming[pos[graph.edgeTo[e]]++] = e;
+			if(graph.edgeHasDestinations[e]) {
+				destinations[numDestinations++] = e;
+			}
+		}
+		// compute the trees, distributing the destination edges among the threads
+		next = new int[destinations.length][];
+		AtomicInteger nextDestination = new AtomicInteger(0);
+		Vector<Thread> threads = new Vector<>();
+		for(int i=0; i<numThreads; ++i) {
+			Thread t = new Thread(() -> {
+				NodeHeap heap = new NodeHeap(numNodes);
+				double[] tt = new double[numNodes];
+				int d;
+				while((d=nextDestination.getAndIncrement())<destinations.length) {
+					next[d] = search(destinations[d], heap, tt);
+				}
+			});
+			threads.add(t);
+			t.start();
+		}
+		for(Thread t : threads) {
+			try {
+				t.join();
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+
+	/** @brief Returns the memory the trees would need
+	 * @param graph The routing graph
+	 * @param numDestinationEdges The number of edges with destinations
+	 * @return The size of the trees in bytes
+	 */
+	public static long getNeededMemory(RoutingGraph graph, int numDestinationEdges) {
+		return (long) numDestinationEdges * (long) graph.getNodeNumber() * 4L;
+	}
+
+
+	/** @brief Computes the tree towards the given destination edge
+	 * @param dest The index of the destination edge
+	 * @param heap The priority queue to use
+	 * @param tt The travel times of the nodes to use
+	 * @return The next edge towards the destination edge of each node
+	 */
+	private int[] search(int dest, NodeHeap heap, double[] tt) {
+		int[] ret = new int[graph.getNodeNumber()];
+		Arrays.fill(ret, -1);
+		Arrays.fill(tt, Double.POSITIVE_INFINITY);
+		// the paths end by passing the destination edge or its opposite edge completely
+		double limit = Double.POSITIVE_INFINITY;
+		int opposite = graph.edgeOpposite[dest];
+		if(edgeWeight[dest]<Double.POSITIVE_INFINITY) {
+			seed(dest, ret, tt, heap);
+			limit = edgeWeight[dest];
+		}
+		if(opposite>=0 && edgeWeight[opposite]<Double.POSITIVE_INFINITY) {
+			seed(opposite, ret, tt, heap);
+			limit = limit<Double.POSITIVE_INFINITY ? Math.max(limit, edgeWeight[opposite]) : edgeWeight[opposite];
+		}
+		limit = boundTT>=0 ? boundTT + limit : Double.POSITIVE_INFINITY;
+		while(!heap.isEmpty()) {
+			int n = heap.poll();
+			if(tt[n]>limit) {
+				// all further nodes are beyond the bound, too
+				heap.clear();
+				break;
+			}
+			int end = firstIncoming[n+1];
+			for(int i=firstIncoming[n]; i<end; ++i) {
+				int e = incoming[i];
+				int m = graph.edgeFrom[e];
+				double ntt = tt[n] + edgeWeight[e];
+				if(ntt<tt[m]) {
+					tt[m] = ntt;
+					ret[m] = e;
+					heap.push(m, ntt);
+				}
+			}
+		}
+		return ret;
+	}
+
+
+	/** @brief Starts the search at the node the given (last) edge starts at
+	 * @param e The index of the last edge of the paths
+	 * @param ret The next edges of the nodes
+	 * @param tt The travel times of the nodes
+	 * @param heap The priority queue to use
+	 */
+	private void seed(int e, int[] ret, double[] tt, NodeHeap heap) {
+		int n = graph.edgeFrom[e];
+		if(edgeWeight[e]<tt[n]) {
+			tt[n] = edgeWeight[e];
+			ret[n] = e;
+			heap.push(n, tt[n]);
+		}
+	}
+
+
+	/** @brief Returns the number of edges with destinations
+	 * @return The number of destination edges
+	 */
+	public int getDestinationNumber() {
+		return destinations.length;
+	}
+
+
+	/** @brief Returns the index of the given destination edge
+	 * @param d The number of the destination edge
+	 * @return The edge's index within the routing graph
+	 */
+	public int getDestination(int d) {
+		return destinations[d];
+	}
+
+
+	/** @brief Returns the next edge on the fastest path from the given node towards the given destination edge
+	 * @param d The number of the destination edge
+	 * @param n The index of the node
+	 * @return The index of the next edge, -1 if the destination edge is not reached
+	 */
+	public int getNext(int d, int n) {
+		return next[d][n];
+	}
+
+
+	/** @brief Returns the travel time of the given edge
+	 * @param e The index of the edge
+	 * @return The travel time of the edge
+	 */
+	public double getEdgeWeight(int e) {
+		return edgeWeight[e];
+	}
+
+
+}
@@ -18,9 +18,8 @@
  */
 package de.dlr.ivf.urmo.router.algorithms.routing;
 
-import java.util.HashMap;
-
 import de.dlr.ivf.urmo.router.gtfs.GTFSConnection;
+import de.dlr.ivf.urmo.router.gtfs.GTFSTrip;
 import de.dlr.ivf.urmo.router.modes.Mode;
 import de.dlr.ivf.urmo.router.shapes.DBEdge;
 import de.dlr.ivf.urmo.router.shapes.DBNode;
@@ -51,10 +50,18 @@ public class DijkstraEntry {
 	public double interchangeTT;
 	/// @brief Whether the edge was approached using the opposite direction edge
 	public boolean wasOpposite;
-	/// @brief Additional measures for weighting the route
-	public HashMap<String, Object> measures;
+	/// @brief The number of public transport interchanges (set by weighting functions that need it)
+	public int interchanges = 0;
+	/// @brief The last public transport trip used (set by weighting functions that need it)
+	public GTFSTrip lastPT = null;
+	/// @brief The cached primary comparison key of the route, e.g. its price (set by weighting functions that need it)
+	public double weight = 0;
 	/// @brief Reference to the first entry
 	public DijkstraEntry first = null;
+	/// @brief The position of this entry within the heap (-1 if it is not enqueued)
+	public int heapIndex = -1;
+	/// @brief The position of this entry within a path tree while its results are accumulated (-1 otherwise)
+	public int treeIndex = -1;
 	
 
 	/** @brief Constructor
@@ -82,32 +89,34 @@ public class DijkstraEntry {
 		ptConnection = _ptConnection;
 		interchangeTT = _interchangeTT;
 		wasOpposite = _wasOpposite;
-		measures = measure.buildMeasures(_prev, this);
 		if(prev==null) {
 			first = this;
 		} else {
 			first = prev.first;
 		}
+		measure.buildLabel(_prev, this);
 	}
 
 
 	/** @brief Constructor
 	 * @param orig The DijkstraEntry to copy values from
 	 * @param mode The mode to set as being currently used
+	 * @param changeTime The time needed to change to the mode
 	 */
-	@SuppressWarnings("unchecked")
-	public DijkstraEntry(DijkstraEntry orig, Mode mode) {
+	public DijkstraEntry(DijkstraEntry orig, Mode mode, double changeTime) {
 		prev = orig.prev;
 		n = orig.n;
 		e = orig.e;
 		distance = orig.distance;
-		tt = orig.tt;
+		tt = orig.tt + changeTime;
 		ttt = orig.ttt;
 		usedMode = mode;
 		ptConnection = orig.ptConnection;
 		interchangeTT = orig.interchangeTT;
 		wasOpposite = orig.wasOpposite;
-		measures = orig.measures==null ? null : (HashMap<String, Object>) orig.measures.clone();
+		interchanges = orig.interchanges;
+		lastPT = orig.lastPT;
+		weight = orig.weight;
 		first = orig.first;
 	}
 
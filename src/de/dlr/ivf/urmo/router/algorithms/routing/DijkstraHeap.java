@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.routing;
+
+import java.util.Arrays;
+
+/** @class DijkstraHeap
+ * @brief An indexed 4-ary min-heap of Dijkstra entries that supports decrease-key
+ *
+ * Each entry stores its position within the heap (@see DijkstraEntry#heapIndex), so
+ * that an entry can be replaced by a better one for the same key (the node, or the
+ * node / mode combination) in O(log n) instead of being searched for and removed in
+ * O(n) as within a java.util.PriorityQueue.
+ * @author Daniel Krajzewicz
+ */
+public class DijkstraHeap {
+	/// @brief The arity of the heap
+	private static final int D = 4;
+	/// @brief The route weighting function used to order the entries
+	private AbstractRouteWeightFunction measure;
+	/// @brief The heap's entries
+	private DijkstraEntry[] entries;
+	/// @brief The number of enqueued entries
+	private int size = 0;
+
+
+	/** @brief Constructor
+	 * @param _measure The route weighting function used to order the entries
+	 * @param initialCapacity The initial capacity of the heap
+	 */
+	public DijkstraHeap(AbstractRouteWeightFunction _measure, int initialCapacity) {
+		measure = _measure;
+		entries = new DijkstraEntry[Math.max(initialCapacity, D)];
+	}
+
+
+	/** @brief Returns whether the heap is empty
+	 * @return Whether no entry is enqueued
+	 */
+	public boolean isEmpty() {
+		return size==0;
+	}
+
+
+	/** @brief Returns the number of enqueued entries
+	 * @return The number of enqueued entries
+	 */
+	public int size() {
+		return size;
+	}
+
+
+	/** @brief Returns the best entry without removing it
+	 * @return The best entry, null if the heap is empty
+	 */
+	public DijkstraEntry peek() {
+		return size==0 ? null : entries[0];
+	}
+
+
+	/** @brief Adds an entry
+	 * @param entry The entry to add
+	 */
+	public void add(DijkstraEntry entry) {
+		if(size==entries.length) {
+			entries = Arrays.copyOf(entries, entries.length*2);
+		}
+		entries[size] = entry;
+		entry.heapIndex = size;
+		++size;
+		siftUp(size-1);
+	}
+
+
+	/** @brief Removes and returns the best entry
+	 * @return The best entry, null if the heap is empty
+	 */
+	public DijkstraEntry poll() {
+		if(size==0) {
+			return null;
+		}
+		DijkstraEntry ret = entries[0];
+		ret.heapIndex = -1;
+		--size;
+		if(size>0) {
+			entries[0] = entries[size];
+			entries[0].heapIndex = 0;
+			entries[size] = null;
+			siftDown(0);
+		} else {
+			entries[0] = null;
+		}
+		return ret;
+	}
+
+
+	/** @brief Replaces an entry by a new one for the same key (decrease-key)
+	 *
+	 * If the prior entry is no longer enqueued, the new one is simply added.
+	 * @param prior The entry to replace
+	 * @param entry The entry to replace the prior one by
+	 */
+	public void replace(DijkstraEntry prior, DijkstraEntry entry) {
+		int i = prior.heapIndex;
+		if(i<0) {
+			add(entry);
+			return;
+		}
+		prior.heapIndex = -1;
+		entries[i] = entry;
+		entry.heapIndex = i;
+		siftUp(i);
+		if(entry.heapIndex==i) {
+			siftDown(i);
+		}
+	}
+
+
+	/** @brief Removes all entries
+	 */
+	public void clear() {
+		for(int i=0; i<size; ++i) {
+			entries[i].heapIndex = -1;
+			entries[i] = null;
+		}
+		size = 0;
+	}
+
+
+	/** @brief Moves the entry at the given position towards the root until the heap is ordered
+	 * @param i The position of the entry to move
+	 */
+	private void siftUp(int i) {
+		DijkstraEntry entry = entries[i];
+		while(i>0) {
+			int parent = (i-1) / D;
+			DijkstraEntry p = entries[parent];
+			if(measure.compare(entry, p)>=0) {
+				break;
+			}
+			entries[i] = p;
+			p.heapIndex = i;
+			i = parent;
+		}
+		entries[i] = entry;
+		entry.heapIndex = i;
+	}
+
+
+	/** @brief Moves the entry at the given position towards the leaves until the heap is ordered
+	 * @param i The position of the entry to move
+	 */
+	private void siftDown(int i) {
+		DijkstraEntry entry = entries[i];
+		while(true) {
+			int first = i * D + 1;
+			if(first>=size) {
+				break;
+			}
+			int last = Math.min(first+D, size);
+			int best = first;
+			for(int c=first+1; c<last; ++c) {
+				if(measure.compare(entries[c], entries[best])<0) {
+					best = c;
+				}
+			}
+			if(measure.compare(entries[best], entry)>=0) {
+				break;
+			}
+			entries[i] = entries[best];
+			entries[i].heapIndex = i;
+			i = best;
+		}
+		entries[i] = entry;
+		entry.heapIndex = i;
+	}
+
+
+}
@@ -78,6 +78,19 @@ public abstract class DijkstraResultsStorage {
 			}
 		}
 
+
+		/** @brief Adds the results of a later departure, delayed by the time to wait for it
+		 * 
+		 * A result replaces a known one only if it is faster.
+		 * @param later The results of the later departure
+		 * @param waitingTime The time between this and the later departure
+		 */
+		public void _addDelayed(ResultSet later, double waitingTime) {
+			for(EdgeMappable destination : later.seen.keySet()) {
+				_addResult((LayerObject) destination, new SingleODResult(later.seen.get(destination), waitingTime));
+			}
+		}
+
 		
 		/** @brief Returns whether the search is completed
 		 * 
@@ -185,6 +198,16 @@ public abstract class DijkstraResultsStorage {
 	public abstract void addResult(LayerObject lo, SingleODResult path);
 	
 
+	/** @brief Adds the results found for a later departure
+	 * 
+	 * Used by profile searches: the destinations reached from the later departure
+	 * can be reached by waiting at the origin as well.
+	 * @param later The results of the later departure (of the same type)
+	 * @param waitingTime The time between this and the later departure
+	 */
+	public abstract void addDelayed(DijkstraResultsStorage later, double waitingTime);
+	
+
 	/** @brief Returns whether the search can be finished
 	 * @return Whether all destinations were found
 	 */
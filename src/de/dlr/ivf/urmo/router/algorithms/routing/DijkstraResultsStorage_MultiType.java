@@ -74,6 +74,19 @@ public class DijkstraResultsStorage_MultiType extends DijkstraResultsStorage {
 		}
 	}
 
+
+	/** @brief Adds the results found for a later departure
+	 * 
+	 * @param later The results of the later departure
+	 * @param waitingTime The time between this and the later departure
+	 */
+	public void addDelayed(DijkstraResultsStorage later, double waitingTime) {
+		HashMap<String, ResultSet> laterSeen = ((DijkstraResultsStorage_MultiType) later).seen;
+		for(String type : seen.keySet()) {
+			seen.get(type)._addDelayed(laterSeen.get(type), waitingTime);
+		}
+	}
+
 	
 	/** @brief Returns whether the search can be finished
 	 * @return Whether all destinations were found
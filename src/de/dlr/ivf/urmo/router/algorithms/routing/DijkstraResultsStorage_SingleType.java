@@ -60,6 +60,16 @@ public class DijkstraResultsStorage_SingleType extends DijkstraResultsStorage {
 		seen._addResult(lo, path);
 	}
 
+
+	/** @brief Adds the results found for a later departure
+	 * 
+	 * @param later The results of the later departure
+	 * @param waitingTime The time between this and the later departure
+	 */
+	public void addDelayed(DijkstraResultsStorage later, double waitingTime) {
+		seen._addDelayed(((DijkstraResultsStorage_SingleType) later).seen, waitingTime);
+	}
+
 	
 	/** @brief Returns whether the search can be finished
 	 * @return Whether all destinations were found
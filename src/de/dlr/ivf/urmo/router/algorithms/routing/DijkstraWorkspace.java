@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.routing;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.shapes.DBEdge;
+import de.dlr.ivf.urmo.router.shapes.RoutingGraph;
+
+/** @class DijkstraWorkspace
+ * @brief The reusable storage of a bound Dijkstra search
+ *
+ * A workspace is owned by a single computing thread and reused for all origins
+ * it processes. The node labels (per node and mode of transport) and the edge
+ * labels are stored in arrays sized to the routing graph, the node labels being
+ * indexed by the graph's states (@see RoutingGraph#getState). Instead of clearing
+ * them, each search obtains a new epoch; a label is valid only if its stamp
+ * equals the current epoch. Resetting the workspace is thereby O(1), clearing
+ * the labels of a node is done when the node is touched for the first time.
+ *
+ * The priority queue is pooled as well.
+ *
+ * Additionally, the workspace keeps track of the destination edges that have
+ * not yet been settled, so that a search can be stopped once no better path to
+ * any of them can be found.
+ * @author Daniel Krajzewicz
+ */
+public class DijkstraWorkspace {
+	/// @brief The routing graph the workspace is sized to
+	public final RoutingGraph graph;
+	/// @brief The priority queue holding the next elements to process
+	public final DijkstraHeap next;
+	/// @brief The current epoch
+	private int epoch = 0;
+	/// @brief The epoch each node was touched at
+	private int[] nodeStamps;
+	/// @brief The best entries per state (node and mode of transport)
+	private DijkstraEntry[] nodeLabels;
+	/// @brief The epoch each edge was touched at
+	private int[] edgeStamps;
+	/// @brief The best entries per edge
+	private DijkstraEntry[] edgeLabels;
+	/// @brief The edges touched within the current search, in the order they were touched
+	private int[] seenEdgeList;
+	/// @brief The epoch each edge was settled at
+	private int[] settledStamps;
+	/// @brief The destination edges of the current search (null if not tracked)
+	private Set<DBEdge> ends = null;
+	/// @brief The labels of the destination edges that have not yet been settled, ordered by the route weighting function
+	private PriorityQueue<DijkstraEntry> pendingEnds;
+	/// @brief The number of destination edges not yet settled
+	private int unsettledEnds = 0;
+	/// @brief The number of nodes touched within the current search
+	private long seenNodes = 0;
+	/// @brief The number of edges touched within the current search
+	private long seenEdges = 0;
+
+
+	/** @brief Constructor
+	 * @param _graph The routing graph to search in
+	 * @param measure The route weighting function used to order the entries
+	 */
+	public DijkstraWorkspace(RoutingGraph _graph, AbstractRouteWeightFunction measure) {
+		graph = _graph;
+		next = new DijkstraHeap(measure, 1000);
+		pendingEnds = new PriorityQueue<>(measure);
+		nodeStamps = new int[graph.getNodeNumber()];
+		nodeLabels = new DijkstraEntry[graph.getStateNumber()];
+		edgeStamps = new int[graph.getEdgeNumber()];
+		edgeLabels = new DijkstraEntry[graph.getEdgeNumber()];
+		seenEdgeList = new int[graph.getEdgeNumber()];
+		settledStamps = new int[graph.getEdgeNumber()];
+	}
+
+
+	/** @brief Prepares the workspace for a new search
+	 */
+	public void reset() {
+		next.clear();
+		pendingEnds.clear();
+		ends = null;
+		unsettledEnds = 0;
+		seenNodes = 0;
+		seenEdges = 0;
+		++epoch;
+		if(epoch==Integer.MAX_VALUE) {
+			// rewind the stamps once the epochs are exhausted
+			Arrays.fill(nodeStamps, 0);
+			Arrays.fill(edgeStamps, 0);
+			Arrays.fill(settledStamps, 0);
+			epoch = 1;
+		}
+	}
+
+
+	/** @brief Returns the information about a previously visited node
+	 * @param node The index of the accessed node
+	 * @param mode The used mode
+	 * @return The best entry found so far for the node and mode, null if there is none
+	 */
+	public DijkstraEntry getNodeLabel(int node, Mode mode) {
+		if(nodeStamps[node]!=epoch) {
+			return null;
+		}
+		return nodeLabels[graph.getState(node, mode)];
+	}
+
+
+	/** @brief Sets the information about the access to a node
+	 * @param node The index of the accessed node
+	 * @param mode The used mode
+	 * @param entry The path to the node
+	 */
+	public void setNodeLabel(int node, Mode mode, DijkstraEntry entry) {
+		if(nodeStamps[node]!=epoch) {
+			nodeStamps[node] = epoch;
+			int offset = node*graph.modeSlots;
+			Arrays.fill(nodeLabels, offset, offset+graph.modeSlots, null);
+			++seenNodes;
+		}
+		nodeLabels[graph.getState(node, mode)] = entry;
+	}
+
+
+	/** @brief Returns the best path found so far to the given edge
+	 * @param edge The index of the edge
+	 * @return The best entry found so far for the edge, null if there is none
+	 */
+	public DijkstraEntry getEdgeLabel(int edge) {
+		if(edgeStamps[edge]!=epoch) {
+			return null;
+		}
+		return edgeLabels[edge];
+	}
+
+
+	/** @brief Sets the best path to the given edge
+	 * @param edge The index of the edge
+	 * @param entry The path to the edge
+	 */
+	public void setEdgeLabel(int edge, DijkstraEntry entry) {
+		if(edgeStamps[edge]!=epoch) {
+			edgeStamps[edge] = epoch;
+			seenEdgeList[(int) seenEdges] = edge;
+			++seenEdges;
+		}
+		edgeLabels[edge] = entry;
+		if(ends!=null && settledStamps[edge]!=epoch && ends.contains(graph.edges[edge])) {
+			pendingEnds.add(entry);
+		}
+	}
+
+
+	/** @brief Marks a destination edge as settled without a label
+	 * 
+	 * Used for the edges the origin is located at; the paths to their
+	 * destinations are computed directly from the origin's position.
+	 * @param edge The index of the edge
+	 */
+	public void settleEdge(int edge) {
+		if(ends!=null && settledStamps[edge]!=epoch && ends.contains(graph.edges[edge])) {
+			settledStamps[edge] = epoch;
+			--unsettledEnds;
+		}
+	}
+
+
+	/** @brief Sets the destination edges of the current search
+	 * 
+	 * Must be called after reset() and before the search starts.
+	 * @param _ends The edges the destinations are located at
+	 */
+	public void setEnds(Set<DBEdge> _ends) {
+		ends = _ends;
+		unsettledEnds = _ends.size();
+	}
+
+
+	/** @brief Returns whether the paths to all destination edges are known
+	 * 
+	 * A destination edge is settled if its label is not worse than the best entry
+	 * within the priority queue, as all paths found later are not better. This holds
+	 * only for monotone route weighting functions, see
+	 * AbstractRouteWeightFunction#isMonotone, the ends are not set otherwise.
+	 * @return Whether all destination edges are settled
+	 */
+	public boolean endsSettled() {
+		if(ends==null) {
+			return false;
+		}
+		DijkstraEntry min = next.peek();
+		while(!pendingEnds.isEmpty() && (min==null || pendingEnds.comparator().compare(pendingEnds.peek(), min)<=0)) {
+			DijkstraEntry entry = pendingEnds.poll();
+			int edge = entry.e.getIndex();
+			if(edgeLabels[edge]==entry && settledStamps[edge]!=epoch) {
+				settledStamps[edge] = epoch;
+				--unsettledEnds;
+			}
+		}
+		return unsettledEnds<=0;
+	}
+
+
+	/** @brief Returns the number of nodes visited within the current search
+	 * @return The number of visited nodes
+	 */
+	public long getSeenNodesNum() {
+		return seenNodes;
+	}
+
+
+	/** @brief Returns the number of edges (with destinations) visited within the current search
+	 * @return The number of seen edges with destinations
+	 */
+	public long getSeenEdgesNum() {
+		return seenEdges;
+	}
+
+
+	/** @brief Returns the index of an edge visited within the current search
+	 * @param i The number of the visited edge (0 to getSeenEdgesNum()-1)
+	 * @return The index of the i-th visited edge
+	 */
+	public int getSeenEdge(int i) {
+		return seenEdgeList[i];
+	}
+
+
+}
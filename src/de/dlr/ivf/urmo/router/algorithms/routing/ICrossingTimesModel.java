@@ -20,20 +20,20 @@ package de.dlr.ivf.urmo.router.algorithms.routing;
 
 import java.io.IOException;
 
-import de.dlr.ivf.urmo.router.shapes.DBEdge;
+import de.dlr.ivf.urmo.router.shapes.DBNode;
 
 /** @interface ICrossingTimesModel
  * @brief An interface for models that add delays when crossing a road
  * @author Daniel Krajzewicz
  */
 public interface ICrossingTimesModel {
-	/** @brief Computes crossing times for a given starting edge
+	/** @brief Computes the crossing times between the incoming and the outgoing edges of a node
 	 * 
-	 * The computed crossing times are stored in the node the edge yields in
+	 * The computed crossing times are stored in the node
 	 * 
-	 * @param subjectEdge The regarded edge
+	 * @param n The regarded node
 	 */
-	public void computeCrossingTimes(DBEdge subjectEdge) throws IOException;
+	public void computeCrossingTimes(DBNode n) throws IOException;
 	
 	
 	/** @brief Closes the used crossing times writer, if given
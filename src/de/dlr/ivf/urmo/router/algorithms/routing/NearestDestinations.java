@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ *
+ * All rights reserved.
+ *
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ *
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.routing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.Vector;
+
+import de.dlr.ivf.urmo.router.algorithms.edgemapper.MapResult;
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.shapes.DBEdge;
+import de.dlr.ivf.urmo.router.shapes.RoutingGraph;
+
+/** @class NearestDestinations
+ * @brief The nearest destinations of all nodes, computed by a single search started at all destinations
+ *
+ * The search runs backwards over the incoming edges and is seeded at the nodes
+ * the edges a destination can be approached by (its edge and the opposite one)
+ * start at. Each node keeps up to the given number of labels, each pointing
+ * to a different destination; if destination types are given, this number of
+ * labels is kept per type. A label stores the travel time to the destination
+ * and the next edge towards it.
+ *
+ * As the labels are set in the order of their travel times, the labels of a node
+ * are its nearest destinations; the nodes along the path to one of them know this
+ * destination as well, so that the path can be followed (@see NearestEdgeSearch).
+ * Equal travel times are ordered by the destinations' ids, so that this holds
+ * for ties, too, and the same destinations are chosen as when sorting the results.
+ *
+ * The labels are computed for a single mode of transport and static travel times.
+ *
+ * A forward search bound by the number of destinations stops at the first
+ * destinations it reaches, which are not always the nearest ones, and may break
+ * ties differently; as the results may therefore differ, the labels are only
+ * used if requested (search direction 'nearest').
+ * @author Daniel Krajzewicz
+ */
+public class NearestDestinations {
+	/// @brief The routing graph the labels were computed for
+	public final RoutingGraph graph;
+	/// @brief The mode of transport the labels were computed for
+	public final Mode mode;
+	/// @brief The travel time of each edge (infinite if the mode is not allowed)
+	private double[] edgeWeight;
+	/// @brief The index of the first incoming edge of each node (with an additional end marker)
+	private int[] firstIncoming;
+	/// @brief The incoming edges, grouped by the node they end at
+	private int[] incoming;
+	/// @brief The type of each destination/type pair
+	private int[] pairType;
+	/// @brief The number of destination types (1 if no types are given)
+	private int numTypes;
+	/// @brief The number of labels kept per node and type
+	private int slots;
+	/// @brief The number of labels set per node and type
+	private int[] numLabels;
+	/// @brief The destination/type pair of each label
+	private int[] labelPair;
+	/// @brief The next edge towards the destination of each label (see getNext for the last one)
+	private int[] labelNext;
+	/// @brief The travel time to the destination of each label
+	private double[] labelTT;
+	/// @brief The number of queued labels
+	private int heapSize = 0;
+	/// @brief The travel times of the queued labels
+	private double[] heapTT = new double[1024];
+	/// @brief The nodes of the queued labels
+	private int[] heapNode = new int[1024];
+	/// @brief The destination/type pairs of the queued labels
+	private int[] heapPair = new int[1024];
+	/// @brief The next edges of the queued labels
+	private int[] heapNext = new int[1024];
+
+
+	/** @brief Constructor
+	 *
+	 * Computes the nearest destinations of all nodes.
+	 * @param _graph The routing graph to compute the labels for
+	 * @param _mode The mode of transport to use
+	 * @param time The time the (static) travel times are computed for
+	 * @param edges2dests The destinations, grouped by the edges they are located at
+	 * @param destTypes The map of destination IDs to their types (null if not used)
+	 * @param _slots The number of destinations to find per node (and type)
+	 * @param boundTT The maximum travel time to the destinations (-1 if not used)
+	 */
+	public NearestDestinations(RoutingGraph _graph, Mode _mode, int time, HashMap<DBEdge, Vector<MapResult>> edges2dests,
+			HashMap<Long, Set<String>> destTypes, int _slots, double boundTT) {
+		graph = _graph;
+		mode = _mode;
+		slots = _slots;
+		int numNodes = graph.getNodeNumber();
+		int numEdges = graph.getEdgeNumber();
+		edgeWeight = new double[numEdges];
+		firstIncoming = new int[numNodes+1];
+		for(int e=0; e<numEdges; ++e) {
+			edgeWeight[e] = graph.allows(e, mode.id) ? graph.getTravelTime(e, mode.vmax, time) : Double.POSITIVE_INFINITY;
+			++firstIncoming[graph.edgeTo[e]+1];
+		}
+		for(int n=0; n<numNodes; ++n) {
+			firstIncoming[n+1] += firstIncoming[n];
+		}
+		incoming = new int[numEdges];
+		int[] pos = Arrays.copyOf(firstIncoming, numNodes);
+		for(int e=0; e<numEdges; ++e) {
+			incoming[pos[graph.edgeTo[e]]++] = e;
+		}
+		// build the destination/type pairs
+		Vector<String> types = getTypeNames(destTypes);
+		numTypes = types.size();
+		// a destination may be listed at its edge and at the opposite one, but is one pair (per type)
+		TreeSet<Long> ids = new TreeSet<>();
+		for(Vector<MapResult> dests : edges2dests.values()) {
+			for(MapResult mr : dests) {
+				ids.add(mr.em.getOuterID());
+			}
+		}
+		HashMap<Long, Vector<Integer>> objectPairs = new HashMap<>();
+		Vector<Integer> typeIndices = new Vector<>();
+		for(Long id : ids) {
+			Vector<Integer> pairs = new Vector<>();
+			for(int t=0; t<numTypes; ++t) {
+				if(destTypes==null || (destTypes.containsKey(id) && destTypes.get(id).contains(types.get(t)))) {
+					pairs.add(typeIndices.size());
+					typeIndices.add(t);
+				}
+			}
+			objectPairs.put(id, pairs);
+		}
+		pairType = new int[typeIndices.size()];
+		for(int p=0; p<pairType.length; ++p) {
+			pairType[p] = typeIndices.get(p);
+		}
+		// search
+		numLabels = new int[numNodes*numTypes];
+		labelPair = new int[numNodes*numTypes*slots];
+		labelNext = new int[labelPair.length];
+		labelTT = new double[labelPair.length];
+		// the travel times of the partial last edges are computed as for the results (@see SingleODResult)
+		for(Vector<MapResult> dests : edges2dests.values()) {
+			for(MapResult mr : dests) {
+				int d = mr.edge.getIndex();
+				double length = graph.edgeLength[d];
+				int opposite = graph.edgeOpposite[d];
+				for(int p : objectPairs.get(mr.em.getOuterID())) {
+					if(edgeWeight[d]<Double.POSITIVE_INFINITY) {
+						push(edgeWeight[d] * mr.pos / length, graph.edgeFrom[d], p, -2-2*d);
+					}
+					if(opposite>=0 && edgeWeight[opposite]<Double.POSITIVE_INFINITY) {
+						push(edgeWeight[opposite] * (length - mr.pos) / length, graph.edgeFrom[opposite], p, -3-2*d);
+					}
+				}
+			}
+		}
+		while(heapSize>0) {
+			double tt = heapTT[0];
+			int n = heapNode[0];
+			int p = heapPair[0];
+			int next = heapNext[0];
+			pop();
+			if(boundTT>=0 && tt>boundTT) {
+				break;
+			}
+			int group = n*numTypes + pairType[p];
+			if(numLabels[group]==slots || findLabel(n, p)>=0) {
+				continue;
+			}
+			int label = group*slots + numLabels[group];
+			labelPair[label] = p;
+			labelNext[label] = next;
+			labelTT[label] = tt;
+			++numLabels[group];
+			int end = firstIncoming[n+1];
+			for(int i=firstIncoming[n]; i<end; ++i) {
+				int e = incoming[i];
+				int m = graph.edgeFrom[e];
+				if(edgeWeight[e]==Double.POSITIVE_INFINITY || numLabels[m*numTypes+pairType[p]]==slots) {
+					continue;
+				}
+				push(tt+edgeWeight[e], m, p, e);
+			}
+		}
+		heapTT = null;
+		heapNode = null;
+		heapPair = null;
+		heapNext = null;
+	}
+
+
+	/** @brief Returns the names of the destination types, sorted
+	 * @param destTypes The map of destination IDs to their types (null if not used)
+	 * @return The names of the types (a single unnamed one if no types are given)
+	 */
+	private static Vector<String> getTypeNames(HashMap<Long, Set<String>> destTypes) {
+		Vector<String> ret = new Vector<>();
+		if(destTypes==null) {
+			ret.add("");
+			return ret;
+		}
+		TreeSet<String> names = new TreeSet<>();
+		for(Set<String> types : destTypes.values()) {
+			names.addAll(types);
+		}
+		ret.addAll(names);
+		return ret;
+	}
+
+
+	/** @brief Returns the memory the labels would need
+	 * @param graph The routing graph
+	 * @param slots The number of destinations to find per node (and type)
+	 * @param destTypes The map of destination IDs to their types (null if not used)
+	 * @return The size of the labels in bytes
+	 */
+	public static long getNeededMemory(RoutingGraph graph, int slots, HashMap<Long, Set<String>> destTypes) {
+		return (long) graph.getNodeNumber() * (long) getTypeNames(destTypes).size() * (4L + (long) slots * 16L);
+	}
+
+
+	/** @brief Adds a label to the queue
+	 * @param tt The travel time to the destination
+	 * @param node The node to label
+	 * @param pair The destination/type pair
+	 * @param next The next edge towards the destination
+	 */
+	private void push(double tt, int node, int pair, int next) {
+		if(heapSize==heapTT.length) {
+			heapTT = Arrays.copyOf(heapTT, heapSize*2);
+			heapNode = Arrays.copyOf(heapNode, heapSize*2);
+			heapPair = Arrays.copyOf(heapPair, heapSize*2);
+			heapNext = Arrays.copyOf(heapNext, heapSize*2);
+		}
+		int i = heapSize++;
+		while(i>0) {
+			int parent = (i-1) / 2;
+			if(!before(tt, pair, heapTT[parent], heapPair[parent])) {
+				break;
+			}
+			move(parent, i);
+			i = parent;
+		}
+		heapTT[i] = tt;
+		heapNode[i] = node;
+		heapPair[i] = pair;
+		heapNext[i] = next;
+	}
+
+
+	/** @brief Removes the label with the smallest travel time from the queue
+	 */
+	private void pop() {
+		--heapSize;
+		if(heapSize==0) {
+			return;
+		}
+		double tt = heapTT[heapSize];
+		int pair = heapPair[heapSize];
+		int i = 0;
+		while(true) {
+			int child = 2*i + 1;
+			if(child>=heapSize) {
+				break;
+			}
+			if(child+1<heapSize && before(heapTT[child+1], heapPair[child+1], heapTT[child], heapPair[child])) {
+				++child;
+			}
+			if(!before(heapTT[child], heapPair[child], tt, pair)) {
+				break;
+			}
+			move(child, i);
+			i = child;
+		}
+		move(heapSize, i);
+	}
+
+
+	/** @brief Returns whether a label is set before another one
+	 * @param tt1 The travel time of the first label
+	 * @param pair1 The destination/type pair of the first label
+	 * @param tt2 The travel time of the second label
+	 * @param pair2 The destination/type pair of the second label
+	 * @return Whether the first label is set before the second one
+	 */
+	private static boolean before(double tt1, int pair1, double tt2, int pair2) {
+		return tt1<tt2 || (tt1==tt2 && pair1<pair2);
+	}
+
+
+	/** @brief Moves a queued label to a different position of the queue
+	 * @param from The current position of the label
+	 * @param to The new position of the label
+	 */
+	private void move(int from, int to) {
+		heapTT[to] = heapTT[from];
+		heapNode[to] = heapNode[from];
+		heapPair[to] = heapPair[from];
+		heapNext[to] = heapNext[from];
+	}
+
+
+	/** @brief Returns the number of destination types
+	 * @return The number of types (1 if no types are given)
+	 */
+	public int getTypeNumber() {
+		return numTypes;
+	}
+
+
+	/** @brief Returns the number of nearest destinations of the given type known at a node
+	 * @param node The index of the node
+	 * @param type The index of the type
+	 * @return The number of labels
+	 */
+	public int getLabelNumber(int node, int type) {
+		return numLabels[node*numTypes+type];
+	}
+
+
+	/** @brief Returns a label of the given node
+	 * @param node The index of the node
+	 * @param type The index of the type
+	 * @param i The number of the label (the labels are sorted by their travel times)
+	 * @return The index of the label
+	 */
+	public int getLabel(int node, int type, int i) {
+		return (node*numTypes+type)*slots + i;
+	}
+
+
+	/** @brief Returns the label of the given node that points to the given destination/type pair
+	 * @param node The index of the node
+	 * @param pair The destination/type pair
+	 * @return The index of the label, -1 if the node does not know the destination
+	 */
+	public int findLabel(int node, int pair) {
+		int group = node*numTypes + pairType[pair];
+		int beg = group*slots;
+		int end = beg + numLabels[group];
+		for(int i=beg; i<end; ++i) {
+			if(labelPair[i]==pair) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+	/** @brief Returns the destination/type pair of the given label
+	 * @param label The index of the label
+	 * @return The destination/type pair the label points to
+	 */
+	public int getPair(int label) {
+		return labelPair[label];
+	}
+
+
+	/** @brief Returns the next edge towards the destination of the given label
+	 *
+	 * If the destination is approached by the next edge, -2-2*edge is returned if the
+	 * edge is the one the destination is located at and -3-2*edge if the edge is the
+	 * opposite of the one (edge) the destination is located at.
+	 * @param label The index of the label
+	 * @return The next edge
+	 */
+	public int getNext(int label) {
+		return labelNext[label];
+	}
+
+
+	/** @brief Returns the travel time to the destination of the given label
+	 * @param label The index of the label
+	 * @return The travel time to the destination
+	 */
+	public double getTravelTime(int label) {
+		return labelTT[label];
+	}
+
+
+	/** @brief Returns the travel time of the given edge
+	 * @param e The index of the edge
+	 * @return The travel time of the edge
+	 */
+	public double getEdgeWeight(int e) {
+		return edgeWeight[e];
+	}
+
+
+}
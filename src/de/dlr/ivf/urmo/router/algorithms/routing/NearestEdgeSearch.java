@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ *
+ * All rights reserved.
+ *
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ *
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.routing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Set;
+
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.shapes.DBEdge;
+
+/** @class NearestEdgeSearch
+ * @brief A search shared by all origins located at the same edge that follows the paths to the nearest destinations of the edge's ends
+ *
+ * Instead of searching forward, the nearest destinations of the nodes at both
+ * ends of the origin edge are read from the labels computed by a single search
+ * started at all destinations (@see NearestDestinations). The paths to them are
+ * built by following the labels; the entries are stored as node labels, so that
+ * paths to different destinations share their common beginning.
+ *
+ * The nearest destinations of an origin are among the ones of the edge's ends;
+ * the results are bound by the number of destinations or to the shortest
+ * connection afterwards (@see DijkstraResultsStorage).
+ * @author Daniel Krajzewicz
+ */
+public class NearestEdgeSearch extends SharedEdgeSearch {
+	/// @brief The nearest destinations of all nodes
+	private NearestDestinations nearest;
+	/// @brief The edges with destinations reached by the current search
+	private int[] reachedEdges = new int[16];
+	/// @brief The entries of the reached edges with destinations
+	private DijkstraEntry[] reachedEntries = new DijkstraEntry[16];
+
+
+	/** @brief Constructor
+	 * @param _workspace The workspace to use for the searches
+	 * @param _nearest The nearest destinations of all nodes
+	 * @param _mode The mode to use
+	 * @param _measure The route weighting function to use
+	 * @param _edge The edge the origins are located at
+	 * @param _boundTT Maximum travel time (-1 if not used)
+	 * @param _boundDist Maximum distance (-1 if not used)
+	 * @param _time Starting time
+	 * @param _destTypes Map of destination types
+	 */
+	public NearestEdgeSearch(DijkstraWorkspace _workspace, NearestDestinations _nearest, Mode _mode, AbstractRouteWeightFunction _measure, DBEdge _edge,
+			double _boundTT, double _boundDist, int _time, HashMap<Long, Set<String>> _destTypes) {
+		super(_workspace, _mode, _measure, _edge, _boundTT, _boundDist, _time, _destTypes);
+		nearest = _nearest;
+	}
+
+
+	/** @brief Follows the paths to the nearest destinations of the end of the given edge
+	 * @param startEdge The index of the edge to start at
+	 * @param isOpposite Whether the edge is the opposite of the origin edge
+	 * @param ends The destination candidates (all edges with destinations)
+	 * @return The reached edges with destinations
+	 */
+	@Override
+	protected Direction search(int startEdge, boolean isOpposite, Set<DBEdge> ends) {
+		workspace.reset();
+		Direction d = initDirection(startEdge, isOpposite);
+		int start = graph.edgeTo[startEdge];
+		int num = 0;
+		int numNodes = graph.getNodeNumber();
+		for(int type=0; type<nearest.getTypeNumber(); ++type) {
+			for(int i=0; i<nearest.getLabelNumber(start, type); ++i) {
+				int label = nearest.getLabel(start, type, i);
+				int pair = nearest.getPair(label);
+				DijkstraEntry current = d.seed;
+				int next = nearest.getNext(label);
+				int steps = 0;
+				while(next>=0 && steps<numNodes) {
+					int n = graph.edgeTo[next];
+					DijkstraEntry entry = workspace.getNodeLabel(n, mode);
+					if(entry==null) {
+						double edgeTT = nearest.getEdgeWeight(next);
+						entry = new DijkstraEntry(measure, current, graph.nodes[n], graph.edges[next], mode, current.distance+graph.edgeLength[next], current.tt+edgeTT, null, edgeTT, 0, false);
+						workspace.setNodeLabel(n, mode, entry);
+						++seenNodes;
+					}
+					current = entry;
+					// the nodes along the path to a nearest destination know it as well (@see NearestDestinations)
+					label = nearest.findLabel(n, pair);
+					next = label<0 ? -1 : nearest.getNext(label);
+					++steps;
+				}
+				// as within the plain search, the bounds are checked before passing the last edge
+				if(next==-1 || steps==numNodes || (boundTT>=0 && current.tt>boundTT) || (boundDist>=0 && current.distance>boundDist)) {
+					continue;
+				}
+				int dest = (-2 - next) / 2;
+				boolean wasOpposite = (-2 - next) % 2 == 1;
+				int e = wasOpposite ? graph.edgeOpposite[dest] : dest;
+				// destinations at the same edge share the path
+				boolean known = false;
+				for(int j=0; j<num&&!known; ++j) {
+					known = reachedEdges[j]==dest && reachedEntries[j].wasOpposite==wasOpposite;
+				}
+				if(known) {
+					continue;
+				}
+				double edgeTT = nearest.getEdgeWeight(e);
+				if(num==reachedEdges.length) {
+					reachedEdges = Arrays.copyOf(reachedEdges, num*2);
+					reachedEntries = Arrays.copyOf(reachedEntries, num*2);
+				}
+				reachedEdges[num] = dest;
+				reachedEntries[num] = new DijkstraEntry(measure, current, graph.nodes[graph.edgeTo[e]], graph.edges[dest], mode, current.distance+graph.edgeLength[e], current.tt+edgeTT, null, edgeTT, 0, wasOpposite);
+				++num;
+			}
+		}
+		d.edges = Arrays.copyOf(reachedEdges, num);
+		d.entries = Arrays.copyOf(reachedEntries, num);
+		seenEdges += num;
+		return d;
+	}
+
+
+}
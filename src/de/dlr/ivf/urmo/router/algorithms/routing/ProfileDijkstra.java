@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ *
+ * All rights reserved.
+ *
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ *
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.routing;
+
+import java.util.HashMap;
+import java.util.Set;
+import java.util.Vector;
+
+import de.dlr.ivf.urmo.router.algorithms.edgemapper.MapResult;
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.shapes.DBEdge;
+
+/** @class ProfileDijkstra
+ * @brief Computes the paths from an origin for all departures of a time window using time-dependent searches
+ *
+ * A time-dependent search (@see BoundDijkstra_UniModal, @see BoundDijkstra_Full)
+ * is performed for each departure, reusing the thread's workspace. The
+ * departures are processed from the latest to the earliest one; the
+ * destinations of a later departure are added to the results of the earlier
+ * one, delayed by the time between both departures (waiting at the origin),
+ * so that the travel time never decreases by leaving earlier (FIFO).
+ *
+ * The results of all departures are returned as a ProfileResultsStorage.
+ * @author Daniel Krajzewicz
+ */
+public class ProfileDijkstra implements IBoundDijkstra {
+	/// @brief The workspace to use for the searches
+	private DijkstraWorkspace workspace;
+	/// @brief The modes of transport to use
+	private Vector<Mode> modes;
+	/// @brief Whether the unimodal search shall be used
+	private boolean uniModal;
+	/// @brief The route weighting function to use
+	private AbstractRouteWeightFunction measure;
+	/// @brief The origin of routing
+	private MapResult origin;
+	/// @brief Number of destinations to find (-1 if not used)
+	private int boundNumber;
+	/// @brief Maximum travel time (-1 if not used)
+	private double boundTT;
+	/// @brief Maximum distance (-1 if not used)
+	private double boundDist;
+	/// @brief Maximum weight sum to find (-1 if not used)
+	private double boundVar;
+	/// @brief Whether only the next item shall be found
+	private boolean shortestOnly;
+	/// @brief The departures, sorted ascending
+	private int[] departures;
+	/// @brief Map of destination types
+	private HashMap<Long, Set<String>> destTypes;
+	/// @brief The number of edges with destinations seen by all searches
+	private long seenEdges = 0;
+	/// @brief The number of nodes seen by all searches
+	private long seenNodes = 0;
+
+
+	/** @brief Constructor
+	 * @param _workspace The workspace to use for the searches
+	 * @param _modes The modes of transport to use
+	 * @param _uniModal Whether the unimodal search shall be used (a single mode without public transport)
+	 * @param _measure The route weighting function to use
+	 * @param _origin The origin of routing
+	 * @param _boundNumber Number of destinations to find (-1 if not used)
+	 * @param _boundTT Maximum travel time (-1 if not used)
+	 * @param _boundDist Maximum distance (-1 if not used)
+	 * @param _boundVar Maximum weight sum to find (-1 if not used)
+	 * @param _shortestOnly Whether only the next item shall be found
+	 * @param _departures The departures, sorted ascending
+	 * @param _destTypes Map of destination types
+	 */
+	public ProfileDijkstra(DijkstraWorkspace _workspace, Vector<Mode> _modes, boolean _uniModal, AbstractRouteWeightFunction _measure, MapResult _origin, 
+			int _boundNumber, double _boundTT, double _boundDist, double _boundVar, boolean _shortestOnly, int[] _departures, HashMap<Long, Set<String>> _destTypes) {
+		workspace = _workspace;
+		modes = _modes;
+		uniModal = _uniModal;
+		measure = _measure;
+		origin = _origin;
+		boundNumber = _boundNumber;
+		boundTT = _boundTT;
+		boundDist = _boundDist;
+		boundVar = _boundVar;
+		shortestOnly = _shortestOnly;
+		departures = _departures;
+		destTypes = _destTypes;
+	}
+
+
+	/**
+	 * @brief Computes the paths to the destinations for all departures
+	 *
+	 * @param ends The destination candidates
+	 * @param edges2dests The map from edges to destinations
+	 * @return The results of all departures
+	 */
+	@Override
+	public DijkstraResultsStorage run(Set<DBEdge> ends, HashMap<DBEdge, Vector<MapResult>> edges2dests) {
+		DijkstraResultsStorage[] results = new DijkstraResultsStorage[departures.length];
+		for(int i=departures.length-1; i>=0; --i) {
+			IBoundDijkstra bd = null;
+			if(uniModal) {
+				bd = new BoundDijkstra_UniModal(workspace, modes.get(0), measure, origin, boundNumber, boundTT, boundDist, boundVar, shortestOnly, departures[i], destTypes);
+			} else {
+				bd = new BoundDijkstra_Full(workspace, modes, measure, origin, boundNumber, boundTT, boundDist, boundVar, shortestOnly, departures[i], destTypes);
+			}
+			results[i] = bd.run(ends, edges2dests);
+			seenEdges += bd.getSeenEdgesNum();
+			seenNodes += bd.getSeenNodesNum();
+			if(i<departures.length-1) {
+				results[i].addDelayed(results[i+1], departures[i+1]-departures[i]);
+			}
+		}
+		return new ProfileResultsStorage(results, departures);
+	}
+
+
+	/** @brief Returns the number of visited edges (with destinations)
+	 * @return The number of seen edges with destinations, summed over all departures
+	 */
+	@Override
+	public long getSeenEdgesNum() {
+		return seenEdges;
+	}
+
+
+	/** @brief Returns the number of visited nodes
+	 * @return The number of visited nodes, summed over all departures
+	 */
+	@Override
+	public long getSeenNodesNum() {
+		return seenNodes;
+	}
+
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ *
+ * All rights reserved.
+ *
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ *
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.routing;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Vector;
+
+import de.dlr.ivf.urmo.router.algorithms.edgemapper.EdgeMappable;
+import de.dlr.ivf.urmo.router.output.SingleResultComparator_DestinationID;
+import de.dlr.ivf.urmo.router.output.SingleResultComparator_TT;
+import de.dlr.ivf.urmo.router.shapes.LayerObject;
+
+/** @class ProfileResultsStorage
+ * @brief The results of a profile search, one storage per departure
+ *
+ * The collected results are the ones of the first departure. Each of them holds
+ * the travel times of the departures the destination is reached at (within the
+ * bounds), in the order of the departures, and the times the origin is left at
+ * for them (the departure plus the time spent waiting at the origin).
+ * @see ProfileDijkstra
+ * @see de.dlr.ivf.urmo.router.algorithms.raptor.ProfileRaptor
+ * @author Daniel Krajzewicz
+ */
+public class ProfileResultsStorage extends DijkstraResultsStorage {
+	/// @brief The results of the departures, sorted by the departure
+	private DijkstraResultsStorage[] departures;
+	/// @brief The departure times
+	private int[] departureTimes;
+
+
+	/** @brief Constructor
+	 *
+	 * @param _departures The results of the departures, sorted by the departure
+	 * @param _departureTimes The departure times
+	 */
+	public ProfileResultsStorage(DijkstraResultsStorage[] _departures, int[] _departureTimes) {
+		super(-1, -1, -1, -1, false);
+		departures = _departures;
+		departureTimes = _departureTimes;
+	}
+
+
+	/** @brief Adds a result to the first departure
+	 *
+	 * @param lo The destination to add
+	 * @param path The path to the destination
+	 */
+	@Override
+	public void addResult(LayerObject lo, SingleODResult path) {
+		departures[0].addResult(lo, path);
+	}
+
+
+	/** @brief Adds the results found for a later departure to the first departure
+	 *
+	 * @param later The results of the later departure
+	 * @param waitingTime The time between the first and the later departure
+	 */
+	@Override
+	public void addDelayed(DijkstraResultsStorage later, double waitingTime) {
+		departures[0].addDelayed(later, waitingTime);
+	}
+
+
+	/** @brief Returns whether the search can be finished
+	 * @return Whether all destinations were found for the first departure
+	 */
+	@Override
+	public boolean finished() {
+		return departures[0].finished();
+	}
+
+
+	/** @brief Collects the results of the first departure and attaches the travel times of all departures
+	 *
+	 * @param comparator The comparator used to sort the results
+	 * @param sorter The sorting comparator
+	 * @param needsPT Whether only paths that contain public transport shall be returned
+	 * @param singleDestination The destination to find explicitly
+	 * @return The sorted list of found destinations
+	 */
+	@Override
+	public Vector<SingleODResult> collectResults(SingleResultComparator_TT comparator, SingleResultComparator_DestinationID sorter, boolean needsPT, long singleDestination) {
+		HashMap<EdgeMappable, Vector<Double>> tts = new HashMap<>();
+		HashMap<EdgeMappable, Vector<Double>> leaves = new HashMap<>();
+		Vector<SingleODResult> results = null;
+		for(int i=0; i<departures.length; ++i) {
+			Vector<SingleODResult> departureResults = departures[i].collectResults(comparator, sorter, needsPT, singleDestination);
+			if(results==null) {
+				results = departureResults;
+			}
+			// a destination may be reported once per type
+			Set<EdgeMappable> reported = new HashSet<>();
+			for(SingleODResult result : departureResults) {
+				EdgeMappable destination = result.destination.em;
+				if(!reported.add(destination)) {
+					continue;
+				}
+				Vector<Double> destTTs = tts.get(destination);
+				if(destTTs==null) {
+					destTTs = new Vector<>();
+					tts.put(destination, destTTs);
+					leaves.put(destination, new Vector<>());
+				}
+				destTTs.add(result.tt);
+				leaves.get(destination).add(departureTimes[i] + result.originWaitingTime);
+			}
+		}
+		for(SingleODResult result : results) {
+			Vector<Double> destTTs = tts.get(result.destination.em);
+			Vector<Double> destLeaves = leaves.get(result.destination.em);
+			result.profileTTs = new double[destTTs.size()];
+			result.profileDepartures = new double[destTTs.size()];
+			for(int i=0; i<result.profileTTs.length; ++i) {
+				result.profileTTs[i] = destTTs.get(i);
+				result.profileDepartures[i] = destLeaves.get(i);
+			}
+		}
+		return results;
+	}
+
+
+}
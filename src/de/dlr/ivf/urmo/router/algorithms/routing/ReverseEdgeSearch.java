@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ *
+ * All rights reserved.
+ *
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ *
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.routing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Set;
+
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.shapes.DBEdge;
+
+/** @class ReverseEdgeSearch
+ * @brief A search shared by all origins located at the same edge that follows the trees computed backwards from the destination edges
+ *
+ * Instead of searching forward, the path from both ends of the origin edge to
+ * each destination edge is read from the destination edge's tree (@see DestinationTrees).
+ * The entries along the paths are built in the forward direction and stored as
+ * node labels, so that paths to different destination edges share their
+ * common beginning.
+ *
+ * As all destinations within the bounds are found, the results are bound
+ * by the number of destinations, their value, or to the shortest connection
+ * afterwards (@see DijkstraResultsStorage).
+ * @author Daniel Krajzewicz
+ */
+public class ReverseEdgeSearch extends SharedEdgeSearch {
+	/// @brief The trees towards the destination edges
+	private DestinationTrees trees;
+	/// @brief The edges with destinations reached by the current search
+	private int[] reachedEdges = new int[64];
+	/// @brief The entries of the reached edges with destinations
+	private DijkstraEntry[] reachedEntries = new DijkstraEntry[64];
+
+
+	/** @brief Constructor
+	 * @param _workspace The workspace to use for the searches
+	 * @param _trees The trees towards the destination edges
+	 * @param _mode The mode to use
+	 * @param _measure The route weighting function to use
+	 * @param _edge The edge the origins are located at
+	 * @param _boundTT Maximum travel time (-1 if not used)
+	 * @param _boundDist Maximum distance (-1 if not used)
+	 * @param _time Starting time
+	 * @param _destTypes Map of destination types
+	 */
+	public ReverseEdgeSearch(DijkstraWorkspace _workspace, DestinationTrees _trees, Mode _mode, AbstractRouteWeightFunction _measure, DBEdge _edge,
+			double _boundTT, double _boundDist, int _time, HashMap<Long, Set<String>> _destTypes) {
+		super(_workspace, _mode, _measure, _edge, _boundTT, _boundDist, _time, _destTypes);
+		trees = _trees;
+	}
+
+
+	/** @brief Follows the trees starting at the end of the given edge
+	 * @param startEdge The index of the edge to start at
+	 * @param isOpposite Whether the edge is the opposite of the origin edge
+	 * @param ends The destination candidates (all edges with destinations)
+	 * @return The reached edges with destinations
+	 */
+	@Override
+	protected Direction search(int startEdge, boolean isOpposite, Set<DBEdge> ends) {
+		workspace.reset();
+		Direction d = initDirection(startEdge, isOpposite);
+		int start = graph.edgeTo[startEdge];
+		int num = 0;
+		int numNodes = graph.getNodeNumber();
+		for(int i=0; i<trees.getDestinationNumber(); ++i) {
+			if(trees.getNext(i, start)<0) {
+				continue;
+			}
+			int dest = trees.getDestination(i);
+			int opposite = graph.edgeOpposite[dest];
+			DijkstraEntry current = d.seed;
+			int n = start;
+			int e = trees.getNext(i, n);
+			int steps = 0;
+			while(e!=dest && e!=opposite && steps<numNodes) {
+				n = graph.edgeTo[e];
+				DijkstraEntry entry = workspace.getNodeLabel(n, mode);
+				if(entry==null) {
+					double edgeTT = trees.getEdgeWeight(e);
+					entry = new DijkstraEntry(measure, current, graph.nodes[n], graph.edges[e], mode, current.distance+graph.edgeLength[e], current.tt+edgeTT, null, edgeTT, 0, false);
+					workspace.setNodeLabel(n, mode, entry);
+					++seenNodes;
+				}
+				current = entry;
+				e = trees.getNext(i, n);
+				++steps;
+			}
+			// as within the plain search, the bounds are checked before passing the last edge
+			if(steps==numNodes || (boundTT>=0 && current.tt>boundTT) || (boundDist>=0 && current.distance>boundDist)) {
+				continue;
+			}
+			double edgeTT = trees.getEdgeWeight(e);
+			if(num==reachedEdges.length) {
+				reachedEdges = Arrays.copyOf(reachedEdges, num*2);
+				reachedEntries = Arrays.copyOf(reachedEntries, num*2);
+			}
+			reachedEdges[num] = dest;
+			reachedEntries[num] = new DijkstraEntry(measure, current, graph.nodes[graph.edgeTo[e]], graph.edges[dest], mode, current.distance+graph.edgeLength[e], current.tt+edgeTT, null, edgeTT, 0, e!=dest);
+			++num;
+		}
+		d.edges = Arrays.copyOf(reachedEdges, num);
+		d.entries = Arrays.copyOf(reachedEntries, num);
+		seenEdges += num;
+		return d;
+	}
+
+
+}
@@ -18,8 +18,6 @@
  */
 package de.dlr.ivf.urmo.router.algorithms.routing;
 
-import java.util.HashMap;
-
 /**
  * @class RouteWeightFunction_ExpInterchange_TT
  * @brief Weights routes by counting interchanges exponential and addin the travel time
@@ -59,8 +57,8 @@ public class RouteWeightFunction_ExpInterchange_TT extends AbstractRouteWeightFu
 	 */
 	@Override
 	public int compare(DijkstraEntry c1, DijkstraEntry c2) {
-		double tt1 = computeWeight(c1);
-		double tt2 = computeWeight(c2);
+		double tt1 = c1.weight;
+		double tt2 = c2.weight;
 		if(tt1<tt2) {
 			return -1;
 		} else if(tt1>tt2) {
@@ -71,15 +69,25 @@ public class RouteWeightFunction_ExpInterchange_TT extends AbstractRouteWeightFu
 		
 	
 	/**
-	 * @brief Builds the measures used for weighting
+	 * @brief Computes the interchanges and the weight of the path
 	 * @param prev The prior path element
 	 * @param current The current path element
-	 * @return A map with build measures
 	 */
-	public HashMap<String, Object> buildMeasures(DijkstraEntry prev, DijkstraEntry current) {
-		HashMap<String, Object> ret = new HashMap<>();
-		addInterchangeCount2Measures(ret, prev, current);
-		return ret;
+	public void buildLabel(DijkstraEntry prev, DijkstraEntry current) {
+		addInterchangeCount(prev, current);
+		current.weight = computeWeight(current);
+	}
+
+
+	/**
+	 * @brief Recomputes the weight after the mode of transport was changed
+	 * @param prev The path element before the change
+	 * @param current The path element after the change
+	 * @param price The price of the change
+	 */
+	@Override
+	public void buildModeChangeLabel(DijkstraEntry prev, DijkstraEntry current, double price) {
+		current.weight = computeWeight(current);
 	}
 
 	
@@ -88,7 +96,7 @@ public class RouteWeightFunction_ExpInterchange_TT extends AbstractRouteWeightFu
 	 * @return The route's costs
 	 */
 	public double computeWeight(DijkstraEntry c) {
-		int pc = (Integer) c.measures.get("interchanges");
+		int pc = c.interchanges;
 		double pcE = (Math.exp((double) pc*scale1)-1.) * scale2;
 		return c.tt + pcE; // !!!! potentially wrong tt in DijkstraEntry
 	}
@@ -18,8 +18,6 @@
  */
 package de.dlr.ivf.urmo.router.algorithms.routing;
 
-import java.util.HashMap;
-
 /**
  * @class RouteWeightFunction_MaxInterchange_TT
  * @brief Limits the number of interchanges - a path with more than a given number of interchanges is always the slower one
@@ -55,8 +53,8 @@ public class RouteWeightFunction_MaxInterchange_TT extends AbstractRouteWeightFu
 	 */
 	@Override
 	public int compare(DijkstraEntry c1, DijkstraEntry c2) {
-		int pc1 = (Integer) c1.measures.get("interchanges");
-		int pc2 = (Integer) c2.measures.get("interchanges");
+		int pc1 = c1.interchanges;
+		int pc2 = c2.interchanges;
 		if(pc1<=scale1 && pc2>scale1) {
 			return -1;
 		} else if(pc1>scale1 && pc2<=scale1) {
@@ -73,15 +71,12 @@ public class RouteWeightFunction_MaxInterchange_TT extends AbstractRouteWeightFu
 	
 
 	/**
-	 * @brief Builds the measures used for weighting
+	 * @brief Computes the interchanges performed along the path
 	 * @param prev The prior path element
 	 * @param current The current path element
-	 * @return A map with build measures
 	 */
-	public HashMap<String, Object> buildMeasures(DijkstraEntry prev, DijkstraEntry current) {
-		HashMap<String, Object> ret = new HashMap<>();
-		addInterchangeCount2Measures(ret, prev, current);
-		return ret;
+	public void buildLabel(DijkstraEntry prev, DijkstraEntry current) {
+		addInterchangeCount(prev, current);
 	}
 	
 };
@@ -18,9 +18,6 @@
  */
 package de.dlr.ivf.urmo.router.algorithms.routing;
 
-import java.util.HashMap;
-import java.util.HashSet;
-
 /**
  * @class RouteWeightFunction_Price_TT
  * @brief Compares paths by price, then by the travel time
@@ -43,8 +40,8 @@ public class RouteWeightFunction_Price_TT extends AbstractRouteWeightFunction {
 	 */
 	@Override
 	public int compare(DijkstraEntry c1, DijkstraEntry c2) {
-		double pc1 = (Double) c1.measures.get("price");
-		double pc2 = (Double) c2.measures.get("price");
+		double pc1 = c1.weight;
+		double pc2 = c2.weight;
 		if(pc1<pc2) {
 			return -1;
 		} else if(pc1>pc2) {
@@ -60,21 +57,35 @@ public class RouteWeightFunction_Price_TT extends AbstractRouteWeightFunction {
 	
 
 	/**
-	 * @brief Builds the measures used for weighting
+	 * @brief Computes the price of the current path element
+	 * 
+	 * The price of the current element only is used for comparison; whether
+	 * public transport was used before is tracked using the last trip slot.
 	 * @param prev The prior path element
 	 * @param current The current path element
-	 * @return A map with build measures
 	 */
-	@SuppressWarnings("unchecked")
-	public HashMap<String, Object> buildMeasures(DijkstraEntry prev, DijkstraEntry current) {
-		HashMap<String, Object> ret = new HashMap<>();
-		HashSet<String> lines = new HashSet<String>();
+	public void buildLabel(DijkstraEntry prev, DijkstraEntry current) {
+		boolean hadPT = false;
 		if(prev!=null) {
-			lines.addAll((HashSet<String>) prev.measures.get("lines"));
+			hadPT = prev.lastPT!=null;
+			current.lastPT = prev.lastPT;
+		}
+		if(current.ptConnection!=null) {
+			current.lastPT = current.ptConnection.trip;
 		}
-		ret.put("lines", lines);
-		ret.put("price", current.e.getPrice(current.usedMode, lines));
-		return ret;
+		current.weight = current.e.getPrice(current.usedMode, hadPT);
+	}
+
+
+	/**
+	 * @brief Adds the price of changing the mode of transport
+	 * @param prev The path element before the change
+	 * @param current The path element after the change
+	 * @param price The price of the change
+	 */
+	@Override
+	public void buildModeChangeLabel(DijkstraEntry prev, DijkstraEntry current, double price) {
+		current.weight = prev.weight + price;
 	}
 	
 };
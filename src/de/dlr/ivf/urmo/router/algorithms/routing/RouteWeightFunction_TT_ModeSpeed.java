@@ -18,8 +18,6 @@
  */
 package de.dlr.ivf.urmo.router.algorithms.routing;
 
-import java.util.HashMap;
-
 /**
  * @class RouteWeightFunction_TT_ModeSpeed
  * @brief Compares paths by the travel time, then by the number of remaining modes that can be used
@@ -59,13 +57,21 @@ public class RouteWeightFunction_TT_ModeSpeed extends AbstractRouteWeightFunctio
 	
 
 	/**
-	 * @brief Builds the measures used for weighting
+	 * @brief Returns true, the travel time of a path never decreases when the path is extended
+	 * @return Always true
+	 */
+	@Override
+	public boolean isMonotone() {
+		return true;
+	}
+	
+
+	/**
+	 * @brief Does nothing, the travel time and the mode are stored in the entry itself
 	 * @param prev The prior path element
 	 * @param current The current path element
-	 * @return A map with build measures
 	 */
-	public HashMap<String, Object> buildMeasures(DijkstraEntry prev, DijkstraEntry current) {
-		return null;
+	public void buildLabel(DijkstraEntry prev, DijkstraEntry current) {
 	}
 	
 };
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.algorithms.routing;
+
+import java.util.HashMap;
+import java.util.Set;
+import java.util.Vector;
+
+import de.dlr.ivf.urmo.router.algorithms.edgemapper.MapResult;
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.shapes.DBEdge;
+import de.dlr.ivf.urmo.router.shapes.LayerObject;
+import de.dlr.ivf.urmo.router.shapes.RoutingGraph;
+
+/** @class SharedEdgeSearch
+ * @brief A unimodal 1-to-many Dijkstra that is shared by all origins located at the same edge
+ *
+ * Instead of starting at the origin's position, two searches are performed, one
+ * starting at the end of the origin edge and one starting at the end of its opposite
+ * edge. The labels of these searches do not depend on the position of the origin
+ * along the edge; the travel times and distances of a single origin are obtained by
+ * adding the (partial) first edge's travel time and length, as done for the first
+ * edge within SingleODResult.
+ *
+ * This is only valid if travel times do not depend on the time of the day and if
+ * the search is not stopped after a number of destinations or a value was found.
+ * @author Daniel Krajzewicz
+ */
+public class SharedEdgeSearch {
+	/** @class Direction
+	 * @brief The edges with destinations reached by a search starting at one end of the origin edge
+	 */
+	protected static class Direction {
+		/// @brief The index of the edge the search started at
+		public int edge;
+		/// @brief The entry the search started with
+		public DijkstraEntry seed;
+		/// @brief The travel time needed to pass the complete starting edge
+		public double edgeTT;
+		/// @brief The indices of the reached edges with destinations
+		public int[] edges;
+		/// @brief The best entries for the reached edges
+		public DijkstraEntry[] entries;
+	}
+
+	/// @brief The routing graph to use
+	protected RoutingGraph graph;
+	/// @brief The (thread-owned) workspace holding the labels of the searches
+	protected DijkstraWorkspace workspace;
+	/// @brief The mode to use
+	protected Mode mode;
+	/// @brief The route weighting function to use
+	protected AbstractRouteWeightFunction measure;
+	/// @brief The index of the edge the origins are located at
+	private int edge;
+	/// @brief Starting time
+	protected int time;
+	/// @brief The maximum travel time to bound the search by
+	protected double boundTT;
+	/// @brief The maximum distance to bound the search by
+	protected double boundDist;
+	/// @brief The map of destination type IDs to their names
+	private HashMap<Long, Set<String>> destTypes;
+	/// @brief The map from edges to destinations
+	private HashMap<DBEdge, Vector<MapResult>> edges2dests = null;
+	/// @brief The search starting at the end of the origin edge
+	private Direction forward = null;
+	/// @brief The search starting at the end of the opposite edge (null if there is none)
+	private Direction backward = null;
+	/// @brief The number of visited edges (with destinations)
+	protected long seenEdges = 0;
+	/// @brief The number of visited nodes
+	protected long seenNodes = 0;
+
+
+	/** @brief Constructor
+	 * @param _workspace The workspace to use for the searches
+	 * @param _mode The mode to use
+	 * @param _measure The route weighting function to use
+	 * @param _edge The edge the origins are located at
+	 * @param _boundTT Maximum travel time (-1 if not used)
+	 * @param _boundDist Maximum distance (-1 if not used)
+	 * @param _time Starting time
+	 * @param _destTypes Map of destination types
+	 */
+	public SharedEdgeSearch(DijkstraWorkspace _workspace, Mode _mode, AbstractRouteWeightFunction _measure, DBEdge _edge,
+			double _boundTT, double _boundDist, int _time, HashMap<Long, Set<String>> _destTypes) {
+		workspace = _workspace;
+		graph = _workspace.graph;
+		mode = _mode;
+		measure = _measure;
+		edge = _edge.getIndex();
+		boundTT = _boundTT;
+		boundDist = _boundDist;
+		time = _time;
+		destTypes = _destTypes;
+	}
+
+
+	/** @brief Returns whether a search may be shared by the origins of an edge using the given settings
+	 * @param graph The routing graph to use
+	 * @param measure The route weighting function to use
+	 * @param boundNumber Number of destinations to find (-1 if not used)
+	 * @param boundVar Maximum weight sum to find (-1 if not used)
+	 * @param shortestOnly Whether only the next item shall be found
+	 * @return Whether the searches can be shared
+	 */
+	public static boolean canShare(RoutingGraph graph, AbstractRouteWeightFunction measure, int boundNumber, double boundVar, boolean shortestOnly) {
+		// a search that stops after finding some destinations depends on the origin's position
+		if(boundNumber>0 || boundVar>0 || shortestOnly) {
+			return false;
+		}
+		// the origin's position would shift the time edges are passed at
+		if(graph.hasSpeeds) {
+			return false;
+		}
+		// the labels would be ordered by price, not by the travel time
+		return !(measure instanceof RouteWeightFunction_Price_TT);
+	}
+
+
+	/** @brief Performs the searches starting at both ends of the origin edge
+	 * @param ends The destination candidates
+	 * @param _edges2dests The map from edges to destinations
+	 */
+	public void run(Set<DBEdge> ends, HashMap<DBEdge, Vector<MapResult>> _edges2dests) {
+		edges2dests = _edges2dests;
+		forward = search(edge, false, ends);
+		int opposite = graph.edgeOpposite[edge];
+		if(opposite>=0) {
+			backward = search(opposite, true, ends);
+		}
+	}
+
+
+	/** @brief Builds the results for a single origin located at the edge
+	 * @param origin The origin
+	 * @param boundNumber Number of destinations to find (-1 if not used)
+	 * @param boundVar Maximum weight sum to find (-1 if not used)
+	 * @param shortestOnly Whether only the next item shall be found
+	 * @return The results for the given origin
+	 */
+	public DijkstraResultsStorage getResults(MapResult origin, int boundNumber, double boundVar, boolean shortestOnly) {
+		DijkstraResultsStorage seen = null;
+		if(destTypes==null) {
+			seen = new DijkstraResultsStorage_SingleType(boundNumber, boundTT, boundDist, boundVar, shortestOnly);
+		} else {
+			seen = new DijkstraResultsStorage_MultiType(boundNumber, boundTT, boundDist, boundVar, shortestOnly, destTypes);
+		}
+		double length = graph.edgeLength[edge];
+		addResults(seen, origin, forward, length-origin.pos, forward.edgeTT * (length-origin.pos) / length);
+		if(backward!=null) {
+			addResults(seen, origin, backward, origin.pos, backward.edgeTT * origin.pos / graph.edgeLength[backward.edge]);
+		}
+		return seen;
+	}
+
+
+	/** @brief Returns the number of visited edges (with destinations)
+	 * @return The number of seen edges with destinations
+	 */
+	public long getSeenEdgesNum() {
+		return seenEdges;
+	}
+
+
+	/** @brief Returns the number of visited nodes
+	 * @return The number of visited nodes
+	 */
+	public long getSeenNodesNum() {
+		return seenNodes;
+	}
+
+
+	/** @brief Builds the entry the search starting at the end of the given edge starts with
+	 * 
+	 * The workspace must have been reset before; the entry is stored as the label of the edge's end node.
+	 * @param startEdge The index of the edge to start at
+	 * @param isOpposite Whether the edge is the opposite of the origin edge
+	 * @return The initialised search direction
+	 */
+	protected Direction initDirection(int startEdge, boolean isOpposite) {
+		Direction d = new Direction();
+		d.edge = startEdge;
+		d.edgeTT = graph.getTravelTime(startEdge, mode.vmax, time);
+		d.seed = new DijkstraEntry(measure, null, graph.nodes[graph.edgeTo[startEdge]], graph.edges[startEdge], mode, 0, 0, null, d.edgeTT, 0, isOpposite);
+		workspace.setNodeLabel(graph.edgeTo[startEdge], mode, d.seed);
+		return d;
+	}
+
+
+	/** @brief Performs a search starting at the end of the given edge
+	 * @param startEdge The index of the edge to start at
+	 * @param isOpposite Whether the edge is the opposite of the origin edge
+	 * @param ends The destination candidates
+	 * @return The reached edges with destinations
+	 */
+	protected Direction search(int startEdge, boolean isOpposite, Set<DBEdge> ends) {
+		workspace.reset();
+		if(measure.isMonotone()) {
+			workspace.setEnds(ends);
+		}
+		// the destinations at the starting edge are added directly (@see addResults)
+		workspace.settleEdge(startEdge);
+		DijkstraHeap next = workspace.next;
+		Direction d = initDirection(startEdge, isOpposite);
+		next.add(d.seed);
+		while (!next.isEmpty() && !workspace.endsSettled()) {
+			DijkstraEntry nns = next.poll();
+			// check bounds; the offset of an origin is never negative
+			if (boundTT >= 0 && nns.tt > boundTT) {
+				continue;
+			}
+			if (boundDist >= 0 && nns.distance > boundDist) {
+				continue;
+			}
+			// iterate over outgoing edges
+			int ni = nns.n.getIndex();
+			int oesEnd = graph.firstOutgoing[ni+1];
+			for (int oe=graph.firstOutgoing[ni]; oe<oesEnd; ++oe) {
+				DBEdge oeEdge = graph.edges[oe];
+				double edge_tt = graph.getTravelTime(oe, mode.vmax, time + nns.tt) + graph.getCrossingTime(nns.e.getIndex(), oe);
+				int n = graph.edgeTo[oe];
+				double distance = nns.distance + graph.edgeLength[oe];
+				double ctt = nns.tt + edge_tt;
+				DijkstraEntry oldValue = workspace.getNodeLabel(n, mode);
+				DijkstraEntry newValue = new DijkstraEntry(measure, nns, graph.nodes[n], oeEdge, mode, distance, ctt, null, edge_tt, 0, false);
+				if(oldValue==null) {
+					next.add(newValue);
+					workspace.setNodeLabel(n, mode, newValue);
+				} else if(measure.compare(oldValue, newValue)>0) {
+					next.replace(oldValue, newValue);
+					workspace.setNodeLabel(n, mode, newValue);
+				}
+				visitEdge(oe, newValue);
+				// check opposite direction
+				int opposite = graph.edgeOpposite[oe];
+				if(opposite>=0 && graph.edgeHasDestinations[opposite]) {
+					visitEdge(opposite, new DijkstraEntry(measure, nns, graph.nodes[n], graph.edges[opposite], mode, distance, ctt, null, edge_tt, 0, true));
+				}
+			}
+		}
+		collectEdges(d);
+		return d;
+	}
+
+
+	/** @brief Keeps the best entries of the edges with destinations reached by the last search
+	 * @param d The search direction to store the entries in
+	 */
+	protected void collectEdges(Direction d) {
+		int num = (int) workspace.getSeenEdgesNum();
+		d.edges = new int[num];
+		d.entries = new DijkstraEntry[num];
+		for(int i=0; i<num; ++i) {
+			d.edges[i] = workspace.getSeenEdge(i);
+			d.entries[i] = workspace.getEdgeLabel(d.edges[i]);
+		}
+		seenEdges += num;
+		seenNodes += workspace.getSeenNodesNum();
+	}
+
+
+	/** @brief Stores the entry for an accessed edge if the edge has destinations and the entry is the best one
+	 * @param oei The index of the accessed edge
+	 * @param newValue The routing element used to approach the edge
+	 */
+	private void visitEdge(int oei, DijkstraEntry newValue) {
+		if(!graph.edgeHasDestinations[oei]) {
+			return;
+		}
+		DijkstraEntry prior = workspace.getEdgeLabel(oei);
+		if(prior==null || measure.compare(prior, newValue)>=0) {
+			workspace.setEdgeLabel(oei, newValue);
+		}
+	}
+
+
+	/** @brief Adds the results of one of the searches for the given origin
+	 * @param seen The results storage to fill
+	 * @param origin The origin
+	 * @param d The search to add the results of
+	 * @param offsetDist The distance between the origin and the end of the search's starting edge
+	 * @param offsetTT The travel time between the origin and the end of the search's starting edge
+	 */
+	private void addResults(DijkstraResultsStorage seen, MapResult origin, Direction d, double offsetDist, double offsetTT) {
+		// destinations at the starting edge itself
+		if(graph.edgeHasDestinations[d.edge]) {
+			for(MapResult mr : edges2dests.get(graph.edges[d.edge])) {
+				seen.addResult((LayerObject) mr.em, new SingleODResult(origin, mr, d.seed, time, offsetDist, offsetTT));
+			}
+		}
+		for(int i=0; i<d.edges.length; ++i) {
+			for(MapResult mr : edges2dests.get(graph.edges[d.edges[i]])) {
+				seen.addResult((LayerObject) mr.em, new SingleODResult(origin, mr, d.entries[i], time, offsetDist, offsetTT));
+			}
+		}
+	}
+
+
+}
@@ -35,6 +35,14 @@ public class SingleODResult {
 	public double tt = 0;
 	/// @brief The path that connects the origin and the destination
 	public DijkstraEntry path;
+	/// @brief The travel time needed to pass the (partial) first edge
+	public double firstTT = 0;
+	/// @brief The time waited at the origin before the path starts (included in the travel time)
+	public double originWaitingTime = 0;
+	/// @brief The travel times at the departures of a time window (null if a single departure is regarded)
+	public double[] profileTTs = null;
+	/// @brief The times the origin is left at for the profile travel times (null if a single departure is regarded)
+	public double[] profileDepartures = null;
 	
 	
 	/** @brief Constructor
@@ -45,6 +53,23 @@ public class SingleODResult {
 	 * @param time The time for which the routing was performed 
 	 */
 	protected SingleODResult(MapResult _origin, MapResult _destination, DijkstraEntry _path, double time) {
+		this(_origin, _destination, _path, time, 0, 0);
+		firstTT = path.first.ttt;
+	}
+
+
+	/** @brief Constructor for paths that were computed starting at the end of the origin's edge
+	 * 
+	 * The path's distance and travel time do not include the part of the first edge
+	 * between the origin and the edge's end; they are given as offsets instead.
+	 * @param _origin The origin of the route
+	 * @param _destination The destination of the route
+	 * @param _path The path that connects the origin and the destination
+	 * @param time The time for which the routing was performed 
+	 * @param offsetDist The distance between the origin and the end of the first edge
+	 * @param offsetTT The travel time between the origin and the end of the first edge
+	 */
+	protected SingleODResult(MapResult _origin, MapResult _destination, DijkstraEntry _path, double time, double offsetDist, double offsetTT) {
 		origin = _origin;
 		destination = _destination;
 		path = _path;
@@ -63,9 +88,10 @@ public class SingleODResult {
 			} else {
 				distOff = destination.pos;
 			}
-			dist = path.distance - distOff;
-			tt = path.tt - (path.ttt * distOff / destination.edge.getLength());
+			dist = offsetDist + path.distance - distOff;
+			tt = offsetTT + path.tt - (path.ttt * distOff / destination.edge.getLength());
 		}
+		firstTT = offsetTT;
 		if(dist<0&&dist>-.1) {
 			dist = 0;
 		}
@@ -79,6 +105,41 @@ public class SingleODResult {
 	}
 
 
+	/** @brief Copy constructor that assigns the result to a different (identically mapped) origin
+	 * 
+	 * @param orig The result to copy
+	 * @param _origin The origin of the route
+	 */
+	public SingleODResult(SingleODResult orig, MapResult _origin) {
+		origin = _origin;
+		destination = orig.destination;
+		dist = orig.dist;
+		tt = orig.tt;
+		path = orig.path;
+		firstTT = orig.firstTT;
+		originWaitingTime = orig.originWaitingTime;
+		profileTTs = orig.profileTTs;
+		profileDepartures = orig.profileDepartures;
+	}
+
+
+	/** @brief Copy constructor that delays the departure at the origin
+	 * 
+	 * The path is kept; the waiting time is added to the travel time.
+	 * @param orig The result to copy
+	 * @param waitingTime The additional time to wait at the origin
+	 */
+	public SingleODResult(SingleODResult orig, double waitingTime) {
+		origin = orig.origin;
+		destination = orig.destination;
+		dist = orig.dist;
+		tt = orig.tt + waitingTime;
+		path = orig.path;
+		firstTT = orig.firstTT;
+		originWaitingTime = orig.originWaitingTime + waitingTime;
+	}
+
+
 	/**
 	 * @brief Returns whether the given requirements are fulfilled
 	 * @param needsPT Whether the path must contain a PT element
@@ -41,6 +41,8 @@ public class GTFSData {
 	public HashMap<String, GTFSTrip> trips;
 	/// @brief A set of edges
 	public Set<GTFSEdge> ptedges = new HashSet<>();
+	/// @brief The connections of each trip, ordered along the trip's stops
+	public Vector<Vector<GTFSConnection>> tripConnections = new Vector<>();
 	/// @brief The network to refer to
 	private DBNet net;
 	/// @brief The entrainment map used
@@ -81,7 +83,8 @@ public class GTFSData {
 	 * It may happen that a pt carrier departs a stop and enters the next at the same time. This is patched by adding / subtracting
 	 * 15s.
 	 * 
-	 * After this is done, the connections are inserted into the respective edges.
+	 * After this is done, the connections are inserted into the respective edges
+	 * and stored as the trip's connections.
 	 * 
 	 * @param tripID The ID of the trip
 	 * @param stopTimes The stop times to recheck
@@ -163,6 +166,9 @@ public class GTFSData {
 		for(GTFSConnection c : connections) {
 			c.edge.addConnection(c);
 		}
+		if(connections.size()!=0) {
+			tripConnections.add(connections);
+		}
 		return err;
 	}	
 
@@ -18,9 +18,9 @@
  */
 package de.dlr.ivf.urmo.router.gtfs;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Set;
-import java.util.Vector;
 
 import org.locationtech.jts.geom.LineString;
 
@@ -42,8 +42,14 @@ import de.dlr.ivf.urmo.router.shapes.DBNode;
 public class GTFSEdge extends DBEdge {
 	/// @brief The route that realises this connection
 	public GTFSRoute route;
-	/// @brief A list of operating times
-	private Vector<GTFSConnection> connections = new Vector<>();
+	/// @brief The operating times, sorted by departure after sortConnections was called
+	private GTFSConnection[] sorted = new GTFSConnection[0];
+	/// @brief The number of operating times
+	private int numConnections = 0;
+	/// @brief The departure times of the sorted connections
+	private int[] departures = new int[0];
+	/// @brief The index of the earliest arriving connection among the ones departing at or after the indexed one
+	private int[] earliestArrival = new int[0];
 
 
 	/**
@@ -66,51 +72,102 @@ public class GTFSEdge extends DBEdge {
 
 
 	/** 
-	 * @brief Returns the next available connection at this edge
+	 * @brief Returns the connection that arrives first among the ones departing at or after the given time
+	 *
+	 * The first connection departing at or after the given time is found using
+	 * a binary search over the departures. As connections may overtake each other,
+	 * the earliest arriving connection of the ones departing later is returned.
+	 * The arrival of the returned connection thereby never decreases with a
+	 * later time (FIFO).
 	 * @param time The time of arrival at this edge/stop
-	 * @return The next connection on this edge
-	 * @todo: Use a binary search here
-	 * @todo: We could dismiss earlier rides when loading
-	 * @todo: While progressing, we could keep track of last seen ride
+	 * @return The earliest arriving connection on this edge, null if there is none
 	 */
 	public GTFSConnection getConnection(double time) {
-		for (GTFSConnection c : connections) {
-			if (c.departureTime >= time) {
-				return c;
+		int i = getFirstDeparture(time);
+		if(i>=departures.length) {
+			return null;
+		}
+		return sorted[earliestArrival[i]];
+	}
+
+
+	/** 
+	 * @brief Returns the index of the first connection that departs at or after the given time
+	 * @param time The time of arrival at this edge/stop
+	 * @return The index of the first connection departing at or after the given time within the departures-sorted connections (their number if there is none)
+	 */
+	private int getFirstDeparture(double time) {
+		int lo = 0;
+		int hi = departures.length;
+		while(lo<hi) {
+			int mid = (lo + hi) >>> 1;
+			if(departures[mid]<time) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
 			}
 		}
-		return null;
+		return lo;
 	}
 
 		
 	/**
 	 * @brief Adds a connection (depart/arrival times, route) to this edge
 	 * 
-	 * Note that the connections must be sorted increasingly by time
+	 * Note that the connections must be sorted afterwards
 	 * @see sortConnections
 	 * @param c The connection to add
 	 */
 	public void addConnection(GTFSConnection c) {
-		connections.add(c);
+		if(numConnections==sorted.length) {
+			sorted = Arrays.copyOf(sorted, Math.max(4, numConnections*2));
+		}
+		sorted[numConnections] = c;
+		++numConnections;
 	}
 
 
 	/**
-	 * @brief Sorts the connections by arrival time (increasing)
+	 * @brief Sorts the connections by departure time (increasing) and builds the lookup arrays
+	 * 
+	 * Of connections that arrive at the same time, the one added first is chosen,
+	 * as done when the connections were kept sorted by their arrival.
 	 */
 	public void sortConnections() {
-		connections.sort(new Comparator<GTFSConnection>() {
+		final GTFSConnection[] added = sorted;
+		Integer[] order = new Integer[numConnections];
+		for(int i=0; i<numConnections; ++i) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
 			@Override
-			public int compare(GTFSConnection a1, GTFSConnection a2) {
-				if (a1.arrivalTime == a2.arrivalTime) {
-					return 0;
-				} else if (a1.arrivalTime < a2.arrivalTime) {
-					return -1;
-				} else {
-					return 1;
+			public int compare(Integer i1, Integer i2) {
+				GTFSConnection a1 = added[i1];
+				GTFSConnection a2 = added[i2];
+				if (a1.departureTime != a2.departureTime) {
+					return a1.departureTime < a2.departureTime ? -1 : 1;
+				} else if (a1.arrivalTime != a2.arrivalTime) {
+					return a1.arrivalTime < a2.arrivalTime ? -1 : 1;
 				}
+				return 0;
 			}
 		});
+		int num = numConnections;
+		sorted = new GTFSConnection[num];
+		departures = new int[num];
+		int[] arrivals = new int[num];
+		earliestArrival = new int[num];
+		for(int i=num-1; i>=0; --i) {
+			sorted[i] = added[order[i]];
+			departures[i] = sorted[i].departureTime;
+			arrivals[i] = sorted[i].arrivalTime;
+			int best = i==num-1 ? -1 : earliestArrival[i+1];
+			if(best<0 || arrivals[i]<arrivals[best] || (arrivals[i]==arrivals[best] && order[i]<order[best])) {
+				earliestArrival[i] = i;
+			} else {
+				earliestArrival[i] = earliestArrival[i+1];
+			}
+		}
 	}
 
 
@@ -153,6 +210,18 @@ public class GTFSEdge extends DBEdge {
 		return 0;
 	}
 
+
+	/**
+	 * @brief Returns the price to pass this edge
+	 * @param usedMode The used mode of transport
+	 * @param hadPT Whether public transport was used before
+	 * @return The price to pass this edge
+	 */
+	@Override
+	public double getPrice(Mode usedMode, boolean hadPT) {
+		return hadPT ? 0 : 95;
+	}
+
 	
 	/**
 	 * @brief Returns whether this is a GTFS edge (true)
@@ -53,7 +53,7 @@ import de.dlr.ivf.urmo.router.modes.Mode;
 import de.dlr.ivf.urmo.router.modes.Modes;
 import de.dlr.ivf.urmo.router.shapes.DBNet;
 import de.dlr.ivf.urmo.router.shapes.DBNode;
-import de.dlr.ivf.urmo.router.shapes.DBODRelation;
+import de.dlr.ivf.urmo.router.shapes.DBODRelations;
 import de.dlr.ivf.urmo.router.shapes.Layer;
 import de.dlr.ivf.urmo.router.shapes.LayerObject;
 
@@ -657,7 +657,7 @@ public class InputReader {
 	 * @return The loaded od-connections
 	 * @throws IOException When something fails
 	 */
-	public static Vector<DBODRelation> loadODConnections(String def) throws IOException {
+	public static DBODRelations loadODConnections(String def) throws IOException {
 		Utils.Format format = Utils.getFormat(def);
 		String[] inputParts = Utils.getParts(format, def, "od-connections");
 		switch(format) {
@@ -683,7 +683,7 @@ public class InputReader {
 	 * @return The loaded od-connections
 	 * @throws IOException When something fails
 	 */
-	private static Vector<DBODRelation> loadODConnectionsFromDB(Utils.Format format, String[] inputParts) throws IOException {
+	private static DBODRelations loadODConnectionsFromDB(Utils.Format format, String[] inputParts) throws IOException {
 		// db jars issue, see https://stackoverflow.com/questions/999489/invalid-signature-file-when-attempting-to-run-a-jar
 		try {
 			Class.forName("org.sqlite.JDBC");
@@ -693,14 +693,16 @@ public class InputReader {
 		}
 		try {
 			Connection connection = Utils.getConnection(format, inputParts, "od-connections");
-			connection.setAutoCommit(true);
+			// let the driver fetch the rows in chunks instead of transferring the complete result at once; all relations are stored, nevertheless
+			connection.setAutoCommit(false);
 			connection.setHoldability(ResultSet.CLOSE_CURSORS_AT_COMMIT);
 			String query = "SELECT origin,destination FROM " + Utils.getTableName(format, inputParts, "od-connections") + ";";
 			Statement s = connection.createStatement();
+			s.setFetchSize(10000);
 			ResultSet rs = s.executeQuery(query);
-			Vector<DBODRelation> ret =  new Vector<>();
+			DBODRelations ret = new DBODRelations();
 			while (rs.next()) {
-				ret.add(new DBODRelation(rs.getLong("origin"), rs.getLong("destination"), 1.));
+				ret.add(rs.getLong("origin"), rs.getLong("destination"), 1.);
 			}
 			rs.close();
 			s.close();
@@ -717,8 +719,8 @@ public class InputReader {
 	 * @return The loaded od-connections
 	 * @throws IOException When something fails
 	 */
-	private static Vector<DBODRelation> loadODConnectionsFromCSVFile(String fileName) throws IOException {
-		Vector<DBODRelation> ret =  new Vector<>();
+	private static DBODRelations loadODConnectionsFromCSVFile(String fileName) throws IOException {
+		DBODRelations ret = new DBODRelations();
 		BufferedReader br = new BufferedReader(new FileReader(fileName));
 		String line = null;
 		do {
@@ -728,7 +730,7 @@ public class InputReader {
 			}
 			String[] vals = line.split(";");
 			try {
-				ret.add(new DBODRelation(Long.parseLong(vals[0]), Long.parseLong(vals[1]), 1.));
+				ret.add(Long.parseLong(vals[0]), Long.parseLong(vals[1]), 1.);
 			} catch(NumberFormatException e) {
 				System.err.println("Broken o/d relation in '" + fileName + "': " + line + ".");
 			}
@@ -944,4 +946,102 @@ public class InputReader {
 	
 	
 	
+	// --------------------------------------------------------
+	// origin costs loading
+	// --------------------------------------------------------
+	/** @brief Loads the computation times of the origins from the process output of a previous run
+	 * 
+	 * As the process output reports the time elapsed since the begin of an origin's
+	 * search for each of its destinations, the maximum is used per origin.
+	 * @param def The source definition (unparsed)
+	 * @return The computation times of the origins in nanoseconds
+	 * @throws IOException When something fails
+	 */
+	public static HashMap<Long, Double> loadOriginCosts(String def) throws IOException {
+		Utils.Format format = Utils.getFormat(def);
+		String[] inputParts = Utils.getParts(format, def, "origin-costs");
+		switch(format) {
+		case FORMAT_POSTGRES:
+		case FORMAT_SQLITE:
+			return loadOriginCostsFromDB(format, inputParts);
+		case FORMAT_CSV:
+			return loadOriginCostsFromCSVFile(inputParts[0]);
+		case FORMAT_WKT:
+		case FORMAT_SHAPEFILE:
+		case FORMAT_GEOPACKAGE:
+		case FORMAT_SUMO:
+			throw new IOException("Reading 'origin-costs' from " + Utils.getFormatMMLName(format) + " is not supported.");
+		default:
+			throw new IOException("Could not recognize the format used for 'origin-costs'.");
+		}
+	}
+
+
+	/** @brief Loads the computation times of the origins from a database
+	 * @param format The used format
+	 * @param inputParts The source definition
+	 * @return The computation times of the origins in nanoseconds
+	 * @throws IOException When something fails
+	 */
+	private static HashMap<Long, Double> loadOriginCostsFromDB(Utils.Format format, String[] inputParts) throws IOException {
+		// db jars issue, see https://stackoverflow.com/questions/999489/invalid-signature-file-when-attempting-to-run-a-jar
+		try {
+			Class.forName("org.sqlite.JDBC");
+			Class.forName("org.postgresql.Driver");
+		} catch (ClassNotFoundException e) {
+			e.printStackTrace();
+		}
+		try {
+			Connection connection = Utils.getConnection(format, inputParts, "origin-costs");
+			connection.setAutoCommit(true);
+			connection.setHoldability(ResultSet.CLOSE_CURSORS_AT_COMMIT);
+			String query = "SELECT fid,MAX(duration) AS duration FROM " + Utils.getTableName(format, inputParts, "origin-costs") + " GROUP BY fid;";
+			Statement s = connection.createStatement();
+			ResultSet rs = s.executeQuery(query);
+			HashMap<Long, Double> ret = new HashMap<>();
+			while (rs.next()) {
+				ret.put(rs.getLong("fid"), (double) rs.getLong("duration"));
+			}
+			rs.close();
+			s.close();
+			connection.close();
+			return ret;
+		} catch (SQLException e) {
+			throw new IOException(e);
+		}
+	}
+
+
+	/** @brief Loads the computation times of the origins from a csv file
+	 * @param fileName The name of the file to read the process output from
+	 * @return The computation times of the origins in nanoseconds
+	 * @throws IOException When something fails
+	 */
+	private static HashMap<Long, Double> loadOriginCostsFromCSVFile(String fileName) throws IOException {
+		HashMap<Long, Double> ret = new HashMap<>();
+		BufferedReader br = new BufferedReader(new FileReader(fileName));
+		String line = null;
+		do {
+			line = br.readLine();
+			if(line==null || line.length()==0 || line.charAt(0)=='#') {
+				continue;
+			}
+			String[] vals = line.trim().split(";");
+			try {
+				long id = Long.parseLong(vals[0]);
+				double duration = Double.parseDouble(vals[1]);
+				Double known = ret.get(id);
+				if(known==null || known<duration) {
+					ret.put(id, duration);
+				}
+			} catch(NumberFormatException | ArrayIndexOutOfBoundsException e) {
+				System.err.println("Broken process output entry in '" + fileName + "': " + line + ".");
+			}
+	    } while(line!=null);
+		br.close();
+		return ret;
+	}
+	
+	
+	
 }
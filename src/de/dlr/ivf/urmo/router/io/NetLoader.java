@@ -71,12 +71,13 @@ public class NetLoader {
 	 * @param patchErrors If set, false lengths and vmax are patched
 	 * @param ignoreIncline Whether no incline shall be loaded
 	 * @param ctm The crossing delay model to use
+	 * @param numThreads The number of threads to use for computing the crossing times
 	 * @return The loaded net
 	 * @throws IOException When something fails 
 	 */
 	public static DBNet loadNet(IDGiver idGiver, String def, Geometry netBoundary, String vmaxAttr, String geomS, int epsg, Vector<Mode> modes, 
 			NetErrorsWriter errorsWriter, boolean reportAllErrors, boolean patchErrors, boolean ignoreIncline,
-			CrossingTimesModel_CTM1 ctm) throws IOException {
+			CrossingTimesModel_CTM1 ctm, int numThreads) throws IOException {
 		Utils.Format format = Utils.getFormat(def);
 		String[] inputParts = Utils.getParts(format, def, "net");
 		long uModes = Modes.getCombinedModeIDs(modes);
@@ -108,7 +109,7 @@ public class NetLoader {
 		net.extendDirections((uModes&Modes.getMode("foot").id)!=0);
 		// compute crossing times
 		if(ctm!=null) {
-			net.computeCrossingTimes(ctm);
+			net.computeCrossingTimes(ctm, numThreads);
 			ctm.closeWriter();
 		}
 		return net;
@@ -354,7 +355,7 @@ public class NetLoader {
 		default:
 			throw new IOException("Could not recognize the format used for GTFS.");
 		}
-		net.sortSpeedReductions();
+		net.buildSpeedBuckets();
 		return numFalse;
 	}
 		
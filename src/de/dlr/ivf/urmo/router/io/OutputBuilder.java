@@ -57,11 +57,15 @@ import de.dlr.ivf.urmo.router.output.odext.ODSingleExtendedResult;
 import de.dlr.ivf.urmo.router.output.odstats.ODSingleStatsResult;
 import de.dlr.ivf.urmo.router.output.odstats.ODStatsMeasuresGenerator;
 import de.dlr.ivf.urmo.router.output.odstats.ODStatsWriter;
+import de.dlr.ivf.urmo.router.output.profile.ProfileMeasuresGenerator;
+import de.dlr.ivf.urmo.router.output.profile.ProfileSingleResult;
+import de.dlr.ivf.urmo.router.output.profile.ProfileWriter;
 import de.dlr.ivf.urmo.router.output.ptod.PTODMeasuresGenerator;
 import de.dlr.ivf.urmo.router.output.ptod.PTODSingleResult;
 import de.dlr.ivf.urmo.router.output.ptod.PTODWriter;
 import de.dlr.ivf.urmo.router.shapes.DBEdge;
 import de.dlr.ivf.urmo.router.shapes.Layer;
+import de.dlr.ivf.urmo.router.shapes.RoutingGraph;
 
 /**
  * @class OutputBuilder
@@ -77,12 +81,13 @@ public class OutputBuilder {
 	 * @param toAggLayer The destination aggregation data
 	 * @param toTypes The map of destination types
 	 * @param epsg The projection
+	 * @param graph The routing graph the paths are computed on
 	 * @return Built output devices
 	 * @throws IOException When something fails
 	 */
 	@SuppressWarnings("rawtypes")
 	public static Vector<AggregatorBase> buildOutputs(OptionsCont options, Layer fromLayer, Layer fromAggLayer, 
-			Layer toLayer, Layer toAggLayer, HashMap<Long, Set<String>> toTypes, int epsg) throws IOException {
+			Layer toLayer, Layer toAggLayer, HashMap<Long, Set<String>> toTypes, int epsg, RoutingGraph graph) throws IOException {
 		Vector<AggregatorBase> aggregators = new Vector<>();
 		boolean dropExistingTables = options.getBool("dropprevious");
 		boolean aggAllFrom = options.isSet("from-agg") && options.getString("from-agg").equals("all");
@@ -140,7 +145,7 @@ public class OutputBuilder {
 		}
 		if (options.isSet("edges-output")) {
 			try {
-				EUMeasuresGenerator mg = new EUMeasuresGenerator();
+				EUMeasuresGenerator mg = new EUMeasuresGenerator(graph);
 				AbstractResultsWriter<EUSingleResult> writer = buildEUOutput(options.getString("edges-output"), precision, dropExistingTables, haveTypes);
 				writer.createInsertStatement(epsg);
 				AggregatorBase<EUSingleResult> agg = buildAggregator(mg, options.getBool("shortest"), 
@@ -162,6 +167,18 @@ public class OutputBuilder {
 				throw new IOException("Exception '" + e.getMessage() + "' occurred while building the pt-output.");
 			}
 		}
+		if (options.isSet("profile-output")) {
+			try {
+				ProfileMeasuresGenerator mg = new ProfileMeasuresGenerator();
+				AbstractResultsWriter<ProfileSingleResult> writer = buildProfileOutput(options.getString("profile-output"), precision, dropExistingTables, haveTypes);
+				writer.createInsertStatement(epsg);
+				AggregatorBase<ProfileSingleResult> agg = buildAggregator(mg, options.getBool("shortest"), 
+						aggAllFrom, aggAllTo, fromLayer, fromAggLayer, /*fromTypes,*/ toLayer, toAggLayer, toTypes, writer, comment);
+				aggregators.add(agg);
+			} catch(IOException e) {
+				throw new IOException("Exception '" + e.getMessage() + "' occurred while building the profile-output.");
+			}
+		}
 		return aggregators;
 	}
 	
@@ -478,4 +495,19 @@ public class OutputBuilder {
 		return new PTODWriter(format, inputParts, precision, dropPrevious, haveTypes);
 	}
 	
+	
+	/**
+	 * @brief Builds a ProfileWriter (a ProfileSingleResult-output)
+	 * @param d The output storage definition
+	 * @param precision The precision to use when writing to a file
+	 * @param dropPrevious Whether a prior database shall be dropped
+	 * @return The built output
+	 * @throws IOException When something fails
+	 */
+	private static AbstractResultsWriter<ProfileSingleResult> buildProfileOutput(String d, int precision, boolean dropPrevious, boolean haveTypes) throws IOException {
+		Utils.Format format = Utils.getFormat(d);
+		String[] inputParts = Utils.getParts(format, d, "profile-output");
+		return new ProfileWriter(format, inputParts, precision, dropPrevious, haveTypes);
+	}
+	
 }
@@ -199,6 +199,21 @@ public abstract class AggregatorBase<T extends AbstractSingleResult> {
 	public abstract void add(int beginTime, SingleODResult od) throws IOException;
 	
 	
+	/** @brief Adds the results of an origin to the aggregator
+	 * 
+	 * By default, the results are added one by one.
+	 * @param beginTime The begin time of routing
+	 * @param results The results of the origin
+	 * @throws IOException When something fails
+	 */
+	public void add(int beginTime, Vector<SingleODResult> results) throws IOException {
+		for(SingleODResult result : results) {
+			// paths of profile searches may start after waiting at the origin
+			add(beginTime + (int) result.originWaitingTime, result);
+		}
+	}
+	
+	
 	/** @brief Ends the computation for a given origin
 	 * 
 	 * @param originID The ID of the origin
@@ -20,6 +20,7 @@ package de.dlr.ivf.urmo.router.output;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Vector;
 
 import de.dlr.ivf.urmo.router.algorithms.edgemapper.EdgeMappable;
@@ -99,6 +100,42 @@ public class Aggregator_SingleType<T extends AbstractSingleResult> extends Aggre
 		HashMap<Long, T> destMap = measurements.get(entry.originID);
 		destMap.get(entry.destID).addCounting(entry);
 	}
+
+
+	/**
+	 * @brief Adds the results of an origin
+	 * 
+	 * The results are interpreted at once. If they are aggregated, the results 
+	 * that are added to the same aggregated entry are interpreted at once.
+	 * @param beginTime The begin time of routing
+	 * @param results The results of the origin
+	 * @throws IOException When writing fails
+	 */
+	@Override
+	public void add(int beginTime, Vector<SingleODResult> results) throws IOException {
+		// no aggregation, write directly
+		if (origin2aggMap == null && dest2aggMap == null && !sumOrigins && !sumDestinations) {
+			for(T entry : parent.buildResults(beginTime, results)) {
+				write(entry, null);
+			}
+			return;
+		}
+		// aggregation
+		LinkedHashMap<T, Vector<SingleODResult>> groups = new LinkedHashMap<>();
+		for(SingleODResult result : results) {
+			HashMap<Long, T> destMap = measurements.get(getMappedOriginID(result.origin.em.getOuterID()));
+			T entry = destMap.get(getMappedDestinationID(result.destination.em.getOuterID()));
+			Vector<SingleODResult> group = groups.get(entry);
+			if(group==null) {
+				group = new Vector<>();
+				groups.put(entry, group);
+			}
+			group.add(result);
+		}
+		for(T entry : groups.keySet()) {
+			parent.addResults(beginTime, groups.get(entry), entry);
+		}
+	}
 	
 	
 	/** @brief Closes the processing of an origin
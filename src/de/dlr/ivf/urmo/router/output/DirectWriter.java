@@ -123,7 +123,7 @@ public class DirectWriter extends BasicCombinedWriter {
 				ttt = current.ttt * distOff / result.destination.edge.getLength();
 				geom = GeomHelper.getGeomUntilDistance(geom, distOff);
 			} else if(current==entries.firstElement()) {
-				//ttt = current.ttt * result.origin.pos / result.origin.edge.getLength();
+				ttt = result.firstTT;
 				if(result.origin.edge!=current.e) {
 					geom = GeomHelper.getGeomBehindDistance(geom, result.origin.edge.getLength() - result.origin.pos);
 				} else {
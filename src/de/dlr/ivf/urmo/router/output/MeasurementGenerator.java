@@ -18,6 +18,9 @@
  */
 package de.dlr.ivf.urmo.router.output;
 
+import java.util.Vector;
+
+import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraEntry;
 import de.dlr.ivf.urmo.router.algorithms.routing.SingleODResult;
 
 /**
@@ -36,6 +39,85 @@ public abstract class MeasurementGenerator<T extends AbstractSingleResult> {
 	public abstract T buildResult(int beginTime, SingleODResult result);
 	
 	
+	/**
+	 * @brief Interprets the paths of an origin to several destinations
+	 * 
+	 * By default, the paths are interpreted one by one.
+	 * @param beginTime The begin time of the routing
+	 * @param results The processed paths of the origin
+	 * @return The interpretations of the paths, in the order of the given paths
+	 */
+	public Vector<T> buildResults(int beginTime, Vector<SingleODResult> results) {
+		Vector<T> ret = new Vector<>();
+		for(SingleODResult result : results) {
+			// paths of profile searches may start after waiting at the origin
+			ret.add(buildResult(beginTime + (int) result.originWaitingTime, result));
+		}
+		return ret;
+	}
+	
+	
+	/**
+	 * @brief Interprets the paths of an origin to several destinations, adding them to the given (aggregated) result
+	 * 
+	 * By default, the paths are interpreted using buildResults.
+	 * @param beginTime The begin time of the routing
+	 * @param results The processed paths of the origin
+	 * @param into The result to add the interpretations to
+	 */
+	public void addResults(int beginTime, Vector<SingleODResult> results, T into) {
+		for(T result : buildResults(beginTime, results)) {
+			into.addCounting(result);
+		}
+	}
+	
+	
+	/**
+	 * @brief Collects the tree formed by the paths that start at the same time
+	 * 
+	 * Starting at the given one, the paths are collected as long as they start
+	 * at the same time (paths of profile searches may start after waiting at the
+	 * origin). The entries are appended to the tree so that each entry follows 
+	 * its predecessor; they are numbered using DijkstraEntry#treeIndex. 
+	 * Entries that are already numbered are not added again.
+	 * @param results The processed paths of the origin
+	 * @param first The index of the first path to collect
+	 * @param tree The tree to add the entries to
+	 * @return The index of the first path that was not collected
+	 */
+	protected static int collectPathTree(Vector<SingleODResult> results, int first, Vector<DijkstraEntry> tree) {
+		Vector<DijkstraEntry> missing = new Vector<>();
+		double originWaitingTime = results.get(first).originWaitingTime;
+		int i = first;
+		for(; i<results.size() && results.get(i).originWaitingTime==originWaitingTime; ++i) {
+			DijkstraEntry current = results.get(i).path;
+			while(current!=null && current.treeIndex<0) {
+				missing.add(current);
+				current = current.prev;
+			}
+			for(int j=missing.size()-1; j>=0; --j) {
+				DijkstraEntry entry = missing.get(j);
+				entry.treeIndex = tree.size();
+				tree.add(entry);
+			}
+			missing.clear();
+		}
+		return i;
+	}
+	
+	
+	/**
+	 * @brief Removes the numbering of the given tree's entries and clears the tree
+	 * @param tree The tree to release
+	 */
+	protected static void releasePathTree(Vector<DijkstraEntry> tree) {
+		for(DijkstraEntry entry : tree) {
+			entry.treeIndex = -1;
+		}
+		tree.clear();
+	}
+	
+	
 	/**
 	 * @brief Builds an empty entry of type T
 	 * @param originID The id of the origin the path started at
@@ -19,6 +19,7 @@
 package de.dlr.ivf.urmo.router.output;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Vector;
 
 import de.dlr.ivf.urmo.router.algorithms.edgemapper.MapResult;
@@ -79,19 +80,96 @@ public class ResultsProcessor {
 	 */
 	public void process(long beg, long numSeenEdges, long numSeenNodes, MapResult mr, DijkstraResultsStorage drs, long singleDestination) throws IOException {
 		Vector<SingleODResult> results = drs.collectResults(comparator, sorter, needsPT, singleDestination);
+		processResults(beg, numSeenEdges, numSeenNodes, mr, results);
+	}
+
+
+	/**
+	 * @brief Processes the results computed for a set of identically mapped origins
+	 * 
+	 * The results are computed for the first origin and assigned to the others.
+	 * The time spent so far is split evenly among the origins, so that the
+	 * computation time of an origin does not include the ones processed before.
+	 * @param beg The begin time of the routing
+	 * @param numSeenEdges The number of seen edges with destinations
+	 * @param numSeenNodes The number of seen nodes
+	 * @param origins The origins (located at the same edge and position)
+	 * @param drs The results storage
+	 * @param singleDestination If >0 only this destination shall be regarded
+	 * @throws IOException When something fails
+	 */
+	public void process(long beg, long numSeenEdges, long numSeenNodes, Vector<MapResult> origins, DijkstraResultsStorage drs, long singleDestination) throws IOException {
+		Vector<SingleODResult> results = drs.collectResults(comparator, sorter, needsPT, singleDestination);
+		long share = (System.nanoTime() - beg) / origins.size();
+		for(MapResult mr : origins) {
+			long originBeg = System.nanoTime() - share;
+			if(mr!=origins.get(0)) {
+				Vector<SingleODResult> mrResults = new Vector<>();
+				for(SingleODResult result : results) {
+					mrResults.add(new SingleODResult(result, mr));
+				}
+				processResults(originBeg, numSeenEdges, numSeenNodes, mr, mrResults);
+			} else {
+				processResults(originBeg, numSeenEdges, numSeenNodes, mr, results);
+			}
+		}
+	}
+
+
+	/**
+	 * @brief Processes the results computed for a set of origin/destination relations that share the origin
+	 * 
+	 * The results are reported in the order of the given destinations. A destination
+	 * that is given multiple times is reported multiple times.
+	 * @param beg The begin time of the routing
+	 * @param numSeenEdges The number of seen edges with destinations
+	 * @param numSeenNodes The number of seen nodes
+	 * @param mr The origin
+	 * @param drs The results storage
+	 * @param destinations The destinations to report
+	 * @throws IOException When something fails
+	 */
+	public void process(long beg, long numSeenEdges, long numSeenNodes, MapResult mr, DijkstraResultsStorage drs, long[] destinations) throws IOException {
+		HashMap<Long, SingleODResult> found = new HashMap<>();
+		for(SingleODResult result : drs.collectResults(comparator, sorter, needsPT, -1)) {
+			found.put(result.destination.em.getOuterID(), result);
+		}
+		Vector<SingleODResult> results = new Vector<>();
+		for(long destination : destinations) {
+			SingleODResult result = found.get(destination);
+			if(result!=null) {
+				results.add(result);
+			}
+		}
+		processResults(beg, numSeenEdges, numSeenNodes, mr, results);
+	}
+
+
+	/**
+	 * @brief Processes the collected results of a single origin
+	 * @param beg The begin time of the routing
+	 * @param numSeenEdges The number of seen edges with destinations
+	 * @param numSeenNodes The number of seen nodes
+	 * @param mr The origin
+	 * @param results The collected results
+	 * @throws IOException When something fails
+	 */
+	private void processResults(long beg, long numSeenEdges, long numSeenNodes, MapResult mr, Vector<SingleODResult> results) throws IOException {
 		// multiple origins and multiple destinations
+		for(AggregatorBase<?> agg : aggs) {
+			agg.add(beginTime, results);
+		}
 		for(SingleODResult result : results) {
-			for(@SuppressWarnings("rawtypes") AggregatorBase agg : aggs) {
-				agg.add(beginTime, result);
-			}
+			// paths of profile searches may start after waiting at the origin
+			int pathBeginTime = beginTime + (int) result.originWaitingTime;
 			if(directWriter!=null) {
-				directWriter.writeResult(result, beginTime);
+				directWriter.writeResult(result, pathBeginTime);
 			}
 			if(processWriter!=null) {
 				processWriter.write(beg, numSeenEdges, numSeenNodes, mr, result);
 			}
 		}
-		for(@SuppressWarnings("rawtypes") AggregatorBase agg : aggs) {
+		for(AggregatorBase<?> agg : aggs) {
 			agg.endOrigin(mr.em.getOuterID());
 		}
 	}
@@ -107,7 +185,7 @@ public class ResultsProcessor {
 		if(processWriter!=null) {
 			processWriter.close();
 		}
-		for(@SuppressWarnings("rawtypes") AggregatorBase agg : aggs) {
+		for(AggregatorBase<?> agg : aggs) {
 			agg.finish();
 		}
 	}
@@ -18,17 +18,51 @@
  */
 package de.dlr.ivf.urmo.router.output.edge_use;
 
+import java.util.Vector;
+
 import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraEntry;
 import de.dlr.ivf.urmo.router.algorithms.routing.SingleODResult;
 import de.dlr.ivf.urmo.router.output.MeasurementGenerator;
 import de.dlr.ivf.urmo.router.shapes.LayerObject;
+import de.dlr.ivf.urmo.router.shapes.RoutingGraph;
 
 /**
  * @class EUMeasuresGenerator
  * @brief Interprets a path to build an EUSingleResult
+ * 
+ * The edges are referenced by their index within the routing graph. Opposite
+ * edges added for pedestrians are reported as the edges they were built for.
  * @author Daniel Krajzewicz
  */
 public class EUMeasuresGenerator extends MeasurementGenerator<EUSingleResult> {
+	/// @brief The index of the edge each edge is reported as
+	private int[] reportedEdge;
+	/// @brief The ids to report the edges with, indexed by the edges' indices
+	private String[] edgeIDs;
+	
+	
+	/**
+	 * @brief Constructor
+	 * @param graph The routing graph the paths are computed on
+	 */
+	public EUMeasuresGenerator(RoutingGraph graph) {
+		int numEdges = graph.getEdgeNumber();
+		reportedEdge = new int[numEdges];
+		edgeIDs = new String[numEdges];
+		for(int e=0; e<numEdges; ++e) {
+			String id = graph.edges[e].getID();
+			reportedEdge[e] = e;
+			if(id.startsWith("opp_")) {
+				id = id.substring(4); // @todo: give added edges an explicit boolean marker
+				if(graph.edgeOpposite[e]>=0) {
+					reportedEdge[e] = graph.edgeOpposite[e];
+				}
+			}
+			edgeIDs[e] = id;
+		}
+	}
+	
+	
 	/**
 	 * @brief Interprets the path to build an EUSingleResult
 	 * @param beginTime The start time of the path
@@ -37,17 +71,82 @@ public class EUMeasuresGenerator extends MeasurementGenerator<EUSingleResult> {
 	 */
 	public EUSingleResult buildResult(int beginTime, SingleODResult result) {
 		DijkstraEntry current = result.path;
-		EUSingleResult e = new EUSingleResult(result);
+		EUSingleResult e = new EUSingleResult(result, edgeIDs);
 		double value = ((LayerObject) result.destination.em).getAttachedValue() * e.val;
 		do {
-			DijkstraEntry next = current;
-			e.addSingle(next.e, value, e.val);
+			e.addSingle(reportedEdge[current.e.getIndex()], value, e.val);
 			current = current.prev;
 		} while(current!=null);
 		return e;
 	}	
 	
 	
+	/**
+	 * @brief Adds the edge usage of the paths of an origin to the given (aggregated) result
+	 * 
+	 * The paths of an origin form a tree. Instead of following each path, the
+	 * values of the destinations are propagated from the ends of the paths
+	 * towards the origin, so that each entry of the tree is visited once. 
+	 * The entries are numbered using DijkstraEntry#treeIndex while doing so.
+	 * @param beginTime The begin time of the routing
+	 * @param results The processed paths of the origin
+	 * @param into The result to add the edge usage to
+	 */
+	@Override
+	public void addResults(int beginTime, Vector<SingleODResult> results, EUSingleResult into) {
+		// collect the entries of the tree
+		Vector<DijkstraEntry> tree = new Vector<>();
+		for(SingleODResult result : results) {
+			DijkstraEntry current = result.path;
+			while(current!=null && current.treeIndex<0) {
+				current.treeIndex = tree.size();
+				tree.add(current);
+				current = current.prev;
+			}
+		}
+		int num = tree.size();
+		int[] successors = new int[num];
+		double[] value = new double[num];
+		double[] originsWeight = new double[num];
+		for(DijkstraEntry entry : tree) {
+			if(entry.prev!=null) {
+				++successors[entry.prev.treeIndex];
+			}
+		}
+		for(SingleODResult result : results) {
+			double originWeight = ((LayerObject) result.origin.em).getAttachedValue();
+			value[result.path.treeIndex] += ((LayerObject) result.destination.em).getAttachedValue() * originWeight;
+			originsWeight[result.path.treeIndex] += originWeight;
+		}
+		// propagate the values towards the origin, starting at the entries without successors
+		int[] open = new int[num];
+		int numOpen = 0;
+		for(int i=0; i<num; ++i) {
+			if(successors[i]==0) {
+				open[numOpen++] = i;
+			}
+		}
+		EUSingleResult sum = new EUSingleResult(into.originID, into.destID, edgeIDs);
+		while(numOpen>0) {
+			int i = open[--numOpen];
+			DijkstraEntry entry = tree.get(i);
+			sum.addSingle(reportedEdge[entry.e.getIndex()], value[i], originsWeight[i]);
+			if(entry.prev!=null) {
+				int j = entry.prev.treeIndex;
+				value[j] += value[i];
+				originsWeight[j] += originsWeight[i];
+				if(--successors[j]==0) {
+					open[numOpen++] = j;
+				}
+			}
+		}
+		for(DijkstraEntry entry : tree) {
+			entry.treeIndex = -1;
+		}
+		into.addCounting(sum);
+	}
+	
+	
 	/**
 	 * @brief Builds an empty entry of type EUSingleResult
 	 * @param originID The id of the origin the path started at
@@ -55,7 +154,7 @@ public class EUMeasuresGenerator extends MeasurementGenerator<EUSingleResult> {
 	 * @return An empty entry type EUSingleResult
 	 */
 	public EUSingleResult buildEmptyEntry(long originID, long destID) {
-		return new EUSingleResult(originID, destID);
+		return new EUSingleResult(originID, destID, edgeIDs);
 	}
 
 	
@@ -18,33 +18,34 @@
  */
 package de.dlr.ivf.urmo.router.output.edge_use;
 
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Map;
 
 import de.dlr.ivf.urmo.router.algorithms.routing.SingleODResult;
 import de.dlr.ivf.urmo.router.output.AbstractSingleResult;
-import de.dlr.ivf.urmo.router.shapes.DBEdge;
 
 /**
  * @class EUSingleResult
  * @brief Edge usage interpretation of a route 
+ * 
+ * The values are collected per used edge, given by its index within the
+ * routing graph, in parallel arrays. The positions of the edges within
+ * these arrays are found using an open addressing hash table.
  * @author Daniel Krajzewicz
  */
 public class EUSingleResult extends AbstractSingleResult {
-	/**
-	 * @class EdgeParam
-	 * @brief The collected values about an edge usage 
-	 */
-	class EdgeParam {
-		/// @brief The weight number of routes over this edge
-		public double num = 0;
-		/// @brief The sum of origin weights
-		public double originsWeight = 0;
-
-	}
-	
-	/// @brief Map of edges to numbers
-	public Map<String, EdgeParam> stats = new HashMap<>(); 
+	/// @brief The ids to report the edges with, indexed by the edges' indices
+	private final String[] edgeIDs;
+	/// @brief The indices of the used edges
+	private int[] edges = null;
+	/// @brief The weighted number of routes over the used edges
+	private double[] num = null;
+	/// @brief The sums of origin weights of the used edges
+	private double[] originsWeight = null;
+	/// @brief The number of used edges
+	private int size = 0;
+	/// @brief The positions of the used edges, hashed by the edges' indices (-1 for empty buckets)
+	private int[] buckets = null;
 	
 	
 	/**
@@ -53,9 +54,11 @@ public class EUSingleResult extends AbstractSingleResult {
 	 * Generates an empty entry.
 	 * @param originID The id of the origin the represented trip starts at
 	 * @param destID The id of the destination the represented trip ends at
+	 * @param _edgeIDs The ids to report the edges with, indexed by the edges' indices
 	 */
-	public EUSingleResult(long originID, long destID) {
+	public EUSingleResult(long originID, long destID, String[] _edgeIDs) {
 		super(originID, destID);
+		edgeIDs = _edgeIDs;
 	}
 	
 	
@@ -64,9 +67,11 @@ public class EUSingleResult extends AbstractSingleResult {
 	 * 
 	 * Computes the distance and the travel time
 	 * @param result The processed path between the origin and the destination
+	 * @param _edgeIDs The ids to report the edges with, indexed by the edges' indices
 	 */
-	public EUSingleResult(SingleODResult result) {
+	public EUSingleResult(SingleODResult result, String[] _edgeIDs) {
 		super(result);
+		edgeIDs = _edgeIDs;
 	}
 	
 	
@@ -77,14 +82,8 @@ public class EUSingleResult extends AbstractSingleResult {
 	@Override
 	public synchronized void addCounting(AbstractSingleResult asr) {
 		EUSingleResult srnm = (EUSingleResult) asr;
-		for(String id : srnm.stats.keySet()) {
-			if(!stats.containsKey(id)) {
-				stats.put(id, new EdgeParam());
-			}
-			EdgeParam ssstats = srnm.stats.get(id);
-			EdgeParam dsstats = stats.get(id);
-			dsstats.num += ssstats.num;
-			dsstats.originsWeight += ssstats.originsWeight;
+		for(int i=0; i<srnm.size; ++i) {
+			addSingle(srnm.edges[i], srnm.num[i], srnm.originsWeight[i]);
 		}
 	}
 	
@@ -97,34 +96,129 @@ public class EUSingleResult extends AbstractSingleResult {
 	 */
 	@Override
 	public synchronized AbstractSingleResult getNormed(int numOrigins, double originsWeight) {
-		EUSingleResult srnm = new EUSingleResult(originID, destID);
-		for(String id : stats.keySet()) {
-			srnm.stats.put(id, new EdgeParam());
-			EdgeParam ssstats = stats.get(id);
-			EdgeParam dsstats = srnm.stats.get(id);
-			dsstats.num += ssstats.num;
-			dsstats.originsWeight += ssstats.originsWeight;
-		}
+		EUSingleResult srnm = new EUSingleResult(originID, destID, edgeIDs);
+		srnm.addCounting(this);
 		return srnm;
 	}
 	
 
 	/**
 	 * @brief Adds the information about a single edge
-	 * @param e The edge to add the information about
+	 * 
+	 * Not synchronized, as results are built by a single thread; use
+	 * addCounting for adding to results shared by several threads.
+	 * @param edge The index of the edge to add the information about
 	 * @param value The (variable) value of the destination
 	 * @param originWeight The weight of the origin
 	 */
-	public synchronized void addSingle(DBEdge e, double value, double originWeight) {
-		String eID = e.getID();
-		if(eID.startsWith("opp_")) {
-			eID = eID.substring(4); // @todo: give added edges an explicit boolean marker
+	void addSingle(int edge, double value, double originWeight) {
+		if(buckets==null) {
+			resize(8);
+		}
+		int bucket = getBucket(edge);
+		int pos = buckets[bucket];
+		if(pos<0) {
+			if(size==edges.length) {
+				resize(size*2);
+				bucket = getBucket(edge);
+			}
+			pos = size++;
+			edges[pos] = edge;
+			buckets[bucket] = pos;
+		}
+		num[pos] += value;
+		originsWeight[pos] += originWeight;
+	}
+	
+	
+	/**
+	 * @brief Returns the bucket of the given edge (the one holding it or the empty one it would be stored in)
+	 * @param edge The index of the edge
+	 * @return The bucket of the edge
+	 */
+	private int getBucket(int edge) {
+		int mask = buckets.length - 1;
+		int bucket = edge * 0x9E3779B9;
+		bucket = (bucket ^ (bucket >>> 16)) & mask;
+		while(buckets[bucket]>=0 && edges[buckets[bucket]]!=edge) {
+			bucket = (bucket + 1) & mask;
+		}
+		return bucket;
+	}
+	
+	
+	/**
+	 * @brief Resizes the storage, keeping the hash table at most half full
+	 * @param capacity The new number of edges that can be stored
+	 */
+	private void resize(int capacity) {
+		edges = edges==null ? new int[capacity] : Arrays.copyOf(edges, capacity);
+		num = num==null ? new double[capacity] : Arrays.copyOf(num, capacity);
+		originsWeight = originsWeight==null ? new double[capacity] : Arrays.copyOf(originsWeight, capacity);
+		buckets = new int[capacity*2];
+		Arrays.fill(buckets, -1);
+		for(int i=0; i<size; ++i) {
+			buckets[getBucket(edges[i])] = i;
+		}
+	}
+	
+	
+	/**
+	 * @brief Returns the number of used edges
+	 * @return The number of used edges
+	 */
+	public int getEdgeNumber() {
+		return size;
+	}
+	
+	
+	/**
+	 * @brief Returns the positions of the used edges in the order they shall be reported in
+	 * 
+	 * The edges are reported in the order of a hash map keyed by their ids,
+	 * as done when the values were collected in such a map.
+	 * @return The positions of the used edges in the order they shall be reported in
+	 */
+	public synchronized int[] getReportedPositions() {
+		HashMap<String, Integer> positions = new HashMap<>();
+		for(int i=0; i<size; ++i) {
+			positions.put(edgeIDs[edges[i]], i);
 		}
-		if(!stats.containsKey(eID)) {
-			stats.put(eID, new EdgeParam());
+		int[] ret = new int[size];
+		int i = 0;
+		for(int pos : positions.values()) {
+			ret[i++] = pos;
 		}
-		EdgeParam curr = stats.get(eID);
-		curr.num += value;
-		curr.originsWeight += originWeight;
+		return ret;
+	}
+	
+	
+	/**
+	 * @brief Returns the id of the used edge at the given position
+	 * @param pos The position of the used edge
+	 * @return The id of the edge
+	 */
+	public String getEdgeID(int pos) {
+		return edgeIDs[edges[pos]];
+	}
+	
+	
+	/**
+	 * @brief Returns the weighted number of routes over the used edge at the given position
+	 * @param pos The position of the used edge
+	 * @return The weighted number of routes over the edge
+	 */
+	public double getNum(int pos) {
+		return num[pos];
+	}
+	
+	
+	/**
+	 * @brief Returns the sum of origin weights of the used edge at the given position
+	 * @param pos The position of the used edge
+	 * @return The sum of origin weights of the edge
+	 */
+	public double getOriginsWeight(int pos) {
+		return originsWeight[pos];
 	}
 }
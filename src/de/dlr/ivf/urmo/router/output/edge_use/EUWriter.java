@@ -24,7 +24,6 @@ import java.util.Locale;
 
 import de.dlr.ivf.urmo.router.io.Utils;
 import de.dlr.ivf.urmo.router.output.AbstractResultsWriter;
-import de.dlr.ivf.urmo.router.output.edge_use.EUSingleResult.EdgeParam;
 
 /**
  * @class EUWriter
@@ -73,14 +72,13 @@ public class EUWriter extends AbstractResultsWriter<EUSingleResult> {
 	public void writeResult(EUSingleResult result, String destType) throws IOException {
 		if (intoDB()) {
 			try {
-				for(String id : result.stats.keySet()) {
-					EdgeParam ep = result.stats.get(id);
+				for(int i : result.getReportedPositions()) {
 						_ps.setLong(1, result.originID);
 						_ps.setLong(2, result.destID);
-						_ps.setString(3, id);
-						_ps.setFloat(4, (float) ep.num);
-						_ps.setFloat(5, (float) ep.originsWeight);
-						_ps.setFloat(6, (float) (ep.num / ep.originsWeight));
+						_ps.setString(3, result.getEdgeID(i));
+						_ps.setFloat(4, (float) result.getNum(i));
+						_ps.setFloat(5, (float) result.getOriginsWeight(i));
+						_ps.setFloat(6, (float) (result.getNum(i) / result.getOriginsWeight(i)));
 						if(_haveTypes) {
 							_ps.setString(7, destType);
 						}
@@ -95,12 +93,11 @@ public class EUWriter extends AbstractResultsWriter<EUSingleResult> {
 				throw new IOException(ex);
 			}
 		} else {
-			for(String eid : result.stats.keySet()) {
-				EdgeParam ep = result.stats.get(eid);
-				_fileWriter.append(Long.toString(result.originID)).append(";").append(Long.toString(result.destID)).append(";").append(eid).append(";");
-				_fileWriter.append(String.format(Locale.US, _FS, ep.num)).append(";");
-				_fileWriter.append(String.format(Locale.US, _FS, ep.originsWeight)).append(";");
-				_fileWriter.append(String.format(Locale.US, _FS, (ep.num / ep.originsWeight)));
+			for(int i : result.getReportedPositions()) {
+				_fileWriter.append(Long.toString(result.originID)).append(";").append(Long.toString(result.destID)).append(";").append(result.getEdgeID(i)).append(";");
+				_fileWriter.append(String.format(Locale.US, _FS, result.getNum(i))).append(";");
+				_fileWriter.append(String.format(Locale.US, _FS, result.getOriginsWeight(i))).append(";");
+				_fileWriter.append(String.format(Locale.US, _FS, (result.getNum(i) / result.getOriginsWeight(i))));
 				if(_haveTypes) {
 					_fileWriter.append(";").append(destType);
 				}
@@ -20,12 +20,14 @@ package de.dlr.ivf.urmo.router.output.odext;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.Vector;
 
 import org.locationtech.jts.geom.Point;
 
 import de.dlr.ivf.urmo.router.algorithms.edgemapper.MapResult;
 import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraEntry;
 import de.dlr.ivf.urmo.router.algorithms.routing.SingleODResult;
+import de.dlr.ivf.urmo.router.gtfs.GTFSTrip;
 import de.dlr.ivf.urmo.router.output.MeasurementGenerator;
 import de.dlr.ivf.urmo.router.shapes.DBEdge;
 import de.dlr.ivf.urmo.router.shapes.GeomHelper;
@@ -34,9 +36,133 @@ import de.dlr.ivf.urmo.router.shapes.LayerObject;
 /**
  * @class ODExtendedMeasuresGenerator
  * @brief Interprets a path to build an ODSingleExtendedResult
+ * 
+ * The paths of an origin form a tree. The measures are accumulated once for
+ * each entry of this tree, starting at the origin. A result is built from the
+ * measures accumulated up to the destination's entry, corrected by the parts
+ * of the first and the last edge that are not passed.
  * @author Daniel Krajzewicz
  */
 public class ODExtendedMeasuresGenerator extends MeasurementGenerator<ODSingleExtendedResult> {
+	/**
+	 * @class TreeMeasures
+	 * @brief The measures accumulated from the origin up to each entry of a path tree
+	 * 
+	 * The arrays are indexed by the entries' DijkstraEntry#treeIndex. The first
+	 * and the last edge are regarded as being passed completely.
+	 */
+	private static class TreeMeasures {
+		/// @brief The travel time needed to pass the entry's edge
+		double[] ttt;
+		/// @brief The consumed kilocalories
+		double[] kCal;
+		/// @brief The price
+		double[] price;
+		/// @brief The emitted CO2
+		double[] CO2;
+		/// @brief The travel time spent before the first public transport entry
+		double[] access;
+		/// @brief The travel time spent since the last public transport entry
+		double[] walk;
+		/// @brief The number of interchanges
+		double[] interchanges;
+		/// @brief The interchanging time
+		double[] interchangeTime;
+		/// @brief The waiting time
+		double[] waitingTime;
+		/// @brief The waiting time at the first boarding
+		double[] initialWaitingTime;
+		/// @brief The travel time in public transport carriers
+		double[] ptTravelTime;
+		/// @brief The last public transport trip used (null if none)
+		GTFSTrip[] lastTrip;
+		/// @brief The used lines (entries share the set of their predecessor if they add no line)
+		Vector<Set<String>> lines;
+		
+		
+		/**
+		 * @brief Constructor
+		 * 
+		 * Accumulates the measures along the given tree.
+		 * @param beginTime The start time of the paths
+		 * @param tree The entries of the tree, each following its predecessor
+		 */
+		TreeMeasures(int beginTime, Vector<DijkstraEntry> tree) {
+			int num = tree.size();
+			ttt = new double[num];
+			kCal = new double[num];
+			price = new double[num];
+			CO2 = new double[num];
+			access = new double[num];
+			walk = new double[num];
+			interchanges = new double[num];
+			interchangeTime = new double[num];
+			waitingTime = new double[num];
+			initialWaitingTime = new double[num];
+			ptTravelTime = new double[num];
+			lastTrip = new GTFSTrip[num];
+			lines = new Vector<>(num);
+			for(int i=0; i<num; ++i) {
+				DijkstraEntry current = tree.get(i);
+				Set<String> prevLines = null;
+				if(current.prev!=null) {
+					int p = current.prev.treeIndex;
+					kCal[i] = kCal[p];
+					price[i] = price[p];
+					CO2[i] = CO2[p];
+					access[i] = access[p];
+					walk[i] = walk[p];
+					interchanges[i] = interchanges[p];
+					interchangeTime[i] = interchangeTime[p];
+					waitingTime[i] = waitingTime[p];
+					initialWaitingTime[i] = initialWaitingTime[p];
+					ptTravelTime[i] = ptTravelTime[p];
+					lastTrip[i] = lastTrip[p];
+					prevLines = lines.get(p);
+				}
+				DBEdge edge = current.e;
+				ttt[i] = edge.getTravelTime(current.usedMode.vmax, current.tt+beginTime);
+				kCal[i] += edge.getKKC(current.usedMode, ttt[i]);
+				price[i] += edge.getPrice(current.usedMode, lastTrip[i]!=null);
+				CO2[i] += edge.getCO2(current.usedMode);
+				if(current.ptConnection==null) {
+					if(lastTrip[i]==null) {
+						access[i] += ttt[i];
+					}
+					walk[i] += ttt[i];
+				} else {
+					GTFSTrip trip = current.ptConnection.trip;
+					if(lastTrip[i]!=null&&!trip.tripID.equals(lastTrip[i].tripID)) {
+						interchanges[i] += 1.;
+						interchangeTime[i] += walk[i];
+					}
+					interchangeTime[i] += current.interchangeTT;
+					ptTravelTime[i] += current.ttt;
+					if(current.prev==null || current.prev.ptConnection==null || !trip.equals(current.prev.ptConnection.trip)) {
+						double waiting = current.ptConnection.getWaitingTime(beginTime + current.prev.tt);
+						waitingTime[i] += waiting;
+						ptTravelTime[i] -= waiting;
+						if(lastTrip[i]==null) {
+							initialWaitingTime[i] = waiting;
+						}
+					}
+					walk[i] = 0;
+					lastTrip[i] = trip;
+				}
+				String line = current.buildLineModeID();
+				if(prevLines!=null && prevLines.contains(line)) {
+					lines.add(prevLines);
+				} else {
+					Set<String> nLines = prevLines==null ? new HashSet<>() : new HashSet<>(prevLines);
+					nLines.add(line);
+					lines.add(nLines);
+				}
+			}
+		}
+	
+	}
+	
+	
 	/**
 	 * @brief Interprets the path to build an ODSingleExtendedResult
 	 * @param beginTime The start time of the path
@@ -44,38 +170,75 @@ public class ODExtendedMeasuresGenerator extends MeasurementGenerator<ODSingleEx
 	 * @return An ODSingleExtendedResult computed using the given path
 	 */
 	public ODSingleExtendedResult buildResult(int beginTime, SingleODResult result) {
+		Vector<SingleODResult> results = new Vector<>();
+		results.add(result);
+		return buildResults(beginTime - (int) result.originWaitingTime, results).get(0);
+	}
+	
+	
+	/**
+	 * @brief Interprets the paths of an origin to several destinations
+	 * 
+	 * The measures are accumulated along the tree of the paths once.
+	 * @param beginTime The begin time of the routing
+	 * @param results The processed paths of the origin
+	 * @return The interpretations of the paths, in the order of the given paths
+	 */
+	@Override
+	public Vector<ODSingleExtendedResult> buildResults(int beginTime, Vector<SingleODResult> results) {
+		Vector<ODSingleExtendedResult> ret = new Vector<>();
+		Vector<DijkstraEntry> tree = new Vector<>();
+		int i = 0;
+		while(i<results.size()) {
+			// paths of profile searches may start after waiting at the origin
+			int pathBeginTime = beginTime + (int) results.get(i).originWaitingTime;
+			int end = collectPathTree(results, i, tree);
+			TreeMeasures measures = new TreeMeasures(pathBeginTime, tree);
+			for(; i<end; ++i) {
+				ret.add(buildResult(results.get(i), measures));
+			}
+			releasePathTree(tree);
+		}
+		return ret;
+	}
+	
+	
+	/**
+	 * @brief Builds an ODSingleExtendedResult from the measures accumulated up to the destination's entry
+	 * @param result The processed path between the origin and the destination
+	 * @param measures The measures accumulated along the tree the path is a part of
+	 * @return An ODSingleExtendedResult computed using the given path
+	 */
+	private ODSingleExtendedResult buildResult(SingleODResult result, TreeMeasures measures) {
 		DijkstraEntry toEdgeEntry = result.path;
+		DijkstraEntry firstEntry = toEdgeEntry.first;
 		ODSingleExtendedResult e = new ODSingleExtendedResult(result);
 		MapResult from = result.origin;
 		MapResult to = result.destination;
 		e.weightedDistance = e.dist * e.val;
 		e.weightedTravelTime = e.tt * e.val;
 		e.weightedValue = ((LayerObject) result.destination.em).getAttachedValue() * e.val;
-		e.weightedWaitingTime = 0;
-		e.weightedInitialWaitingTime = 0;
-		e.weightedPTTravelTime = 0;
-		e.weightedInterchangeTime = 0;
 		e.connectionsWeightSum = e.val;
 		Point p1 = result.origin.em.getPoint();
 		Point p2 = result.destination.em.getPoint();
 		e.weightedBeelineDistance = GeomHelper.distance(p1, p2) * e.val;
 		e.weightedManhattenDistance = (Math.abs(p1.getX()-p2.getX()) + Math.abs(p1.getY()-p2.getY())) * e.val;
-
-		HashSet<String> trips = new HashSet<>();
+		
 		double factor = 1.;
+		double firstFactor = 1.;
 		boolean single = false;
 		if(from.edge==to.edge) {
 			if(from.pos>to.pos) {
 				factor = (from.pos - to.pos) / from.edge.getLength();
 			} else {
-				factor = (to.pos - from.pos) / from.edge.getLength();				
+				factor = (to.pos - from.pos) / from.edge.getLength();
 			}
 			single = true;
 		} else if(from.edge.getOppositeEdge()==to.edge) {
 			if(from.pos>(from.edge.getLength() - to.pos)) {
 				factor = (from.pos - (from.edge.getLength() - to.pos)) / from.edge.getLength();
 			} else {
-				factor = ((from.edge.getLength() - to.pos) - from.pos) / from.edge.getLength();				
+				factor = ((from.edge.getLength() - to.pos) - from.pos) / from.edge.getLength();
 			}
 			single = true;
 		} else {
@@ -84,71 +247,74 @@ public class ODExtendedMeasuresGenerator extends MeasurementGenerator<ODSingleEx
 			} else {
 				factor = to.pos / to.edge.getLength();
 			}
-		}		
-		
-		DijkstraEntry current = toEdgeEntry;
-		String lastPT = null; 
-		Set<String> seenLines = new HashSet<>();
-		// we go backwards through the list
-		do {
-			double ttt = current.e.getTravelTime(current.usedMode.vmax, current.tt+beginTime);//.prev==null ? current.tt : current.tt - current.prev.tt;
-			if(current.prev==null&&!single) {
-				// compute offset to edge's begin / end if it's the first edge
-				if(current.e==from.edge.getOppositeEdge()) {
-					factor = from.pos / from.edge.getLength();
-				} else {
-					factor = 1. - from.pos / from.edge.getLength();
-				}
-			}
-			//
-			DBEdge edge = current.e;
-			e.weightedKCal += edge.getKKC(current.usedMode, ttt) * factor;
-			e.weightedPrice += edge.getPrice(current.usedMode, seenLines) * factor;
-			e.weightedCO2 += edge.getCO2(current.usedMode) * factor;
-			if(current.ptConnection==null) {
-				if(lastPT==null) {
-					e.weightedEgress += ttt * factor;
-				}
-				e.weightedAccess += ttt * factor;
+			// compute offset to edge's begin / end for the first edge
+			if(firstEntry.e==from.edge.getOppositeEdge()) {
+				firstFactor = from.pos / from.edge.getLength();
 			} else {
-				if(lastPT!=null&&!current.ptConnection.trip.tripID.equals(lastPT)) {
-					e.weightedInterchanges += 1.;
-					e.weightedInterchangeTime += e.weightedAccess;
-				}
-				e.weightedInitialWaitingTime = 0;
-				e.weightedInterchangeTime += current.interchangeTT;
-				e.weightedAccess = 0;
-				e.weightedPTTravelTime += current.ttt;
-				if(current.prev==null || current.prev.ptConnection==null || !current.ptConnection.trip.equals(current.prev.ptConnection.trip)) {
-					double waitingTime = current.ptConnection.getWaitingTime(beginTime + current.prev.tt);
-					e.weightedWaitingTime += waitingTime;
-					e.weightedInitialWaitingTime = waitingTime;
-					e.weightedPTTravelTime -= waitingTime;
-				}
+				firstFactor = 1. - from.pos / from.edge.getLength();
 			}
-			if(current.ptConnection!=null) {
-				lastPT = current.ptConnection.trip.tripID;
-				e.lines.add(current.ptConnection.trip.route.id);
-				trips.add(current.ptConnection.trip.tripID);
-			} else {
-				e.lines.add(current.usedMode.mml);
-			}
-			current = current.prev;
-			factor = 1.; // reset factor for normal (not first / last) edges
-		} while(current!=null);
-		if(trips.size()<1) {
+		}
+		
+		int dest = toEdgeEntry.treeIndex;
+		e.weightedKCal = measures.kCal[dest];
+		e.weightedPrice = measures.price[dest];
+		e.weightedCO2 = measures.CO2[dest];
+		e.weightedAccess = measures.access[dest];
+		e.weightedEgress = measures.walk[dest];
+		if(toEdgeEntry==firstEntry) {
+			applyFactor(e, measures, toEdgeEntry, single ? factor : firstFactor, true);
+		} else {
+			applyFactor(e, measures, toEdgeEntry, factor, true);
+			applyFactor(e, measures, firstEntry, firstFactor, measures.lastTrip[dest]==null);
+		}
+		if(measures.lastTrip[dest]==null) {
 			e.weightedAccess = 0;
 			e.weightedEgress = 0;
 		}
+		e.weightedInterchanges = measures.interchanges[dest];
+		e.weightedInterchangeTime = measures.interchangeTime[dest];
+		e.weightedWaitingTime = measures.waitingTime[dest];
+		e.weightedInitialWaitingTime = measures.initialWaitingTime[dest];
+		e.weightedPTTravelTime = measures.ptTravelTime[dest];
+		e.lines = measures.lines.get(dest);
 		
 		e.weightedKCal *= e.val;
-		e.weightedPrice *= e.val; 
+		e.weightedPrice *= e.val;
 		e.weightedCO2 *= e.val;
 		e.weightedInterchanges *= e.val;
 		e.weightedWaitingTime *= e.val;
 		e.weightedPTTravelTime *= e.val;
 		return e;
-	}	
+	}
+	
+	
+	/**
+	 * @brief Corrects the measures by the part of an entry's edge that is not passed
+	 * @param e The result to correct
+	 * @param measures The accumulated measures
+	 * @param entry The entry (the first or the last one of the path)
+	 * @param factor The passed part of the entry's edge
+	 * @param inEgress Whether the entry's travel time is a part of the egress
+	 */
+	private void applyFactor(ODSingleExtendedResult e, TreeMeasures measures, DijkstraEntry entry, double factor, boolean inEgress) {
+		if(factor==1.) {
+			return;
+		}
+		double notPassed = factor - 1.;
+		double ttt = measures.ttt[entry.treeIndex];
+		boolean hadPT = entry.prev!=null && measures.lastTrip[entry.prev.treeIndex]!=null;
+		e.weightedKCal += entry.e.getKKC(entry.usedMode, ttt) * notPassed;
+		e.weightedPrice += entry.e.getPrice(entry.usedMode, hadPT) * notPassed;
+		e.weightedCO2 += entry.e.getCO2(entry.usedMode) * notPassed;
+		if(entry.ptConnection==null) {
+			if(!hadPT) {
+				e.weightedAccess += ttt * notPassed;
+			}
+			if(inEgress) {
+				e.weightedEgress += ttt * notPassed;
+			}
+		}
+	}
 	
 	
 	/**
@@ -161,5 +327,5 @@ public class ODExtendedMeasuresGenerator extends MeasurementGenerator<ODSingleEx
 		return new ODSingleExtendedResult(originID, destID);
 	}
 
-	
+
 }
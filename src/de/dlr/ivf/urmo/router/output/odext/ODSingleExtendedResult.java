@@ -58,8 +58,8 @@ public class ODSingleExtendedResult extends AbstractSingleResult {
 	public double weightedPTTravelTime = 0;
 	/// @brief The weighted interchanging time
 	public double weightedInterchangeTime = 0;
-	/// @brief The used lines
-	public Set<String> lines = new HashSet<>();
+	/// @brief The used lines (may be shared with other results built from the same path tree, not to be modified then)
+	public Set<String> lines;
 	/// @brief The weighted beeline distance
 	public double weightedBeelineDistance = 0;
 	/// @brief The weighted manhattan distance
@@ -75,6 +75,7 @@ public class ODSingleExtendedResult extends AbstractSingleResult {
 	 */
 	public ODSingleExtendedResult(long originID, long destID) {
 		super(originID, destID);
+		lines = new HashSet<>();
 	}
 	
 	
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.output.profile;
+
+import de.dlr.ivf.urmo.router.algorithms.routing.SingleODResult;
+import de.dlr.ivf.urmo.router.output.MeasurementGenerator;
+
+/**
+ * @class ProfileMeasuresGenerator
+ * @brief Collects the travel times of a time window's departures into a ProfileSingleResult
+ * @author Daniel Krajzewicz
+ */
+public class ProfileMeasuresGenerator extends MeasurementGenerator<ProfileSingleResult> {
+	/**
+	 * @brief Collects the travel times and departure times of the departures to build a ProfileSingleResult
+	 * 
+	 * If no time window is used, the path's travel time is the only one.
+	 * @param beginTime The start time of the path
+	 * @param result The processed path between the origin and the destination
+	 * @return A ProfileSingleResult holding the travel times of the departures
+	 */
+	public ProfileSingleResult buildResult(int beginTime, SingleODResult result) {
+		ProfileSingleResult e = new ProfileSingleResult(result);
+		if(result.profileTTs==null) {
+			e.addSingle(result.tt, beginTime + result.originWaitingTime);
+		} else {
+			for(int i=0; i<result.profileTTs.length; ++i) {
+				e.addSingle(result.profileTTs[i], result.profileDepartures[i]);
+			}
+		}
+		return e;
+	}
+	
+	
+	/**
+	 * @brief Builds an empty entry of type ProfileSingleResult
+	 * @param originID The id of the origin the path started at
+	 * @param destID The id of the destination accessed by this path
+	 * @return An empty entry type ProfileSingleResult
+	 */
+	public ProfileSingleResult buildEmptyEntry(long originID, long destID) {
+		return new ProfileSingleResult(originID, destID);
+	}
+
+	
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.output.profile;
+
+import java.util.Vector;
+
+import de.dlr.ivf.urmo.router.algorithms.routing.SingleODResult;
+import de.dlr.ivf.urmo.router.output.AbstractSingleResult;
+
+/**
+ * @class ProfileSingleResult
+ * @brief An origin-destination result holding the travel times of all departures of a time window
+ * @author Daniel Krajzewicz
+ */
+public class ProfileSingleResult extends AbstractSingleResult {
+	/// @brief The travel times of all departures (and connections if aggregated)
+	protected Vector<Double> allTravelTimes = new Vector<>();
+	/// @brief The departure times belonging to the travel times
+	protected Vector<Double> allDepartures = new Vector<>();
+	
+	
+	/**
+	 * @brief Constructor 
+	 * 
+	 * Generates an empty entry.
+	 * @param originID The id of the origin the represented trip starts at
+	 * @param destID The id of the destination the represented trip ends at
+	 */
+	public ProfileSingleResult(long originID, long destID) {
+		super(originID, destID);
+	}
+	
+	
+	/**
+	 * @brief Constructor 
+	 * 
+	 * Computes the distance and the travel time
+	 * @param result The processed path between the origin and the destination
+	 */
+	public ProfileSingleResult(SingleODResult result) {
+		super(result);
+	}
+
+	
+	/**
+	 * @brief Adds the measures from the given result
+	 * @param asr The result to add
+	 */
+	@Override
+	public void addCounting(AbstractSingleResult asr) {
+		ProfileSingleResult psr = (ProfileSingleResult) asr;
+		allTravelTimes.addAll(psr.allTravelTimes);
+		allDepartures.addAll(psr.allDepartures);
+	}
+
+
+	/**
+	 * @brief Norms the computed measures
+	 * @param numOrigins The number of origins
+	 * @param originsWeight The sum of the origins' weights
+	 * @return The normed result
+	 */
+	@Override
+	public AbstractSingleResult getNormed(int numOrigins, double originsWeight) {
+		ProfileSingleResult srnm = new ProfileSingleResult(originID, destID);
+		srnm.allTravelTimes = new Vector<Double>(allTravelTimes);
+		srnm.allDepartures = new Vector<Double>(allDepartures);
+		return srnm;
+	}
+
+
+	/**
+	 * @brief Adds the travel time of a single departure
+	 * @param tt The travel time to add
+	 * @param departure The time the trip departs at the origin
+	 */
+	public void addSingle(double tt, double departure) {
+		allTravelTimes.add(tt);
+		allDepartures.add(departure);
+	}
+	
+	
+}
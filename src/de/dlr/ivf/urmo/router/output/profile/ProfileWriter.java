@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ *
+ * All rights reserved.
+ *
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ *
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.output.profile;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Locale;
+
+import de.dlr.ivf.urmo.router.io.Utils;
+import de.dlr.ivf.urmo.router.output.AbstractResultsWriter;
+
+/**
+ * @class ProfileWriter
+ * @brief Writes ProfileSingleResult results (travel time statistics over the departures, best and peak departure) to a database / file
+ * @author Daniel Krajzewicz
+ */
+public class ProfileWriter extends AbstractResultsWriter<ProfileSingleResult> {
+	/// @brief Counter of results added to the database / file so far
+	private int batchCount = 0;
+
+
+	/**
+	 * @brief Constructor
+	 *
+	 * Opens the connection to a PostGIS database and builds the table
+	 * @param format The used format
+	 * @param inputParts The definition of the input/output origin/destination
+	 * @param precision The floating point precision to use
+	 * @param dropPrevious Whether a previous table with the name shall be dropped
+	 * @param haveTypes Whether destinations may have different types
+	 * @throws IOException When something fails
+	 */
+	public ProfileWriter(Utils.Format format, String[] inputParts, int precision, boolean dropPrevious, boolean haveTypes) throws IOException {
+		super(format, inputParts, "profile-output", precision, dropPrevious, haveTypes,
+				"(fid bigint, sid bigint, num bigint, min_tt real, avg_tt real, p15_tt real, med_tt real, p85_tt real, max_tt real, best_dep real, peak_dep real)");
+	}
+
+
+	/** @brief Get the insert statement string
+	 * @param format The used output format
+	 * @param epsg The used projection
+	 * @return The insert statement string
+	 */
+	protected String getInsertStatement(Utils.Format format, int epsg) {
+		return "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	}
+
+
+
+	/**
+	 * @brief Writes the results to the open database / file
+	 * @param result The result to write
+	 * @param destType The type of the destination
+	 * @throws IOException When something fails
+	 */
+	@Override
+	public void writeResult(ProfileSingleResult result, String destType) throws IOException {
+		// min, avg, p15, median, p85, max, best departure, peak departure
+		int num = result.allTravelTimes.size();
+		double[] stats = new double[8];
+		if(num!=0) {
+			double[] tts = new double[num];
+			double sum = 0;
+			double bestTT = Double.MAX_VALUE;
+			double peakTT = -1;
+			for(int i=0; i<num; ++i) {
+				tts[i] = result.allTravelTimes.get(i);
+				double departure = result.allDepartures.get(i);
+				sum += tts[i];
+				// the latest departure with the minimum travel time, the earliest with the maximum one
+				if(tts[i]<bestTT || (tts[i]==bestTT && departure>stats[6])) {
+					bestTT = tts[i];
+					stats[6] = departure;
+				}
+				if(tts[i]>peakTT || (tts[i]==peakTT && departure<stats[7])) {
+					peakTT = tts[i];
+					stats[7] = departure;
+				}
+			}
+			Arrays.sort(tts);
+			stats[0] = tts[0];
+			stats[1] = sum / (double) num;
+			stats[2] = tts[(int) ((double) num * .15)];
+			stats[3] = tts[num / 2];
+			stats[4] = tts[(int) ((double) num * .85)];
+			stats[5] = tts[num-1];
+		}
+		if (intoDB()) {
+			try {
+				_ps.setLong(1, result.originID);
+				_ps.setLong(2, result.destID);
+				_ps.setLong(3, num);
+				for(int i=0; i<stats.length; ++i) {
+					_ps.setFloat(4+i, (float) stats[i]);
+				}
+				if(_haveTypes) {
+					_ps.setString(12, destType);
+				}
+				_ps.addBatch();
+				++batchCount;
+				if(batchCount>10000) {
+					_ps.executeBatch();
+					batchCount = 0;
+				}
+			} catch (SQLException ex) {
+				throw new IOException(ex);
+			}
+		} else {
+			_fileWriter.append(Long.toString(result.originID)).append(";").append(Long.toString(result.destID)).append(";");
+			_fileWriter.append(Integer.toString(num));
+			for(double stat : stats) {
+				_fileWriter.append(";").append(String.format(Locale.US, _FS, stat));
+			}
+			if(_haveTypes) {
+				_fileWriter.append(";").append(destType);
+			}
+			_fileWriter.append("\n");
+		}
+	}
+
+}
@@ -18,20 +18,175 @@
  */
 package de.dlr.ivf.urmo.router.output.ptod;
 
-import java.util.HashSet;
+import java.util.Vector;
 
 import de.dlr.ivf.urmo.router.algorithms.edgemapper.MapResult;
 import de.dlr.ivf.urmo.router.algorithms.routing.DijkstraEntry;
 import de.dlr.ivf.urmo.router.algorithms.routing.SingleODResult;
+import de.dlr.ivf.urmo.router.gtfs.GTFSTrip;
 import de.dlr.ivf.urmo.router.output.MeasurementGenerator;
 import de.dlr.ivf.urmo.router.shapes.LayerObject;
 
 /**
  * @class PTODMeasuresGenerator
  * @brief Interprets a path to build an PTODSingleResult
+ * 
+ * A path consists of parts that are either passed using a single public
+ * transport trip or without using public transport. The paths of an origin
+ * form a tree; the parts are accumulated once for each entry of this tree,
+ * starting at the origin. A result is built from the parts accumulated up to
+ * the destination's entry, corrected by the parts of the first and the last
+ * edge that are not passed.
  * @author Daniel Krajzewicz
  */
 public class PTODMeasuresGenerator extends MeasurementGenerator<PTODSingleResult> {
+	/**
+	 * @class TreeMeasures
+	 * @brief The path parts accumulated from the origin up to each entry of a path tree
+	 * 
+	 * The arrays are indexed by the entries' DijkstraEntry#treeIndex. The first
+	 * and the last edge are regarded as being passed completely.
+	 */
+	private static class TreeMeasures {
+		/// @brief The number of parts
+		int[] parts;
+		/// @brief The distance of the last (current) part
+		double[] partDistance;
+		/// @brief The travel time of the last (current) part
+		double[] partTravelTime;
+		/// @brief The distance of the first part (if it is completed)
+		double[] firstDistance;
+		/// @brief The travel time of the first part (if it is completed)
+		double[] firstTravelTime;
+		/// @brief Whether the first part was passed using public transport (if it is completed)
+		boolean[] firstIsPT;
+		/// @brief The distance of the completed public transport parts (besides the first one)
+		double[] ptDistance;
+		/// @brief The travel time of the completed public transport parts (besides the first one)
+		double[] ptTravelTime;
+		/// @brief The distance of the completed interchange parts (besides the first one)
+		double[] interchangeDistance;
+		/// @brief The travel time of the completed interchange parts (besides the first one)
+		double[] interchangeTravelTime;
+		/// @brief The sum of the entries' interchange times
+		double[] interchangeTT;
+		/// @brief The waiting time
+		double[] waitingTime;
+		/// @brief The waiting time at the first boarding
+		double[] initialWaitingTime;
+		/// @brief The number of distinct public transport trips boarded
+		int[] trips;
+		/// @brief The index of the last boarding entry (-1 if none)
+		int[] lastBoarding;
+		
+		
+		/**
+		 * @brief Constructor
+		 * 
+		 * Accumulates the path parts along the given tree.
+		 * @param beginTime The start time of the paths
+		 * @param tree The entries of the tree, each following its predecessor
+		 */
+		TreeMeasures(int beginTime, Vector<DijkstraEntry> tree) {
+			int num = tree.size();
+			parts = new int[num];
+			partDistance = new double[num];
+			partTravelTime = new double[num];
+			firstDistance = new double[num];
+			firstTravelTime = new double[num];
+			firstIsPT = new boolean[num];
+			ptDistance = new double[num];
+			ptTravelTime = new double[num];
+			interchangeDistance = new double[num];
+			interchangeTravelTime = new double[num];
+			interchangeTT = new double[num];
+			waitingTime = new double[num];
+			initialWaitingTime = new double[num];
+			trips = new int[num];
+			lastBoarding = new int[num];
+			for(int i=0; i<num; ++i) {
+				DijkstraEntry current = tree.get(i);
+				DijkstraEntry prev = current.prev;
+				double length = current.e.getLength();
+				if(prev==null) {
+					parts[i] = 1;
+					partDistance[i] = length;
+					partTravelTime[i] = current.ttt;
+					interchangeTT[i] = current.interchangeTT;
+					lastBoarding[i] = -1;
+					continue;
+				}
+				int p = prev.treeIndex;
+				parts[i] = parts[p];
+				firstDistance[i] = firstDistance[p];
+				firstTravelTime[i] = firstTravelTime[p];
+				firstIsPT[i] = firstIsPT[p];
+				ptDistance[i] = ptDistance[p];
+				ptTravelTime[i] = ptTravelTime[p];
+				interchangeDistance[i] = interchangeDistance[p];
+				interchangeTravelTime[i] = interchangeTravelTime[p];
+				interchangeTT[i] = interchangeTT[p] + current.interchangeTT;
+				waitingTime[i] = waitingTime[p];
+				initialWaitingTime[i] = initialWaitingTime[p];
+				trips[i] = trips[p];
+				lastBoarding[i] = lastBoarding[p];
+				if( (prev.ptConnection==null&&current.ptConnection==null) || (prev.ptConnection!=null && current.ptConnection!=null && prev.ptConnection.trip.equals(current.ptConnection.trip)) ) {
+					partDistance[i] = partDistance[p] + length;
+					partTravelTime[i] = partTravelTime[p] + current.ttt;
+					continue;
+				}
+				// the part ending at the previous entry is completed
+				if(parts[i]==1) {
+					firstDistance[i] = partDistance[p];
+					firstTravelTime[i] = partTravelTime[p];
+					firstIsPT[i] = prev.ptConnection!=null;
+				} else if(prev.ptConnection!=null) {
+					ptDistance[i] += partDistance[p];
+					ptTravelTime[i] += partTravelTime[p];
+				} else {
+					interchangeDistance[i] += partDistance[p];
+					interchangeTravelTime[i] += partTravelTime[p];
+				}
+				++parts[i];
+				partDistance[i] = length;
+				partTravelTime[i] = current.ttt;
+				if(current.ptConnection!=null) {
+					// boarding
+					double waiting = current.ptConnection.getWaitingTime(beginTime + prev.tt);
+					waitingTime[i] += waiting;
+					if(lastBoarding[i]<0) {
+						initialWaitingTime[i] = waiting;
+					}
+					if(!wasBoarded(tree, lastBoarding[i], current.ptConnection.trip)) {
+						++trips[i];
+					}
+					lastBoarding[i] = i;
+				}
+			}
+		}
+		
+		
+		/**
+		 * @brief Returns whether the given trip was boarded before
+		 * @param tree The entries of the tree
+		 * @param boarding The index of the last boarding entry to regard (-1 if none)
+		 * @param trip The trip to look for
+		 * @return Whether the trip was boarded at this or a previous boarding entry
+		 */
+		private boolean wasBoarded(Vector<DijkstraEntry> tree, int boarding, GTFSTrip trip) {
+			while(boarding>=0) {
+				DijkstraEntry entry = tree.get(boarding);
+				if(entry.ptConnection.trip.equals(trip)) {
+					return true;
+				}
+				boarding = lastBoarding[entry.prev.treeIndex];
+			}
+			return false;
+		}
+	
+	}
+	
+	
 	/**
 	 * @brief Interprets the path to build an PTODSingleResult
 	 * @param beginTime The start time of the path
@@ -39,114 +194,114 @@ public class PTODMeasuresGenerator extends MeasurementGenerator<PTODSingleResult
 	 * @return An PTODSingleResult computed using the given path
 	 */
 	public PTODSingleResult buildResult(int beginTime, SingleODResult result) {
+		Vector<SingleODResult> results = new Vector<>();
+		results.add(result);
+		return buildResults(beginTime - (int) result.originWaitingTime, results).get(0);
+	}
+	
+	
+	/**
+	 * @brief Interprets the paths of an origin to several destinations
+	 * 
+	 * The path parts are accumulated along the tree of the paths once.
+	 * @param beginTime The begin time of the routing
+	 * @param results The processed paths of the origin
+	 * @return The interpretations of the paths, in the order of the given paths
+	 */
+	@Override
+	public Vector<PTODSingleResult> buildResults(int beginTime, Vector<SingleODResult> results) {
+		Vector<PTODSingleResult> ret = new Vector<>();
+		Vector<DijkstraEntry> tree = new Vector<>();
+		int i = 0;
+		while(i<results.size()) {
+			// paths of profile searches may start after waiting at the origin
+			int pathBeginTime = beginTime + (int) results.get(i).originWaitingTime;
+			int end = collectPathTree(results, i, tree);
+			TreeMeasures measures = new TreeMeasures(pathBeginTime, tree);
+			for(; i<end; ++i) {
+				ret.add(buildResult(results.get(i), measures));
+			}
+			releasePathTree(tree);
+		}
+		return ret;
+	}
+	
+	
+	/**
+	 * @brief Builds an PTODSingleResult from the path parts accumulated up to the destination's entry
+	 * @param result The processed path between the origin and the destination
+	 * @param measures The path parts accumulated along the tree the path is a part of
+	 * @return An PTODSingleResult computed using the given path
+	 */
+	private PTODSingleResult buildResult(SingleODResult result, TreeMeasures measures) {
 		PTODSingleResult e = new PTODSingleResult(result);
-		int step = 0;
-		DijkstraEntry current = result.path;//.getPath(to);//dr.getEdgeInfo(to.edge);
+		DijkstraEntry current = result.path;
 		MapResult from = result.origin;
 		MapResult to = result.destination;
-		double tt = 0;
-		double dist = 0;
-		HashSet<String> trips = new HashSet<>();
-		if(current.ptConnection!=null) {
-			e.lines.add(current.ptConnection.trip.route.id);
-			trips.add(current.ptConnection.trip.tripID);
-		} else {
-			e.lines.add(current.usedMode.mml);
-		}
-		if(from.edge==to.edge) {
-			//tt = current.first.ttt;
-			if(from.pos>to.pos) {
-				dist = from.pos - to.pos;
-			} else {
-				dist = to.pos - from.pos;				
-			}
-			//tt = tt / to.edge.getLength() * dist;
-			tt = to.edge.getTravelTime(result.path.first.usedMode.vmax, beginTime) / to.edge.getLength() * dist;
-			step = 4;
-		} else if(from.edge.getOppositeEdge()==to.edge) {
-			//tt = current.first.ttt;
-			if(from.pos>(to.edge.getLength() - to.pos)) {
-				dist = from.pos - (to.edge.getLength() - to.pos);
-			} else {
-				dist = (to.edge.getLength() - to.pos) - from.pos;				
-			}
-			//tt = tt / to.edge.getLength() * dist;
-			tt = to.edge.getTravelTime(result.path.first.usedMode.vmax, beginTime) / to.edge.getLength() * dist;
-			step = 4;
-		} else {
+		int trips = 0;
+		// a path that starts and ends at the same edge is not split into parts
+		if(from.edge!=to.edge && from.edge.getOppositeEdge()!=to.edge) {
+			int dest = current.treeIndex;
+			// the parts of the last and the first edge that are not passed
+			double destDist, destTT;
 			if(current.wasOpposite) {
-				dist -= to.pos;
-				tt -= current.ttt * to.pos / to.edge.getLength();
+				destDist = to.pos;
+				destTT = current.ttt * to.pos / to.edge.getLength();
 			} else {
-				dist -= (to.edge.getLength() - to.pos);
-				tt -= (current.ttt - current.ttt * (to.pos / to.edge.getLength()));
+				destDist = to.edge.getLength() - to.pos;
+				destTT = current.ttt - current.ttt * (to.pos / to.edge.getLength());
 			}
-			step = 0;
-			do {
-				e.weightedInterchangeTravelTime += current.interchangeTT;
-				dist += current.e.getLength();
-				tt += current.ttt;
-				DijkstraEntry prev = current.prev;
-				if(prev==null) {
-					current = prev;
-					continue;
-				}
-				if(current.ptConnection!=null) {
-					e.lines.add(current.ptConnection.trip.route.id);
-					trips.add(current.ptConnection.trip.tripID);
-				} else {
-					e.lines.add(current.usedMode.mml);
-				}
-				if( (prev.ptConnection==null&&current.ptConnection==null) || (prev.ptConnection!=null && current.ptConnection!=null && prev.ptConnection.trip.equals(current.ptConnection.trip)) ) {
-					current = prev;
-					continue;
-				}
-				addStep(e, step, dist, tt);
-				tt = 0;
-				dist = 0;
-				if(prev.ptConnection==null) {
-					// foot->pt; 
-					step = 2; // either interchange or access 
-					double waitingTime = current.ptConnection.getWaitingTime(beginTime + prev.tt);
-					e.weightedWaitingTime += waitingTime;
-					e.weightedInitialWaitingTime = waitingTime;
-				} else {
-					// pt->foot|pt
-					if(current.ptConnection!=null) {
-						// change from pt to pt
-						double waitingTime = current.ptConnection.getWaitingTime(beginTime + prev.tt);
-						e.weightedWaitingTime += waitingTime;
-						e.weightedInitialWaitingTime = waitingTime;
-					}
-					step = 1;
-				}
-				current = prev;
-			} while(current!=null);
-			current = result.path;//.getPath(to);//dr.getEdgeInfo(to.edge);
+			double originDist, originTT;
 			double firstTT = current.first.ttt;
 			if(current.first.wasOpposite) {
-				dist -= (from.edge.getLength() - from.pos);
-				tt -= (firstTT - firstTT * (from.pos / from.edge.getLength()));
+				originDist = from.edge.getLength() - from.pos;
+				originTT = firstTT - firstTT * (from.pos / from.edge.getLength());
 			} else {
-				dist -= from.pos;
-				tt -= (firstTT * (from.pos / from.edge.getLength()));
+				originDist = from.pos;
+				originTT = firstTT * (from.pos / from.edge.getLength());
 			}
-		}
-		if(step!=4 && dist>0 && tt>0) {
-			if(step==2) {
-				step = 3;
+			double dist = measures.partDistance[dest] - destDist;
+			double tt = measures.partTravelTime[dest] - destTT;
+			if(measures.parts[dest]==1) {
+				dist -= originDist;
+				tt -= originTT;
+				if(dist>0 && tt>0) {
+					e.weightedEgressDistance = dist;
+					e.weightedEgressTravelTime = tt;
+				}
+			} else {
+				e.weightedEgressDistance = dist;
+				e.weightedEgressTravelTime = tt;
+				e.weightedPTDistance = measures.ptDistance[dest];
+				e.weightedPTTravelTime = measures.ptTravelTime[dest];
+				e.weightedInterchangeDistance = measures.interchangeDistance[dest];
+				e.weightedInterchangeTravelTime = measures.interchangeTravelTime[dest];
+				dist = measures.firstDistance[dest] - originDist;
+				tt = measures.firstTravelTime[dest] - originTT;
+				if(dist>0 && tt>0) {
+					if(measures.firstIsPT[dest]) {
+						e.weightedPTDistance += dist;
+						e.weightedPTTravelTime += tt;
+					} else {
+						e.weightedAccessDistance = dist;
+						e.weightedAccessTravelTime = tt;
+					}
+				}
 			}
-			addStep(e, step, dist, tt);
+			e.weightedInterchangeTravelTime += measures.interchangeTT[dest];
+			e.weightedWaitingTime = measures.waitingTime[dest];
+			e.weightedInitialWaitingTime = measures.initialWaitingTime[dest];
+			trips = measures.trips[dest];
 		}
 		// no access / egress when no pt
-		if(trips.size()<1) {
+		if(trips<1) {
 			e.weightedAccessDistance = 0;
 			e.weightedAccessTravelTime = 0;
 			e.weightedEgressDistance = 0;
 			e.weightedEgressTravelTime = 0;
 		}
 		// apply weight
-		e.weightedInterchangesNum = Math.max(0, (double) trips.size() - 1.);
+		e.weightedInterchangesNum = Math.max(0, (double) trips - 1.);
 		e.weightedDistance = e.dist * e.val;
 		e.weightedTravelTime = e.tt * e.val;
 		e.weightedAccessDistance *= e.val;
@@ -176,35 +331,5 @@ public class PTODMeasuresGenerator extends MeasurementGenerator<PTODSingleResult
 		return new PTODSingleResult(originID, destID);
 	}
 
-	
-	/**
-	 * @brief Adds the information about the travel time / distance to the proper field
-	 * @param e The result to add the information to
-	 * @param step The current trip step (egress, pt, interchange, access)
-	 * @param dist The distance collected
-	 * @param tt The travel time collected
-	 */
-	private void addStep(PTODSingleResult e, int step, double dist, double tt) {
-		switch(step) {
-		case 0: // egress
-			e.weightedEgressDistance = dist;
-			e.weightedEgressTravelTime = tt;
-			break;
-		case 1: // pt
-			e.weightedPTDistance += dist;
-			e.weightedPTTravelTime += tt;
-			break;
-		case 2: // interchange
-			e.weightedInterchangeDistance += dist;
-			e.weightedInterchangeTravelTime += tt;
-			break;
-		case 3: // access
-			e.weightedAccessDistance = dist;
-			e.weightedAccessTravelTime = tt;
-			break;
-		case 4: // single edge
-			break;
-		}
-	}
-	
+
 }
@@ -18,9 +18,6 @@
  */
 package de.dlr.ivf.urmo.router.output.ptod;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import de.dlr.ivf.urmo.router.algorithms.routing.SingleODResult;
 import de.dlr.ivf.urmo.router.output.AbstractSingleResult;
 
@@ -60,8 +57,6 @@ public class PTODSingleResult extends AbstractSingleResult {
 	public double weightedValue = 0;
 	/// @brief The sum of connection weights
 	public double connectionsWeightSum = 0;
-	/// @brief The used lines
-	public Set<String> lines = new HashSet<>();
 	
 	
 	/**
@@ -104,13 +104,18 @@ public class DBEdge {
 	private double incline;
 	/// @brief Objects assigned to this edge
 	private HashSet<EdgeMappable> objects = null;
-	/// @brief The list of travel time informations for this edge
+	/// @brief The list of travel time informations for this edge (null after being stored in buckets)
 	private Vector<V> speeds = null;
+	/// @brief The time grid the speeds are stored in (null if not used)
+	private SpeedBuckets speedBuckets = null;
+	/// @brief The speeds within the buckets of the time grid (null if not used)
+	private double[] bucketSpeeds = null;
 	/// @brief The opposite direction
 	private DBEdge opposite = null;
-	/// @brief Crossing times to subsequent edges
-	private HashMap<DBEdge, Double> crossingTimes; 
+	/// @brief The precomputed travel time (-1 if not precomputed)
 	private double precomputedTT = -1;
+	/// @brief The index of this edge within the routing graph
+	private int index = -1;
 
 
 	/**
@@ -215,6 +220,24 @@ public class DBEdge {
 	}
 
 
+	/**
+	 * @brief Sets the index of this edge within the routing graph
+	 * @param _index The index of this edge
+	 */
+	public void setIndex(int _index) {
+		index = _index;
+	}
+
+
+	/**
+	 * @brief Returns the index of this edge within the routing graph
+	 * @return The index of this edge (-1 if not set)
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+
 	/**
 	 * @brief Returns this edge's geometry
 	 * @return This edge's geometry
@@ -293,7 +316,15 @@ public class DBEdge {
 		if(precomputedTT>=0) {
 			return precomputedTT;
 		}
-		if(speeds!=null) {
+		if(bucketSpeeds!=null) {
+			double vg = speedBuckets.get(bucketSpeeds, time);
+			if(!Double.isNaN(vg)) {
+				if(vg<=0) {
+					vg = 5./3.6;
+				}
+				return length / Math.min(ivmax, Math.min(vg, vmax));
+			}
+		} else if(speeds!=null) {
 			for(V v : speeds) {
 				if(v.ibeg<=time && v.iend>=time) {
 					double vg = v.v;
@@ -327,6 +358,14 @@ public class DBEdge {
 	}
 
 
+	/** @brief Returns the precomputed travel time
+	 * @return The precomputed travel time, -1 if it was not precomputed
+	 */
+	public double getPrecomputedTT() {
+		return precomputedTT;
+	}
+
+
 	/**
 	 * @brief Adds a new objects to this edge
 	 * @param em The object to add
@@ -374,6 +413,38 @@ public class DBEdge {
 	}
 	
 	
+	/**
+	 * @brief Returns whether time-dependent speeds are given for this edge
+	 * @return Whether speed reductions were added
+	 */
+	public boolean hasSpeedReductions() {
+		return speeds!=null || bucketSpeeds!=null;
+	}
+	
+	
+	/**
+	 * @brief Returns the speed limit intervals
+	 * @return The speed limit intervals (null if none are given or if they are stored in buckets)
+	 */
+	Vector<V> getSpeedReductions() {
+		return speeds;
+	}
+	
+	
+	/**
+	 * @brief Stores the (sorted) speed limit intervals in the buckets of the given time grid
+	 * @param grid The time grid to use
+	 */
+	public void setSpeedBuckets(SpeedBuckets grid) {
+		if(speeds==null) {
+			return;
+		}
+		speedBuckets = grid;
+		bucketSpeeds = grid.fill(speeds);
+		speeds = null;
+	}
+	
+	
 	/**
 	 * @brief Sorts the speed limit intervals by time
 	 */
@@ -416,6 +487,17 @@ public class DBEdge {
 	public double getPrice(Mode usedMode, Set<String> nlines) {
 		return usedMode.pricePerKm / 1000 * length;
 	}
+
+
+	/**
+	 * @brief Returns the price to pass this edge
+	 * @param usedMode The used mode of transport
+	 * @param hadPT Whether public transport was used before
+	 * @return The price to pass this edge
+	 */
+	public double getPrice(Mode usedMode, boolean hadPT) {
+		return usedMode.pricePerKm / 1000 * length;
+	}
 	
 
 	/**
@@ -473,30 +555,24 @@ public class DBEdge {
 
 	/** @brief Sets the time needed to get to the other edge at the intersections
 	 * 
+	 * The crossing time is stored in the node this edge ends at.
 	 * @param e The subsequent edge
 	 * @param value The crossing time
+	 * @see DBNode#initCrossingTimes
 	 */
 	public void setCrossingTimeTo(DBEdge e, double value) {
-		if (crossingTimes==null) {
-			crossingTimes = new HashMap<DBEdge, Double>();
-		}
-		crossingTimes.put(e, value);
+		to.setCrossingTime(this, e, value);
 	}
 
 	
 	/** @brief Returns the time needed to get to the other edge at the intersections
 	 * 
+	 * The times are available until the routing graph is built only (@see RoutingGraph#getCrossingTime).
 	 * @param e The subsequent edge
 	 * @return The time needed to cross the intersection
 	 */
 	public double getCrossingTimeTo(DBEdge e) {
-		if (crossingTimes==null) {
-			return 0;
-		}
-		if (!crossingTimes.containsKey(e)) {
-			return 0;
-		}
-		return crossingTimes.get(e);
+		return to.getCrossingTime(this, e);
 	}
 
 
@@ -588,19 +664,5 @@ public class DBEdge {
 		to = next.to;
 		return id;
 	}
-	
-	
-	/** @brief Replaced the first edge by the second one
-	 *  
-	 * @param e The edge to replace
-	 * @param by The edge to replace by
-	 */
-	public void replaceOutgoing(DBEdge e, DBEdge by) {
-		if(crossingTimes.containsKey(e)) {
-			double t = crossingTimes.get(e);
-			crossingTimes.remove(e);
-			crossingTimes.put(by, t);
-		}
-	}
 
 }
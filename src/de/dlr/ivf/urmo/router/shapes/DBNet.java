@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.Vector;
 
@@ -44,6 +45,57 @@ import de.dlr.ivf.urmo.router.output.NetErrorsWriter;
  * @author Daniel Krajzewicz
  */
 public class DBNet {
+	// -----------------------------------------------------------------------
+	// CrossingTimesThread
+	// -----------------------------------------------------------------------
+	/** @class CrossingTimesThread
+	 * 
+	 * A thread which polls for the next node and computes its crossing times
+	 */
+	private static class CrossingTimesThread implements Runnable {
+		/// @brief The parent to get the nodes from
+		private DBNet parent;
+		/// @brief The model used to compute the crossing times
+		private CrossingTimesModel_CTM1 ctm;
+		/// @brief The error that occurred (null if none)
+		private IOException error = null;
+		
+		
+		/**
+		 * @brief Constructor
+		 * @param _parent The parent to get the nodes from
+		 * @param _ctm The model used to compute the crossing times
+		 */
+		public CrossingTimesThread(DBNet _parent, CrossingTimesModel_CTM1 _ctm) {
+			super();
+			parent = _parent;
+			ctm = _ctm;
+		}
+		
+		
+		/**
+		 * @brief Performs the computation
+		 * 
+		 * Iterates over the nodes and computes their crossing times.
+		 */
+		public void run() {
+			try {
+				DBNode n = null;
+				while((n=parent.getNextCrossingNode())!=null) {
+					n.computeCrossingTimes(ctm);
+				}
+			} catch (IOException e) {
+				error = e;
+			}
+		}
+		
+	}
+	
+	
+	
+	// -----------------------------------------------------------------------
+	// DBNet
+	// -----------------------------------------------------------------------
 	/// @brief Map from node ids to nodes
 	private HashMap<Long, DBNode> nodes = new HashMap<>();
 	/// @brief Map of edge names to edges
@@ -58,6 +110,8 @@ public class DBNet {
 	private GeometryFactory geometryFactory = null;
 	/// @brief The id supplier to use
 	private IDGiver idGiver = null;
+	/// @brief The next node to compute the crossing times for
+	private Iterator<DBNode> nextCrossingNode = null;
 	/// @brief The logger used to store network errors
 	private NetErrorsWriter log = null;
 	/// @brief A state variable for reporting overwritten edges (0: report all, 1: report first, 2: report first, first reported)
@@ -468,6 +522,24 @@ public class DBNet {
 	}
 
 
+	/**
+	 * @brief Sorts the edges' speed reductions and stores them in a shared time grid if possible
+	 * 
+	 * If the intervals are not aligned to a common grid, the edges keep the sorted intervals.
+	 * @see SpeedBuckets
+	 */
+	public void buildSpeedBuckets() {
+		sortSpeedReductions();
+		SpeedBuckets grid = SpeedBuckets.build(name2edge.values());
+		if(grid==null) {
+			return;
+		}
+		for(DBEdge e : name2edge.values()) {
+			e.setSpeedBuckets(grid);
+		}
+	}
+
+
 	/**
 	 * @brief Extends the network by adding opposite edges
 	 * @param addOppositePedestrianEdges Whether backwards edges for pedestrians shall be added
@@ -541,16 +613,59 @@ public class DBNet {
 
 	/** @brief Computes the crossing times for all intersections
 	 * 
+	 * The nodes are processed in parallel, unless the computed crossing times
+	 * are written (the output keeps the order of the nodes then).
 	 * @param ctm The model used to compute the crossing times
+	 * @param numThreads The number of threads to use
 	 * @throws IOException When the crossing times writer fails
 	 */
-	public void computeCrossingTimes(CrossingTimesModel_CTM1 ctm) throws IOException {
+	public void computeCrossingTimes(CrossingTimesModel_CTM1 ctm, int numThreads) throws IOException {
 		if(ctm==null) {
 			return;
 		}
-		for(DBNode n : nodes.values()) {
-			n.computeCrossingTimes(ctm);
+		if(numThreads<=1||ctm.hasWriter()) {
+			for(DBNode n : nodes.values()) {
+				n.computeCrossingTimes(ctm);
+			}
+			return;
+		}
+		// start threads
+		nextCrossingNode = nodes.values().iterator();
+		Vector<Thread> threads = new Vector<>();
+		Vector<CrossingTimesThread> computers = new Vector<>();
+		for (int i=0; i<numThreads; ++i) {
+			CrossingTimesThread ctt = new CrossingTimesThread(this, ctm);
+			Thread t = new Thread(ctt);
+			computers.add(ctt);
+			threads.add(t);
+			t.start();
+		}
+		// close threads
+		for(Thread t : threads) {
+			try {
+				t.join();
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		}
+		nextCrossingNode = null;
+		for(CrossingTimesThread ctt : computers) {
+			if(ctt.error!=null) {
+				throw ctt.error;
+			}
+		}
+	}
+
+
+	/**
+	 * @brief Returns the next node to compute the crossing times for
+	 * @return The next node to process, null if all nodes were processed
+	 */
+	private synchronized DBNode getNextCrossingNode() {
+		if(!nextCrossingNode.hasNext()) {
+			return null;
 		}
+		return nextCrossingNode.next();
 	}
 
 
@@ -105,6 +105,14 @@ public class DBNode {
 	private Vector<DBEdge> outgoing = new Vector<>();
 	/// @brief The possibilities to change the mode of transport at this node
 	private Vector<AllowedModeChange> modeChanges = null;
+	/// @brief The index of this node within the routing graph
+	private int index = -1;
+	/// @brief The incoming edges the crossing times are given for (null if no crossing times were computed)
+	private DBEdge[] crossingIncoming = null;
+	/// @brief The outgoing edges the crossing times are given for (null if no crossing times were computed)
+	private DBEdge[] crossingOutgoing = null;
+	/// @brief The crossing times from the incoming to the outgoing edges (incoming index * number of outgoing edges + outgoing index)
+	private float[] crossingTimes = null;
 
 
 	/**
@@ -127,6 +135,24 @@ public class DBNode {
 	}
 
 	
+	/**
+	 * @brief Sets the index of this node within the routing graph
+	 * @param _index The index of this node
+	 */
+	public void setIndex(int _index) {
+		index = _index;
+	}
+
+
+	/**
+	 * @brief Returns the index of this node within the routing graph
+	 * @return The index of this node (-1 if not set)
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	
 	/**
 	 * @brief Returns the list of edges that end at this node
 	 * @return Edges that end at this node
@@ -179,6 +205,7 @@ public class DBNode {
 	public void replaceIncoming(DBEdge e, DBEdge by) {
 		incoming.remove(e);
 		incoming.add(by);
+		replaceCrossingEdge(crossingIncoming, e, by);
 	}
 
 	
@@ -198,9 +225,7 @@ public class DBNode {
 	public void replaceOutgoing(DBEdge e, DBEdge by) {
 		outgoing.remove(e);
 		outgoing.add(by);
-		for(DBEdge incEdge : incoming) {
-			incEdge.replaceOutgoing(e, by);
-		}
+		replaceCrossingEdge(crossingOutgoing, e, by);
 	}
 	
 	
@@ -252,9 +277,103 @@ public class DBNode {
 		if(ctm==null) {
 			return;
 		}
-		for(DBEdge incomingEdge : incoming) {
-			ctm.computeCrossingTimes(incomingEdge);
+		ctm.computeCrossingTimes(this);
+	}
+	
+	
+	/** @brief Allocates the (zeroed) table of crossing times between the current incoming and outgoing edges
+	 */
+	public void initCrossingTimes() {
+		crossingIncoming = incoming.toArray(new DBEdge[0]);
+		crossingOutgoing = outgoing.toArray(new DBEdge[0]);
+		crossingTimes = new float[crossingIncoming.length*crossingOutgoing.length];
+	}
+	
+	
+	/** @brief Returns whether crossing times were computed for this node
+	 * @return Whether crossing times are given
+	 */
+	public boolean hasCrossingTimes() {
+		return crossingTimes!=null;
+	}
+	
+	
+	/** @brief Sets the time needed to get from an incoming to an outgoing edge
+	 * 
+	 * The table must have been allocated using initCrossingTimes before.
+	 * @param from The incoming edge
+	 * @param to The outgoing edge
+	 * @param value The crossing time
+	 */
+	public void setCrossingTime(DBEdge from, DBEdge to, double value) {
+		int i = indexOf(crossingIncoming, from);
+		int j = indexOf(crossingOutgoing, to);
+		if(i<0||j<0) {
+			return;
+		}
+		crossingTimes[i*crossingOutgoing.length+j] = (float) value;
+	}
+	
+	
+	/** @brief Releases the table of crossing times
+	 * 
+	 * Called after the times were copied into the turn tables of the routing graph.
+	 */
+	public void releaseCrossingTimes() {
+		crossingIncoming = null;
+		crossingOutgoing = null;
+		crossingTimes = null;
+	}
+	
+	
+	/** @brief Returns the time needed to get from an incoming to an outgoing edge
+	 * 
+	 * The times are available until the routing graph is built only (@see RoutingGraph#getCrossingTime).
+	 * @param from The incoming edge
+	 * @param to The outgoing edge
+	 * @return The time needed to cross the intersection (0 if not known)
+	 */
+	public double getCrossingTime(DBEdge from, DBEdge to) {
+		if(crossingTimes==null) {
+			return 0;
+		}
+		int i = indexOf(crossingIncoming, from);
+		int j = indexOf(crossingOutgoing, to);
+		if(i<0||j<0) {
+			return 0;
+		}
+		return crossingTimes[i*crossingOutgoing.length+j];
+	}
+	
+	
+	/** @brief Replaces an edge within the edges the crossing times are given for
+	 * @param edges The incoming or outgoing edges the crossing times are given for
+	 * @param e The edge to replace
+	 * @param by The edge to replace by
+	 */
+	private void replaceCrossingEdge(DBEdge[] edges, DBEdge e, DBEdge by) {
+		int i = indexOf(edges, e);
+		if(i>=0) {
+			edges[i] = by;
+		}
+	}
+	
+	
+	/** @brief Returns the position of an edge within the given edges
+	 * @param edges The edges to search in (may be null)
+	 * @param e The edge to find
+	 * @return The position of the edge, -1 if it is not included
+	 */
+	private static int indexOf(DBEdge[] edges, DBEdge e) {
+		if(edges==null) {
+			return -1;
+		}
+		for(int i=0; i<edges.length; ++i) {
+			if(edges[i]==e) {
+				return i;
+			}
 		}
+		return -1;
 	}
 	
 	
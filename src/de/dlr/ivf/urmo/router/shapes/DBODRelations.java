@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.shapes;
+
+import java.util.Arrays;
+
+/** @class DBODRelations
+ * @brief A compact storage of origin/destination relations, grouped by their origin
+ *
+ * The relations are stored in primitive arrays instead of single objects, which
+ * reduces the memory needed for large sets of relations; all relations are still
+ * kept in memory. After reading, consecutive relations of the same origin are
+ * grouped (@see groupByOrigin); the order in which the relations were read is kept.
+ * @author Daniel Krajzewicz
+ */
+public class DBODRelations {
+	/// @brief The origins of the relations
+	private long[] origins = new long[1024];
+	/// @brief The destinations of the relations
+	private long[] destinations = new long[1024];
+	/// @brief The weights of the relations
+	private double[] weights = new double[1024];
+	/// @brief The number of relations
+	private int size = 0;
+	/// @brief The index of the first relation of each origin (with an additional end marker; null if not grouped)
+	private int[] groupBegins = null;
+
+
+	/** @brief Constructor
+	 */
+	public DBODRelations() {
+	}
+
+
+	/** @brief Adds a relation
+	 * @param o The origin
+	 * @param d The destination
+	 * @param w The weight
+	 */
+	public void add(long o, long d, double w) {
+		if(size==origins.length) {
+			origins = Arrays.copyOf(origins, size*2);
+			destinations = Arrays.copyOf(destinations, size*2);
+			weights = Arrays.copyOf(weights, size*2);
+		}
+		origins[size] = o;
+		destinations[size] = d;
+		weights[size] = w;
+		++size;
+		groupBegins = null;
+	}
+
+
+	/** @brief Groups consecutive relations that share their origin
+	 *
+	 * The relations keep the order they were read in, so that the results are
+	 * reported in this order as well. Relations of the same origin that are not
+	 * stored consecutively form separate groups.
+	 */
+	public void groupByOrigin() {
+		int numGroups = 0;
+		int[] begins = new int[size+1];
+		for(int i=0; i<size; ++i) {
+			if(i==0 || origins[i]!=origins[i-1]) {
+				begins[numGroups] = i;
+				++numGroups;
+			}
+		}
+		begins[numGroups] = size;
+		groupBegins = Arrays.copyOf(begins, numGroups+1);
+	}
+
+
+	/** @brief Returns the number of relations
+	 * @return The number of relations
+	 */
+	public int size() {
+		return size;
+	}
+
+
+	/** @brief Returns the number of origins (groups)
+	 * @return The number of origins, -1 if the relations are not grouped
+	 */
+	public int getGroupNumber() {
+		return groupBegins==null ? -1 : groupBegins.length - 1;
+	}
+
+
+	/** @brief Returns the index of the first relation of the given origin group
+	 * @param group The index of the group
+	 * @return The index of the group's first relation
+	 */
+	public int getGroupBegin(int group) {
+		return groupBegins[group];
+	}
+
+
+	/** @brief Returns the index behind the last relation of the given origin group
+	 * @param group The index of the group
+	 * @return The index behind the group's last relation
+	 */
+	public int getGroupEnd(int group) {
+		return groupBegins[group+1];
+	}
+
+
+	/** @brief Returns the relation stored at the given index
+	 * @param i The index of the relation
+	 * @return The relation
+	 */
+	public DBODRelation get(int i) {
+		return new DBODRelation(origins[i], destinations[i], weights[i]);
+	}
+
+
+}
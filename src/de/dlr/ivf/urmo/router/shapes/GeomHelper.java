@@ -232,4 +232,40 @@ public class GeomHelper {
 		}
 		return Math.max(0, Math.min(e.getLength(), minPos));
 	}
+
+
+	/**
+	 * @brief Returns the position of the given point along a Hilbert curve that covers the given bounds
+	 * 
+	 * Points that are close to each other usually have close positions along the curve.
+	 * The bounds are divided into a grid of 65536x65536 cells.
+	 * @param x The x-coordinate of the point
+	 * @param y The y-coordinate of the point
+	 * @param minX The minimum x-coordinate of the bounds
+	 * @param minY The minimum y-coordinate of the bounds
+	 * @param size The width and height of the bounds
+	 * @return The position of the point's cell along the Hilbert curve
+	 */
+	public static long getHilbertIndex(double x, double y, double minX, double minY, double size) {
+		long n = 1 << 16;
+		long cx = size<=0 ? 0 : Math.max(0, Math.min(n-1, (long) ((x-minX) / size * (double) n)));
+		long cy = size<=0 ? 0 : Math.max(0, Math.min(n-1, (long) ((y-minY) / size * (double) n)));
+		long d = 0;
+		for(long s=n/2; s>0; s/=2) {
+			long rx = (cx & s)>0 ? 1 : 0;
+			long ry = (cy & s)>0 ? 1 : 0;
+			d += s * s * ((3 * rx) ^ ry);
+			// rotate the quadrant
+			if(ry==0) {
+				if(rx==1) {
+					cx = n-1 - cx;
+					cy = n-1 - cy;
+				}
+				long t = cx;
+				cx = cy;
+				cy = t;
+			}
+		}
+		return d;
+	}
 }
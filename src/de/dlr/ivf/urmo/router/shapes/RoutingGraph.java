@@ -0,0 +1,452 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ * 
+ * All rights reserved.
+ * 
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ * 
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.shapes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Vector;
+
+import org.locationtech.jts.geom.Coordinate;
+
+import de.dlr.ivf.urmo.router.modes.Mode;
+import de.dlr.ivf.urmo.router.modes.Modes;
+
+/**
+ * @class RoutingGraph
+ * @brief A frozen, array-based (compressed sparse row) snapshot of a network used for routing
+ *
+ * The snapshot is built once after the network has been loaded and pruned. Nodes and
+ * edges are numbered densely; the outgoing edges of a node are stored consecutively,
+ * so that the edges starting at node i are the ones with the indices
+ * firstOutgoing[i] to firstOutgoing[i+1]-1.
+ *
+ * The indices are stored in the nodes / edges themselves, the original objects
+ * (and thereby their ids used in outputs) can be retrieved using the nodes / edges arrays.
+ * The nodes are numbered by their ids or, optionally, along a Hilbert curve
+ * over their positions, so that nodes that are close to each other (and the
+ * edges starting at them) are stored close to each other as well and a search
+ * reads fewer distinct parts of the arrays.
+ *
+ * Lengths and speeds are kept in double precision so that travel times and distances
+ * are identical to the ones computed using the object graph.
+ *
+ * For multimodal routing, the graph is expanded by the mode of transport: each
+ * node has one state per mode (node index * modeSlots + mode bit). The mode
+ * changes allowed at the nodes are stored per state, so that the changes
+ * possible when arriving at a node using a given mode are read directly.
+ *
+ * The network must not be changed after the snapshot has been built.
+ * @author Daniel Krajzewicz
+ */
+public class RoutingGraph {
+	/// @brief The nodes, indexed by their routing index
+	public final DBNode[] nodes;
+	/// @brief The edges, indexed by their routing index
+	public final DBEdge[] edges;
+	/// @brief The index of the first outgoing edge of each node (with an additional end marker)
+	public final int[] firstOutgoing;
+	/// @brief The index of the node each edge starts at
+	public final int[] edgeFrom;
+	/// @brief The index of the node each edge ends at
+	public final int[] edgeTo;
+	/// @brief The lengths of the edges
+	public final double[] edgeLength;
+	/// @brief The maximum velocities allowed at the edges
+	public final double[] edgeVMax;
+	/// @brief The precomputed travel times of the edges (-1 if not precomputed)
+	public final double[] edgeTT;
+	/// @brief The modes of transport allowed at the edges
+	public final long[] edgeModes;
+	/// @brief The index of the opposite edge (-1 if there is none)
+	public final int[] edgeOpposite;
+	/// @brief Whether destinations are attached to the edges
+	public final boolean[] edgeHasDestinations;
+	/// @brief Whether the travel time of the edges depends on the time of the day
+	public final boolean[] edgeHasSpeeds;
+	/// @brief Whether the travel time of any edge depends on the time of the day
+	public final boolean hasSpeeds;
+	/// @brief The position of each edge among the incoming edges of the node it ends at
+	private final int[] edgeInIndex;
+	/// @brief The offset of each node's turn table within crossingTimes (-1 if the node has no crossing times; null if no node has)
+	private final int[] crossingOffset;
+	/// @brief The turn tables of the nodes (incoming position * number of outgoing edges + outgoing position)
+	private final float[] crossingTimes;
+	/// @brief The number of states per node (one per mode of transport)
+	public final int modeSlots;
+	/// @brief The position of each node among the nodes that allow mode changes (-1 if the node does not; null if no node does)
+	private final int[] modeChangeNode;
+	/// @brief The index of the first mode change of each state of the nodes that allow mode changes (with an additional end marker)
+	private final int[] modeChangeFirst;
+	/// @brief The modes of transport used after the mode changes
+	public final Mode[] modeChangeTo;
+	/// @brief The times needed for the mode changes
+	public final double[] modeChangeTime;
+	/// @brief The prices of the mode changes
+	public final double[] modeChangePrice;
+
+
+	/**
+	 * @brief Constructor
+	 *
+	 * Builds the snapshot of the given network. All nodes and edges of the network
+	 * (including the public transport ones) obtain their routing index.
+	 * @param net The network to build the snapshot of
+	 * @param spatial Whether the nodes shall be numbered along a Hilbert curve
+	 */
+	public RoutingGraph(DBNet net, boolean spatial) {
+		Vector<DBNode> nodesV = new Vector<>(net.getNodes().values());
+		Collections.sort(nodesV, (a, b) -> Long.compare(a.getID(), b.getID()));
+		if(spatial) {
+			sortAlongHilbertCurve(nodesV);
+		}
+		int numNodes = nodesV.size();
+		int numEdges = 0;
+		nodes = new DBNode[numNodes];
+		for(int i=0; i<numNodes; ++i) {
+			nodes[i] = nodesV.get(i);
+			nodes[i].setIndex(i);
+			numEdges += nodes[i].getOutgoing().size();
+		}
+		firstOutgoing = new int[numNodes+1];
+		edges = new DBEdge[numEdges];
+		edgeFrom = new int[numEdges];
+		edgeTo = new int[numEdges];
+		edgeLength = new double[numEdges];
+		edgeVMax = new double[numEdges];
+		edgeTT = new double[numEdges];
+		edgeModes = new long[numEdges];
+		edgeOpposite = new int[numEdges];
+		edgeHasDestinations = new boolean[numEdges];
+		edgeHasSpeeds = new boolean[numEdges];
+		// number the edges along their starting nodes
+		int j = 0;
+		for(int i=0; i<numNodes; ++i) {
+			firstOutgoing[i] = j;
+			for(DBEdge e : nodes[i].getOutgoing()) {
+				edges[j] = e;
+				e.setIndex(j);
+				++j;
+			}
+		}
+		firstOutgoing[numNodes] = j;
+		// fill the edge attributes
+		boolean speeds = false;
+		for(j=0; j<numEdges; ++j) {
+			DBEdge e = edges[j];
+			edgeFrom[j] = e.getFromNode().getIndex();
+			edgeTo[j] = e.getToNode().getIndex();
+			edgeLength[j] = e.getLength();
+			edgeVMax[j] = e.getVMax();
+			edgeTT[j] = e.getPrecomputedTT();
+			edgeModes[j] = e.getModes();
+			edgeOpposite[j] = e.getOppositeEdge()!=null ? e.getOppositeEdge().getIndex() : -1;
+			edgeHasDestinations[j] = e.getAttachedObjectsNumber()!=0;
+			edgeHasSpeeds[j] = e.hasSpeedReductions();
+			speeds |= edgeHasSpeeds[j];
+		}
+		hasSpeeds = speeds;
+		// number the edges along their ending nodes
+		edgeInIndex = new int[numEdges];
+		int[] numIncoming = new int[numNodes];
+		for(j=0; j<numEdges; ++j) {
+			edgeInIndex[j] = numIncoming[edgeTo[j]]++;
+		}
+		// build the mode change tables of the nodes that allow mode changes
+		long maxModeID = 1;
+		for(Mode m : Modes.modes) {
+			maxModeID = Math.max(maxModeID, m.id);
+		}
+		modeSlots = 64 - Long.numberOfLeadingZeros(maxModeID);
+		int numChangeNodes = 0;
+		int numChanges = 0;
+		int[] changeNodes = new int[numNodes];
+		for(int i=0; i<numNodes; ++i) {
+			changeNodes[i] = -1;
+			if(nodes[i].allowsModeChange()) {
+				changeNodes[i] = numChangeNodes++;
+				numChanges += nodes[i].getAllowedModeChanges().size();
+			}
+		}
+		if(numChangeNodes==0) {
+			modeChangeNode = null;
+			modeChangeFirst = null;
+			modeChangeTo = null;
+			modeChangeTime = null;
+			modeChangePrice = null;
+		} else {
+			modeChangeNode = changeNodes;
+			modeChangeFirst = new int[numChangeNodes*modeSlots+1];
+			modeChangeTo = new Mode[numChanges];
+			modeChangeTime = new double[numChanges];
+			modeChangePrice = new double[numChanges];
+			int c = 0;
+			for(int i=0; i<numNodes; ++i) {
+				if(changeNodes[i]<0) {
+					continue;
+				}
+				Vector<DBNode.AllowedModeChange> changes = nodes[i].getAllowedModeChanges();
+				for(int slot=0; slot<modeSlots; ++slot) {
+					modeChangeFirst[changeNodes[i]*modeSlots+slot] = c;
+					for(DBNode.AllowedModeChange mc : changes) {
+						if(mc.getFromMode()!=(1L<<slot)) {
+							continue;
+						}
+						modeChangeTo[c] = Modes.getMode(mc.getToMode());
+						modeChangeTime[c] = mc.getTime();
+						modeChangePrice[c] = mc.getPrice();
+						++c;
+					}
+				}
+			}
+			modeChangeFirst[numChangeNodes*modeSlots] = c;
+		}
+		// build the turn tables of the nodes with crossing times
+		int tableSize = 0;
+		int[] offsets = new int[numNodes];
+		for(int i=0; i<numNodes; ++i) {
+			offsets[i] = -1;
+			if(nodes[i].hasCrossingTimes()) {
+				offsets[i] = tableSize;
+				tableSize += numIncoming[i] * (firstOutgoing[i+1]-firstOutgoing[i]);
+			}
+		}
+		if(tableSize==0) {
+			crossingOffset = null;
+			crossingTimes = null;
+			return;
+		}
+		crossingOffset = offsets;
+		crossingTimes = new float[tableSize];
+		for(j=0; j<numEdges; ++j) {
+			int n = edgeTo[j];
+			if(offsets[n]<0) {
+				continue;
+			}
+			int numOutgoing = firstOutgoing[n+1] - firstOutgoing[n];
+			int row = offsets[n] + edgeInIndex[j] * numOutgoing;
+			for(int k=0; k<numOutgoing; ++k) {
+				crossingTimes[row+k] = (float) nodes[n].getCrossingTime(edges[j], edges[firstOutgoing[n]+k]);
+			}
+		}
+		// the routing reads the crossing times from the turn tables only
+		for(int i=0; i<numNodes; ++i) {
+			nodes[i].releaseCrossingTimes();
+		}
+	}
+
+
+	/**
+	 * @brief Sorts the given nodes by their position along a Hilbert curve that covers all of them
+	 * 
+	 * Nodes within the same cell of the curve keep their order.
+	 * @param nodesV The nodes to sort
+	 */
+	private static void sortAlongHilbertCurve(Vector<DBNode> nodesV) {
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for(DBNode n : nodesV) {
+			minX = Math.min(minX, n.getCoordinate().x);
+			minY = Math.min(minY, n.getCoordinate().y);
+			maxX = Math.max(maxX, n.getCoordinate().x);
+			maxY = Math.max(maxY, n.getCoordinate().y);
+		}
+		double size = Math.max(maxX - minX, maxY - minY);
+		// the position along the curve (32 bits) in the upper bits, the current position in the lower ones
+		long[] keys = new long[nodesV.size()];
+		for(int i=0; i<keys.length; ++i) {
+			Coordinate c = nodesV.get(i).getCoordinate();
+			keys[i] = (GeomHelper.getHilbertIndex(c.x, c.y, minX, minY, size) << 31) | i;
+		}
+		Arrays.sort(keys);
+		Vector<DBNode> sorted = new Vector<>(keys.length);
+		for(long key : keys) {
+			sorted.add(nodesV.get((int) (key & Integer.MAX_VALUE)));
+		}
+		nodesV.clear();
+		nodesV.addAll(sorted);
+	}
+
+
+	/**
+	 * @brief Returns the mean difference between the indices of the nodes an edge connects
+	 * 
+	 * The smaller the value, the more often the labels of the nodes visited one
+	 * after the other are stored in the same or in neighbouring cache lines.
+	 * @return The mean index difference between the nodes the edges connect
+	 */
+	public double getMeanIndexDistance() {
+		if(edgeFrom.length==0) {
+			return 0;
+		}
+		double sum = 0;
+		for(int j=0; j<edgeFrom.length; ++j) {
+			sum += Math.abs(edgeFrom[j] - edgeTo[j]);
+		}
+		return sum / (double) edgeFrom.length;
+	}
+
+
+	/**
+	 * @brief Returns the share of edges that connect nodes whose indices differ by at most the given value
+	 * @param maxDistance The maximum index difference
+	 * @return The share of the edges that connect nodes with close indices
+	 */
+	public double getShareOfCloseEdges(int maxDistance) {
+		if(edgeFrom.length==0) {
+			return 0;
+		}
+		int num = 0;
+		for(int j=0; j<edgeFrom.length; ++j) {
+			if(Math.abs(edgeFrom[j] - edgeTo[j])<=maxDistance) {
+				++num;
+			}
+		}
+		return (double) num / (double) edgeFrom.length;
+	}
+
+
+	/**
+	 * @brief Returns the number of nodes
+	 * @return The number of nodes
+	 */
+	public int getNodeNumber() {
+		return nodes.length;
+	}
+
+
+	/**
+	 * @brief Returns the number of edges
+	 * @return The number of edges
+	 */
+	public int getEdgeNumber() {
+		return edges.length;
+	}
+
+
+	/**
+	 * @brief Returns the number of states (nodes expanded by the modes of transport)
+	 * @return The number of states
+	 */
+	public int getStateNumber() {
+		return nodes.length * modeSlots;
+	}
+
+
+	/**
+	 * @brief Returns the state of being at the given node using the given mode of transport
+	 * @param n The index of the node
+	 * @param mode The used mode of transport
+	 * @return The index of the state
+	 */
+	public int getState(int n, Mode mode) {
+		return n * modeSlots + Long.numberOfTrailingZeros(mode.id);
+	}
+
+
+	/**
+	 * @brief Returns the index of the first mode change possible at the given node when arriving using the given mode
+	 *
+	 * The mode changes possible are the ones from getFirstModeChange(n, mode)
+	 * to getModeChangesEnd(n, mode)-1 within modeChangeTo, modeChangeTime,
+	 * and modeChangePrice.
+	 * @param n The index of the node
+	 * @param mode The used mode of transport
+	 * @return The index of the first possible mode change
+	 */
+	public int getFirstModeChange(int n, Mode mode) {
+		if(modeChangeNode==null || modeChangeNode[n]<0) {
+			return 0;
+		}
+		return modeChangeFirst[modeChangeNode[n]*modeSlots + Long.numberOfTrailingZeros(mode.id)];
+	}
+
+
+	/**
+	 * @brief Returns the index after the last mode change possible at the given node when arriving using the given mode
+	 * @param n The index of the node
+	 * @param mode The used mode of transport
+	 * @return The index after the last possible mode change
+	 */
+	public int getModeChangesEnd(int n, Mode mode) {
+		if(modeChangeNode==null || modeChangeNode[n]<0) {
+			return 0;
+		}
+		return modeChangeFirst[modeChangeNode[n]*modeSlots + Long.numberOfTrailingZeros(mode.id) + 1];
+	}
+
+
+	/**
+	 * @brief Returns whether the given mode of transport is allowed on the given edge
+	 * @param e The index of the edge
+	 * @param mode The id of the transport mode to use
+	 * @return Whether this mode of transport is allowed
+	 */
+	public boolean allows(int e, long mode) {
+		return (edgeModes[e] & mode) != 0;
+	}
+
+
+	/**
+	 * @brief Returns the travel time needed to pass the given edge
+	 *
+	 * Time-dependent travel times are delegated to the edge itself, otherwise
+	 * the travel time is computed from the stored attributes.
+	 * @param e The index of the edge
+	 * @param ivmax The individual's speed
+	 * @param time The time the edge is started to be passed
+	 * @return The travel time to pass this edge
+	 * @see DBEdge#getTravelTime
+	 */
+	public double getTravelTime(int e, double ivmax, double time) {
+		if(edgeTT[e]>=0) {
+			return edgeTT[e];
+		}
+		if(edgeHasSpeeds[e]) {
+			return edges[e].getTravelTime(ivmax, time);
+		}
+		return edgeLength[e] / Math.min(edgeVMax[e], ivmax);
+	}
+
+
+	/**
+	 * @brief Returns the time needed to cross the intersection between two edges
+	 *
+	 * The time is read from the turn table of the node the first edge ends at.
+	 * @param e The index of the incoming edge
+	 * @param oe The index of the outgoing edge (must start at the node e ends at)
+	 * @return The time needed to cross the intersection (0 if not known)
+	 * @see DBEdge#getCrossingTimeTo
+	 */
+	public double getCrossingTime(int e, int oe) {
+		if(crossingOffset==null) {
+			return 0;
+		}
+		int n = edgeTo[e];
+		int offset = crossingOffset[n];
+		if(offset<0) {
+			return 0;
+		}
+		int first = firstOutgoing[n];
+		return crossingTimes[offset + edgeInIndex[e] * (firstOutgoing[n+1]-first) + oe - first];
+	}
+
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2016-2025
+ * Institute of Transport Research
+ * German Aerospace Center
+ *
+ * All rights reserved.
+ *
+ * This file is part of the "UrMoAC" accessibility tool
+ * https://github.com/DLR-VF/UrMoAC
+ * Licensed under the Eclipse Public License 2.0
+ *
+ * German Aerospace Center (DLR)
+ * Institute of Transport Research (VF)
+ * Rutherfordstraße 2
+ * 12489 Berlin
+ * Germany
+ * http://www.dlr.de/vf
+ */
+package de.dlr.ivf.urmo.router.shapes;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Vector;
+
+/**
+ * @class SpeedBuckets
+ * @brief A time grid of fixed-width buckets the time-dependent speeds of the edges are stored in
+ *
+ * The grid is shared by all edges. Each edge with time-dependent speeds only
+ * keeps a double array with the speed of each bucket (NaN if no speed is given
+ * for the bucket), so that the speed valid at a given time is read without
+ * searching through the intervals.
+ *
+ * The grid can only be used if the bounds of all intervals are whole seconds;
+ * the width of the buckets is the greatest common divisor of the bounds'
+ * offsets to the earliest begin.
+ * @author Daniel Krajzewicz
+ */
+public class SpeedBuckets {
+	/// @brief The maximum number of buckets to allocate per edge (if the edges have less intervals)
+	private static final int MAX_BUCKETS = 1440;
+	/// @brief The begin of the first bucket
+	private final double begin;
+	/// @brief The width of the buckets
+	private final double width;
+	/// @brief The number of buckets
+	private final int number;
+
+
+	/**
+	 * @brief Constructor
+	 * @param _begin The begin of the first bucket
+	 * @param _width The width of the buckets
+	 * @param _number The number of buckets
+	 */
+	public SpeedBuckets(double _begin, double _width, int _number) {
+		begin = _begin;
+		width = _width;
+		number = _number;
+	}
+
+
+	/**
+	 * @brief Determines the grid the speed intervals of the given edges are aligned to
+	 * @param edges The edges to regard
+	 * @return The grid, null if no edge has speed intervals or if they can not be stored compactly
+	 */
+	public static SpeedBuckets build(Collection<DBEdge> edges) {
+		long origin = Long.MAX_VALUE;
+		int maxIntervals = 0;
+		for(DBEdge e : edges) {
+			Vector<DBEdge.V> speeds = e.getSpeedReductions();
+			if(speeds==null) {
+				continue;
+			}
+			maxIntervals = Math.max(maxIntervals, speeds.size());
+			for(DBEdge.V v : speeds) {
+				if(v.ibeg!=Math.rint(v.ibeg) || v.iend!=Math.rint(v.iend) || v.iend<=v.ibeg) {
+					return null;
+				}
+				origin = Math.min(origin, (long) v.ibeg);
+			}
+		}
+		if(maxIntervals==0) {
+			return null;
+		}
+		long gridWidth = 0;
+		long end = origin;
+		for(DBEdge e : edges) {
+			Vector<DBEdge.V> speeds = e.getSpeedReductions();
+			if(speeds==null) {
+				continue;
+			}
+			for(DBEdge.V v : speeds) {
+				gridWidth = gcd(gridWidth, (long) v.ibeg - origin);
+				gridWidth = gcd(gridWidth, (long) v.iend - origin);
+				end = Math.max(end, (long) v.iend);
+			}
+		}
+		long numBuckets = (end - origin) / gridWidth;
+		if(numBuckets>Math.max(MAX_BUCKETS, 4*maxIntervals)) {
+			return null;
+		}
+		return new SpeedBuckets(origin, gridWidth, (int) numBuckets);
+	}
+
+
+	/**
+	 * @brief Stores the given speed intervals in the buckets
+	 *
+	 * If intervals overlap, the first one (in the given order) is used.
+	 * @param speeds The speed intervals, sorted by their begin
+	 * @return The speeds of the buckets (NaN if no speed is given)
+	 */
+	double[] fill(Vector<DBEdge.V> speeds) {
+		double[] values = new double[number];
+		Arrays.fill(values, Double.NaN);
+		for(DBEdge.V v : speeds) {
+			int from = (int) Math.round((v.ibeg - begin) / width);
+			int to = (int) Math.round((v.iend - begin) / width);
+			for(int i=from; i<to; ++i) {
+				if(Double.isNaN(values[i])) {
+					values[i] = v.v;
+				}
+			}
+		}
+		return values;
+	}
+
+
+	/**
+	 * @brief Returns the speed valid at the given time
+	 *
+	 * Within a bucket, the bucket's speed is returned. At the border between two
+	 * buckets, the speed of the interval that ends there is preferred over the
+	 * one of the interval that starts there.
+	 * @param values The speeds of the buckets of an edge
+	 * @param time The time to get the speed for
+	 * @return The speed valid at the given time, NaN if no speed is given
+	 */
+	double get(double[] values, double time) {
+		double pos = (time - begin) / width;
+		if(pos<0 || pos>number) {
+			return Double.NaN;
+		}
+		int bucket = (int) pos;
+		if(bucket==pos) {
+			if(bucket>0 && !Double.isNaN(values[bucket-1])) {
+				return values[bucket-1];
+			}
+			if(bucket==number) {
+				return Double.NaN;
+			}
+		}
+		return values[bucket];
+	}
+
+
+	/**
+	 * @brief Returns the greatest common divisor of two numbers
+	 * @param a The first number
+	 * @param b The second number
+	 * @return The greatest common divisor
+	 */
+	private static long gcd(long a, long b) {
+		while(b!=0) {
+			long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+
+}